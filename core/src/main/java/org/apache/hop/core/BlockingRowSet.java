@@ -20,18 +20,31 @@ package org.apache.hop.core;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowDataUtil;
 
 /**
  * Contains a buffer of rows. Getting rows from the buffer or putting rows in the buffer is
  * synchronized to allow concurrent use of multiple Threads.
  */
 public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
-  private BlockingQueue<Object[]> queArray;
+  /** The smallest buffer size we'll go to when a memory budget is applied */
+  public static final int MIN_BUDGETED_SIZE = 100;
+
+  private volatile BlockingQueue<Object[]> queArray;
 
   private int timeoutPut;
   private int timeoutGet;
 
+  private volatile int capacity;
+  private long maxBytes;
+  private volatile boolean sized;
+
+  private final AtomicLong putWaitNanos = new AtomicLong();
+  private final AtomicLong getWaitNanos = new AtomicLong();
+  private volatile int maxFillLevel;
+
   /**
    * Create new non-blocking-queue with maxSize capacity.
    *
@@ -42,6 +55,8 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
 
     // create an empty queue
     queArray = new ArrayBlockingQueue<>(maxSize, false);
+    capacity = maxSize;
+    sized = true;
 
     timeoutGet =
         Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
@@ -68,14 +83,36 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
   @Override
   public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
     this.rowMeta = rowMeta;
+    if (!sized) {
+      applyMemoryBudget(rowMeta);
+    }
     try {
-
-      return queArray.offer(rowData, time, tu);
+      BlockingQueue<Object[]> queue = queArray;
+      if (queue.offer(rowData)) {
+        updateFillLevel(queue);
+        return true;
+      }
+      // The buffer is full: keep track of how long the producer is blocked.
+      //
+      long start = System.nanoTime();
+      boolean added = queue.offer(rowData, time, tu);
+      putWaitNanos.addAndGet(System.nanoTime() - start);
+      if (added) {
+        updateFillLevel(queue);
+      }
+      return added;
     } catch (InterruptedException | NullPointerException e) {
       return false;
     }
   }
 
+  private void updateFillLevel(BlockingQueue<Object[]> queue) {
+    int size = queue.size();
+    if (size > maxFillLevel) {
+      maxFillLevel = size;
+    }
+  }
+
   // default getRow with wait time = 100ms
   //
   /*
@@ -108,12 +145,91 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
   public Object[] getRowWait(long timeout, TimeUnit tu) {
 
     try {
-      return queArray.poll(timeout, tu);
+      BlockingQueue<Object[]> queue = queArray;
+      Object[] row = queue.poll();
+      if (row != null) {
+        return row;
+      }
+      // The buffer is empty: keep track of how long the consumer is waiting.
+      //
+      long start = System.nanoTime();
+      row = queue.poll(timeout, tu);
+      getWaitNanos.addAndGet(System.nanoTime() - start);
+      return row;
     } catch (InterruptedException e) {
       return null;
     }
   }
 
+  /**
+   * Limit the memory this row set can use. The buffer size is then determined when the first row
+   * arrives, based on the estimated size of a row. The buffer never grows beyond the maximum size
+   * given at construction time and never shrinks below {@link #MIN_BUDGETED_SIZE} rows. This needs
+   * to be called before any rows are passed.
+   *
+   * @param maxBytes The maximum number of bytes to buffer, 0 or lower for no limit.
+   */
+  public void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+    this.sized = maxBytes <= 0;
+  }
+
+  /**
+   * Gets maxBytes
+   *
+   * @return The maximum number of bytes to buffer, 0 or lower if there is no limit.
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  private synchronized void applyMemoryBudget(IRowMeta rowMeta) {
+    if (sized) {
+      return;
+    }
+    sized = true;
+    if (rowMeta == null || !queArray.isEmpty()) {
+      return;
+    }
+    long rowSize = Math.max(1L, RowDataUtil.estimateRowSize(rowMeta));
+    long size = Math.max(MIN_BUDGETED_SIZE, maxBytes / rowSize);
+    if (size < capacity) {
+      // Nothing was ever put in the current queue, so a consumer can at most be waiting on it.
+      // It will pick up the new queue after its time-out.
+      //
+      capacity = (int) size;
+      queArray = new ArrayBlockingQueue<>(capacity, false);
+    }
+  }
+
+  /**
+   * @return The maximum number of rows this row set can buffer.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return The highest number of rows seen in the buffer so far
+   */
+  public int getMaxFillLevel() {
+    return maxFillLevel;
+  }
+
+  /**
+   * @return The total time in nanoseconds producers were blocked because the buffer was full.
+   */
+  public long getPutWaitNanos() {
+    return putWaitNanos.get();
+  }
+
+  /**
+   * @return The total time in nanoseconds consumers were waiting because the buffer was empty.
+   */
+  public long getGetWaitNanos() {
+    return getWaitNanos.get();
+  }
+
   @Override
   public int size() {
     return queArray.size();
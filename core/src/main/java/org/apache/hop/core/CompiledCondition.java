@@ -0,0 +1,582 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.Condition.Function;
+import org.apache.hop.core.Condition.Operator;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.util.Utils;
+
+/**
+ * A {@link Condition} compiled against a specific row layout. It gives the same results as {@link
+ * Condition#evaluate(IRowMeta, Object[])} but does all the work which doesn't depend on the row
+ * data only once:
+ *
+ * <ul>
+ *   <li>field indexes are looked up when compiling
+ *   <li>constant values are created and converted to the data type of the field they're compared
+ *       with
+ *   <li>regular expressions for REGEXP and LIKE against constants are compiled once
+ *   <li>IN LIST constants become a hash set
+ *   <li>comparisons of integers and numbers with constants don't go through {@link IValueMeta}
+ *   <li>conditions which are always true or false are folded into a constant
+ * </ul>
+ *
+ * <p>The sub-conditions of a composite condition combined only with AND (NOT) or only with OR (NOT)
+ * are re-ordered based on how often they decide the outcome. Only sub-conditions which can't throw
+ * an exception, like null checks and comparisons of values of the same type without conversion, are
+ * moved ahead of others. A sub-condition which can fail is never evaluated before the ones written
+ * in front of it, so those keep working as a guard. This makes a compiled condition stateful: use
+ * one instance per thread.
+ */
+public class CompiledCondition {
+
+  /** After how many evaluations we re-order the sub-conditions of a composite condition */
+  private static final int REORDER_INTERVAL = 1024;
+
+  @FunctionalInterface
+  private interface IPredicate {
+    boolean test(Object[] row) throws HopValueException;
+  }
+
+  private final IPredicate predicate;
+
+  private CompiledCondition(IPredicate predicate) {
+    this.predicate = unwrap(predicate);
+  }
+
+  /**
+   * Compile the condition for rows with the given layout.
+   *
+   * @param condition The condition to compile
+   * @param rowMeta The layout of the rows to evaluate
+   * @return The compiled condition
+   * @throws HopException in case a constant value can't be created
+   */
+  public static CompiledCondition compile(Condition condition, IRowMeta rowMeta)
+      throws HopException {
+    return new CompiledCondition(compilePredicate(condition, rowMeta));
+  }
+
+  /**
+   * Evaluate the condition.
+   *
+   * @param row The row data
+   * @return true if the condition evaluates to true
+   * @throws HopValueException in case of a data conversion error
+   */
+  public boolean evaluate(Object[] row) throws HopValueException {
+    return predicate.test(row);
+  }
+
+  /**
+   * @return true if the condition gives the same result for every row
+   */
+  public boolean isConstant() {
+    return predicate instanceof Constant;
+  }
+
+  private static IPredicate compilePredicate(Condition condition, IRowMeta rowMeta)
+      throws HopException {
+    if (condition.isAtomic()) {
+      return compileAtomic(condition, rowMeta);
+    }
+    return compileComposite(condition, rowMeta);
+  }
+
+  private static IPredicate compileComposite(Condition condition, IRowMeta rowMeta)
+      throws HopException {
+    List<Condition> children = condition.getChildren();
+    int size = children.size();
+    IPredicate[] predicates = new IPredicate[size];
+    boolean[] safe = new boolean[size];
+    boolean allSafe = true;
+    Operator[] operators = new Operator[size];
+    boolean conjunction = true;
+    boolean disjunction = true;
+    for (int i = 0; i < size; i++) {
+      Condition child = children.get(i);
+      IPredicate predicate = compilePredicate(child, rowMeta);
+      safe[i] = isSafe(predicate);
+      allSafe &= safe[i];
+      predicates[i] = unwrap(predicate);
+      operators[i] = child.getOperator();
+      if (i > 0) {
+        conjunction &= operators[i] == Operator.AND || operators[i] == Operator.AND_NOT;
+        disjunction &= operators[i] == Operator.OR || operators[i] == Operator.OR_NOT;
+      }
+    }
+    boolean negated = condition.isNegated();
+
+    if (size > 1 && (conjunction || disjunction)) {
+      IPredicate[] terms = new IPredicate[size];
+      for (int i = 0; i < size; i++) {
+        boolean negatedTerm =
+            i > 0 && (operators[i] == Operator.AND_NOT || operators[i] == Operator.OR_NOT);
+        terms[i] = negatedTerm ? negate(predicates[i]) : predicates[i];
+      }
+      Junction junction = new Junction(terms, safe, conjunction, negated);
+      return allSafe ? safe(junction) : junction;
+    }
+
+    IPredicate composite =
+        row -> {
+          boolean evaluation = predicates[0].test(row);
+          for (int i = 1; i < size; i++) {
+            switch (operators[i]) {
+              case OR:
+                evaluation = evaluation || predicates[i].test(row);
+                break;
+              case AND:
+                evaluation = evaluation && predicates[i].test(row);
+                break;
+              case OR_NOT:
+                evaluation = evaluation || !predicates[i].test(row);
+                break;
+              case AND_NOT:
+                evaluation = evaluation && !predicates[i].test(row);
+                break;
+              case XOR:
+                evaluation = evaluation ^ predicates[i].test(row);
+                break;
+              default:
+                break;
+            }
+          }
+          return evaluation ^ negated;
+        };
+    return allSafe ? safe(composite) : composite;
+  }
+
+  private static IPredicate negate(IPredicate predicate) {
+    if (predicate instanceof Constant) {
+      return new Constant(!((Constant) predicate).value);
+    }
+    if (predicate instanceof Safe) {
+      IPredicate inner = ((Safe) predicate).predicate;
+      return new Safe(row -> !inner.test(row));
+    }
+    return row -> !predicate.test(row);
+  }
+
+  private static IPredicate safe(IPredicate predicate) {
+    return isSafe(predicate) ? predicate : new Safe(predicate);
+  }
+
+  private static boolean isSafe(IPredicate predicate) {
+    return predicate instanceof Safe || predicate instanceof Constant;
+  }
+
+  private static IPredicate unwrap(IPredicate predicate) {
+    return predicate instanceof Safe ? ((Safe) predicate).predicate : predicate;
+  }
+
+  private static IPredicate compileAtomic(Condition condition, IRowMeta rowMeta)
+      throws HopException {
+    Function function = condition.getFunction();
+    boolean negated = condition.isNegated();
+    if (function == Function.TRUE) {
+      return new Constant(!negated);
+    }
+
+    int leftIndex =
+        StringUtils.isNotEmpty(condition.getLeftValueName())
+            ? rowMeta.indexOfValue(condition.getLeftValueName())
+            : -1;
+    if (leftIndex < 0) {
+      return new Constant(false); // no fields to evaluate
+    }
+    IValueMeta leftMeta = rowMeta.getValueMeta(leftIndex);
+
+    // The right hand side is either a field or a constant value
+    //
+    int rightIndex = -1;
+    IValueMeta rightMeta = null;
+    Object constant = null;
+    if (StringUtils.isNotEmpty(condition.getRightValueName())) {
+      rightIndex = rowMeta.indexOfValue(condition.getRightValueName());
+      if (rightIndex >= 0) {
+        rightMeta = rowMeta.getValueMeta(rightIndex);
+      }
+    } else if (condition.getRightValue() != null) {
+      rightMeta = condition.getRightValue().createValueMeta();
+      constant = condition.getRightValue().createValueData();
+    }
+
+    IPredicate predicate =
+        compileFunction(function, leftIndex, leftMeta, rightIndex, rightMeta, constant);
+    if (negated) {
+      return negate(predicate);
+    }
+    return predicate;
+  }
+
+  private static IPredicate compileFunction(
+      Function function,
+      int leftIndex,
+      IValueMeta leftMeta,
+      int rightIndex,
+      IValueMeta rightMeta,
+      Object constant)
+      throws HopValueException {
+    final boolean constantRight = rightIndex < 0;
+
+    switch (function) {
+      case EQUAL:
+      case NOT_EQUAL:
+      case SMALLER:
+      case SMALLER_EQUAL:
+      case LARGER:
+      case LARGER_EQUAL:
+        {
+          IPredicate predicate =
+              compileComparisonFunction(
+                  function,
+                  leftIndex,
+                  leftMeta,
+                  compileComparison(leftIndex, leftMeta, rightIndex, rightMeta, constant));
+          return isPlainComparison(leftMeta, rightMeta) ? safe(predicate) : predicate;
+        }
+      case NULL:
+        {
+          IPredicate predicate = row -> leftMeta.isNull(row[leftIndex]);
+          return leftMeta.isStorageNormal() ? safe(predicate) : predicate;
+        }
+      case NOT_NULL:
+        {
+          IPredicate predicate = row -> !leftMeta.isNull(row[leftIndex]);
+          return leftMeta.isStorageNormal() ? safe(predicate) : predicate;
+        }
+      case REGEXP:
+      case LIKE:
+        {
+          boolean like = function == Function.LIKE;
+          if (constantRight) {
+            if (constant == null) {
+              return new Constant(false);
+            }
+            Pattern pattern =
+                Pattern.compile(toRegex(rightMeta.getCompatibleString(constant), like));
+            return row -> {
+              Object field = row[leftIndex];
+              return !leftMeta.isNull(field)
+                  && pattern.matcher(leftMeta.getCompatibleString(field)).matches();
+            };
+          }
+          return row -> {
+            Object field = row[leftIndex];
+            Object field2 = row[rightIndex];
+            if (leftMeta.isNull(field) || field2 == null) {
+              return false;
+            }
+            return Pattern.matches(
+                toRegex(rightMeta.getCompatibleString(field2), like),
+                leftMeta.getCompatibleString(field));
+          };
+        }
+      case IN_LIST:
+        {
+          if (constantRight) {
+            Set<String> inList = rightMeta == null ? null : toInList(rightMeta.getString(constant));
+            return row -> {
+              String searchString = leftMeta.getCompatibleString(row[leftIndex]);
+              return searchString != null && inList.contains(searchString);
+            };
+          }
+          return row -> {
+            String searchString = leftMeta.getCompatibleString(row[leftIndex]);
+            return searchString != null
+                && toInList(rightMeta.getString(row[rightIndex])).contains(searchString);
+          };
+        }
+      case CONTAINS:
+      case STARTS_WITH:
+        {
+          boolean contains = function == Function.CONTAINS;
+          IString rightString =
+              constantRight
+                  ? constantString(rightMeta, constant)
+                  : row -> rightMeta.getCompatibleString(row[rightIndex]);
+          return row -> {
+            String string = leftMeta.getCompatibleString(row[leftIndex]);
+            if (string == null) {
+              return false;
+            }
+            return contains
+                ? string.contains(rightString.get(row))
+                : string.startsWith(rightString.get(row));
+          };
+        }
+      case ENDS_WITH:
+        {
+          IString rightString =
+              constantRight
+                  ? constantString(rightMeta, constant)
+                  : row -> rightMeta.getCompatibleString(row[rightIndex]);
+          return row -> {
+            String string = leftMeta.getCompatibleString(row[leftIndex]);
+            if (Utils.isEmpty(string)) {
+              return false;
+            }
+            String suffix = rightString.get(row);
+            return suffix != null && string.endsWith(suffix);
+          };
+        }
+      default:
+        return new Constant(false);
+    }
+  }
+
+  private static IPredicate compileComparisonFunction(
+      Function function, int leftIndex, IValueMeta leftMeta, IComparison comparison) {
+    switch (function) {
+      case EQUAL:
+        return row -> comparison.compare(row) == 0;
+      case NOT_EQUAL:
+        return row -> comparison.compare(row) != 0;
+      case SMALLER:
+        return row -> !leftMeta.isNull(row[leftIndex]) && comparison.compare(row) < 0;
+      case SMALLER_EQUAL:
+        return row -> !leftMeta.isNull(row[leftIndex]) && comparison.compare(row) <= 0;
+      case LARGER:
+        return row -> comparison.compare(row) > 0;
+      default:
+        return row -> comparison.compare(row) >= 0;
+    }
+  }
+
+  /**
+   * @return true if values of both sides are compared without any conversion, so the comparison
+   *     can't throw an exception
+   */
+  private static boolean isPlainComparison(IValueMeta leftMeta, IValueMeta rightMeta) {
+    return rightMeta != null
+        && leftMeta.getType() == rightMeta.getType()
+        && leftMeta.isStorageNormal()
+        && rightMeta.isStorageNormal();
+  }
+
+  @FunctionalInterface
+  private interface IString {
+    String get(Object[] row) throws HopValueException;
+  }
+
+  @FunctionalInterface
+  private interface IComparison {
+    int compare(Object[] row) throws HopValueException;
+  }
+
+  private static IString constantString(IValueMeta rightMeta, Object constant)
+      throws HopValueException {
+    if (rightMeta == null) {
+      return row -> null;
+    }
+    String string = rightMeta.getCompatibleString(constant);
+    return row -> string;
+  }
+
+  /**
+   * Compare the left field with the right hand side the same way as {@link
+   * IValueMeta#compare(Object, IValueMeta, Object)} does. A constant is converted to the data type
+   * of the field up front.
+   */
+  private static IComparison compileComparison(
+      int leftIndex, IValueMeta leftMeta, int rightIndex, IValueMeta rightMeta, Object constant) {
+    if (rightIndex >= 0) {
+      return row -> leftMeta.compare(row[leftIndex], rightMeta, row[rightIndex]);
+    }
+    IComparison generic = row -> leftMeta.compare(row[leftIndex], rightMeta, constant);
+    if (rightMeta == null || constant == null) {
+      return generic;
+    }
+
+    Object converted;
+    try {
+      if (leftMeta.getType() == rightMeta.getType()) {
+        if (leftMeta.getStorageType() != rightMeta.getStorageType()) {
+          return generic;
+        }
+        converted = constant;
+      } else if (leftMeta.getType() == IValueMeta.TYPE_INTEGER
+          && rightMeta.getType() == IValueMeta.TYPE_NUMBER) {
+        return generic;
+      } else {
+        converted = leftMeta.convertData(rightMeta, constant);
+      }
+    } catch (HopValueException e) {
+      // Report the conversion problem when evaluating
+      //
+      return generic;
+    }
+
+    // Type specific comparisons for the most common cases.
+    // Null values sort first, just like in IValueMeta.compare()
+    //
+    if (converted != null && leftMeta.isStorageNormal() && !leftMeta.isSortedDescending()) {
+      if (leftMeta instanceof ValueMetaInteger && converted instanceof Long) {
+        long value = (Long) converted;
+        return row -> {
+          Long field = (Long) row[leftIndex];
+          return field == null ? -1 : Long.compare(field, value);
+        };
+      }
+      if (leftMeta instanceof ValueMetaNumber && converted instanceof Double) {
+        double value = (Double) converted;
+        return row -> {
+          Double field = (Double) row[leftIndex];
+          return field == null ? -1 : Double.compare(field, value);
+        };
+      }
+    }
+    return row -> leftMeta.compare(row[leftIndex], converted);
+  }
+
+  private static String toRegex(String string, boolean like) {
+    if (!like) {
+      return string;
+    }
+    return string.replace("%", ".*").replace("?", ".");
+  }
+
+  private static Set<String> toInList(String string) {
+    String[] values = Const.splitString(string, ';', true);
+    Set<String> inList = new HashSet<>();
+    for (String value : values) {
+      inList.add(value == null ? null : value.replace("\\", ""));
+    }
+    return inList;
+  }
+
+  /** A condition which is always true or always false */
+  private static final class Constant implements IPredicate {
+    private final boolean value;
+
+    private Constant(boolean value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean test(Object[] row) {
+      return value;
+    }
+  }
+
+  /** A condition which never throws an exception, it can be evaluated in any order */
+  private static final class Safe implements IPredicate {
+    private final IPredicate predicate;
+
+    private Safe(IPredicate predicate) {
+      this.predicate = predicate;
+    }
+
+    @Override
+    public boolean test(Object[] row) throws HopValueException {
+      return predicate.test(row);
+    }
+  }
+
+  /**
+   * A list of conditions which all need to be true (AND) or of which one needs to be true (OR). We
+   * keep track of how often each condition decides the outcome and periodically evaluate the most
+   * decisive conditions first. Only safe conditions move ahead of other conditions, so a condition
+   * which can throw an exception is only evaluated when the conditions in front of it pass.
+   */
+  private static final class Junction implements IPredicate {
+    private final IPredicate[] terms;
+    private final boolean[] safe;
+    private final long[] evaluated;
+    private final long[] decided;
+    private final boolean conjunction;
+    private final boolean negated;
+    private int evaluations;
+
+    private Junction(IPredicate[] terms, boolean[] safe, boolean conjunction, boolean negated) {
+      this.terms = terms;
+      this.safe = safe;
+      this.evaluated = new long[terms.length];
+      this.decided = new long[terms.length];
+      this.conjunction = conjunction;
+      this.negated = negated;
+    }
+
+    @Override
+    public boolean test(Object[] row) throws HopValueException {
+      boolean result = conjunction;
+      for (int i = 0; i < terms.length; i++) {
+        evaluated[i]++;
+        if (terms[i].test(row) != conjunction) {
+          decided[i]++;
+          result = !conjunction;
+          break;
+        }
+      }
+      if (++evaluations >= REORDER_INTERVAL) {
+        reorder();
+        evaluations = 0;
+      }
+      return result ^ negated;
+    }
+
+    /**
+     * Sort the terms on the rate at which they decide the outcome, highest first. A term which
+     * isn't safe never moves ahead of another term.
+     */
+    private void reorder() {
+      for (int i = 1; i < terms.length; i++) {
+        for (int j = i; j > 0 && safe[j] && rate(j) > rate(j - 1); j--) {
+          swap(j, j - 1);
+        }
+      }
+      // Let older observations fade out
+      //
+      for (int i = 0; i < terms.length; i++) {
+        evaluated[i] /= 2;
+        decided[i] /= 2;
+      }
+    }
+
+    private double rate(int i) {
+      return evaluated[i] == 0 ? 1.0 : (double) decided[i] / evaluated[i];
+    }
+
+    private void swap(int a, int b) {
+      IPredicate term = terms[a];
+      terms[a] = terms[b];
+      terms[b] = term;
+      boolean s = safe[a];
+      safe[a] = safe[b];
+      safe[b] = s;
+      long e = evaluated[a];
+      evaluated[a] = evaluated[b];
+      evaluated[b] = e;
+      long d = decided[a];
+      decided[a] = decided[b];
+      decided[b] = d;
+    }
+  }
+}
@@ -487,6 +487,18 @@ public class Const {
           "The maximum age (in minutes) of a log line while being kept internally by Hop. Set to 0 to keep all rows indefinitely (default)")
   public static final String HOP_MAX_LOG_TIMEOUT_IN_MINUTES = "HOP_MAX_LOG_TIMEOUT_IN_MINUTES";
 
+  /**
+   * System wide flag to deliver the log events to the logging event listeners (log files, console,
+   * ...) in batches from a separate thread. Will do so if the value is equal ignoring case to the
+   * string "Y"
+   */
+  @Variable(
+      scope = VariableScope.APPLICATION,
+      value = "N",
+      description =
+          "Set this variable to 'Y' to deliver log events to the log listeners (files, console, ...) asynchronously in batches from a separate thread.")
+  public static final String HOP_LOG_ASYNC_LISTENERS = "HOP_LOG_ASYNC_LISTENERS";
+
   /**
    * System wide flag to determine whether standard error will be redirected to Hop logging
    * facilities. Will redirect if the value is equal ignoring case to the string "Y"
@@ -600,6 +612,17 @@ public class Const {
       description = "The variable which points to the alternative location for plugins.")
   public static final String HOP_PLUGIN_BASE_FOLDERS = "HOP_PLUGIN_BASE_FOLDERS";
 
+  /**
+   * The file in which the annotation indexes of the plugin jar files are kept between runs. This
+   * avoids opening all the plugin jar files at startup. Only the indexes are kept: plugin classes
+   * are still loaded when the plugins are registered.
+   */
+  @Variable(
+      scope = VariableScope.SYSTEM,
+      description =
+          "The file in which the annotation indexes of the plugin jar files are kept between runs. Jar files which didn't change since the last run are not opened at startup. Leave empty to scan all plugin jar files.")
+  public static final String HOP_PLUGIN_INDEX_FILE = "HOP_PLUGIN_INDEX_FILE";
+
   /**
    * Name of the environment variable that contains the size of the pipeline rowset size. This
    * overwrites values that you set pipeline settings.
@@ -654,6 +677,33 @@ public class Const {
           "Set this variable to 'Y' if you want to test a more efficient batching row set.")
   public static final String HOP_BATCHING_ROWSET = "HOP_BATCHING_ROWSET";
 
+  /**
+   * The maximum number of bytes all spillable row sets together keep in memory. Rows beyond this
+   * budget are written to compressed temporary files.
+   */
+  @Variable(
+      value = "268435456",
+      description =
+          "The maximum number of bytes all spillable row sets together keep in memory before rows are written to temporary files (default 256MB)")
+  public static final String HOP_ROWSET_SPILL_MEMORY = "HOP_ROWSET_SPILL_MEMORY";
+
+  /** The folder in which spillable row sets write their temporary files. */
+  @Variable(
+      value = "",
+      description =
+          "The folder in which spillable row sets write their temporary files. The default is the system temporary folder (java.io.tmpdir)")
+  public static final String HOP_ROWSET_SPILL_DIRECTORY = "HOP_ROWSET_SPILL_DIRECTORY";
+
+  /**
+   * Set this variable to N to stop using spillable row sets on the input hops of transforms where
+   * the streams of a common source transform come together again (default = Y).
+   */
+  @Variable(
+      value = "Y",
+      description =
+          "Set this variable to 'N' to stop using spillable row sets on the hops into transforms where the streams of a common source transform come together again. These row sets never block, avoiding deadlocks when such a transform reads its inputs one after the other.")
+  public static final String HOP_ROWSET_SPILL_ON_DIAMONDS = "HOP_ROWSET_SPILL_ON_DIAMONDS";
+
   /**
    * Set this variable to limit max number of files the Text File Output transform can have open at
    * one time.
@@ -799,6 +849,23 @@ public class Const {
    */
   public static final String VFS_USER_DIR_IS_ROOT = "vfs.sftp.userDirIsRoot";
 
+  /**
+   * The size in bytes of the blocks which are compressed independently by the "Parallel GZip"
+   * compression provider.
+   */
+  @Variable(
+      value = "1048576",
+      description =
+          "The size in bytes of the blocks which are compressed independently on multiple threads by the 'Parallel GZip' compression provider (default 1MB)")
+  public static final String HOP_COMPRESSION_BLOCK_SIZE = "HOP_COMPRESSION_BLOCK_SIZE";
+
+  /** The number of threads used by the "Parallel GZip" compression provider. */
+  @Variable(
+      value = "0",
+      description =
+          "The number of threads used by the 'Parallel GZip' compression provider. Set to 0 to use the number of available processors (default)")
+  public static final String HOP_COMPRESSION_THREADS = "HOP_COMPRESSION_THREADS";
+
   /**
    * A variable to configure the minimum allowed ratio between de- and inflated bytes to detect a
    * zipbomb.
@@ -940,6 +1007,17 @@ public class Const {
   public static final String HOP_DEFAULT_BUFFER_POLLING_WAITTIME =
       "HOP_DEFAULT_BUFFER_POLLING_WAITTIME";
 
+  /**
+   * Set this variable to Y to keep parsed child pipelines in memory. A cached pipeline is re-used
+   * as long as the file modification time doesn't change.
+   */
+  @Variable(
+      scope = VariableScope.SYSTEM,
+      value = "N",
+      description =
+          "Set this variable to 'Y' to cache the pipelines loaded by actions, mappings and executors. A cached pipeline is re-used as long as the modification time of the file doesn't change.")
+  public static final String HOP_PIPELINE_META_CACHE = "HOP_PIPELINE_META_CACHE";
+
   /**
    * rounds double f to any number of places after decimal point Does arithmetic using BigDecimal
    * class to avoid integer overflow while rounding
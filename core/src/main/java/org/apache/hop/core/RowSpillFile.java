@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.Utils;
+
+/**
+ * A compressed temporary file with rows. The rows are written with {@link IRowMeta#writeData} and,
+ * once the file is completely written, read back in the same order with {@link IRowMeta#readData}.
+ */
+public class RowSpillFile {
+  private static final int BUFFER_SIZE = 65536;
+
+  private final File file;
+  private final IRowMeta rowMeta;
+  private DataOutputStream outputStream;
+  private DataInputStream inputStream;
+  private long rows;
+  private long remaining;
+
+  /**
+   * Create a new temporary file, ready for writing.
+   *
+   * @param directory The directory to create the file in, the system temporary directory if empty
+   * @param prefix The prefix of the file name
+   * @param rowMeta The layout of the rows in the file
+   */
+  public RowSpillFile(String directory, String prefix, IRowMeta rowMeta) throws HopFileException {
+    this.rowMeta = rowMeta;
+    try {
+      this.file =
+          File.createTempFile(
+              prefix, ".tmp", Utils.isEmpty(directory) ? null : new File(directory));
+      this.outputStream =
+          new DataOutputStream(
+              new GZIPOutputStream(
+                  new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+    } catch (IOException e) {
+      throw new HopFileException("Unable to create a temporary file in directory " + directory, e);
+    }
+  }
+
+  public void write(Object[] row) throws HopFileException {
+    rowMeta.writeData(outputStream, row);
+    rows++;
+  }
+
+  /** Close the file for writing, the file handle is released until {@link #rewind()}. */
+  public void finishWriting() throws HopFileException {
+    if (outputStream == null) {
+      return;
+    }
+    try {
+      outputStream.close();
+      outputStream = null;
+    } catch (IOException e) {
+      throw new HopFileException("Unable to close temporary file " + file, e);
+    }
+  }
+
+  /** Close the file for writing and open it for reading from the first row. */
+  public void rewind() throws HopFileException {
+    finishWriting();
+    try {
+      if (inputStream != null) {
+        inputStream.close();
+      }
+      inputStream =
+          new DataInputStream(
+              new GZIPInputStream(
+                  new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+      remaining = rows;
+    } catch (IOException e) {
+      throw new HopFileException("Unable to read back temporary file " + file, e);
+    }
+  }
+
+  /**
+   * @return The next row or null if all rows are read
+   */
+  public Object[] read() throws HopFileException {
+    if (remaining <= 0) {
+      return null;
+    }
+    try {
+      remaining--;
+      return rowMeta.readData(inputStream);
+    } catch (Exception e) {
+      throw new HopFileException("Unable to read a row from temporary file " + file, e);
+    }
+  }
+
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * @return The number of rows written to the file
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  /**
+   * @return The number of rows which are not read yet since the last {@link #rewind()}
+   */
+  public long getRemaining() {
+    return remaining;
+  }
+
+  /** Close and remove the file. */
+  public void delete() {
+    try {
+      if (outputStream != null) {
+        outputStream.close();
+      }
+      if (inputStream != null) {
+        inputStream.close();
+      }
+    } catch (IOException e) {
+      // Ignore, the file is removed anyway
+    }
+    outputStream = null;
+    inputStream = null;
+    if (!file.delete()) {
+      file.deleteOnExit();
+    }
+  }
+}
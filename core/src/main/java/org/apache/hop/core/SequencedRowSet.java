@@ -0,0 +1,299 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * A blocking row set which tags every row with a sequence number. It is used to run a transform in
+ * multiple copies while preserving the order of the rows.
+ *
+ * <p>The row sets going to the copies share a sequence counter: every row gets the next number of
+ * the counter. The row sets coming from the copies tag every row with the sequence number of the
+ * row the copy is processing. The transform reading from the copies then merges the rows back into
+ * the original order based on these numbers. The low watermark of a row set is the lowest sequence
+ * number the copy can still produce rows for.
+ */
+public class SequencedRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /**
+   * The sequence counter shared by the row sets going to the copies. It also signals the transform
+   * merging the rows of the copies when a row arrives, a low watermark moves or a copy is done, so
+   * that transform can block instead of polling.
+   */
+  public static final class Sequence {
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    /**
+     * @return The sequence number of the next row
+     */
+    public long get() {
+      return next.get();
+    }
+
+    /**
+     * @return The number of changes so far, pass it to {@link #awaitChange} after looking at the
+     *     row sets
+     */
+    public long getChanges() {
+      return changes.get();
+    }
+
+    /**
+     * Wait until something changed since the given number of changes was read.
+     *
+     * @param changesSeen The number of changes before looking at the row sets
+     * @param timeout The maximum time to wait
+     * @param unit The unit of the timeout
+     * @return true if something changed, false if the wait timed out
+     */
+    public boolean awaitChange(long changesSeen, long timeout, TimeUnit unit)
+        throws InterruptedException {
+      lock.lock();
+      try {
+        // Register before checking so that signalChange() can't miss us
+        //
+        waiting.incrementAndGet();
+        try {
+          long nanos = unit.toNanos(timeout);
+          while (changes.get() == changesSeen) {
+            if (nanos <= 0L) {
+              return false;
+            }
+            nanos = changed.awaitNanos(nanos);
+          }
+          return true;
+        } finally {
+          waiting.decrementAndGet();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void signalChange() {
+      changes.incrementAndGet();
+      if (waiting.get() > 0) {
+        lock.lock();
+        try {
+          changed.signalAll();
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+  }
+
+  private static final class SequencedRow {
+    private final long sequence;
+    private final Object[] row;
+
+    private SequencedRow(long sequence, Object[] row) {
+      this.sequence = sequence;
+      this.row = row;
+    }
+  }
+
+  private final BlockingQueue<SequencedRow> queue;
+
+  /** The shared sequence counter for the row sets going to the copies, null otherwise */
+  private final Sequence sequence;
+
+  /**
+   * The input row set of the copy writing to this row set, null for the row sets going to copies
+   */
+  private final SequencedRowSet source;
+
+  private final int timeoutPut;
+  private final int timeoutGet;
+
+  /** The sequence number of the last row read from this row set */
+  private volatile long currentSequence = -1L;
+
+  /** The lowest sequence number the copy reading from this row set can still produce rows for */
+  private volatile long lowWatermark = 0L;
+
+  /**
+   * Create a row set which sends rows to a transform copy, numbering them with the given counter.
+   *
+   * @param maxSize The maximum number of rows to buffer
+   * @param sequence The sequence counter shared by the row sets going to all the copies
+   */
+  public SequencedRowSet(int maxSize, Sequence sequence) {
+    this(maxSize, sequence, null);
+  }
+
+  /**
+   * Create a row set which receives rows from a transform copy.
+   *
+   * @param maxSize The maximum number of rows to buffer
+   * @param source The row set the transform copy reads its rows from
+   */
+  public SequencedRowSet(int maxSize, SequencedRowSet source) {
+    this(maxSize, null, source);
+  }
+
+  private SequencedRowSet(int maxSize, Sequence sequence, SequencedRowSet source) {
+    super();
+    this.queue = new ArrayBlockingQueue<>(maxSize, false);
+    this.sequence = sequence;
+    this.source = source;
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    this.rowMeta = rowMeta;
+    try {
+      if (sequence != null) {
+        // There is only one thread writing to the copies: only move the counter forward after the
+        // row is visible in the buffer, see updateLowWatermark()
+        //
+        boolean added = queue.offer(new SequencedRow(sequence.get(), rowData), time, tu);
+        if (added) {
+          sequence.next.incrementAndGet();
+        }
+        return added;
+      }
+      boolean added = queue.offer(new SequencedRow(source.currentSequence, rowData), time, tu);
+      if (added) {
+        source.sequence.signalChange();
+      }
+      return added;
+    } catch (InterruptedException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    updateLowWatermark();
+    return take(queue.poll());
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    updateLowWatermark();
+    try {
+      return take(queue.poll(timeout, tu));
+    } catch (InterruptedException e) {
+      return null;
+    }
+  }
+
+  private Object[] take(SequencedRow sequencedRow) {
+    if (sequencedRow == null) {
+      return null;
+    }
+    currentSequence = sequencedRow.sequence;
+    return sequencedRow.row;
+  }
+
+  /**
+   * A copy only asks for the next row once it's done with the previous one. From then on it can
+   * only produce rows for the next row in the buffer or for rows which are not yet numbered.
+   */
+  private void updateLowWatermark() {
+    if (sequence == null) {
+      return;
+    }
+    long next = sequence.get();
+    SequencedRow head = queue.peek();
+    long watermark = head == null ? next : head.sequence;
+    if (watermark != lowWatermark) {
+      lowWatermark = watermark;
+      sequence.signalChange();
+    }
+  }
+
+  /**
+   * @return The sequence number of the next row in the buffer or -1 if the buffer is empty
+   */
+  public long peekSequence() {
+    SequencedRow head = queue.peek();
+    return head == null ? -1L : head.sequence;
+  }
+
+  /**
+   * Gets the lowest sequence number the copy writing to (or reading from) this row set can still
+   * produce rows for. Rows already in the buffer are not taken into account.
+   *
+   * @return The low watermark
+   */
+  public long getLowWatermark() {
+    if (source != null) {
+      return source.getLowWatermark();
+    }
+    return lowWatermark;
+  }
+
+  /**
+   * @return The sequence shared by the row sets going to and coming from the copies
+   */
+  public Sequence getSequence() {
+    return source != null ? source.sequence : sequence;
+  }
+
+  /**
+   * @return true if this row set receives rows from a transform copy
+   */
+  public boolean isMerging() {
+    return source != null;
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    getSequence().signalChange();
+  }
+
+  @Override
+  public int size() {
+    return queue.size();
+  }
+
+  @Override
+  public void clear() {
+    queue.clear();
+    done.set(false);
+  }
+}
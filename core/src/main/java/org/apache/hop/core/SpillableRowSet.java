@@ -0,0 +1,396 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.io.DataOutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.row.value.ValueMetaBase;
+import org.apache.hop.core.util.Utils;
+
+/**
+ * A row set which never blocks the transform writing to it. Up to the given number of rows are kept
+ * in memory, as long as the memory budget shared by all spillable row sets allows it. Beyond that
+ * the rows are written to compressed temporary files with {@link IRowMeta#writeData} and read back
+ * in the same order when the memory buffer is empty.
+ *
+ * <p>This avoids deadlocks where a transform reads all rows from one input before it starts on the
+ * other, while the transform writing to the other input is blocked because its row set is full.
+ *
+ * <p>Rows with values which can't be written to a temporary file (see {@link #canSpill(IRowMeta)})
+ * are never spilled: for those the row set blocks the writer like a regular row set until the
+ * reader made room.
+ */
+public class SpillableRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The number of bytes kept in memory by all spillable row sets together */
+  private static final AtomicLong memoryInUse = new AtomicLong();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+
+  private final ArrayDeque<Object[]> memory = new ArrayDeque<>();
+  private final int maxSize;
+  private final long memoryBudget;
+  private final String directory;
+  private final int timeoutGet;
+  private final int timeoutPut;
+
+  /** The bytes reserved in the shared budget for the rows in memory */
+  private long reservedBytes;
+
+  private IRowMeta sizedRowMeta;
+  private long rowSize;
+
+  /** The last row metadata checked with {@link #canSpill(IRowMeta)} and the outcome */
+  private IRowMeta checkedRowMeta;
+
+  private boolean spillable;
+
+  /** The files which are completely written and are waiting to be read */
+  private final Deque<RowSpillFile> closedFiles = new ArrayDeque<>();
+
+  private RowSpillFile writeFile;
+  private RowSpillFile readFile;
+
+  /** The number of rows in the temporary files which are not read yet */
+  private long spilledRows;
+
+  private final AtomicLong totalSpilledRows = new AtomicLong();
+  private final AtomicLong spillFileCount = new AtomicLong();
+
+  /**
+   * Create a row set keeping at most maxSize rows in memory, using the memory budget and folder
+   * configured with {@link Const#HOP_ROWSET_SPILL_MEMORY} and {@link
+   * Const#HOP_ROWSET_SPILL_DIRECTORY}.
+   *
+   * @param maxSize The maximum number of rows to keep in memory
+   */
+  public SpillableRowSet(int maxSize) {
+    this(
+        maxSize,
+        Const.toLong(System.getProperty(Const.HOP_ROWSET_SPILL_MEMORY), 268435456L),
+        System.getProperty(Const.HOP_ROWSET_SPILL_DIRECTORY));
+  }
+
+  /**
+   * @param maxSize The maximum number of rows to keep in memory
+   * @param memoryBudget The maximum number of bytes all spillable row sets keep in memory
+   * @param directory The folder for the temporary files or null for the system temporary folder
+   */
+  public SpillableRowSet(int maxSize, long memoryBudget, String directory) {
+    super();
+    this.maxSize = maxSize;
+    this.memoryBudget = memoryBudget;
+    this.directory = Utils.isEmpty(directory) ? null : directory;
+    this.timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    this.timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * The row is accepted right away, unless it can't be written to a temporary file. Such a row
+   * waits up to the given time for room in memory.
+   */
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    this.rowMeta = rowMeta;
+    lock.lock();
+    try {
+      // Rows only go to memory when there are no older rows waiting on disk
+      //
+      if (spilledRows == 0 && memory.size() < maxSize && reserveMemory(rowMeta, false)) {
+        memory.add(rowData);
+      } else if (isSpillable(rowMeta)) {
+        spill(rowMeta, rowData);
+      } else {
+        long nanos = tu.toNanos(time);
+        while (spilledRows > 0 || memory.size() >= maxSize) {
+          if (nanos <= 0) {
+            return false;
+          }
+          nanos = notFull.awaitNanos(nanos);
+        }
+        reserveMemory(rowMeta, true);
+        memory.add(rowData);
+      }
+      notEmpty.signal();
+      return true;
+    } catch (InterruptedException e) {
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isSpillable(IRowMeta rowMeta) {
+    if (rowMeta != checkedRowMeta) {
+      checkedRowMeta = rowMeta;
+      spillable = rowMeta != null && canSpill(rowMeta);
+    }
+    return spillable;
+  }
+
+  /**
+   * @param rowMeta The layout of the row to keep in memory
+   * @param force true to reserve the memory even if the budget is exceeded
+   * @return true if the memory was reserved
+   */
+  private boolean reserveMemory(IRowMeta rowMeta, boolean force) {
+    if (rowMeta != sizedRowMeta) {
+      sizedRowMeta = rowMeta;
+      rowSize = rowMeta == null ? 16L : Math.max(16L, RowDataUtil.estimateRowSize(rowMeta));
+    }
+    if (memoryInUse.addAndGet(rowSize) > memoryBudget && !force) {
+      memoryInUse.addAndGet(-rowSize);
+      return false;
+    }
+    reservedBytes += rowSize;
+    return true;
+  }
+
+  private void releaseMemory() {
+    // The rows in memory can have different sizes when the row metadata changes: release the
+    // average and whatever is left with the last row.
+    //
+    long release = memory.isEmpty() ? reservedBytes : reservedBytes / (memory.size() + 1);
+    reservedBytes -= release;
+    memoryInUse.addAndGet(-release);
+  }
+
+  private void spill(IRowMeta rowMeta, Object[] rowData) {
+    try {
+      if (writeFile != null && writeFile.getRowMeta() != rowMeta) {
+        closeWriteFile();
+      }
+      if (writeFile == null) {
+        writeFile = new RowSpillFile(directory, "hop-rowset-", rowMeta);
+        spillFileCount.incrementAndGet();
+      }
+      writeFile.write(rowData);
+      spilledRows++;
+      totalSpilledRows.incrementAndGet();
+    } catch (Exception e) {
+      throw new IllegalStateException(
+          "Unable to write rows of row set " + getName() + " to a temporary file", e);
+    }
+  }
+
+  private void closeWriteFile() throws HopFileException {
+    writeFile.finishWriting();
+    closedFiles.add(writeFile);
+    writeFile = null;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    lock.lock();
+    try {
+      return nextRow();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    lock.lock();
+    try {
+      Object[] row = nextRow();
+      long nanos = tu.toNanos(timeout);
+      while (row == null && nanos > 0) {
+        nanos = notEmpty.awaitNanos(nanos);
+        row = nextRow();
+      }
+      return row;
+    } catch (InterruptedException e) {
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Object[] nextRow() {
+    if (!memory.isEmpty()) {
+      Object[] row = memory.poll();
+      releaseMemory();
+      notFull.signal();
+      return row;
+    }
+    if (spilledRows == 0) {
+      return null;
+    }
+    try {
+      if (readFile == null) {
+        if (closedFiles.isEmpty()) {
+          // Start a new file for the rows to come and read the current one
+          //
+          closeWriteFile();
+        }
+        readFile = closedFiles.poll();
+        readFile.rewind();
+      }
+      Object[] row = readFile.read();
+      spilledRows--;
+      if (readFile.getRemaining() == 0) {
+        readFile.delete();
+        readFile = null;
+      }
+      notFull.signal();
+      return row;
+    } catch (Exception e) {
+      throw new IllegalStateException(
+          "Unable to read rows of row set " + getName() + " from a temporary file", e);
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return (int) Math.min(Integer.MAX_VALUE, memory.size() + spilledRows);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    cleanup();
+    done.set(false);
+  }
+
+  /** Removes all rows, releases the reserved memory and deletes the temporary files. */
+  public void cleanup() {
+    lock.lock();
+    try {
+      memory.clear();
+      memoryInUse.addAndGet(-reservedBytes);
+      reservedBytes = 0;
+      if (writeFile != null) {
+        writeFile.delete();
+        writeFile = null;
+      }
+      if (readFile != null) {
+        readFile.delete();
+        readFile = null;
+      }
+      for (RowSpillFile file : closedFiles) {
+        file.delete();
+      }
+      closedFiles.clear();
+      spilledRows = 0;
+      notFull.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return The maximum number of rows kept in memory
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * @return The total number of rows written to temporary files so far
+   */
+  public long getTotalSpilledRows() {
+    return totalSpilledRows.get();
+  }
+
+  /**
+   * @return The number of temporary files created so far
+   */
+  public long getSpillFileCount() {
+    return spillFileCount.get();
+  }
+
+  /**
+   * @return The number of bytes kept in memory by all spillable row sets together
+   */
+  public static long getMemoryInUse() {
+    return memoryInUse.get();
+  }
+
+  /**
+   * Check if rows with the given layout can be written to a temporary file. {@link
+   * ValueMetaBase#writeData} only handles the basic data types, other types like JSON, graphs or
+   * serializable objects can only spill if their value metadata implements writeData itself.
+   *
+   * @param rowMeta The row metadata to check
+   * @return true if every value of the row can be written with {@link IRowMeta#writeData}
+   */
+  public static boolean canSpill(IRowMeta rowMeta) {
+    for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+      if (!canSpill(valueMeta)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean canSpill(IValueMeta valueMeta) {
+    if (valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+      // Binary strings and indexes are written as is
+      return true;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING:
+      case IValueMeta.TYPE_NUMBER:
+      case IValueMeta.TYPE_INTEGER:
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_BIGNUMBER:
+      case IValueMeta.TYPE_BOOLEAN:
+      case IValueMeta.TYPE_BINARY:
+      case IValueMeta.TYPE_INET:
+        return true;
+      default:
+        try {
+          return valueMeta
+                  .getClass()
+                  .getMethod("writeData", DataOutputStream.class, Object.class)
+                  .getDeclaringClass()
+              != ValueMetaBase.class;
+        } catch (NoSuchMethodException e) {
+          return false;
+        }
+    }
+  }
+}
@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+
+/**
+ * Resolves the existence of a whole batch of keys in a database table with a single query instead
+ * of one lookup per row. Keys are matched on equality only: for every distinct key a {@code SELECT
+ * n, ... WHERE k1 = ? AND k2 = ?} is added to the query, joined with UNION ALL, where n is the
+ * position of the key in the batch.
+ *
+ * <p>The database matches the keys itself, exactly like a lookup of a single row does, and reports
+ * which key a row was found for with its position. Differences between the stream and the database
+ * values, like padded CHAR columns, case insensitive collations, timestamp precision or numeric
+ * scale, don't matter. The returned values are converted to the data types of the return row
+ * metadata passed to the constructor. Keys containing a null value never match anything, just like
+ * a regular {@code =} lookup.
+ */
+public class DatabaseBatchLookup {
+
+  /** Upper limit on the number of parameters bound to a single lookup statement. */
+  public static final int MAX_PARAMETERS_PER_QUERY = 2000;
+
+  private final Database db;
+  private final String schemaTable;
+  private final String[] keyColumns;
+  private final IRowMeta keyRowMeta;
+  private final String[] returnColumns;
+  private final IRowMeta returnRowMeta;
+  private final int maxKeysPerQuery;
+
+  private PreparedStatement fullStatement;
+  private IRowMeta fullParameterRowMeta;
+
+  /**
+   * @param db The connected database to query
+   * @param schemaTable The quoted schema and table combination to look in
+   * @param keyColumns The key columns in the table
+   * @param keyRowMeta The stream metadata of the key values, one per key column
+   * @param returnColumns The columns to return for every key found
+   * @param returnRowMeta The metadata to convert the returned values to, one per return column
+   */
+  public DatabaseBatchLookup(
+      Database db,
+      String schemaTable,
+      String[] keyColumns,
+      IRowMeta keyRowMeta,
+      String[] returnColumns,
+      IRowMeta returnRowMeta) {
+    this.db = db;
+    this.schemaTable = schemaTable;
+    this.keyColumns = keyColumns;
+    this.keyRowMeta = normalStorage(keyRowMeta);
+    this.returnColumns = returnColumns;
+    this.returnRowMeta = normalStorage(returnRowMeta);
+    this.maxKeysPerQuery = Math.max(1, MAX_PARAMETERS_PER_QUERY / Math.max(1, keyColumns.length));
+  }
+
+  /**
+   * @return A map that uses the key metadata to compare keys, suitable to hold lookup results.
+   */
+  public Map<Object[], Object[]> createKeyMap() {
+    return new TreeMap<>(
+        (key1, key2) -> {
+          try {
+            return keyRowMeta.compare(key1, key2);
+          } catch (HopValueException e) {
+            throw new IllegalStateException("Unable to compare lookup keys", e);
+          }
+        });
+  }
+
+  /**
+   * Extract the key of a row, converted to normal storage.
+   *
+   * @param rowMeta The metadata of the row
+   * @param row The row data
+   * @param keyIndexes The indexes of the key values in the row
+   * @return The key values
+   * @throws HopValueException In case a lazily converted value can't be converted
+   */
+  public Object[] getKey(IRowMeta rowMeta, Object[] row, int[] keyIndexes)
+      throws HopValueException {
+    Object[] key = new Object[keyIndexes.length];
+    for (int i = 0; i < keyIndexes.length; i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(keyIndexes[i]);
+      key[i] = valueMeta.convertToNormalStorageType(row[keyIndexes[i]]);
+    }
+    return key;
+  }
+
+  /**
+   * @param key The key values
+   * @return true if one of the key values is null, in which case it can never be found
+   */
+  public static boolean hasNullValue(Object[] key) {
+    for (Object value : key) {
+      if (value == null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Look up all the given keys. Duplicate keys and keys with null values are only sent once or not
+   * at all. When more than one row matches a key the first one returned is kept.
+   *
+   * @param keys The keys to look up, as returned by {@link #getKey(IRowMeta, Object[], int[])}
+   * @return A map with the returned values of every key that was found
+   * @throws HopDatabaseException In case something went wrong querying the database
+   */
+  public Map<Object[], Object[]> lookup(Collection<Object[]> keys) throws HopDatabaseException {
+    Map<Object[], Object[]> distinct = createKeyMap();
+    for (Object[] key : keys) {
+      if (!hasNullValue(key)) {
+        distinct.put(key, key);
+      }
+    }
+
+    Map<Object[], Object[]> found = createKeyMap();
+    List<Object[]> chunk = new ArrayList<>(Math.min(distinct.size(), maxKeysPerQuery));
+    for (Object[] key : distinct.keySet()) {
+      chunk.add(key);
+      if (chunk.size() == maxKeysPerQuery) {
+        lookupChunk(chunk, found);
+        chunk.clear();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      lookupChunk(chunk, found);
+    }
+    return found;
+  }
+
+  private void lookupChunk(List<Object[]> keys, Map<Object[], Object[]> found)
+      throws HopDatabaseException {
+    boolean full = keys.size() == maxKeysPerQuery;
+    PreparedStatement ps;
+    IRowMeta parameterRowMeta;
+    if (full && fullStatement != null) {
+      ps = fullStatement;
+      parameterRowMeta = fullParameterRowMeta;
+    } else {
+      ps = prepare(keys.size());
+      parameterRowMeta = getParameterRowMeta(keys.size());
+      if (full) {
+        fullStatement = ps;
+        fullParameterRowMeta = parameterRowMeta;
+      }
+    }
+
+    Object[] parameters = new Object[parameterRowMeta.size()];
+    int index = 0;
+    for (Object[] key : keys) {
+      System.arraycopy(key, 0, parameters, index, key.length);
+      index += key.length;
+    }
+
+    ResultSet resultSet = db.openQuery(ps, parameterRowMeta, parameters);
+    try {
+      IRowMeta resultRowMeta = db.getReturnRowMeta();
+      Object[] row = db.getRow(resultSet, null, resultRowMeta);
+      while (row != null) {
+        Object[] key = keys.get(getPosition(resultRowMeta.getValueMeta(0), row[0], keys.size()));
+        if (!found.containsKey(key)) {
+          Object[] values = new Object[returnColumns.length];
+          for (int i = 0; i < values.length; i++) {
+            values[i] =
+                convert(
+                    returnRowMeta.getValueMeta(i), resultRowMeta.getValueMeta(1 + i), row[1 + i]);
+          }
+          found.put(key, values);
+        }
+        row = db.getRow(resultSet, null, resultRowMeta);
+      }
+    } finally {
+      db.closeQuery(resultSet);
+      if (ps != fullStatement) {
+        db.closePreparedStatement(ps);
+      }
+    }
+  }
+
+  private static int getPosition(IValueMeta valueMeta, Object value, int nrKeys)
+      throws HopDatabaseException {
+    try {
+      Long position = valueMeta.getInteger(value);
+      if (position == null || position < 0 || position >= nrKeys) {
+        throw new HopDatabaseException("Unexpected key position " + value + " returned by lookup");
+      }
+      return position.intValue();
+    } catch (HopValueException e) {
+      throw new HopDatabaseException("Unable to read the key position returned by lookup", e);
+    }
+  }
+
+  private static Object convert(IValueMeta target, IValueMeta source, Object value)
+      throws HopDatabaseException {
+    try {
+      return target.convertData(source, value);
+    } catch (HopValueException e) {
+      throw new HopDatabaseException(
+          "Unable to convert looked up value of column " + source.getName(), e);
+    }
+  }
+
+  private PreparedStatement prepare(int nrKeys) throws HopDatabaseException {
+    String sql = getSql(nrKeys);
+    try {
+      return db.getConnection().prepareStatement(db.getDatabaseMeta().stripCR(sql));
+    } catch (SQLException e) {
+      throw new HopDatabaseException(
+          "Unable to prepare statement for SQL statement [" + sql + "]", e);
+    }
+  }
+
+  /**
+   * @param nrKeys The number of keys to look up at once
+   * @return The lookup query for the given number of keys, returning the position of the key in the
+   *     batch followed by the return columns
+   */
+  public String getSql(int nrKeys) {
+    DatabaseMeta databaseMeta = db.getDatabaseMeta();
+    StringBuilder columns = new StringBuilder();
+    for (String returnColumn : returnColumns) {
+      columns.append(", ").append(databaseMeta.quoteField(returnColumn));
+    }
+    String condition = getKeyCondition(databaseMeta, keyColumns, 1);
+
+    StringBuilder sql = new StringBuilder();
+    for (int k = 0; k < nrKeys; k++) {
+      if (k > 0) {
+        sql.append(Const.CR).append("UNION ALL").append(Const.CR);
+      }
+      sql.append("SELECT ").append(k).append(columns);
+      sql.append(" FROM ").append(schemaTable);
+      sql.append(" WHERE ").append(condition);
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Build a condition matching any of a number of keys on equality.
+   *
+   * @param databaseMeta The database to quote the column names for
+   * @param keyColumns The key columns
+   * @param nrKeys The number of keys to match
+   * @return The condition, with one parameter per key column per key
+   */
+  public static String getKeyCondition(DatabaseMeta databaseMeta, String[] keyColumns, int nrKeys) {
+    StringBuilder condition = new StringBuilder();
+    for (int k = 0; k < nrKeys; k++) {
+      if (k > 0) {
+        condition.append(Const.CR).append("OR ");
+      }
+      condition.append("( ");
+      for (int i = 0; i < keyColumns.length; i++) {
+        if (i > 0) {
+          condition.append(" AND ");
+        }
+        condition.append(databaseMeta.quoteField(keyColumns[i])).append(" = ?");
+      }
+      condition.append(" )");
+    }
+    return condition.toString();
+  }
+
+  private IRowMeta getParameterRowMeta(int nrKeys) {
+    IRowMeta parameterRowMeta = new RowMeta();
+    for (int k = 0; k < nrKeys; k++) {
+      for (IValueMeta valueMeta : keyRowMeta.getValueMetaList()) {
+        parameterRowMeta.addValueMeta(valueMeta.clone());
+      }
+    }
+    return parameterRowMeta;
+  }
+
+  private static IRowMeta normalStorage(IRowMeta rowMeta) {
+    IRowMeta normal = new RowMeta();
+    for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+      IValueMeta clone = valueMeta.clone();
+      clone.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      clone.setStorageMetadata(null);
+      normal.addValueMeta(clone);
+    }
+    return normal;
+  }
+
+  /** Close the prepared statement kept for full batches. */
+  public void close() throws HopDatabaseException {
+    if (fullStatement != null) {
+      db.closePreparedStatement(fullStatement);
+      fullStatement = null;
+    }
+  }
+
+  /**
+   * @return The key metadata, in normal storage
+   */
+  public IRowMeta getKeyRowMeta() {
+    return keyRowMeta;
+  }
+
+  /**
+   * @return The return value metadata, in normal storage
+   */
+  public IRowMeta getReturnRowMeta() {
+    return returnRowMeta;
+  }
+}
@@ -230,7 +230,7 @@ public class HopLogStore {
 
       // Also remove the item from the registry.
       //
-      registry.getMap().remove(id);
+      registry.remove(id);
       metricsRegistry.getSnapshotLists().remove(id);
       metricsRegistry.getSnapshotMaps().remove(id);
     }
@@ -248,6 +248,9 @@ public class HopLogStore {
 
   public void reset() {
     if (initialized.compareAndSet(true, false)) {
+      if (appender != null) {
+        appender.close();
+      }
       appender = null;
       if (logCleanerTimer != null) {
         logCleanerTimer.cancel();
@@ -18,24 +18,61 @@
 package org.apache.hop.core.logging;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.EnvUtil;
 
-/** This class keeps the last N lines in a buffer */
+/**
+ * This class keeps the last N lines in a buffer.
+ *
+ * <p>The lines are indexed by sequence number, both globally and per log channel, in concurrent
+ * skip lists. Adding a line only holds a short lock to number and publish it, so lines become
+ * visible in the order of their numbers. The lines of a set of log channels after a given line
+ * number are looked up without scanning the complete buffer.
+ *
+ * <p>When asynchronous delivery is enabled (see {@link Const#HOP_LOG_ASYNC_LISTENERS}) the event
+ * listeners are called in batches from a separate thread so that logging threads never wait on slow
+ * listeners like log files.
+ */
 public class LoggingBuffer {
+  private static final int MAX_BATCH_SIZE = 1000;
+
+  /** The index key of lines without a log channel ID */
+  private static final String NO_CHANNEL_ID = "";
+
   private String name;
 
-  private List<BufferLine> buffer;
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** All the lines by sequence number */
+  private final ConcurrentSkipListMap<Integer, BufferLine> buffer = new ConcurrentSkipListMap<>();
+
+  /** The lines of every log channel by sequence number */
+  private final ConcurrentMap<String, ConcurrentSkipListMap<Integer, BufferLine>> channelBuffers =
+      new ConcurrentHashMap<>();
 
-  private int bufferSize;
+  /** The skip list size() method isn't constant time so we keep count ourselves */
+  private final AtomicInteger nrLines = new AtomicInteger();
+
+  /**
+   * Held while a line is numbered and published. Readers which continue after the last line number
+   * would otherwise skip a line with a lower number which is published later.
+   */
+  private final Object appendLock = new Object();
+
+  private volatile int bufferSize;
 
   private HopLogLayout layout;
 
@@ -43,14 +80,22 @@ public class LoggingBuffer {
 
   private LoggingRegistry loggingRegistry = LoggingRegistry.getInstance();
 
+  private volatile boolean asyncDelivery;
+  private final BlockingQueue<HopLoggingEvent> pendingEvents = new LinkedBlockingQueue<>();
+  private final Object deliveryLock = new Object();
+  private final AtomicLong nrEventsQueued = new AtomicLong();
+  private long nrEventsDelivered;
+  private volatile Thread deliveryThread;
+
+  /** The last error thrown by an event listener called from the delivery thread */
+  private volatile HopException listenerException;
+
   public LoggingBuffer(int bufferSize) {
     this.bufferSize = bufferSize;
-    // The buffer overflow protection allows it to be overflowed for 1 item within a single thread.
-    // Considering a possible high contention, let's set it's max overflow size to be 10%.
-    // Anyway, even an overflow goes higher than 10%, it wouldn't cost us too much.
-    buffer = new ArrayList<>((int) (bufferSize * 1.1));
     layout = new HopLogLayout(true);
     eventListeners = new CopyOnWriteArrayList<>();
+    asyncDelivery =
+        "Y".equalsIgnoreCase(EnvUtil.getSystemProperty(Const.HOP_LOG_ASYNC_LISTENERS, "N"));
   }
 
   /**
@@ -58,16 +103,8 @@ public class LoggingBuffer {
    *     buffer, 0 is returned.
    */
   public int getLastBufferLineNr() {
-    lock.readLock().lock();
-    try {
-      if (buffer.size() > 0) {
-        return buffer.get(buffer.size() - 1).getNr();
-      } else {
-        return 0;
-      }
-    } finally {
-      lock.readLock().unlock();
-    }
+    Map.Entry<Integer, BufferLine> last = buffer.lastEntry();
+    return last == null ? 0 : last.getKey();
   }
 
   /**
@@ -79,24 +116,42 @@ public class LoggingBuffer {
    */
   public List<HopLoggingEvent> getLogBufferFromTo(
       List<String> channelId, boolean includeGeneral, int from, int to) {
-    lock.readLock().lock();
-    try {
-      Stream<BufferLine> bufferStream =
-          buffer.stream().filter(line -> line.getNr() > from && line.getNr() <= to);
-      if (channelId != null) {
-        bufferStream =
-            bufferStream.filter(
-                line -> {
-                  String logChannelId = getLogChId(line);
-                  return includeGeneral
-                      ? isGeneral(logChannelId) || channelId.contains(logChannelId)
-                      : channelId.contains(logChannelId);
-                });
+    List<HopLoggingEvent> events = new ArrayList<>();
+    if (from >= to) {
+      return events;
+    }
+    if (channelId == null) {
+      for (BufferLine line : buffer.subMap(from, false, to, true).values()) {
+        events.add(line.getEvent());
+      }
+      return events;
+    }
+
+    // Collect the lines of the requested channels and merge them in sequence
+    //
+    Set<String> ids = new HashSet<>(channelId);
+    if (includeGeneral) {
+      for (String id : channelBuffers.keySet()) {
+        if (isGeneral(id)) {
+          ids.add(id);
+        }
+      }
+    }
+    List<BufferLine> lines = new ArrayList<>();
+    for (String id : ids) {
+      ConcurrentSkipListMap<Integer, BufferLine> channelBuffer =
+          id == null ? null : channelBuffers.get(id);
+      if (channelBuffer != null) {
+        lines.addAll(channelBuffer.subMap(from, false, to, true).values());
       }
-      return bufferStream.map(BufferLine::getEvent).collect(Collectors.toList());
-    } finally {
-      lock.readLock().unlock();
     }
+    if (ids.size() > 1) {
+      lines.sort(Comparator.comparingInt(BufferLine::getNr));
+    }
+    for (BufferLine line : lines) {
+      events.add(line.getEvent());
+    }
+    return events;
   }
 
   /**
@@ -144,18 +199,56 @@ public class LoggingBuffer {
     return getBuffer(null, true);
   }
 
-  public void close() {}
+  /** Deliver the pending events and stop the delivery thread. */
+  public void close() {
+    flush();
+    synchronized (deliveryLock) {
+      if (deliveryThread != null) {
+        deliveryThread.interrupt();
+        deliveryThread = null;
+      }
+    }
+  }
 
   public void doAppend(HopLoggingEvent event) {
     if (event.getMessage() instanceof LogMessage) {
-      lock.writeLock().lock();
-      try {
-        buffer.add(new BufferLine(event));
-        while (bufferSize > 0 && buffer.size() > bufferSize) {
-          buffer.remove(0);
+      synchronized (appendLock) {
+        BufferLine line = new BufferLine(event);
+
+        // Index the line before it becomes visible in the buffer so that a concurrent trim which
+        // polls it always finds the index to remove
+        //
+        channelBuffers.compute(
+            getLogChId(line),
+            (id, channelBuffer) -> {
+              if (channelBuffer == null) {
+                channelBuffer = new ConcurrentSkipListMap<>();
+              }
+              channelBuffer.put(line.getNr(), line);
+              return channelBuffer;
+            });
+        buffer.put(line.getNr(), line);
+        nrLines.incrementAndGet();
+      }
+
+      // Remove the oldest lines. Every removal is claimed by decrementing the line count first so
+      // that threads trimming at the same time never remove more lines than the excess.
+      //
+      while (true) {
+        int limit = bufferSize;
+        int count = nrLines.get();
+        if (limit <= 0 || count <= limit) {
+          break;
         }
-      } finally {
-        lock.writeLock().unlock();
+        if (!nrLines.compareAndSet(count, count - 1)) {
+          continue;
+        }
+        Map.Entry<Integer, BufferLine> first = buffer.pollFirstEntry();
+        if (first == null) {
+          nrLines.incrementAndGet();
+          break;
+        }
+        removeFromChannelBuffer(first.getValue());
       }
     }
   }
@@ -181,11 +274,12 @@ public class LoggingBuffer {
   }
 
   public void clear() {
-    lock.writeLock().lock();
-    try {
-      buffer.clear();
-    } finally {
-      lock.writeLock().unlock();
+    for (Integer nr : buffer.keySet()) {
+      BufferLine line = buffer.remove(nr);
+      if (line != null) {
+        nrLines.decrementAndGet();
+        removeFromChannelBuffer(line);
+      }
     }
   }
 
@@ -208,7 +302,7 @@ public class LoggingBuffer {
    * @return the nrLines
    */
   public int getNrLines() {
-    return buffer.size();
+    return nrLines.get();
   }
 
   /**
@@ -217,69 +311,185 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer(String id) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf(line -> id.equals(getLogChId(line)));
-    } finally {
-      lock.writeLock().unlock();
+    if (id == null) {
+      return;
+    }
+    ConcurrentSkipListMap<Integer, BufferLine> channelBuffer = channelBuffers.remove(id);
+    if (channelBuffer != null) {
+      for (Integer nr : channelBuffer.keySet()) {
+        if (buffer.remove(nr) != null) {
+          nrLines.decrementAndGet();
+        }
+      }
     }
   }
 
   public int size() {
-    return buffer.size();
+    return nrLines.get();
   }
 
   public void removeGeneralMessages() {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf(line -> isGeneral(getLogChId(line)));
-    } finally {
-      lock.writeLock().unlock();
+    for (String id : channelBuffers.keySet()) {
+      if (isGeneral(id)) {
+        removeChannelFromBuffer(id);
+      }
     }
   }
 
   public void removeBufferLinesBefore(long minTimeBoundary) {
-    // Using HashSet even though BufferLine does not implement hashcode and equals,
-    // we just need to remove the exact objects we have found and put in the set.
-    Set<BufferLine> linesToRemove = new HashSet<>();
-    lock.writeLock().lock();
-    try {
-      for (BufferLine bufferLine : buffer) {
-        if (bufferLine.getEvent().timeStamp < minTimeBoundary) {
-          linesToRemove.add(bufferLine);
-        } else {
-          break;
-        }
+    // The lines are sorted by sequence so we can stop at the first line which is recent enough
+    //
+    for (Map.Entry<Integer, BufferLine> entry : buffer.entrySet()) {
+      if (entry.getValue().getEvent().timeStamp >= minTimeBoundary) {
+        break;
+      }
+      if (buffer.remove(entry.getKey(), entry.getValue())) {
+        nrLines.decrementAndGet();
+        removeFromChannelBuffer(entry.getValue());
       }
-      // removeAll should run fast against a HashSet,
-      // since ArrayList.batchRemove check for each element of a collection given if it is in the
-      // ArrayList.
-      // Thus, removeAll should run in a linear time.
-      buffer.removeAll(linesToRemove);
-    } finally {
-      lock.writeLock().unlock();
     }
   }
 
   public void addLogggingEvent(HopLoggingEvent loggingEvent) {
     doAppend(loggingEvent);
-    eventListeners.forEach(event -> event.eventAdded(loggingEvent));
+    if (eventListeners.isEmpty()) {
+      return;
+    }
+    if (asyncDelivery) {
+      nrEventsQueued.incrementAndGet();
+      pendingEvents.add(loggingEvent);
+      if (deliveryThread == null) {
+        startDeliveryThread();
+      }
+    } else {
+      eventListeners.forEach(event -> event.eventAdded(loggingEvent));
+    }
   }
 
   public void addLoggingEventListener(IHopLoggingEventListener listener) {
     eventListeners.add(listener);
   }
 
+  /**
+   * Remove an event listener. The events which are still pending are delivered first so that the
+   * listener receives all the events logged before it was removed.
+   *
+   * @param listener the listener to remove
+   */
   public void removeLoggingEventListener(IHopLoggingEventListener listener) {
+    flush();
     eventListeners.remove(listener);
   }
 
+  /**
+   * Wait until all the events added so far were delivered to the event listeners. This returns
+   * immediately when the listeners are called synchronously.
+   */
+  public void flush() {
+    synchronized (deliveryLock) {
+      long target = nrEventsQueued.get();
+      while (nrEventsDelivered < target && deliveryThread != null) {
+        if (Thread.currentThread() == deliveryThread) {
+          // A listener can't wait on itself
+          return;
+        }
+        try {
+          deliveryLock.wait(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if the event listeners are called in batches from a separate thread
+   */
+  public boolean isAsyncDelivery() {
+    return asyncDelivery;
+  }
+
+  /**
+   * @param asyncDelivery true to call the event listeners in batches from a separate thread, false
+   *     to call them from the logging thread
+   */
+  public void setAsyncDelivery(boolean asyncDelivery) {
+    if (!asyncDelivery) {
+      flush();
+    }
+    this.asyncDelivery = asyncDelivery;
+  }
+
+  /**
+   * @return the last error thrown by an event listener called from the delivery thread or null if
+   *     there was none
+   */
+  public HopException getListenerException() {
+    return listenerException;
+  }
+
+  private void startDeliveryThread() {
+    synchronized (deliveryLock) {
+      if (deliveryThread == null) {
+        Thread thread = new Thread(this::deliverEvents, "Hop logging event delivery");
+        thread.setDaemon(true);
+        deliveryThread = thread;
+        thread.start();
+      }
+    }
+  }
+
+  private void deliverEvents() {
+    List<HopLoggingEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        HopLoggingEvent first = pendingEvents.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        pendingEvents.drainTo(batch, MAX_BATCH_SIZE - 1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      for (HopLoggingEvent event : batch) {
+        for (IHopLoggingEventListener listener : eventListeners) {
+          try {
+            listener.eventAdded(event);
+          } catch (Exception e) {
+            // Don't let a failing listener stop the delivery to the others
+            listenerException =
+                new HopException("Unable to deliver a logging event to listener " + listener, e);
+          }
+        }
+      }
+      synchronized (deliveryLock) {
+        nrEventsDelivered += batch.size();
+        deliveryLock.notifyAll();
+      }
+      batch.clear();
+    }
+  }
+
+  private void removeFromChannelBuffer(BufferLine line) {
+    // Drop the index of a channel once its last line is gone
+    //
+    channelBuffers.computeIfPresent(
+        getLogChId(line),
+        (id, channelBuffer) -> {
+          channelBuffer.remove(line.getNr());
+          return channelBuffer.isEmpty() ? null : channelBuffer;
+        });
+  }
+
   private boolean isGeneral(String logChannelId) {
     ILoggingObject loggingObject = loggingRegistry.getLoggingObject(logChannelId);
     return loggingObject != null && LoggingObjectType.GENERAL.equals(loggingObject.getObjectType());
   }
 
   private static String getLogChId(BufferLine bufferLine) {
-    return ((LogMessage) bufferLine.getEvent().getMessage()).getLogChannelId();
+    String logChannelId = ((LogMessage) bufferLine.getEvent().getMessage()).getLogChannelId();
+    return logChannelId == null ? NO_CHANNEL_ID : logChannelId;
   }
 }
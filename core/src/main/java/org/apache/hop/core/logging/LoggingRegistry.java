@@ -21,30 +21,57 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.util.EnvUtil;
 
+/**
+ * The registry of all the logging sources: pipelines, workflows, transforms, actions, databases and
+ * so on. Every logging source gets a log channel ID and the parent-child relationships between log
+ * channels are kept as a tree.
+ *
+ * <p>There is no global lock: logging sources which can be the same (same container ID and name)
+ * are registered under a striped lock, existing sources are looked up in a small bucket of
+ * candidates and the oldest entries are trimmed first when the registry grows beyond its maximum
+ * size.
+ */
 public class LoggingRegistry {
+  private static final int NR_OF_LOCKS = 64;
+  private static final int MAX_DEPTH = 1000;
+
   private static LoggingRegistry registry = new LoggingRegistry();
-  private Map<String, ILoggingObject> map;
+  private IndexedLoggingObjectMap map;
   private Map<String, LogChannelFileWriterBuffer> fileWriterBuffers;
-  private Map<String, List<String>> childrenMap;
-  private Date lastModificationTime;
+  private Map<String, Set<String>> childrenMap;
+  private volatile Date lastModificationTime;
   private int maxSize;
   private final int DEFAULT_MAX_SIZE = 10000;
 
-  private final Object syncObject = new Object();
+  /** The log channel IDs in order of registration, the oldest are trimmed first */
+  private final Queue<String> registrationOrder = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger registrationOrderSize = new AtomicInteger();
+
+  private final Object[] locks = new Object[NR_OF_LOCKS];
+
+  private final Object trimLock = new Object();
 
   private LoggingRegistry() {
-    this.map = new ConcurrentHashMap<>();
+    this.map = new IndexedLoggingObjectMap();
     this.childrenMap = new ConcurrentHashMap<>();
     this.fileWriterBuffers = new ConcurrentHashMap<>();
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
 
     this.lastModificationTime = new Date();
     this.maxSize =
@@ -60,9 +87,10 @@ public class LoggingRegistry {
   }
 
   public String registerLoggingSource(Object object, boolean forceNewEntry) {
-    synchronized (this.syncObject) {
-      LoggingObject loggingSource = new LoggingObject(object);
+    LoggingObject loggingSource = new LoggingObject(object);
 
+    String logChannelId;
+    synchronized (locks[Math.floorMod(getBucketKey(loggingSource).hashCode(), NR_OF_LOCKS)]) {
       ILoggingObject found;
 
       if (forceNewEntry) {
@@ -88,71 +116,80 @@ public class LoggingRegistry {
         }
       }
 
-      String logChannelId = UUID.randomUUID().toString();
+      logChannelId = UUID.randomUUID().toString();
       loggingSource.setLogChannelId(logChannelId);
 
+      Date registrationDate = new Date();
+      loggingSource.setRegistrationDate(registrationDate);
       this.map.put(logChannelId, loggingSource);
+      this.lastModificationTime = registrationDate;
+    }
 
-      if (loggingSource.getParent() != null) {
-        String parentLogChannelId = loggingSource.getParent().getLogChannelId();
-        if (parentLogChannelId != null) {
-          List<String> parentChildren =
-              this.childrenMap.computeIfAbsent(parentLogChannelId, k -> new ArrayList<>());
-          parentChildren.add(logChannelId);
-        }
+    if (loggingSource.getParent() != null) {
+      String parentLogChannelId = loggingSource.getParent().getLogChannelId();
+      if (parentLogChannelId != null) {
+        Set<String> parentChildren =
+            this.childrenMap.computeIfAbsent(
+                parentLogChannelId, k -> Collections.synchronizedSet(new LinkedHashSet<>()));
+        parentChildren.add(logChannelId);
+      }
+    }
+
+    if (this.maxSize > 0) {
+      registrationOrder.add(logChannelId);
+      registrationOrderSize.incrementAndGet();
+      if (this.map.size() > this.maxSize) {
+        trim();
       }
+    }
+    return logChannelId;
+  }
 
-      this.lastModificationTime = new Date();
-      loggingSource.setRegistrationDate(this.lastModificationTime);
-
-      if ((this.maxSize > 0) && (this.map.size() > this.maxSize)) {
-        List<ILoggingObject> all = new ArrayList<>(this.map.values());
-        Collections.sort(
-            all,
-            (o1, o2) -> {
-              if ((o1 == null) && (o2 != null)) {
-                return -1;
-              }
-              if ((o1 != null) && (o2 == null)) {
-                return 1;
-              }
-              if ((o1 == null) && (o2 == null)) {
-                return 0;
-              }
-              if (o1.getRegistrationDate() == null && o2.getRegistrationDate() != null) {
-                return -1;
-              }
-              if (o1.getRegistrationDate() != null && o2.getRegistrationDate() == null) {
-                return 1;
-              }
-              if (o1.getRegistrationDate() == null && o2.getRegistrationDate() == null) {
-                return 0;
-              }
-              return (o1.getRegistrationDate().compareTo(o2.getRegistrationDate()));
-            });
-        int cutCount = this.maxSize < 1000 ? this.maxSize : 1000;
-        Set<String> channelsNotToRemove = getLogChannelFileWriterBufferIds();
-        for (int i = 0; i < cutCount; i++) {
-          ILoggingObject toRemove = all.get(i);
-          if (!channelsNotToRemove.contains(toRemove.getLogChannelId())) {
-            this.map.remove(toRemove.getLogChannelId());
-          }
+  /**
+   * Remove the oldest log channels, except the ones writing to a log file, to get back below the
+   * maximum size.
+   */
+  private void trim() {
+    synchronized (trimLock) {
+      if (this.map.size() <= this.maxSize) {
+        return;
+      }
+      int cutCount = this.maxSize < 1000 ? this.maxSize : 1000;
+      List<String> kept = new ArrayList<>();
+      for (int i = 0; i < cutCount; i++) {
+        String logChannelId = registrationOrder.poll();
+        if (logChannelId == null) {
+          break;
+        }
+        registrationOrderSize.decrementAndGet();
+        if (!this.map.containsKey(logChannelId)) {
+          // Removed already
+          i--;
+          continue;
+        }
+        if (getLogChannelFileWriterBuffer(logChannelId) != null) {
+          kept.add(logChannelId);
+        } else {
+          remove(logChannelId);
         }
-        removeOrphans();
       }
-      return logChannelId;
+      registrationOrder.addAll(kept);
+      registrationOrderSize.addAndGet(kept.size());
     }
   }
 
   public ILoggingObject findExistingLoggingSource(ILoggingObject loggingObject) {
-    ILoggingObject found = null;
-    for (ILoggingObject verify : this.map.values()) {
-      if (loggingObject.equals(verify)) {
-        found = verify;
-        break;
+    Set<String> candidates = this.map.getBucket(getBucketKey(loggingObject));
+    if (candidates == null) {
+      return null;
+    }
+    for (String logChannelId : candidates) {
+      ILoggingObject verify = this.map.get(logChannelId);
+      if (verify != null && loggingObject.equals(verify)) {
+        return verify;
       }
     }
-    return found;
+    return null;
   }
 
   public ILoggingObject getLoggingObject(String logChannelId) {
@@ -172,24 +209,37 @@ public class LoggingRegistry {
     return list;
   }
 
-  private List<String> getLogChannelChildren(List<String> children, String parentLogChannelId) {
-    synchronized (this.syncObject) {
-      List<String> list = this.childrenMap.get(parentLogChannelId);
-      if (list == null) {
-        // Don't do anything, just return the input.
-        return children;
-      }
+  /**
+   * @param parentLogChannelId the parent log channel ID
+   * @return a copy of the IDs of the direct children of the log channel or null if it has none
+   */
+  public List<String> getLogChannelDirectChildren(String parentLogChannelId) {
+    Set<String> set = parentLogChannelId == null ? null : this.childrenMap.get(parentLogChannelId);
+    if (set == null) {
+      return null;
+    }
+    synchronized (set) {
+      return new ArrayList<>(set);
+    }
+  }
 
-      Iterator<String> kids = list.iterator();
-      while (kids.hasNext()) {
-        String logChannelId = kids.next();
+  private List<String> getLogChannelChildren(List<String> children, String parentLogChannelId) {
+    Set<String> set = this.childrenMap.get(parentLogChannelId);
+    if (set == null) {
+      // Don't do anything, just return the input.
+      return children;
+    }
 
-        // Add the children recursively
-        getLogChannelChildren(children, logChannelId);
+    List<String> kids;
+    synchronized (set) {
+      kids = new ArrayList<>(set);
+    }
+    for (String logChannelId : kids) {
+      // Add the children recursively
+      getLogChannelChildren(children, logChannelId);
 
-        // Also add the current parent
-        children.add(logChannelId);
-      }
+      // Also add the current parent
+      children.add(logChannelId);
     }
 
     return children;
@@ -236,18 +286,41 @@ public class LoggingRegistry {
    *
    * @return ro parent-child relations map
    */
-  Map<String, List<String>> dumpChildren() {
+  Map<String, Set<String>> dumpChildren() {
     return Collections.unmodifiableMap(this.childrenMap);
   }
 
+  /**
+   * Remove a log channel and all its children from the registry. This only touches the log channels
+   * of the sub-tree.
+   *
+   * @param logChannelId the log channel ID to remove
+   */
   public void removeIncludingChildren(String logChannelId) {
-    synchronized (this.map) {
-      List<String> children = getLogChannelChildren(logChannelId);
-      for (String child : children) {
-        this.map.remove(child);
+    if (logChannelId == null) {
+      return;
+    }
+    for (String child : getLogChannelChildren(logChannelId)) {
+      remove(child);
+    }
+    compactRegistrationOrder();
+  }
+
+  /**
+   * Remove a single log channel from the registry. Its children stay registered.
+   *
+   * @param logChannelId the log channel ID to remove
+   */
+  public void remove(String logChannelId) {
+    ILoggingObject loggingObject = this.map.remove(logChannelId);
+    this.childrenMap.remove(logChannelId);
+    if (loggingObject != null && loggingObject.getParent() != null) {
+      String parentLogChannelId = loggingObject.getParent().getLogChannelId();
+      Set<String> siblings =
+          parentLogChannelId == null ? null : this.childrenMap.get(parentLogChannelId);
+      if (siblings != null) {
+        siblings.remove(logChannelId);
       }
-      this.map.remove(logChannelId);
-      removeOrphans();
     }
   }
 
@@ -256,15 +329,42 @@ public class LoggingRegistry {
     this.childrenMap.keySet().retainAll(this.map.keySet());
   }
 
+  /** Forget about removed log channels once they make up most of the registration order. */
+  private void compactRegistrationOrder() {
+    if (this.maxSize > 0 && registrationOrderSize.get() > 2 * this.map.size() + 1000) {
+      synchronized (trimLock) {
+        registrationOrder.removeIf(id -> !this.map.containsKey(id));
+        registrationOrderSize.set(registrationOrder.size());
+      }
+    }
+  }
+
   public void registerLogChannelFileWriterBuffer(LogChannelFileWriterBuffer fileWriterBuffer) {
     this.fileWriterBuffers.put(fileWriterBuffer.getLogChannelId(), fileWriterBuffer);
   }
 
+  /**
+   * Find the file writer buffer of the log channel or of the closest parent log channel which has
+   * one.
+   *
+   * @param id the log channel ID
+   * @return the file writer buffer or null if there is none
+   */
   public LogChannelFileWriterBuffer getLogChannelFileWriterBuffer(String id) {
-    for (String bufferId : this.fileWriterBuffers.keySet()) {
-      if (getLogChannelChildren(bufferId).contains(id)) {
-        return this.fileWriterBuffers.get(bufferId);
+    if (this.fileWriterBuffers.isEmpty() || id == null) {
+      return null;
+    }
+    String logChannelId = id;
+    for (int depth = 0; logChannelId != null && depth < MAX_DEPTH; depth++) {
+      LogChannelFileWriterBuffer fileWriterBuffer = this.fileWriterBuffers.get(logChannelId);
+      if (fileWriterBuffer != null) {
+        return fileWriterBuffer;
+      }
+      ILoggingObject loggingObject = this.map.get(logChannelId);
+      if (loggingObject == null || loggingObject.getParent() == null) {
+        return null;
       }
+      logChannelId = loggingObject.getParent().getLogChannelId();
     }
     return null;
   }
@@ -272,8 +372,6 @@ public class LoggingRegistry {
   protected Set<String> getLogChannelFileWriterBufferIds() {
     Set<String> bufferIds = this.fileWriterBuffers.keySet();
 
-    // Changed to a set as a band-aid. This stuff really should be done
-    // using a proper LRU cache.
     Set<String> ids = new HashSet<>();
     for (String id : bufferIds) {
       ids.addAll(getLogChannelChildren(id));
@@ -284,20 +382,19 @@ public class LoggingRegistry {
   }
 
   public void removeLogChannelFileWriterBuffer(String id) {
-    Set<String> bufferIds = this.fileWriterBuffers.keySet();
-
-    for (String bufferId : bufferIds) {
-      if (getLogChannelChildren(id).contains(bufferId)) {
-        this.fileWriterBuffers.remove(bufferId);
-      }
+    List<String> children = getLogChannelChildren(id);
+    if (children != null) {
+      this.fileWriterBuffers.keySet().removeAll(children);
     }
   }
 
   public void reset() {
-    synchronized (this.syncObject) {
+    synchronized (trimLock) {
       map.clear();
       childrenMap.clear();
       fileWriterBuffers.clear();
+      registrationOrder.clear();
+      registrationOrderSize.set(0);
     }
   }
 
@@ -306,7 +403,75 @@ public class LoggingRegistry {
    *
    * @return value of childrenMap
    */
-  public Map<String, List<String>> getChildrenMap() {
+  public Map<String, Set<String>> getChildrenMap() {
     return childrenMap;
   }
+
+  /**
+   * Logging sources can only be the same if they have the same container ID and name.
+   *
+   * @param loggingObject the logging source
+   * @return the key of the bucket of candidates
+   */
+  private static String getBucketKey(ILoggingObject loggingObject) {
+    return Objects.toString(loggingObject.getContainerId(), "")
+        + "/"
+        + Objects.toString(loggingObject.getObjectName(), "");
+  }
+
+  /**
+   * The log channels by ID, indexed by bucket key to quickly find existing logging sources. The
+   * index is also kept up to date when entries are added or removed through {@link #getMap()}.
+   */
+  private static class IndexedLoggingObjectMap extends ConcurrentHashMap<String, ILoggingObject> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<String, Set<String>> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public ILoggingObject put(String logChannelId, ILoggingObject loggingObject) {
+      ILoggingObject previous = super.put(logChannelId, loggingObject);
+      if (previous != null) {
+        removeFromBucket(logChannelId, previous);
+      }
+      buckets.compute(
+          getBucketKey(loggingObject),
+          (key, bucket) -> {
+            if (bucket == null) {
+              bucket = ConcurrentHashMap.newKeySet();
+            }
+            bucket.add(logChannelId);
+            return bucket;
+          });
+      return previous;
+    }
+
+    @Override
+    public ILoggingObject remove(Object logChannelId) {
+      ILoggingObject previous = super.remove(logChannelId);
+      if (previous != null) {
+        removeFromBucket((String) logChannelId, previous);
+      }
+      return previous;
+    }
+
+    @Override
+    public void clear() {
+      super.clear();
+      buckets.clear();
+    }
+
+    Set<String> getBucket(String bucketKey) {
+      return buckets.get(bucketKey);
+    }
+
+    private void removeFromBucket(String logChannelId, ILoggingObject loggingObject) {
+      buckets.computeIfPresent(
+          getBucketKey(loggingObject),
+          (key, bucket) -> {
+            bucket.remove(logChannelId);
+            return bucket.isEmpty() ? null : bucket;
+          });
+    }
+  }
 }
@@ -17,10 +17,20 @@
 
 package org.apache.hop.core.plugins;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Enumeration;
@@ -34,15 +44,20 @@ import java.util.zip.ZipEntry;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.logging.LogChannel;
 import org.apache.hop.core.util.EnvUtil;
 import org.apache.hop.core.variables.Variables;
 import org.jboss.jandex.Index;
 import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
 
 public class JarCache {
 
   public static final String ANNOTATION_INDEX_LOCATION = "META-INF/jandex.idx";
 
+  /** Version of the layout of the persisted plugin index file */
+  private static final int PERSISTED_INDEX_VERSION = 2;
+
   private static JarCache instance;
 
   private final Map<File, Index> indexCache;
@@ -50,11 +65,22 @@ public class JarCache {
   private final Set<File> nativeFiles;
   private final Set<File> pluginFiles;
 
+  /** All the jar files found in the plugin folders, with or without annotation index */
+  private final Set<File> scannedJarFiles;
+
+  /** The annotation indexes read from the persisted plugin index file, by jar file */
+  private final Map<File, PersistedIndex> persistedIndexes;
+
+  /** Set to true when a plugin jar was read which wasn't in the persisted plugin index file */
+  private boolean persistedIndexChanged;
+
   private JarCache() {
     nativeFiles = new HashSet<>();
     pluginFiles = new HashSet<>();
+    scannedJarFiles = new HashSet<>();
     jarFiles = new HashMap<>();
     indexCache = new HashMap<>();
+    persistedIndexes = new HashMap<>();
   }
 
   public static JarCache getInstance() {
@@ -137,26 +163,176 @@ public class JarCache {
     //
     if (pluginFiles.isEmpty()) {
 
+      File persistedIndexFile = getPersistedIndexFile();
+      if (persistedIndexFile != null) {
+        loadPersistedIndexes(persistedIndexFile);
+      }
+
       for (String pluginFolder : getPluginFolders()) {
 
         for (File file : this.findJarFiles(new File(pluginFolder))) {
+          scannedJarFiles.add(file);
           Index index = this.getIndex(file);
           if (index != null) {
             pluginFiles.add(file);
           }
         }
       }
+
+      if (persistedIndexFile != null
+          && (persistedIndexChanged || !persistedIndexes.keySet().equals(scannedJarFiles))) {
+        savePersistedIndexes(persistedIndexFile);
+      }
     }
     return pluginFiles;
   }
 
+  /**
+   * Get the file in which the annotation indexes of the plugin jar files are kept between runs.
+   * This is set with variable HOP_PLUGIN_INDEX_FILE.
+   *
+   * @return The file or null if no plugin index file is configured.
+   */
+  public File getPersistedIndexFile() {
+    String filename =
+        Const.NVL(
+            Variables.getADefaultVariableSpace().getVariable(Const.HOP_PLUGIN_INDEX_FILE),
+            EnvUtil.getSystemProperty(Const.HOP_PLUGIN_INDEX_FILE));
+    if (StringUtils.isEmpty(filename)) {
+      return null;
+    }
+    return new File(filename);
+  }
+
+  /**
+   * Read the annotation indexes which were saved during an earlier run. An index is only used if
+   * the size and modification time of the jar file are still the same.
+   *
+   * @param indexFile The file to read from
+   */
+  private void loadPersistedIndexes(File indexFile) {
+    persistedIndexes.clear();
+    persistedIndexChanged = false;
+    if (!indexFile.exists()) {
+      persistedIndexChanged = true;
+      return;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+      if (in.readInt() != PERSISTED_INDEX_VERSION) {
+        persistedIndexChanged = true;
+        return;
+      }
+      int nrEntries = in.readInt();
+      for (int i = 0; i < nrEntries; i++) {
+        File jarFile = new File(in.readUTF());
+        long length = in.readLong();
+        long lastModified = in.readLong();
+        byte[] indexBytes = null;
+        if (in.readBoolean()) {
+          indexBytes = new byte[in.readInt()];
+          in.readFully(indexBytes);
+        }
+        persistedIndexes.put(jarFile, new PersistedIndex(length, lastModified, indexBytes));
+      }
+    } catch (IOException e) {
+      LogChannel.GENERAL.logError(
+          "Unable to read plugin index file '" + indexFile + "', plugins will be scanned", e);
+      persistedIndexes.clear();
+      persistedIndexChanged = true;
+    }
+  }
+
+  /**
+   * Write the annotation indexes of all the plugin jar files to the given file.
+   *
+   * @param indexFile The file to write to
+   */
+  private void savePersistedIndexes(File indexFile) {
+    Path tempFile = null;
+    try {
+      File parentFolder = indexFile.getAbsoluteFile().getParentFile();
+      if (!parentFolder.exists()) {
+        parentFolder.mkdirs();
+      }
+      // Every process writes its own temporary file next to the index file: parallel runs can't
+      // overwrite each other's file and the move below stays on the same file system.
+      //
+      tempFile = Files.createTempFile(parentFolder.toPath(), indexFile.getName(), ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeInt(PERSISTED_INDEX_VERSION);
+        out.writeInt(scannedJarFiles.size());
+        for (File jarFile : scannedJarFiles) {
+          // Jar files without annotation index are saved as well so that they aren't opened again
+          // on the next run.
+          //
+          Index index = indexCache.get(jarFile);
+          out.writeUTF(jarFile.getPath());
+          out.writeLong(jarFile.length());
+          out.writeLong(jarFile.lastModified());
+          out.writeBoolean(index != null);
+          if (index != null) {
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            new IndexWriter(indexBytes).write(index);
+            out.writeInt(indexBytes.size());
+            indexBytes.writeTo(out);
+          }
+        }
+      }
+      // Replace the old file in one go so that parallel runs never read half a file.
+      //
+      Files.move(
+          tempFile,
+          indexFile.toPath(),
+          StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      persistedIndexChanged = false;
+    } catch (Exception e) {
+      LogChannel.GENERAL.logError("Unable to write plugin index file '" + indexFile + "'", e);
+      if (tempFile != null) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException deleteException) {
+          // Nothing more we can do
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the persisted annotation index of a jar file if it's still valid.
+   *
+   * @param jarFile The jar file
+   * @return The persisted index or null if the jar file is unknown or was changed.
+   */
+  private PersistedIndex getPersistedIndex(File jarFile) {
+    PersistedIndex persisted = persistedIndexes.get(jarFile);
+    if (persisted == null
+        || persisted.length != jarFile.length()
+        || persisted.lastModified != jarFile.lastModified()) {
+      return null;
+    }
+    return persisted;
+  }
+
   public Index getIndex(File jarFile) throws HopFileException {
 
-    // Search annotation index from cache
+    // Search annotation index from cache, a jar file without index is cached as null
     //
-    Index index = indexCache.get(jarFile);
+    if (indexCache.containsKey(jarFile)) {
+      return indexCache.get(jarFile);
+    }
 
-    if (index == null) {
+    Index index;
+    PersistedIndex persisted = getPersistedIndex(jarFile);
+    if (persisted != null) {
+      index = persisted.readIndex();
+    } else {
+      // Not known yet: the persisted plugin index needs to be updated.
+      //
+      persistedIndexChanged = true;
+      index = null;
 
       try (JarFile jar = new JarFile(jarFile)) {
         ZipEntry entry = jar.getEntry(ANNOTATION_INDEX_LOCATION);
@@ -164,19 +340,18 @@ public class JarCache {
           try (InputStream stream = jar.getInputStream(entry)) {
             IndexReader reader = new IndexReader(stream);
             index = reader.read();
-            indexCache.put(jarFile, index);
           }
         }
       } catch (IOException e) {
         throw new HopFileException(
             MessageFormat.format("Error reading annotation index from file ''{0}''", jarFile), e);
       }
-
-      // Cache annotation index of jars
-      //
-      indexCache.put(jarFile, index);
     }
 
+    // Cache annotation index of jars
+    //
+    indexCache.put(jarFile, index);
+
     return index;
   }
 
@@ -185,6 +360,8 @@ public class JarCache {
     pluginFiles.clear();
     indexCache.clear();
     jarFiles.clear();
+    scannedJarFiles.clear();
+    persistedIndexes.clear();
   }
 
   public Set<File> findJarFiles(final File folder) throws HopFileException {
@@ -233,4 +410,32 @@ public class JarCache {
 
     return files;
   }
+
+  private static final class PersistedIndex {
+    private final long length;
+    private final long lastModified;
+
+    /** The serialized annotation index or null if the jar file doesn't have one */
+    private final byte[] indexBytes;
+
+    private PersistedIndex(long length, long lastModified, byte[] indexBytes) {
+      this.length = length;
+      this.lastModified = lastModified;
+      this.indexBytes = indexBytes;
+    }
+
+    /**
+     * @return The annotation index or null if the jar file doesn't have one.
+     */
+    private Index readIndex() throws HopFileException {
+      if (indexBytes == null) {
+        return null;
+      }
+      try {
+        return new IndexReader(new ByteArrayInputStream(indexBytes)).read();
+      } catch (IOException e) {
+        throw new HopFileException("Error reading persisted annotation index", e);
+      }
+    }
+  }
 }
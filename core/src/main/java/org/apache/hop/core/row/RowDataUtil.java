@@ -190,4 +190,47 @@ public class RowDataUtil {
 
     return data;
   }
+
+  /**
+   * Estimate the number of bytes a row with the given layout takes on the heap. This is a rough
+   * estimate based on the data types and lengths of the values. It's meant to size buffers, not to
+   * do exact memory accounting.
+   *
+   * @param rowMeta The row layout
+   * @return The estimated number of bytes of a row
+   */
+  public static long estimateRowSize(IRowMeta rowMeta) {
+    // The object array itself: header and a reference per slot
+    //
+    long size = 16L + 8L * (rowMeta.size() + OVER_ALLOCATE_SIZE);
+    for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+      int length = valueMeta.getLength();
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_STRING:
+          size += 40L + (length > 0 ? Math.min(length, 1000) : 20);
+          break;
+        case IValueMeta.TYPE_BINARY:
+          size += 16L + (length > 0 ? Math.min(length, 1000) : 100);
+          break;
+        case IValueMeta.TYPE_BIGNUMBER:
+          size += 64L;
+          break;
+        case IValueMeta.TYPE_DATE:
+        case IValueMeta.TYPE_TIMESTAMP:
+          size += 32L;
+          break;
+        case IValueMeta.TYPE_INTEGER:
+        case IValueMeta.TYPE_NUMBER:
+          size += 24L;
+          break;
+        case IValueMeta.TYPE_BOOLEAN:
+          size += 16L;
+          break;
+        default:
+          size += 64L;
+          break;
+      }
+    }
+    return size;
+  }
 }
@@ -47,7 +47,6 @@ import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.ssl.TrustStrategy;
@@ -154,15 +153,19 @@ public class HttpClientManager {
               .register("http", new PlainConnectionSocketFactory())
               .build();
 
-      BasicHttpClientConnectionManager connectionManager =
-          new BasicHttpClientConnectionManager(socketFactoryRegistry);
+      PoolingHttpClientConnectionManager connectionManager =
+          new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+      connectionManager.setDefaultMaxPerRoute(CONNECTIONS_PER_ROUTE);
+      connectionManager.setMaxTotal(TOTAL_CONNECTIONS);
 
       httpClientBuilder.setSSLSocketFactory(sslsf).setConnectionManager(connectionManager);
     }
 
     public CloseableHttpClient build() {
       HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
-      httpClientBuilder.setConnectionManager(manager);
+      // Closing a client must not shut down the connection pool shared by all other clients
+      //
+      httpClientBuilder.setConnectionManager(manager).setConnectionManagerShared(true);
 
       RequestConfig.Builder requestConfigBuilder = RequestConfig.custom();
       if (socketTimeout > 0) {
@@ -184,6 +187,7 @@ public class HttpClientManager {
       }
       if (ignoreSsl) {
         ignoreSsl(httpClientBuilder);
+        httpClientBuilder.setConnectionManagerShared(false);
       }
 
       return httpClientBuilder.build();
@@ -23,6 +23,8 @@ import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.encryption.Encr;
@@ -42,6 +44,40 @@ import org.apache.hop.metadata.util.ReflectionUtil;
 import org.w3c.dom.Node;
 
 public class XmlMetadataUtil {
+
+  /**
+   * The serializable fields per class. Looking these up means scanning all the declared fields of
+   * the class hierarchy and sorting them. We only want to do that once per class, not once for
+   * every transform or action we load.
+   */
+  private static final Map<Class<?>, List<Field>> propertyFieldsCache = new ConcurrentHashMap<>();
+
+  /**
+   * Get the fields of the given class (and its parent classes) which are annotated with
+   * HopMetadataProperty. Transient and volatile fields are skipped. The fields are sorted by key to
+   * get a stable XML output. The result is cached per class.
+   *
+   * @param clazz The class to investigate
+   * @return The sorted list of fields to (de-)serialize
+   */
+  public static List<Field> getPropertyFields(Class<?> clazz) {
+    return propertyFieldsCache.computeIfAbsent(
+        clazz,
+        c -> {
+          List<Field> fields = new ArrayList<>();
+          for (Field field : ReflectionUtil.findAllFields(c, new MetadataPropertyKeyFunction())) {
+            // Don't serialize fields flagged as transient or volatile
+            //
+            if (Modifier.isTransient(field.getModifiers())
+                || Modifier.isVolatile(field.getModifiers())) {
+              continue;
+            }
+            fields.add(field);
+          }
+          return List.copyOf(fields);
+        });
+  }
+
   /**
    * This method looks at the fields in the class of the provided object. It then sees which fields
    * have annotation HopMetadataProperty and proceeds to serialize the values of those fields as
@@ -64,14 +100,8 @@ public class XmlMetadataUtil {
     // Pick up all the fields with @HopMetadataProperty annotation, sorted by name.
     // Serialize them to XML.
     //
-    List<Field> fields =
-        ReflectionUtil.findAllFields(objectClass, new MetadataPropertyKeyFunction());
+    List<Field> fields = getPropertyFields(objectClass);
     for (Field field : fields) {
-      // Don't serialize fields flagged as transient or volatile
-      //
-      if (Modifier.isTransient(field.getModifiers()) || Modifier.isVolatile(field.getModifiers())) {
-        continue;
-      }
       HopMetadataProperty property = field.getAnnotation(HopMetadataProperty.class);
       if (property != null) {
         String groupKey = property.groupKey();
@@ -340,15 +370,8 @@ public class XmlMetadataUtil {
     // Pick up all the @HopMetadataProperty annotations.
     // The fields are sorted by name to get a stable XML output when serialized.
     //
-    List<Field> fields =
-        ReflectionUtil.findAllFields(object.getClass(), new MetadataPropertyKeyFunction());
+    List<Field> fields = getPropertyFields(object.getClass());
     for (Field field : fields) {
-      // Don't serialize fields flagged as transient or volatile
-      //
-      if (Modifier.isTransient(field.getModifiers()) || Modifier.isVolatile(field.getModifiers())) {
-        continue;
-      }
-
       HopMetadataProperty property = field.getAnnotation(HopMetadataProperty.class);
       if (property != null) {
         String tag = property.key();
@@ -24,11 +24,21 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import org.apache.hop.core.exception.HopException;
 
 public class ReflectionUtil {
+
+  /**
+   * Getter and setter methods are looked up by name for every value we (de-)serialize. We keep the
+   * resolved methods around per class so that loading large pipelines doesn't repeat the lookup for
+   * every transform.
+   */
+  private static final Map<Class<?>, Map<String, Method>> methodCache = new ConcurrentHashMap<>();
+
   /** myAttribute ==> setMyAttribute */
   public static final String getSetterMethodName(String name) {
 
@@ -142,7 +152,7 @@ public class ReflectionUtil {
     Class<?> objectClass = object.getClass();
     String getterMethodName = ReflectionUtil.getGetterMethodName(fieldName, isBoolean);
     try {
-      Method getterMethod = objectClass.getMethod(getterMethodName);
+      Method getterMethod = findMethod(objectClass, getterMethodName, null);
       return getterMethod.invoke(object);
     } catch (Exception e) {
       throw new HopException(
@@ -161,7 +171,7 @@ public class ReflectionUtil {
     Class<?> objectClass = object.getClass();
     String setterMethodName = ReflectionUtil.getSetterMethodName(fieldName);
     try {
-      Method setterMethod = objectClass.getMethod(setterMethodName, fieldType);
+      Method setterMethod = findMethod(objectClass, setterMethodName, fieldType);
       setterMethod.invoke(object, fieldValue);
     } catch (Exception e) {
       throw new HopException(
@@ -175,6 +185,32 @@ public class ReflectionUtil {
     }
   }
 
+  /**
+   * Look up a public method with no or a single parameter. The result is cached per class.
+   *
+   * @param objectClass The class to look in
+   * @param methodName The name of the method
+   * @param parameterType The type of the single parameter or null if there are no parameters
+   * @return The method
+   * @throws NoSuchMethodException in case the method could not be found
+   */
+  public static Method findMethod(Class<?> objectClass, String methodName, Class<?> parameterType)
+      throws NoSuchMethodException {
+    Map<String, Method> classMethods =
+        methodCache.computeIfAbsent(objectClass, c -> new ConcurrentHashMap<>());
+    String key = parameterType == null ? methodName : methodName + "/" + parameterType.getName();
+    Method method = classMethods.get(key);
+    if (method == null) {
+      if (parameterType == null) {
+        method = objectClass.getMethod(methodName);
+      } else {
+        method = objectClass.getMethod(methodName, parameterType);
+      }
+      classMethods.put(key, method);
+    }
+    return method;
+  }
+
   public static String getObjectName(Object object) throws HopException {
     try {
       return (String) ReflectionUtil.getFieldValue(object, "name", false);
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.Condition.Function;
+import org.apache.hop.core.Condition.Operator;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class CompiledConditionTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaInteger("limit"));
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows() {
+    List<Object[]> rows = new ArrayList<>();
+    String[] names = {"Apache", "Hop", "hop", "orchestration", "", null, "a;b", "Hopper"};
+    for (int i = 0; i < 200; i++) {
+      rows.add(
+          new Object[] {
+            i % 17 == 0 ? null : (long) (i % 23),
+            names[i % names.length],
+            i % 13 == 0 ? null : i * 1.5,
+            (long) (i % 7)
+          });
+    }
+    return rows;
+  }
+
+  private List<Condition> createConditions() throws Exception {
+    List<Condition> conditions = new ArrayList<>();
+    ValueMetaAndData ten = new ValueMetaAndData(new ValueMetaInteger("c"), 10L);
+    ValueMetaAndData tenString = new ValueMetaAndData(new ValueMetaString("c"), "10");
+    ValueMetaAndData half = new ValueMetaAndData(new ValueMetaNumber("c"), 100.5);
+    for (Function function : Function.values()) {
+      conditions.add(new Condition("id", function, null, ten));
+      conditions.add(new Condition(true, "id", function, null, ten));
+      conditions.add(new Condition("id", function, "limit", null));
+      conditions.add(new Condition("amount", function, null, half));
+      conditions.add(new Condition("id", function, null, tenString));
+    }
+    conditions.add(
+        new Condition("name", Function.REGEXP, null, new ValueMetaAndData("c", "[Hh]op.*")));
+    conditions.add(new Condition("name", Function.LIKE, null, new ValueMetaAndData("c", "%op%")));
+    conditions.add(
+        new Condition(
+            "name", Function.IN_LIST, null, new ValueMetaAndData("c", "Hop;Apache;a\\;b")));
+    conditions.add(new Condition("name", Function.CONTAINS, null, new ValueMetaAndData("c", "op")));
+    conditions.add(
+        new Condition("name", Function.STARTS_WITH, null, new ValueMetaAndData("c", "Ho")));
+    conditions.add(
+        new Condition("name", Function.ENDS_WITH, null, new ValueMetaAndData("c", "er")));
+    conditions.add(new Condition("name", Function.NULL, null, null));
+    conditions.add(new Condition("unknown", Function.NOT_NULL, null, null));
+
+    // Composite conditions
+    //
+    Condition and = new Condition();
+    and.addCondition(new Condition("id", Function.LARGER, null, ten));
+    and.addCondition(new Condition(Operator.AND, "name", Function.NOT_NULL, null, null));
+    and.addCondition(new Condition(Operator.AND_NOT, "limit", Function.EQUAL, null, ten));
+    conditions.add(and);
+
+    Condition or = new Condition();
+    or.addCondition(new Condition("id", Function.SMALLER, "limit", null));
+    or.addCondition(
+        new Condition(
+            Operator.OR_NOT, "name", Function.CONTAINS, null, new ValueMetaAndData("c", "o")));
+    or.negate();
+    conditions.add(or);
+
+    Condition mixed = new Condition();
+    mixed.addCondition(new Condition("id", Function.LARGER_EQUAL, null, ten));
+    mixed.addCondition(new Condition(Operator.XOR, "amount", Function.NULL, null, null));
+    mixed.addCondition(new Condition(Operator.AND, "name", Function.NOT_NULL, null, null));
+    conditions.add(mixed);
+
+    return conditions;
+  }
+
+  @Test
+  public void testSameResultAsCondition() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    List<Object[]> rows = createRows();
+    for (Condition condition : createConditions()) {
+      CompiledCondition compiled = condition.compile(rowMeta);
+      // Evaluate a few times to trigger the re-ordering of sub-conditions
+      //
+      for (int pass = 0; pass < 10; pass++) {
+        for (Object[] row : rows) {
+          assertEquals(
+              condition + " for row " + rowMeta.getString(row),
+              condition.evaluate(rowMeta, row),
+              compiled.evaluate(row));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testGuardIsNotReordered() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("type"));
+    rowMeta.addValueMeta(new ValueMetaInteger("amount"));
+    rowMeta.addValueMeta(new ValueMetaString("text"));
+
+    // The second term converts the text to an integer, which only works for type N
+    //
+    Condition condition = new Condition();
+    condition.addCondition(
+        new Condition("type", Function.EQUAL, null, new ValueMetaAndData("c", "N")));
+    condition.addCondition(new Condition(Operator.AND, "amount", Function.SMALLER, "text", null));
+    CompiledCondition compiled = condition.compile(rowMeta);
+
+    // The second term decides the outcome of all these rows
+    //
+    for (int i = 0; i < 5000; i++) {
+      assertFalse(compiled.evaluate(new Object[] {"N", 10L, "5"}));
+    }
+    assertFalse(compiled.evaluate(new Object[] {"X", 10L, "not a number"}));
+    assertTrue(compiled.evaluate(new Object[] {"N", 1L, "5"}));
+  }
+
+  @Test
+  public void testConstantFolding() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    assertTrue(new Condition("id", Function.TRUE, null, null).compile(rowMeta).isConstant());
+    CompiledCondition unknown =
+        new Condition("unknown", Function.NULL, null, null).compile(rowMeta);
+    assertTrue(unknown.isConstant());
+    assertFalse(unknown.evaluate(new Object[] {1L, "a", 1.0, 1L}));
+    assertFalse(new Condition("id", Function.NULL, null, null).compile(rowMeta).isConstant());
+  }
+}
@@ -18,10 +18,15 @@
 package org.apache.hop.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.junit.rules.RestoreHopEnvironment;
@@ -172,4 +177,50 @@ public class RowSetTest {
     assertEquals(set.toString(), set.getName());
     assertEquals("from.2 - to.3", set.getName());
   }
+
+  /** A memory budget limits the buffer size once the first row arrives. */
+  @Test
+  public void testMemoryBudget() {
+    BlockingRowSet set = new BlockingRowSet(10000);
+    IRowMeta rm = createRowMetaInterface();
+    long rowSize = RowDataUtil.estimateRowSize(rm);
+    set.setMaxBytes(rowSize * 500);
+
+    assertEquals(10000, set.getCapacity());
+    set.putRow(rm, new Object[] {1L});
+    assertEquals(500, set.getCapacity());
+    assertEquals(1, set.size());
+
+    // Never go below the minimum
+    //
+    set = new BlockingRowSet(10000);
+    set.setMaxBytes(1);
+    set.putRow(rm, new Object[] {1L});
+    assertEquals(BlockingRowSet.MIN_BUDGETED_SIZE, set.getCapacity());
+
+    // Never go above the maximum
+    //
+    set = new BlockingRowSet(10);
+    set.setMaxBytes(Long.MAX_VALUE);
+    set.putRow(rm, new Object[] {1L});
+    assertEquals(10, set.getCapacity());
+  }
+
+  /** Waiting on full and empty buffers is measured. */
+  @Test
+  public void testWaitTimes() {
+    BlockingRowSet set = new BlockingRowSet(1);
+    IRowMeta rm = createRowMetaInterface();
+
+    assertTrue(set.putRowWait(rm, new Object[] {1L}, 1, TimeUnit.MILLISECONDS));
+    assertEquals(0L, set.getPutWaitNanos());
+    assertFalse(set.putRowWait(rm, new Object[] {2L}, 5, TimeUnit.MILLISECONDS));
+    assertTrue(set.getPutWaitNanos() > 0);
+    assertEquals(1, set.getMaxFillLevel());
+
+    assertNotNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertEquals(0L, set.getGetWaitNanos());
+    assertNull(set.getRowWait(5, TimeUnit.MILLISECONDS));
+    assertTrue(set.getGetWaitNanos() > 0);
+  }
 }
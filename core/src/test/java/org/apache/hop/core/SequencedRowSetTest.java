@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.row.RowMeta;
+import org.junit.Test;
+
+public class SequencedRowSetTest {
+
+  @Test
+  public void testSequenceNumbers() {
+    SequencedRowSet.Sequence sequence = new SequencedRowSet.Sequence();
+    SequencedRowSet input0 = new SequencedRowSet(10, sequence);
+    SequencedRowSet input1 = new SequencedRowSet(10, sequence);
+    SequencedRowSet output0 = new SequencedRowSet(10, input0);
+
+    Object[] row0 = new Object[] {"a"};
+    Object[] row1 = new Object[] {"b"};
+    Object[] row2 = new Object[] {"c"};
+    input0.putRow(new RowMeta(), row0);
+    input1.putRow(new RowMeta(), row1);
+    input0.putRow(new RowMeta(), row2);
+    assertEquals(3, sequence.get());
+    assertEquals(0, input0.peekSequence());
+    assertEquals(1, input1.peekSequence());
+
+    // The copy reads its first row and produces 2 rows for it
+    //
+    assertSame(row0, input0.getRowImmediate());
+    assertEquals(0, output0.getLowWatermark());
+    output0.putRow(new RowMeta(), row0);
+    output0.putRow(new RowMeta(), row0);
+    assertEquals(0, output0.peekSequence());
+
+    // Asking for the next row means the first one is done
+    //
+    assertSame(row2, input0.getRowImmediate());
+    assertEquals(2, output0.getLowWatermark());
+    output0.getRowImmediate();
+    output0.getRowImmediate();
+    assertEquals(-1, output0.peekSequence());
+
+    // Nothing left: the copy can only produce rows for rows which are not numbered yet
+    //
+    input0.getRowImmediate();
+    assertEquals(3, output0.getLowWatermark());
+  }
+
+  @Test
+  public void testMergingTransformIsSignalled() throws Exception {
+    SequencedRowSet.Sequence sequence = new SequencedRowSet.Sequence();
+    SequencedRowSet input = new SequencedRowSet(10, sequence);
+    SequencedRowSet output = new SequencedRowSet(10, input);
+    assertSame(sequence, output.getSequence());
+
+    long changes = sequence.getChanges();
+    assertFalse(sequence.awaitChange(changes, 10, TimeUnit.MILLISECONDS));
+
+    // A row from a copy wakes up the merging transform
+    //
+    Thread copy = new Thread(() -> output.putRow(new RowMeta(), new Object[] {"a"}));
+    copy.start();
+    assertTrue(sequence.awaitChange(changes, 10, TimeUnit.SECONDS));
+    copy.join();
+
+    // So does a copy asking for its next row, which moves the watermark, and a copy which is done
+    //
+    input.putRow(new RowMeta(), new Object[] {"b"});
+    input.getRowImmediate();
+    changes = sequence.getChanges();
+    input.getRowImmediate();
+    assertTrue(sequence.awaitChange(changes, 0, TimeUnit.MILLISECONDS));
+    changes = sequence.getChanges();
+    output.setDone();
+    assertTrue(sequence.awaitChange(changes, 0, TimeUnit.MILLISECONDS));
+  }
+}
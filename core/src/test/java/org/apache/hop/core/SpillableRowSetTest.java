@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaSerializable;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpillableRowSetTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private IRowMeta rowMeta;
+
+  @Before
+  public void setup() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+  }
+
+  private Object[] row(long id) {
+    return new Object[] {id, "name-" + id};
+  }
+
+  private SpillableRowSet createRowSet(int maxSize, long memoryBudget) {
+    return new SpillableRowSet(maxSize, memoryBudget, folder.getRoot().getAbsolutePath());
+  }
+
+  @Test
+  public void testRowsInMemory() {
+    SpillableRowSet rowSet = createRowSet(10, Long.MAX_VALUE / 2);
+    Object[] row = row(1L);
+    rowSet.putRow(rowMeta, row);
+    assertEquals(1, rowSet.size());
+    assertSame(row, rowSet.getRowImmediate());
+    assertNull(rowSet.getRowImmediate());
+    assertEquals(0, rowSet.getTotalSpilledRows());
+  }
+
+  @Test
+  public void testSpillKeepsOrder() {
+    SpillableRowSet rowSet = createRowSet(3, Long.MAX_VALUE / 2);
+    for (long i = 0; i < 1000; i++) {
+      assertTrue(rowSet.putRow(rowMeta, row(i)));
+    }
+    assertEquals(1000, rowSet.size());
+    assertEquals(997, rowSet.getTotalSpilledRows());
+    assertEquals(1, folder.getRoot().list().length);
+
+    for (long i = 0; i < 1000; i++) {
+      assertArrayEquals(row(i), rowSet.getRowImmediate());
+    }
+    assertNull(rowSet.getRowImmediate());
+    assertEquals(0, rowSet.size());
+    assertEquals(0, folder.getRoot().list().length);
+  }
+
+  @Test
+  public void testInterleavedReadsAndWrites() {
+    SpillableRowSet rowSet = createRowSet(5, Long.MAX_VALUE / 2);
+    long written = 0;
+    long read = 0;
+    for (int round = 0; round < 50; round++) {
+      for (int i = 0; i < 7; i++) {
+        rowSet.putRow(rowMeta, row(written++));
+      }
+      for (int i = 0; i < 4; i++) {
+        assertArrayEquals(row(read++), rowSet.getRowImmediate());
+      }
+    }
+    while (read < written) {
+      assertArrayEquals(row(read++), rowSet.getRowImmediate());
+    }
+    assertNull(rowSet.getRowImmediate());
+    assertTrue(rowSet.getSpillFileCount() > 1);
+    assertEquals(0, folder.getRoot().list().length);
+
+    // Once the files are read, rows go to memory again
+    //
+    Object[] row = row(written);
+    rowSet.putRow(rowMeta, row);
+    assertSame(row, rowSet.getRowImmediate());
+  }
+
+  @Test
+  public void testMemoryBudget() {
+    long before = SpillableRowSet.getMemoryInUse();
+    SpillableRowSet rowSet = createRowSet(100, 1L);
+    for (long i = 0; i < 10; i++) {
+      rowSet.putRow(rowMeta, row(i));
+    }
+    assertEquals(10, rowSet.getTotalSpilledRows());
+    assertEquals(before, SpillableRowSet.getMemoryInUse());
+    for (long i = 0; i < 10; i++) {
+      assertArrayEquals(row(i), rowSet.getRowImmediate());
+    }
+  }
+
+  @Test
+  public void testCleanup() {
+    long before = SpillableRowSet.getMemoryInUse();
+    SpillableRowSet rowSet = createRowSet(10, Long.MAX_VALUE / 2);
+    for (long i = 0; i < 100; i++) {
+      rowSet.putRow(rowMeta, row(i));
+    }
+    assertTrue(SpillableRowSet.getMemoryInUse() > before);
+    rowSet.getRowImmediate();
+    rowSet.getRowImmediate();
+    rowSet.getRowImmediate();
+    rowSet.setDone();
+
+    rowSet.clear();
+    assertEquals(0, rowSet.size());
+    assertEquals(before, SpillableRowSet.getMemoryInUse());
+    assertEquals(0, folder.getRoot().list().length);
+    assertTrue(!rowSet.isDone());
+  }
+
+  @Test
+  public void testConcurrentProducerAndConsumer() throws Exception {
+    SpillableRowSet rowSet = createRowSet(50, Long.MAX_VALUE / 2);
+    final long rows = 20000;
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread consumer =
+        new Thread(
+            () -> {
+              try {
+                long expected = 0;
+                while (!rowSet.isDone() || rowSet.size() > 0) {
+                  Object[] row = rowSet.getRowWait(10, TimeUnit.MILLISECONDS);
+                  if (row != null) {
+                    assertEquals(expected++, ((Long) row[0]).longValue());
+                  }
+                }
+                assertEquals(rows, expected);
+              } catch (Throwable t) {
+                error.set(t);
+              }
+            });
+    consumer.start();
+    for (long i = 0; i < rows; i++) {
+      rowSet.putRow(rowMeta, row(i));
+    }
+    rowSet.setDone();
+    consumer.join(60000);
+    if (error.get() != null) {
+      throw new AssertionError(error.get());
+    }
+    File[] files = folder.getRoot().listFiles();
+    assertEquals(0, files.length);
+  }
+
+  @Test
+  public void testCanSpill() {
+    assertTrue(SpillableRowSet.canSpill(rowMeta));
+
+    IRowMeta withTimestamp = rowMeta.clone();
+    withTimestamp.addValueMeta(new ValueMetaTimestamp("stamp"));
+    assertTrue(SpillableRowSet.canSpill(withTimestamp));
+
+    IRowMeta withObject = rowMeta.clone();
+    withObject.addValueMeta(new ValueMetaSerializable("object"));
+    assertFalse(SpillableRowSet.canSpill(withObject));
+  }
+
+  @Test
+  public void testRowsWhichCantSpillBlock() {
+    IRowMeta withObject = rowMeta.clone();
+    withObject.addValueMeta(new ValueMetaSerializable("object"));
+    SpillableRowSet rowSet = createRowSet(3, Long.MAX_VALUE / 2);
+
+    // Spillable rows first: the rows which can't spill wait until those are read
+    //
+    for (long i = 0; i < 5; i++) {
+      assertTrue(rowSet.putRow(rowMeta, row(i)));
+    }
+    assertEquals(2, rowSet.getTotalSpilledRows());
+    Object[] objectRow = new Object[] {5L, "name-5", new StringBuilder("object")};
+    assertFalse(rowSet.putRowWait(withObject, objectRow, 10, TimeUnit.MILLISECONDS));
+    for (long i = 0; i < 5; i++) {
+      assertArrayEquals(row(i), rowSet.getRowImmediate());
+    }
+
+    // Up to the maximum size they're kept in memory, beyond that the writer has to wait
+    //
+    for (int i = 0; i < 3; i++) {
+      assertTrue(rowSet.putRowWait(withObject, objectRow, 10, TimeUnit.MILLISECONDS));
+    }
+    assertFalse(rowSet.putRowWait(withObject, objectRow, 10, TimeUnit.MILLISECONDS));
+    assertSame(objectRow, rowSet.getRowImmediate());
+    assertTrue(rowSet.putRowWait(withObject, objectRow, 10, TimeUnit.MILLISECONDS));
+    assertEquals(3, rowSet.size());
+    assertEquals(2, rowSet.getTotalSpilledRows());
+    assertEquals(0, folder.getRoot().list().length);
+  }
+}
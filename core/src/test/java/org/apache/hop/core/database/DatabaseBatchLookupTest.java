@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Map;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class DatabaseBatchLookupTest {
+
+  private Database db;
+  private Connection connection;
+  private ResultSet resultSet;
+  private IRowMeta keyRowMeta;
+  private IRowMeta returnRowMeta;
+
+  @Before
+  public void setUp() throws Exception {
+    DatabaseMeta databaseMeta = mock(DatabaseMeta.class);
+    when(databaseMeta.quoteField(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(databaseMeta.stripCR(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    connection = mock(Connection.class);
+    when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+    resultSet = mock(ResultSet.class);
+
+    db = mock(Database.class);
+    when(db.getDatabaseMeta()).thenReturn(databaseMeta);
+    when(db.getConnection()).thenReturn(connection);
+    when(db.openQuery(any(PreparedStatement.class), any(IRowMeta.class), any(Object[].class)))
+        .thenReturn(resultSet);
+
+    keyRowMeta = new RowMeta();
+    keyRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    returnRowMeta = new RowMeta();
+    returnRowMeta.addValueMeta(new ValueMetaString("name"));
+  }
+
+  @Test
+  public void testKeyCondition() {
+    DatabaseMeta databaseMeta = db.getDatabaseMeta();
+    assertEquals(
+        "( a = ? AND b = ? )\nOR ( a = ? AND b = ? )",
+        DatabaseBatchLookup.getKeyCondition(databaseMeta, new String[] {"a", "b"}, 2)
+            .replace("\r", ""));
+  }
+
+  @Test
+  public void testSql() {
+    DatabaseBatchLookup lookup =
+        new DatabaseBatchLookup(
+            db, "tab", new String[] {"a", "b"}, keyRowMeta, new String[] {"c"}, returnRowMeta);
+    assertEquals(
+        "SELECT 0, c FROM tab WHERE ( a = ? AND b = ? )\nUNION ALL\n"
+            + "SELECT 1, c FROM tab WHERE ( a = ? AND b = ? )",
+        lookup.getSql(2).replace("\r", ""));
+  }
+
+  @Test
+  public void testDatabaseMatchesStringKeys() throws Exception {
+    // A case insensitive collation finds both keys for the same row
+    //
+    IRowMeta stringKeyRowMeta = new RowMeta();
+    stringKeyRowMeta.addValueMeta(new ValueMetaString("code"));
+    IRowMeta resultRowMeta = new RowMeta();
+    resultRowMeta.addValueMeta(new ValueMetaInteger("N"));
+    resultRowMeta.addValueMeta(new ValueMetaString("NAME"));
+    when(db.getReturnRowMeta()).thenReturn(resultRowMeta);
+    when(db.getRow(eq(resultSet), isNull(), eq(resultRowMeta)))
+        .thenReturn(new Object[] {0L, "abc"}, new Object[] {1L, "abc"}, null);
+
+    DatabaseBatchLookup lookup =
+        new DatabaseBatchLookup(
+            db,
+            "tab",
+            new String[] {"CODE"},
+            stringKeyRowMeta,
+            new String[] {"NAME"},
+            returnRowMeta);
+    Map<Object[], Object[]> found =
+        lookup.lookup(Arrays.asList(new Object[] {"ABC"}, new Object[] {"abc "}));
+
+    assertEquals(2, found.size());
+    assertArrayEquals(new Object[] {"abc"}, found.get(new Object[] {"ABC"}));
+    assertArrayEquals(new Object[] {"abc"}, found.get(new Object[] {"abc "}));
+  }
+
+  @Test
+  public void testLookupConvertsResults() throws Exception {
+    IRowMeta resultRowMeta = new RowMeta();
+    resultRowMeta.addValueMeta(new ValueMetaNumber("N"));
+    resultRowMeta.addValueMeta(new ValueMetaInteger("NAME"));
+    when(db.getReturnRowMeta()).thenReturn(resultRowMeta);
+    when(db.getRow(eq(resultSet), isNull(), eq(resultRowMeta)))
+        .thenReturn(new Object[] {0.0, 1L}, new Object[] {2.0, 3L}, null);
+
+    DatabaseBatchLookup lookup =
+        new DatabaseBatchLookup(
+            db, "tab", new String[] {"ID"}, keyRowMeta, new String[] {"NAME"}, returnRowMeta);
+
+    Map<Object[], Object[]> found =
+        lookup.lookup(
+            Arrays.asList(
+                new Object[] {1L},
+                new Object[] {2L},
+                new Object[] {3L},
+                new Object[] {1L},
+                new Object[] {null}));
+
+    assertEquals(2, found.size());
+    assertArrayEquals(new Object[] {"1"}, found.get(new Object[] {1L}));
+    assertArrayEquals(new Object[] {"3"}, found.get(new Object[] {3L}));
+    assertFalse(found.containsKey(new Object[] {2L}));
+
+    // Duplicates and null keys are not sent to the database
+    ArgumentCaptor<Object[]> parameters = ArgumentCaptor.forClass(Object[].class);
+    verify(db).openQuery(any(PreparedStatement.class), any(IRowMeta.class), parameters.capture());
+    assertArrayEquals(new Object[] {1L, 2L, 3L}, parameters.getValue());
+  }
+
+  @Test
+  public void testLookupSplitsLargeBatches() throws Exception {
+    when(db.getReturnRowMeta()).thenReturn(new RowMeta());
+    DatabaseBatchLookup lookup =
+        new DatabaseBatchLookup(
+            db, "tab", new String[] {"ID"}, keyRowMeta, new String[] {"NAME"}, returnRowMeta);
+
+    Object[][] keys = new Object[DatabaseBatchLookup.MAX_PARAMETERS_PER_QUERY * 2 + 1][];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = new Object[] {(long) i};
+    }
+    assertTrue(lookup.lookup(Arrays.asList(keys)).isEmpty());
+
+    verify(db, times(3))
+        .openQuery(any(PreparedStatement.class), any(IRowMeta.class), any(Object[].class));
+    // The statement for full batches is prepared once and reused
+    verify(connection, times(2)).prepareStatement(anyString());
+  }
+}
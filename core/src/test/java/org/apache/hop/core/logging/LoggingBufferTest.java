@@ -17,6 +17,10 @@
 
 package org.apache.hop.core.logging;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Assert;
@@ -126,4 +130,182 @@ public class LoggingBufferTest {
     loggingBuffer.removeChannelFromBuffer(logChannelId);
     Assert.assertEquals(10, loggingBuffer.size());
   }
+
+  @Test
+  public void testMaxNrLines() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(10);
+    for (int i = 0; i < 25; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line " + i, "1", i));
+    }
+    Assert.assertEquals(10, loggingBuffer.size());
+    int lastNr = loggingBuffer.getLastBufferLineNr();
+    List<HopLoggingEvent> events =
+        loggingBuffer.getLogBufferFromTo(Arrays.asList("1"), false, 0, lastNr);
+    Assert.assertEquals(10, events.size());
+    Assert.assertEquals("line 15", ((LogMessage) events.get(0).getMessage()).getMessage());
+  }
+
+  @Test
+  public void testGetLogBufferFromToByChannel() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(0);
+    int start = loggingBuffer.getLastBufferLineNr();
+    for (int i = 0; i < 30; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line " + i, Integer.toString(i % 3), i));
+    }
+    int last = loggingBuffer.getLastBufferLineNr();
+    int middle = last - 15;
+
+    // Lines of 2 channels after the middle, in sequence
+    //
+    List<HopLoggingEvent> events =
+        loggingBuffer.getLogBufferFromTo(Arrays.asList("0", "2"), false, middle, last);
+    Assert.assertEquals(10, events.size());
+    List<String> messages = new ArrayList<>();
+    for (HopLoggingEvent event : events) {
+      messages.add(((LogMessage) event.getMessage()).getMessage());
+    }
+    Assert.assertEquals("line 15", messages.get(0));
+    Assert.assertEquals("line 17", messages.get(1));
+    Assert.assertEquals("line 29", messages.get(9));
+
+    // All the lines
+    //
+    Assert.assertEquals(
+        30, loggingBuffer.getLogBufferFromTo((List<String>) null, true, start, last).size());
+    Assert.assertEquals(
+        Collections.emptyList(),
+        loggingBuffer.getLogBufferFromTo(Arrays.asList("unknown"), false, start, last));
+  }
+
+  @Test
+  public void testAsyncDelivery() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(100);
+    loggingBuffer.setAsyncDelivery(true);
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    IHopLoggingEventListener listener =
+        event -> received.add(((LogMessage) event.getMessage()).getMessage());
+    loggingBuffer.addLoggingEventListener(listener);
+    for (int i = 0; i < 500; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line " + i, "1", i));
+    }
+    loggingBuffer.flush();
+    Assert.assertEquals(500, received.size());
+    Assert.assertEquals("line 0", received.get(0));
+    Assert.assertEquals("line 499", received.get(499));
+
+    loggingBuffer.addLogggingEvent(createEvent("last line", "1", 500));
+    loggingBuffer.removeLoggingEventListener(listener);
+    Assert.assertEquals(501, received.size());
+    loggingBuffer.close();
+  }
+
+  @Test
+  public void testConcurrentTrimKeepsMaxNrLines() throws Exception {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(50);
+    int nrThreads = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < nrThreads; t++) {
+      String channelId = Integer.toString(t);
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  return;
+                }
+                for (int i = 0; i < 2000; i++) {
+                  loggingBuffer.addLogggingEvent(createEvent("line " + i, channelId, i));
+                }
+              });
+      threads.add(thread);
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // Exactly the last lines remain and every one of them is still indexed by its channel
+    //
+    Assert.assertEquals(50, loggingBuffer.size());
+    int last = loggingBuffer.getLastBufferLineNr();
+    Assert.assertEquals(
+        50, loggingBuffer.getLogBufferFromTo((List<String>) null, true, 0, last).size());
+    List<String> channelIds = new ArrayList<>();
+    for (int t = 0; t < nrThreads; t++) {
+      channelIds.add(Integer.toString(t));
+    }
+    Assert.assertEquals(50, loggingBuffer.getLogBufferFromTo(channelIds, false, 0, last).size());
+  }
+
+  @Test
+  public void testTailingReaderSeesEveryLine() throws Exception {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(0);
+    int nrThreads = 4;
+    int nrLinesPerThread = 5000;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < nrThreads; t++) {
+      String channelId = Integer.toString(t);
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  return;
+                }
+                for (int i = 0; i < nrLinesPerThread; i++) {
+                  loggingBuffer.addLogggingEvent(createEvent("line " + i, channelId, i));
+                }
+              });
+      threads.add(thread);
+      thread.start();
+    }
+
+    // Read the new lines after the last line number seen, like an incremental log view
+    //
+    start.countDown();
+    int read = 0;
+    int from = 0;
+    boolean running = true;
+    while (running) {
+      running = threads.stream().anyMatch(Thread::isAlive);
+      int last = loggingBuffer.getLastBufferLineNr();
+      read += loggingBuffer.getLogBufferFromTo((List<String>) null, true, from, last).size();
+      from = last;
+    }
+    Assert.assertEquals(nrThreads * nrLinesPerThread, read);
+  }
+
+  @Test
+  public void testAsyncDeliveryFailingListener() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(100);
+    loggingBuffer.setAsyncDelivery(true);
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    loggingBuffer.addLoggingEventListener(
+        event -> {
+          throw new IllegalStateException("listener failure");
+        });
+    loggingBuffer.addLoggingEventListener(
+        event -> received.add(((LogMessage) event.getMessage()).getMessage()));
+    for (int i = 0; i < 10; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line " + i, "1", i));
+    }
+    loggingBuffer.flush();
+    Assert.assertEquals(10, received.size());
+    Assert.assertNotNull(loggingBuffer.getListenerException());
+    Assert.assertTrue(
+        loggingBuffer.getListenerException().getCause() instanceof IllegalStateException);
+    loggingBuffer.close();
+  }
+
+  private static HopLoggingEvent createEvent(String message, String logChannelId, long timeStamp) {
+    HopLoggingEvent event = new HopLoggingEvent();
+    event.setMessage(new LogMessage(message, logChannelId, LogLevel.BASIC));
+    event.setTimeStamp(timeStamp);
+    return event;
+  }
 }
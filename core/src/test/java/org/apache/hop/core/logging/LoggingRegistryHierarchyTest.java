@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+import org.junit.Test;
+
+public class LoggingRegistryHierarchyTest {
+
+  private final LoggingRegistry registry = LoggingRegistry.getInstance();
+
+  @Test
+  public void testExistingLoggingSourceIsFound() {
+    String name = UUID.randomUUID().toString();
+    LoggingObject parent = register(name, LoggingObjectType.PIPELINE, null);
+    String id =
+        registry.registerLoggingSource(
+            new SimpleLoggingObject("child", LoggingObjectType.TRANSFORM, parent));
+    String sameId =
+        registry.registerLoggingSource(
+            new SimpleLoggingObject("child", LoggingObjectType.TRANSFORM, parent));
+    String otherId =
+        registry.registerLoggingSource(
+            new SimpleLoggingObject("other", LoggingObjectType.TRANSFORM, parent));
+
+    assertEquals(id, sameId);
+    assertNotEquals(id, otherId);
+    assertEquals(
+        List.of(id, otherId), registry.getLogChannelDirectChildren(parent.getLogChannelId()));
+  }
+
+  @Test
+  public void testRemoveIncludingChildren() {
+    String name = UUID.randomUUID().toString();
+    LoggingObject root = register(name, LoggingObjectType.WORKFLOW, null);
+    LoggingObject pipeline = register(name + "-pipeline", LoggingObjectType.PIPELINE, root);
+    LoggingObject transform = register(name + "-transform", LoggingObjectType.TRANSFORM, pipeline);
+    LoggingObject sibling = register(name + "-sibling", LoggingObjectType.PIPELINE, root);
+
+    List<String> children = registry.getLogChannelChildren(root.getLogChannelId());
+    assertEquals(4, children.size());
+    assertEquals(root.getLogChannelId(), children.get(3));
+
+    registry.removeIncludingChildren(pipeline.getLogChannelId());
+
+    assertNull(registry.getLoggingObject(pipeline.getLogChannelId()));
+    assertNull(registry.getLoggingObject(transform.getLogChannelId()));
+    assertNull(registry.getLogChannelDirectChildren(pipeline.getLogChannelId()));
+    assertEquals(
+        List.of(sibling.getLogChannelId()),
+        registry.getLogChannelDirectChildren(root.getLogChannelId()));
+    assertFalse(registry.getMap().containsKey(transform.getLogChannelId()));
+
+    // A removed source is registered again with a new log channel
+    //
+    LoggingObject again = register(name + "-pipeline", LoggingObjectType.PIPELINE, root);
+    assertNotEquals(pipeline.getLogChannelId(), again.getLogChannelId());
+  }
+
+  @Test
+  public void testFileWriterBufferOfParent() {
+    String name = UUID.randomUUID().toString();
+    LoggingObject workflow = register(name, LoggingObjectType.WORKFLOW, null);
+    LoggingObject pipeline = register(name + "-pipeline", LoggingObjectType.PIPELINE, workflow);
+    LoggingObject transform = register(name + "-transform", LoggingObjectType.TRANSFORM, pipeline);
+    LoggingObject other = register(name + "-other", LoggingObjectType.WORKFLOW, null);
+
+    LogChannelFileWriterBuffer buffer = new LogChannelFileWriterBuffer(pipeline.getLogChannelId());
+    registry.registerLogChannelFileWriterBuffer(buffer);
+    try {
+      assertSame(buffer, registry.getLogChannelFileWriterBuffer(transform.getLogChannelId()));
+      assertSame(buffer, registry.getLogChannelFileWriterBuffer(pipeline.getLogChannelId()));
+      assertNull(registry.getLogChannelFileWriterBuffer(workflow.getLogChannelId()));
+      assertNull(registry.getLogChannelFileWriterBuffer(other.getLogChannelId()));
+    } finally {
+      registry.removeLogChannelFileWriterBuffer(workflow.getLogChannelId());
+    }
+    assertNull(registry.getLogChannelFileWriterBuffer(transform.getLogChannelId()));
+    assertTrue(
+        registry
+            .getLogChannelChildren(workflow.getLogChannelId())
+            .contains(transform.getLogChannelId()));
+  }
+
+  private LoggingObject register(String name, LoggingObjectType type, ILoggingObject parent) {
+    LoggingObject loggingObject = new LoggingObject(new SimpleLoggingObject(name, type, parent));
+    loggingObject.setLogChannelId(registry.registerLoggingSource(loggingObject));
+    return loggingObject;
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.plugins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import org.apache.hop.core.Const;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.jandex.Indexer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JarCacheTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File pluginFolder;
+  private File indexFile;
+
+  @Before
+  public void before() throws Exception {
+    pluginFolder = temporaryFolder.newFolder("plugins");
+    indexFile = new File(temporaryFolder.getRoot(), "plugin-index.bin");
+    System.setProperty(Const.HOP_PLUGIN_BASE_FOLDERS, pluginFolder.getAbsolutePath());
+    System.setProperty(Const.HOP_PLUGIN_INDEX_FILE, indexFile.getAbsolutePath());
+    JarCache.getInstance().clear();
+  }
+
+  @After
+  public void after() {
+    System.clearProperty(Const.HOP_PLUGIN_BASE_FOLDERS);
+    System.clearProperty(Const.HOP_PLUGIN_INDEX_FILE);
+    JarCache.getInstance().clear();
+  }
+
+  @Test
+  public void testPersistedPluginIndex() throws Exception {
+    File pluginJar = new File(pluginFolder, "test-plugin.jar");
+    writeJar(pluginJar, true);
+    writeJar(new File(pluginFolder, "no-index.jar"), false);
+
+    JarCache cache = JarCache.getInstance();
+    Set<File> pluginJars = cache.getPluginJars();
+    assertEquals(1, pluginJars.size());
+    assertTrue(indexFile.exists());
+    // The temporary file was moved into place
+    assertEquals(2, temporaryFolder.getRoot().list().length);
+
+    // Start over: the index is now read from the persisted plugin index
+    //
+    cache.clear();
+    long lastModified = indexFile.lastModified();
+    pluginJars = cache.getPluginJars();
+    assertEquals(1, pluginJars.size());
+    assertTrue(pluginJars.contains(pluginJar));
+    Index index = cache.getIndex(pluginJar);
+    assertNotNull(index);
+    assertNotNull(index.getClassByName(JarCacheTest.class.getName()));
+    assertEquals(lastModified, indexFile.lastModified());
+  }
+
+  @Test
+  public void testJarWithoutIndexIsNotReopened() throws Exception {
+    File noIndexJar = new File(pluginFolder, "no-index.jar");
+    writeJar(new File(pluginFolder, "test-plugin.jar"), true);
+    writeJar(noIndexJar, false);
+
+    JarCache cache = JarCache.getInstance();
+    cache.getPluginJars();
+
+    // Garble the jar without index but keep its size and modification time: opening it fails.
+    //
+    long jarModified = noIndexJar.lastModified();
+    byte[] garbage = new byte[(int) noIndexJar.length()];
+    Files.write(noIndexJar.toPath(), garbage);
+    assertTrue(noIndexJar.setLastModified(jarModified));
+    assertTrue(indexFile.setLastModified(1000L));
+
+    cache.clear();
+    assertEquals(1, cache.getPluginJars().size());
+    assertNull(cache.getIndex(noIndexJar));
+    assertNull(cache.getIndex(noIndexJar));
+
+    // Nothing changed so the persisted plugin index isn't written again
+    //
+    assertEquals(1000L, indexFile.lastModified());
+  }
+
+  private void writeJar(File jarFile, boolean withIndex) throws Exception {
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+      if (withIndex) {
+        Indexer indexer = new Indexer();
+        try (InputStream classStream =
+            JarCacheTest.class.getResourceAsStream("JarCacheTest.class")) {
+          indexer.index(classStream);
+        }
+        out.putNextEntry(new ZipEntry(JarCache.ANNOTATION_INDEX_LOCATION));
+        new IndexWriter(out).write(indexer.complete());
+        out.closeEntry();
+      } else {
+        out.putNextEntry(new ZipEntry("README.txt"));
+        out.write("no index".getBytes());
+        out.closeEntry();
+      }
+    }
+  }
+}
@@ -18,6 +18,7 @@
 package org.apache.hop.metadata.serializer.xml;
 
 import java.util.Arrays;
+import java.util.List;
 import junit.framework.TestCase;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.xml.XmlHandler;
@@ -146,4 +147,11 @@ public class XmlMetadataUtilTest extends TestCase {
       assertEquals(valueTest, valueData);
     }
   }
+
+  @Test
+  public void testPropertyFieldsAreCached() {
+    List<java.lang.reflect.Field> fields = XmlMetadataUtil.getPropertyFields(MetaData.class);
+    assertFalse(fields.isEmpty());
+    assertSame(fields, XmlMetadataUtil.getPropertyFields(MetaData.class));
+  }
 }
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.gzip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.util.EnvUtil;
+
+/**
+ * Collects the written data in blocks and compresses every full block into a separate GZIP member
+ * on a shared thread pool. The compressed members are written to the wrapped stream in the original
+ * order. The writing thread only blocks when too many blocks are waiting to be compressed.
+ *
+ * <p>The block size is set with variable {@link Const#HOP_COMPRESSION_BLOCK_SIZE}, the number of
+ * threads with {@link Const#HOP_COMPRESSION_THREADS}.
+ */
+public class ParallelGzipCompressionOutputStream extends CompressionOutputStream {
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  private static ExecutorService executorService;
+  private static int poolSize;
+
+  private final int blockSize;
+  private final int maxPendingBlocks;
+  private final Deque<Future<byte[]>> pendingBlocks;
+  private byte[] block;
+  private int blockLength;
+  private boolean memberWritten;
+  private boolean closed;
+
+  public ParallelGzipCompressionOutputStream(OutputStream out, ICompressionProvider provider) {
+    this(
+        out,
+        provider,
+        Const.toInt(
+            EnvUtil.getSystemProperty(Const.HOP_COMPRESSION_BLOCK_SIZE), DEFAULT_BLOCK_SIZE));
+  }
+
+  public ParallelGzipCompressionOutputStream(
+      OutputStream out, ICompressionProvider provider, int blockSize) {
+    super(out, provider);
+    this.blockSize = blockSize > 0 ? blockSize : DEFAULT_BLOCK_SIZE;
+    this.pendingBlocks = new ArrayDeque<>();
+    this.block = new byte[this.blockSize];
+    this.maxPendingBlocks = 2 * getPoolSize();
+  }
+
+  private static synchronized ExecutorService getExecutorService() {
+    if (executorService == null) {
+      int threads = Const.toInt(EnvUtil.getSystemProperty(Const.HOP_COMPRESSION_THREADS), 0);
+      if (threads <= 0) {
+        threads = Runtime.getRuntime().availableProcessors();
+      }
+      AtomicInteger threadNr = new AtomicInteger(1);
+      poolSize = threads;
+      executorService =
+          Executors.newFixedThreadPool(
+              threads,
+              runnable -> {
+                Thread thread =
+                    new Thread(runnable, "hop-parallel-gzip-" + threadNr.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+    return executorService;
+  }
+
+  private static synchronized int getPoolSize() {
+    getExecutorService();
+    return poolSize;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    block[blockLength++] = (byte) b;
+    if (blockLength == blockSize) {
+      submitBlock();
+    }
+  }
+
+  @Override
+  public void write(byte[] b) throws IOException {
+    write(b, 0, b.length);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      int size = Math.min(len, blockSize - blockLength);
+      System.arraycopy(b, off, block, blockLength, size);
+      blockLength += size;
+      off += size;
+      len -= size;
+      if (blockLength == blockSize) {
+        submitBlock();
+      }
+    }
+  }
+
+  /**
+   * Writes the blocks which are already compressed to the wrapped stream. Like a regular GZIP
+   * stream this doesn't force out the data which is still being collected.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    writeCompressedBlocks(false);
+    delegate.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      // Always write at least one member to produce a valid (empty) GZIP file
+      //
+      if (blockLength > 0 || !memberWritten) {
+        submitBlock();
+      }
+      writeCompressedBlocks(true);
+    } finally {
+      closed = true;
+      for (Future<byte[]> future : pendingBlocks) {
+        future.cancel(true);
+      }
+      pendingBlocks.clear();
+      delegate.close();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    byte[] data = block;
+    int length = blockLength;
+    pendingBlocks.add(getExecutorService().submit(() -> compress(data, length)));
+    memberWritten = true;
+    block = new byte[blockSize];
+    blockLength = 0;
+
+    // Only wait for the oldest block when too many are pending
+    //
+    while (pendingBlocks.size() > maxPendingBlocks) {
+      writeBlock(pendingBlocks.poll());
+    }
+    writeCompressedBlocks(false);
+  }
+
+  /**
+   * Write the compressed blocks at the head of the queue in order.
+   *
+   * @param wait true to wait for all blocks, false to only write the ones which are finished.
+   */
+  private void writeCompressedBlocks(boolean wait) throws IOException {
+    while (!pendingBlocks.isEmpty() && (wait || pendingBlocks.peek().isDone())) {
+      writeBlock(pendingBlocks.poll());
+    }
+  }
+
+  private void writeBlock(Future<byte[]> future) throws IOException {
+    try {
+      delegate.write(future.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a block to be compressed", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Error compressing a block of data", e.getCause());
+    }
+  }
+
+  private static byte[] compress(byte[] data, int length) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, length / 3));
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes, 64 * 1024)) {
+      gzip.write(data, 0, length);
+    }
+    return bytes.toByteArray();
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  /**
+   * Gets blockSize
+   *
+   * @return value of blockSize
+   */
+  public int getBlockSize() {
+    return blockSize;
+  }
+}
@@ -94,7 +94,8 @@ public final class ExecutionStateBuilder {
             .withFailed(pipeline.getErrors() > 0)
             .withStatusDescription(pipeline.getStatusDescription())
             .withChildIds(
-                LoggingRegistry.getInstance().getChildrenMap().get(pipeline.getLogChannelId()))
+                LoggingRegistry.getInstance()
+                    .getLogChannelDirectChildren(pipeline.getLogChannelId()))
             .withContainerId(pipeline.getContainerId())
             .withExecutionEndDate(pipeline.getExecutionEndDate());
 
@@ -170,7 +171,7 @@ public final class ExecutionStateBuilder {
         .withFailed(result != null && !result.getResult())
         .withStatusDescription(workflow.getStatusDescription())
         .withChildIds(
-            LoggingRegistry.getInstance().getChildrenMap().get(workflow.getLogChannelId()))
+            LoggingRegistry.getInstance().getLogChannelDirectChildren(workflow.getLogChannelId()))
         .withContainerId(workflow.getContainerId())
         .withExecutionEndDate(workflow.getExecutionEndDate());
   }
@@ -18,15 +18,14 @@
 
 package org.apache.hop.execution.sampler.plugins.dataprof;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Date;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
 import org.apache.hop.core.gui.plugin.GuiWidgetElement;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
-import org.apache.hop.core.row.RowBuffer;
 import org.apache.hop.execution.profiling.ExecutionDataProfile;
 import org.apache.hop.execution.sampler.ExecutionDataSamplerMeta;
 import org.apache.hop.execution.sampler.ExecutionDataSamplerPlugin;
@@ -50,7 +49,10 @@ public class BasicDataProfilingDataSampler
     NrNulls(BaseMessages.getString(PKG, "BasicDataProfilingDataSampler.Label.NrNulls")),
     NrNonNulls(BaseMessages.getString(PKG, "BasicDataProfilingDataSampler.Label.NrNonNulls")),
     MinLength(BaseMessages.getString(PKG, "BasicDataProfilingDataSampler.Label.MinLength")),
-    MaxLength(BaseMessages.getString(PKG, "BasicDataProfilingDataSampler.Label.MaxLength"));
+    MaxLength(BaseMessages.getString(PKG, "BasicDataProfilingDataSampler.Label.MaxLength")),
+    DistinctCount(BaseMessages.getString(PKG, "BasicDataProfilingDataSampler.Label.DistinctCount")),
+    Quantiles(BaseMessages.getString(PKG, "BasicDataProfilingDataSampler.Label.Quantiles")),
+    TopValues(BaseMessages.getString(PKG, "BasicDataProfilingDataSampler.Label.TopValues"));
 
     private final String description;
 
@@ -140,6 +142,43 @@ public class BasicDataProfilingDataSampler
   @HopMetadataProperty
   protected boolean profilingMaxLength;
 
+  /** Estimate the number of distinct values with a HyperLogLog sketch */
+  @GuiWidgetElement(
+      order = "180",
+      type = GuiElementType.CHECKBOX,
+      parentId = ExecutionDataProfile.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      label = "i18n::BasicDataProfilingDataSampler.Label.ProfilingDistinctCount")
+  @HopMetadataProperty
+  protected boolean profilingDistinctCount;
+
+  /** Estimate the median and other quantiles of numeric and date fields */
+  @GuiWidgetElement(
+      order = "190",
+      type = GuiElementType.CHECKBOX,
+      parentId = ExecutionDataProfile.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      label = "i18n::BasicDataProfilingDataSampler.Label.ProfilingQuantiles")
+  @HopMetadataProperty
+  protected boolean profilingQuantiles;
+
+  /** Keep track of the most frequent values */
+  @GuiWidgetElement(
+      order = "200",
+      type = GuiElementType.CHECKBOX,
+      parentId = ExecutionDataProfile.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      label = "i18n::BasicDataProfilingDataSampler.Label.ProfilingTopValues")
+  @HopMetadataProperty
+  protected boolean profilingTopValues;
+
+  /** The number of most frequent values to report for each field. */
+  @GuiWidgetElement(
+      order = "210",
+      type = GuiElementType.TEXT,
+      parentId = ExecutionDataProfile.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      label = "i18n::BasicDataProfilingDataSampler.Label.TopValuesSize",
+      toolTip = "i18n::BasicDataProfilingDataSampler.Tooltip.TopValuesSize")
+  @HopMetadataProperty
+  protected String topValuesSize;
+
   public BasicDataProfilingDataSampler() {
     this.sampleSize = "25";
     this.onlyProfilingLastTransforms = true;
@@ -149,6 +188,12 @@ public class BasicDataProfilingDataSampler
     this.profilingNrNonNull = true;
     this.profilingMinLength = true;
     this.profilingMaxLength = true;
+    // The sketches cost extra memory and CPU for every sampled row: they are opt-in.
+    //
+    this.profilingDistinctCount = false;
+    this.profilingQuantiles = false;
+    this.profilingTopValues = false;
+    this.topValuesSize = "10";
   }
 
   public BasicDataProfilingDataSampler(BasicDataProfilingDataSampler sampler) {
@@ -162,6 +207,10 @@ public class BasicDataProfilingDataSampler
     this.profilingNrNonNull = sampler.profilingNrNonNull;
     this.profilingMinLength = sampler.profilingMinLength;
     this.profilingMaxLength = sampler.profilingMaxLength;
+    this.profilingDistinctCount = sampler.profilingDistinctCount;
+    this.profilingQuantiles = sampler.profilingQuantiles;
+    this.profilingTopValues = sampler.profilingTopValues;
+    this.topValuesSize = sampler.topValuesSize;
   }
 
   public BasicDataProfilingDataSampler clone() {
@@ -192,171 +241,190 @@ public class BasicDataProfilingDataSampler
       return;
     }
 
+    // Only the current thread updates this accumulator.
+    // The lock is only contended while a snapshot of the profile is being taken.
+    //
+    BasicDataProfilingDataSamplerStore.ProfileAccumulator accumulator = store.getAccumulator();
+    int maxRows = store.getMaxRows();
+
     try {
+      synchronized (accumulator) {
+        // Profile all columns
+        //
+        for (int i = 0; i < rowMeta.size(); i++) {
+          IValueMeta valueMeta = rowMeta.getValueMeta(i);
+          Object valueData = row[i];
+          FieldProfile profile = accumulator.getFieldProfile(i, valueMeta.getName());
 
-      // Profile all columns
-      //
-      for (int i = 0; i < rowMeta.size(); i++) {
-        IValueMeta valueMeta = rowMeta.getValueMeta(i);
-        Object valueData = row[i];
-        String name = valueMeta.getName();
-
-        if (valueMeta.isNull(valueData)) {
-          if (profilingNrNull) {
-            long counter = store.getNullCounters().getOrDefault(name, 0L);
-            store.getNullCounters().put(name, ++counter);
-            addSampleRow(store, name, ProfilingType.NrNulls, rowMeta, row);
-          }
-        } else {
-          if (profilingNrNonNull) {
-            long counter = store.getNonNullCounters().getOrDefault(name, 0L);
-            store.getNonNullCounters().put(name, ++counter);
-            addSampleRow(store, name, ProfilingType.NrNonNulls, rowMeta, row);
-          }
+          profileRow(profile, valueMeta, valueData, rowMeta, row, maxRows);
         }
+      }
+    } catch (Exception e) {
+      throw new HopException("Error data profiling row " + rowMeta.toStringMeta(), e);
+    }
+  }
 
-        // Minimum
-        //
-        if (profilingMinimum) {
-          Object oldMin = store.getMinValues().get(name);
-          if (oldMin == null) {
-            store.getMinValues().put(name, valueData);
-            store.getMinMeta().put(name, valueMeta);
-          } else {
-            int compare = valueMeta.compare(valueData, oldMin);
-            if (compare < 0) {
-              // We have a new minimum
-              //
-              store.getMinValues().put(name, valueData);
-              store.getMinMeta().put(name, valueMeta);
-
-              clearSampleRows(store, name, ProfilingType.MinValue);
-
-              // Also save the row of data as a sample
-              //
-              addSampleRow(store, name, ProfilingType.MinValue, rowMeta, row);
-            } else if (compare == 0) {
-              // We found another value at the current minimum
-              addSampleRow(store, name, ProfilingType.MinValue, rowMeta, row);
-            }
-          }
-        }
+  private void profileRow(
+      FieldProfile profile,
+      IValueMeta valueMeta,
+      Object valueData,
+      IRowMeta rowMeta,
+      Object[] row,
+      int maxRows)
+      throws HopValueException {
+    boolean isNull = valueMeta.isNull(valueData);
+    if (isNull) {
+      if (profilingNrNull) {
+        profile.nullCount++;
+        profile.addSampleRow(ProfilingType.NrNulls, rowMeta, row, maxRows);
+      }
+    } else {
+      if (profilingNrNonNull) {
+        profile.nonNullCount++;
+        profile.addSampleRow(ProfilingType.NrNonNulls, rowMeta, row, maxRows);
+      }
+    }
 
-        // Maximum
-        //
-        if (profilingMaximum) {
-          Object oldMax = store.getMaxValues().get(name);
-          if (oldMax == null) {
-            store.getMaxValues().put(name, valueData);
-            store.getMaxMeta().put(name, valueMeta);
-          } else {
-            int compare = valueMeta.compare(valueData, oldMax);
-            if (compare > 0) {
-              // We have a new maximum
-              //
-              store.getMaxValues().put(name, valueData);
-              store.getMaxMeta().put(name, valueMeta);
-
-              clearSampleRows(store, name, ProfilingType.MaxValue);
-
-              // Also save the row of data as a sample
-              //
-              addSampleRow(store, name, ProfilingType.MaxValue, rowMeta, row);
-            } else if (compare == 0) {
-              // We found another value at the current maximum
-              addSampleRow(store, name, ProfilingType.MaxValue, rowMeta, row);
-            }
-          }
+    // Minimum
+    //
+    if (profilingMinimum) {
+      if (profile.minMeta == null || profile.minValue == null) {
+        profile.minValue = valueData;
+        profile.minMeta = valueMeta;
+      } else {
+        int compare = valueMeta.compare(valueData, profile.minValue);
+        if (compare < 0) {
+          // We have a new minimum
+          //
+          profile.minValue = valueData;
+          profile.minMeta = valueMeta;
+
+          profile.clearSampleRows(ProfilingType.MinValue);
+
+          // Also save the row of data as a sample
+          //
+          profile.addSampleRow(ProfilingType.MinValue, rowMeta, row, maxRows);
+        } else if (compare == 0) {
+          // We found another value at the current minimum
+          profile.addSampleRow(ProfilingType.MinValue, rowMeta, row, maxRows);
         }
+      }
+    }
 
-        // Strings only
-        //
-        if (valueMeta.isString() && !valueMeta.isNull(valueData)) {
-          // Minimum length
+    // Maximum
+    //
+    if (profilingMaximum) {
+      if (profile.maxMeta == null || profile.maxValue == null) {
+        profile.maxValue = valueData;
+        profile.maxMeta = valueMeta;
+      } else {
+        int compare = valueMeta.compare(valueData, profile.maxValue);
+        if (compare > 0) {
+          // We have a new maximum
           //
-          if (profilingMinLength) {
-            String string = valueMeta.getString(valueData);
-            int length = string.length();
-
-            Integer oldMin = store.getMinLengths().get(name);
-            if (oldMin == null) {
-              store.getMinLengths().put(name, length);
-            } else {
-              if (length < oldMin) {
-                // We have a new minimum length
-                //
-                store.getMinLengths().put(name, length);
-
-                clearSampleRows(store, name, ProfilingType.MinLength);
-
-                // Also save the row of data as a sample
-                //
-                addSampleRow(store, name, ProfilingType.MinLength, rowMeta, row);
-              } else if (length == oldMin) {
-                // We found another value at the current minimum length
-                addSampleRow(store, name, ProfilingType.MinLength, rowMeta, row);
-              }
-            }
-          }
-
-          // Maximum length
+          profile.maxValue = valueData;
+          profile.maxMeta = valueMeta;
+
+          profile.clearSampleRows(ProfilingType.MaxValue);
+
+          // Also save the row of data as a sample
           //
-          if (profilingMaxLength) {
-            String string = valueMeta.getString(valueData);
-            int length = string.length();
-
-            Integer oldMax = store.getMaxLengths().get(name);
-            if (oldMax == null) {
-              store.getMaxLengths().put(name, length);
-            } else {
-              if (length > oldMax) {
-                // We have a new maximum length
-                //
-                store.getMaxLengths().put(name, length);
-
-                clearSampleRows(store, name, ProfilingType.MaxLength);
-
-                // Also save the row of data as a sample
-                //
-                addSampleRow(store, name, ProfilingType.MaxLength, rowMeta, row);
-              } else if (length == oldMax) {
-                // We found another value at the current maximum length
-                addSampleRow(store, name, ProfilingType.MaxLength, rowMeta, row);
-              }
-            }
-          }
+          profile.addSampleRow(ProfilingType.MaxValue, rowMeta, row, maxRows);
+        } else if (compare == 0) {
+          // We found another value at the current maximum
+          profile.addSampleRow(ProfilingType.MaxValue, rowMeta, row, maxRows);
         }
       }
-    } catch (Exception e) {
-      throw new HopException("Error data profiling row " + rowMeta.toStringMeta(), e);
     }
-  }
 
-  private void clearSampleRows(
-      BasicDataProfilingDataSamplerStore store, String name, ProfilingType profilingType) {
-    Map<ProfilingType, RowBuffer> typeBufferMap = store.getProfileSamples().get(name);
-    if (typeBufferMap != null) {
-      typeBufferMap.remove(profilingType);
+    if (isNull) {
+      return;
     }
-  }
 
-  private void addSampleRow(
-      BasicDataProfilingDataSamplerStore store,
-      String name,
-      ProfilingType profilingType,
-      IRowMeta rowMeta,
-      Object[] row) {
-    synchronized (store.getProfileSamples()) {
-      Map<ProfilingType, RowBuffer> typeBufferMap =
-          store.getProfileSamples().computeIfAbsent(name, k -> new HashMap<>());
-      RowBuffer rowBuffer =
-          typeBufferMap.computeIfAbsent(profilingType, k -> new RowBuffer(rowMeta));
-
-      // Keep the memory consumption sane
+    // Strings only
+    //
+    if (valueMeta.isString() && (profilingMinLength || profilingMaxLength)) {
+      int length = valueMeta.getString(valueData).length();
+
+      // Minimum length
       //
-      if (rowBuffer.size() < store.getMaxRows()) {
-        rowBuffer.addRow(row);
+      if (profilingMinLength) {
+        if (profile.minLength < 0) {
+          profile.minLength = length;
+        } else if (length < profile.minLength) {
+          // We have a new minimum length
+          //
+          profile.minLength = length;
+
+          profile.clearSampleRows(ProfilingType.MinLength);
+
+          // Also save the row of data as a sample
+          //
+          profile.addSampleRow(ProfilingType.MinLength, rowMeta, row, maxRows);
+        } else if (length == profile.minLength) {
+          // We found another value at the current minimum length
+          profile.addSampleRow(ProfilingType.MinLength, rowMeta, row, maxRows);
+        }
       }
+
+      // Maximum length
+      //
+      if (profilingMaxLength) {
+        if (profile.maxLength < 0) {
+          profile.maxLength = length;
+        } else if (length > profile.maxLength) {
+          // We have a new maximum length
+          //
+          profile.maxLength = length;
+
+          profile.clearSampleRows(ProfilingType.MaxLength);
+
+          // Also save the row of data as a sample
+          //
+          profile.addSampleRow(ProfilingType.MaxLength, rowMeta, row, maxRows);
+        } else if (length == profile.maxLength) {
+          // We found another value at the current maximum length
+          profile.addSampleRow(ProfilingType.MaxLength, rowMeta, row, maxRows);
+        }
+      }
+    }
+
+    // Sketches
+    //
+    if (!profilingDistinctCount && !profilingQuantiles && !profilingTopValues) {
+      return;
+    }
+    Object normalData = valueMeta.convertToNormalStorageType(valueData);
+
+    if (profilingDistinctCount) {
+      if (profile.distinctValues == null) {
+        profile.distinctValues = new HyperLogLog();
+      }
+      profile.distinctValues.add(normalData);
+    }
+
+    if (profilingQuantiles && (valueMeta.isNumeric() || valueMeta.isDate())) {
+      if (profile.quantiles == null) {
+        profile.quantiles = new QuantileSketch();
+        profile.quantilesMeta = valueMeta;
+      }
+      if (normalData instanceof Number) {
+        profile.quantiles.add(((Number) normalData).doubleValue());
+      } else if (normalData instanceof Date) {
+        profile.quantiles.add(((Date) normalData).getTime());
+      }
+    }
+
+    // Binary values don't have a usable equals() method
+    //
+    if (profilingTopValues && !valueMeta.isBinary()) {
+      if (profile.topValues == null) {
+        profile.topValues = new FrequentValuesSketch();
+        IValueMeta topValuesMeta = valueMeta.clone();
+        topValuesMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+        profile.topValuesMeta = topValuesMeta;
+      }
+      profile.topValues.add(normalData);
     }
   }
 
@@ -543,4 +611,76 @@ public class BasicDataProfilingDataSampler
   public void setProfilingMaxLength(boolean profilingMaxLength) {
     this.profilingMaxLength = profilingMaxLength;
   }
+
+  /**
+   * Gets profilingDistinctCount
+   *
+   * @return value of profilingDistinctCount
+   */
+  public boolean isProfilingDistinctCount() {
+    return profilingDistinctCount;
+  }
+
+  /**
+   * Sets profilingDistinctCount
+   *
+   * @param profilingDistinctCount value of profilingDistinctCount
+   */
+  public void setProfilingDistinctCount(boolean profilingDistinctCount) {
+    this.profilingDistinctCount = profilingDistinctCount;
+  }
+
+  /**
+   * Gets profilingQuantiles
+   *
+   * @return value of profilingQuantiles
+   */
+  public boolean isProfilingQuantiles() {
+    return profilingQuantiles;
+  }
+
+  /**
+   * Sets profilingQuantiles
+   *
+   * @param profilingQuantiles value of profilingQuantiles
+   */
+  public void setProfilingQuantiles(boolean profilingQuantiles) {
+    this.profilingQuantiles = profilingQuantiles;
+  }
+
+  /**
+   * Gets profilingTopValues
+   *
+   * @return value of profilingTopValues
+   */
+  public boolean isProfilingTopValues() {
+    return profilingTopValues;
+  }
+
+  /**
+   * Sets profilingTopValues
+   *
+   * @param profilingTopValues value of profilingTopValues
+   */
+  public void setProfilingTopValues(boolean profilingTopValues) {
+    this.profilingTopValues = profilingTopValues;
+  }
+
+  /**
+   * Gets topValuesSize
+   *
+   * @return value of topValuesSize
+   */
+  public String getTopValuesSize() {
+    return topValuesSize;
+  }
+
+  /**
+   * Sets topValuesSize
+   *
+   * @param topValuesSize value of topValuesSize
+   */
+  public void setTopValuesSize(String topValuesSize) {
+    this.topValuesSize = topValuesSize;
+  }
 }
@@ -18,17 +18,25 @@
 
 package org.apache.hop.execution.sampler.plugins.dataprof;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowBuffer;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
 import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.execution.ExecutionDataSetMeta;
 import org.apache.hop.execution.sampler.ExecutionDataSamplerMeta;
@@ -42,38 +50,21 @@ public class BasicDataProfilingDataSamplerStore
     implements IExecutionDataSamplerStore {
   private static final Class<?> PKG = BasicDataProfilingDataSampler.class; // For Translator
 
-  protected BasicDataProfilingDataSampler dataSampler;
-
-  /** The minimum values of fields */
-  protected Map<String, Object> minValues;
-
-  /** The minimum metadata of fields */
-  protected Map<String, IValueMeta> minMeta;
-
-  /** The maximum values of fields */
-  protected Map<String, Object> maxValues;
-
-  /** The maximum value metadata of fields */
-  protected Map<String, IValueMeta> maxMeta;
+  /** The quantiles reported for numeric and date fields */
+  public static final double[] QUANTILES = {0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99};
 
-  /** The counters map for null values */
-  protected Map<String, Long> nullCounters;
-
-  /** The counters map for non-null values */
-  protected Map<String, Long> nonNullCounters;
-
-  /** The minimum lengths of String fields */
-  protected Map<String, Integer> minLengths;
+  protected BasicDataProfilingDataSampler dataSampler;
 
-  /** The maximum lengths of String fields */
-  protected Map<String, Integer> maxLengths;
+  /** The maximum number of frequent values reported per field */
+  protected int topValuesSize;
 
   /**
-   * For each of the discovered data profiling results we can keep an original row of data in which
-   * the value occurs. So for example if we find that the maximum value for field F is 'Z' we can
-   * keep a number of rows in which this occurs.
+   * Every thread that samples rows gets its own accumulator so that profiling a row never has to
+   * wait for another thread. The accumulators are merged when a snapshot is taken.
    */
-  protected Map<String, Map<ProfilingType, RowBuffer>> profileSamples;
+  protected final List<ProfileAccumulator> accumulators;
+
+  private final ThreadLocal<ProfileAccumulator> threadAccumulator;
 
   public BasicDataProfilingDataSamplerStore(
       BasicDataProfilingDataSampler dataSampler,
@@ -83,15 +74,15 @@ public class BasicDataProfilingDataSamplerStore
       int maxRows) {
     super(samplerMeta, rowMeta, rows, maxRows);
     this.dataSampler = dataSampler;
-    this.profileSamples = Collections.synchronizedMap(new HashMap<>());
-    this.minValues = Collections.synchronizedMap(new HashMap<>());
-    this.minMeta = Collections.synchronizedMap(new HashMap<>());
-    this.maxValues = Collections.synchronizedMap(new HashMap<>());
-    this.maxMeta = Collections.synchronizedMap(new HashMap<>());
-    this.nullCounters = Collections.synchronizedMap(new HashMap<>());
-    this.nonNullCounters = Collections.synchronizedMap(new HashMap<>());
-    this.minLengths = Collections.synchronizedMap(new HashMap<>());
-    this.maxLengths = Collections.synchronizedMap(new HashMap<>());
+    this.topValuesSize = 10;
+    this.accumulators = new CopyOnWriteArrayList<>();
+    this.threadAccumulator =
+        ThreadLocal.withInitial(
+            () -> {
+              ProfileAccumulator accumulator = new ProfileAccumulator();
+              accumulators.add(accumulator);
+              return accumulator;
+            });
   }
 
   @Override
@@ -107,6 +98,39 @@ public class BasicDataProfilingDataSamplerStore
   @Override
   public void init(IVariables variables, IRowMeta inputRowMeta, IRowMeta outputRowMeta) {
     setMaxRows(Const.toInt(variables.resolve(dataSampler.getSampleSize()), 0));
+    setTopValuesSize(Const.toInt(variables.resolve(dataSampler.getTopValuesSize()), 10));
+  }
+
+  /**
+   * Get the accumulator of the calling thread. Only this thread updates it, while holding its
+   * monitor. The monitor is only contended while a snapshot merges the accumulator.
+   *
+   * @return The profile accumulator of the current thread
+   */
+  public ProfileAccumulator getAccumulator() {
+    return threadAccumulator.get();
+  }
+
+  /**
+   * Merge the accumulators of all threads into a new set of field profiles.
+   *
+   * @return The merged profiles by field name, in the order of the fields in the rows
+   * @throws HopValueException In case minimum or maximum values can't be compared
+   */
+  public Map<String, FieldProfile> getProfileSnapshot() throws HopValueException {
+    Map<String, FieldProfile> profiles = new LinkedHashMap<>();
+    for (ProfileAccumulator accumulator : accumulators) {
+      synchronized (accumulator) {
+        for (FieldProfile profile : accumulator.getFieldProfiles()) {
+          if (profile != null) {
+            profiles
+                .computeIfAbsent(profile.getName(), FieldProfile::new)
+                .merge(profile, getMaxRows());
+          }
+        }
+      }
+    }
+    return profiles;
   }
 
   @Override
@@ -116,81 +140,94 @@ public class BasicDataProfilingDataSamplerStore
     String transformName = samplerMeta.getTransformName();
     String copyNr = samplerMeta.getCopyNr();
 
-    // Profiling values
-    //
-    getMinValues()
-        .forEach(
-            (fieldName, value) ->
-                samples.put(
-                    createValueKey(transformName, copyNr, fieldName, ProfilingType.MinValue),
-                    createRowBuffer(
-                        fieldName, ProfilingType.MinValue, getMinMeta().get(fieldName), value)));
-
-    getMaxValues()
-        .forEach(
-            (fieldName, value) ->
-                samples.put(
-                    createValueKey(transformName, copyNr, fieldName, ProfilingType.MaxValue),
-                    createRowBuffer(
-                        fieldName, ProfilingType.MaxValue, getMaxMeta().get(fieldName), value)));
-
-    getMinLengths()
-        .forEach(
-            (fieldName, value) ->
-                samples.put(
-                    createValueKey(transformName, copyNr, fieldName, ProfilingType.MinLength),
-                    createRowBuffer(
-                        fieldName,
-                        ProfilingType.MinLength,
-                        new ValueMetaInteger(fieldName),
-                        (long) value)));
-
-    getMaxLengths()
-        .forEach(
-            (fieldName, value) ->
-                samples.put(
-                    createValueKey(transformName, copyNr, fieldName, ProfilingType.MaxLength),
-                    createRowBuffer(
-                        fieldName,
-                        ProfilingType.MaxLength,
-                        new ValueMetaInteger(fieldName),
-                        (long) value)));
-    if (dataSampler.isProfilingNrNull()) {
-      getNullCounters()
-          .forEach(
-              (fieldName, value) ->
-                  samples.put(
-                      createValueKey(transformName, copyNr, fieldName, ProfilingType.NrNulls),
-                      createRowBuffer(
-                          fieldName,
-                          ProfilingType.NrNulls,
-                          new ValueMetaInteger(fieldName),
-                          value)));
-    }
-    if (dataSampler.isProfilingNrNonNull()) {
-      getNonNullCounters()
-          .forEach(
-              (fieldName, value) ->
-                  samples.put(
-                      createValueKey(transformName, copyNr, fieldName, ProfilingType.NrNonNulls),
-                      createRowBuffer(
-                          fieldName,
-                          ProfilingType.NrNonNulls,
-                          new ValueMetaInteger(fieldName),
-                          value)));
-    }
+    for (FieldProfile profile : takeSnapshot().values()) {
+      String fieldName = profile.getName();
 
-    // Wrap up the sample rows we have
-    //
-    for (String fieldName : getProfileSamples().keySet()) {
-      Map<ProfilingType, RowBuffer> dataMap = getProfileSamples().get(fieldName);
-      for (ProfilingType profilingType : ProfilingType.values()) {
-        RowBuffer rowBuffer = dataMap.get(profilingType);
-        if (rowBuffer != null && !rowBuffer.isEmpty()) {
-          String samplesKey = createSamplesKey(transformName, copyNr, fieldName, profilingType);
-          samples.put(samplesKey, rowBuffer);
-        }
+      // Profiling values
+      //
+      if (profile.getMinMeta() != null) {
+        samples.put(
+            createValueKey(transformName, copyNr, fieldName, ProfilingType.MinValue),
+            createRowBuffer(
+                fieldName, ProfilingType.MinValue, profile.getMinMeta(), profile.getMinValue()));
+      }
+      if (profile.getMaxMeta() != null) {
+        samples.put(
+            createValueKey(transformName, copyNr, fieldName, ProfilingType.MaxValue),
+            createRowBuffer(
+                fieldName, ProfilingType.MaxValue, profile.getMaxMeta(), profile.getMaxValue()));
+      }
+      if (profile.getMinLength() >= 0) {
+        samples.put(
+            createValueKey(transformName, copyNr, fieldName, ProfilingType.MinLength),
+            createRowBuffer(
+                fieldName,
+                ProfilingType.MinLength,
+                new ValueMetaInteger(fieldName),
+                (long) profile.getMinLength()));
+      }
+      if (profile.getMaxLength() >= 0) {
+        samples.put(
+            createValueKey(transformName, copyNr, fieldName, ProfilingType.MaxLength),
+            createRowBuffer(
+                fieldName,
+                ProfilingType.MaxLength,
+                new ValueMetaInteger(fieldName),
+                (long) profile.getMaxLength()));
+      }
+      if (dataSampler.isProfilingNrNull() && profile.getNullCount() > 0) {
+        samples.put(
+            createValueKey(transformName, copyNr, fieldName, ProfilingType.NrNulls),
+            createRowBuffer(
+                fieldName,
+                ProfilingType.NrNulls,
+                new ValueMetaInteger(fieldName),
+                profile.getNullCount()));
+      }
+      if (dataSampler.isProfilingNrNonNull() && profile.getNonNullCount() > 0) {
+        samples.put(
+            createValueKey(transformName, copyNr, fieldName, ProfilingType.NrNonNulls),
+            createRowBuffer(
+                fieldName,
+                ProfilingType.NrNonNulls,
+                new ValueMetaInteger(fieldName),
+                profile.getNonNullCount()));
+      }
+
+      // Sketches
+      //
+      if (profile.getDistinctValues() != null) {
+        samples.put(
+            createValueKey(transformName, copyNr, fieldName, ProfilingType.DistinctCount),
+            createRowBuffer(
+                fieldName,
+                ProfilingType.DistinctCount,
+                new ValueMetaInteger(fieldName),
+                profile.getDistinctValues().estimate()));
+      }
+      if (profile.getQuantiles() != null) {
+        samples.put(
+            createValueKey(transformName, copyNr, fieldName, ProfilingType.Quantiles),
+            createQuantilesRowBuffer(profile));
+      }
+      if (profile.getTopValues() != null) {
+        samples.put(
+            createValueKey(transformName, copyNr, fieldName, ProfilingType.TopValues),
+            createTopValuesRowBuffer(profile));
       }
+
+      // Wrap up the sample rows we have
+      //
+      profile
+          .getSamples()
+          .forEach(
+              (profilingType, rowBuffer) -> {
+                if (!rowBuffer.isEmpty()) {
+                  String samplesKey =
+                      createSamplesKey(transformName, copyNr, fieldName, profilingType);
+                  samples.put(samplesKey, rowBuffer);
+                }
+              });
     }
 
     return samples;
@@ -203,86 +240,113 @@ public class BasicDataProfilingDataSamplerStore
     String transformName = samplerMeta.getTransformName();
     String copyNr = samplerMeta.getCopyNr();
 
-    // Profiling values
-    //
-    getMinValues()
-        .forEach(
-            (fieldName, value) ->
-                map.put(
-                    createValueKey(transformName, copyNr, fieldName, ProfilingType.MinValue),
-                    createValueMeta(fieldName, ProfilingType.MinValue)));
-
-    getMaxValues()
-        .forEach(
-            (fieldName, value) ->
-                map.put(
-                    createValueKey(transformName, copyNr, fieldName, ProfilingType.MaxValue),
-                    createValueMeta(fieldName, ProfilingType.MaxValue)));
-
-    getMinLengths()
-        .forEach(
-            (fieldName, value) ->
-                map.put(
-                    createValueKey(transformName, copyNr, fieldName, ProfilingType.MinLength),
-                    createValueMeta(fieldName, ProfilingType.MinLength)));
-    getMaxLengths()
-        .forEach(
-            (fieldName, value) ->
-                map.put(
-                    createValueKey(transformName, copyNr, fieldName, ProfilingType.MaxLength),
-                    createValueMeta(fieldName, ProfilingType.MaxLength)));
-    if (dataSampler.isProfilingNrNull()) {
-      getNullCounters()
-          .forEach(
-              (fieldName, value) ->
-                  map.put(
-                      createValueKey(transformName, copyNr, fieldName, ProfilingType.NrNulls),
-                      createValueMeta(fieldName, ProfilingType.NrNulls)));
+    for (FieldProfile profile : takeSnapshot().values()) {
+      String fieldName = profile.getName();
+
+      // Profiling values
+      //
+      List<ProfilingType> valueTypes = new ArrayList<>();
+      if (profile.getMinMeta() != null) {
+        valueTypes.add(ProfilingType.MinValue);
+      }
+      if (profile.getMaxMeta() != null) {
+        valueTypes.add(ProfilingType.MaxValue);
+      }
+      if (profile.getMinLength() >= 0) {
+        valueTypes.add(ProfilingType.MinLength);
+      }
+      if (profile.getMaxLength() >= 0) {
+        valueTypes.add(ProfilingType.MaxLength);
+      }
+      if (dataSampler.isProfilingNrNull() && profile.getNullCount() > 0) {
+        valueTypes.add(ProfilingType.NrNulls);
+      }
+      if (dataSampler.isProfilingNrNonNull() && profile.getNonNullCount() > 0) {
+        valueTypes.add(ProfilingType.NrNonNulls);
+      }
+      if (profile.getDistinctValues() != null) {
+        valueTypes.add(ProfilingType.DistinctCount);
+      }
+      if (profile.getQuantiles() != null) {
+        valueTypes.add(ProfilingType.Quantiles);
+      }
+      if (profile.getTopValues() != null) {
+        valueTypes.add(ProfilingType.TopValues);
+      }
+      for (ProfilingType profilingType : valueTypes) {
+        map.put(
+            createValueKey(transformName, copyNr, fieldName, profilingType),
+            createValueMeta(fieldName, profilingType));
+      }
+
+      // Sample rows
+      //
+      for (ProfilingType profilingType : profile.getSamples().keySet()) {
+        String samplesKey = createSamplesKey(transformName, copyNr, fieldName, profilingType);
+        String samplesDescription =
+            createSamplesDescription(transformName, copyNr, fieldName, profilingType);
+        ExecutionDataSetMeta setMeta =
+            new ExecutionDataSetMeta(
+                samplesKey,
+                samplerMeta.getLogChannelId(),
+                transformName,
+                copyNr,
+                fieldName,
+                profilingType.getDescription(),
+                samplesDescription);
+        map.put(samplesKey, setMeta);
+      }
     }
-    if (dataSampler.isProfilingNrNonNull()) {
-      getNonNullCounters()
-          .forEach(
-              (fieldName, value) ->
-                  map.put(
-                      createValueKey(transformName, copyNr, fieldName, ProfilingType.NrNonNulls),
-                      createValueMeta(fieldName, ProfilingType.NrNonNulls)));
+
+    return map;
+  }
+
+  private Map<String, FieldProfile> takeSnapshot() {
+    try {
+      return getProfileSnapshot();
+    } catch (HopValueException e) {
+      throw new RuntimeException("Error merging data profiling results", e);
     }
+  }
 
-    // Sample rows
-    //
-    for (String fieldName : getProfileSamples().keySet()) {
-      Map<ProfilingType, RowBuffer> dataMap = getProfileSamples().get(fieldName);
-      synchronized (map) {
-        synchronized (dataMap) {
-          for (ProfilingType profilingType : ProfilingType.values()) {
-            String samplesKey =
-                createSamplesKey(
-                    samplerMeta.getTransformName(),
-                    samplerMeta.getCopyNr(),
-                    fieldName,
-                    profilingType);
-            String samplesDescription =
-                createSamplesDescription(
-                    samplerMeta.getTransformName(),
-                    samplerMeta.getCopyNr(),
-                    fieldName,
-                    profilingType);
-            ExecutionDataSetMeta setMeta =
-                new ExecutionDataSetMeta(
-                    samplesKey,
-                    samplerMeta.getLogChannelId(),
-                    samplerMeta.getTransformName(),
-                    samplerMeta.getCopyNr(),
-                    fieldName,
-                    profilingType.getDescription(),
-                    samplesDescription);
-            map.put(samplesKey, setMeta);
-          }
-        }
+  private RowBuffer createQuantilesRowBuffer(FieldProfile profile) {
+    IValueMeta quantileMeta = new ValueMetaNumber("quantile");
+    IValueMeta valueMeta;
+    if (profile.getQuantilesMeta().isDate()) {
+      valueMeta = new ValueMetaDate(profile.getName());
+    } else {
+      valueMeta = new ValueMetaNumber(profile.getName());
+    }
+    IRowMeta bufferRowMeta = new RowMeta();
+    bufferRowMeta.addValueMeta(quantileMeta);
+    bufferRowMeta.addValueMeta(valueMeta);
+
+    double[] values = profile.getQuantiles().getQuantiles(QUANTILES);
+    List<Object[]> bufferRows = new ArrayList<>();
+    for (int i = 0; i < QUANTILES.length; i++) {
+      Object[] bufferRow = RowDataUtil.allocateRowData(2);
+      bufferRow[0] = QUANTILES[i];
+      if (!Double.isNaN(values[i])) {
+        bufferRow[1] = valueMeta.isDate() ? new Date((long) values[i]) : values[i];
       }
+      bufferRows.add(bufferRow);
     }
+    return new RowBuffer(bufferRowMeta, bufferRows);
+  }
 
-    return map;
+  private RowBuffer createTopValuesRowBuffer(FieldProfile profile) {
+    IRowMeta bufferRowMeta = new RowMeta();
+    bufferRowMeta.addValueMeta(profile.getTopValuesMeta());
+    bufferRowMeta.addValueMeta(new ValueMetaInteger("count"));
+
+    List<Object[]> bufferRows = new ArrayList<>();
+    for (Map.Entry<Object, Long> entry : profile.getTopValues().getTopValues(topValuesSize)) {
+      Object[] bufferRow = RowDataUtil.allocateRowData(2);
+      bufferRow[0] = entry.getKey();
+      bufferRow[1] = entry.getValue();
+      bufferRows.add(bufferRow);
+    }
+    return new RowBuffer(bufferRowMeta, bufferRows);
   }
 
   /**
@@ -340,164 +404,62 @@ public class BasicDataProfilingDataSamplerStore
   }
 
   /**
-   * Gets minValues
+   * Gets topValuesSize
    *
-   * @return value of minValues
+   * @return value of topValuesSize
    */
-  public Map<String, Object> getMinValues() {
-    return minValues;
+  public int getTopValuesSize() {
+    return topValuesSize;
   }
 
   /**
-   * Sets minValues
+   * Sets topValuesSize
    *
-   * @param minValues value of minValues
+   * @param topValuesSize value of topValuesSize
    */
-  public void setMinValues(Map<String, Object> minValues) {
-    this.minValues = minValues;
+  public void setTopValuesSize(int topValuesSize) {
+    this.topValuesSize = topValuesSize;
   }
 
   /**
-   * Gets minMeta
+   * Gets accumulators
    *
-   * @return value of minMeta
+   * @return value of accumulators
    */
-  public Map<String, IValueMeta> getMinMeta() {
-    return minMeta;
+  public List<ProfileAccumulator> getAccumulators() {
+    return accumulators;
   }
 
-  /**
-   * Sets minMeta
-   *
-   * @param minMeta value of minMeta
-   */
-  public void setMinMeta(Map<String, IValueMeta> minMeta) {
-    this.minMeta = minMeta;
-  }
-
-  /**
-   * Gets maxValues
-   *
-   * @return value of maxValues
-   */
-  public Map<String, Object> getMaxValues() {
-    return maxValues;
-  }
-
-  /**
-   * Sets maxValues
-   *
-   * @param maxValues value of maxValues
-   */
-  public void setMaxValues(Map<String, Object> maxValues) {
-    this.maxValues = maxValues;
-  }
-
-  /**
-   * Gets maxMeta
-   *
-   * @return value of maxMeta
-   */
-  public Map<String, IValueMeta> getMaxMeta() {
-    return maxMeta;
-  }
-
-  /**
-   * Sets maxMeta
-   *
-   * @param maxMeta value of maxMeta
-   */
-  public void setMaxMeta(Map<String, IValueMeta> maxMeta) {
-    this.maxMeta = maxMeta;
-  }
-
-  /**
-   * Gets nullCounters
-   *
-   * @return value of nullCounters
-   */
-  public Map<String, Long> getNullCounters() {
-    return nullCounters;
-  }
-
-  /**
-   * Sets nullCounters
-   *
-   * @param nullCounters value of nullCounters
-   */
-  public void setNullCounters(Map<String, Long> nullCounters) {
-    this.nullCounters = nullCounters;
-  }
-
-  /**
-   * Gets nonNullCounters
-   *
-   * @return value of nonNullCounters
-   */
-  public Map<String, Long> getNonNullCounters() {
-    return nonNullCounters;
-  }
-
-  /**
-   * Sets nonNullCounters
-   *
-   * @param nonNullCounters value of nonNullCounters
-   */
-  public void setNonNullCounters(Map<String, Long> nonNullCounters) {
-    this.nonNullCounters = nonNullCounters;
-  }
-
-  /**
-   * Gets minLengths
-   *
-   * @return value of minLengths
-   */
-  public Map<String, Integer> getMinLengths() {
-    return minLengths;
-  }
-
-  /**
-   * Sets minLengths
-   *
-   * @param minLengths value of minLengths
-   */
-  public void setMinLengths(Map<String, Integer> minLengths) {
-    this.minLengths = minLengths;
-  }
-
-  /**
-   * Gets maxLengths
-   *
-   * @return value of maxLengths
-   */
-  public Map<String, Integer> getMaxLengths() {
-    return maxLengths;
-  }
-
-  /**
-   * Sets maxLengths
-   *
-   * @param maxLengths value of maxLengths
-   */
-  public void setMaxLengths(Map<String, Integer> maxLengths) {
-    this.maxLengths = maxLengths;
-  }
-
-  /**
-   * Gets profileSamples
-   *
-   * @return value of profileSamples
-   */
-  public Map<String, Map<ProfilingType, RowBuffer>> getProfileSamples() {
-    return profileSamples;
-  }
+  /** The field profiles of a single thread, addressed by the index of the field in the row. */
+  public static class ProfileAccumulator {
+    private FieldProfile[] fieldProfiles = new FieldProfile[0];
+
+    /**
+     * Get the profile of the field at the given index in the row, create it if needed.
+     *
+     * @param index The index of the field in the row
+     * @param name The name of the field
+     * @return The profile of the field
+     */
+    public FieldProfile getFieldProfile(int index, String name) {
+      if (index >= fieldProfiles.length) {
+        fieldProfiles = Arrays.copyOf(fieldProfiles, index + 1);
+      }
+      FieldProfile profile = fieldProfiles[index];
+      if (profile == null) {
+        profile = new FieldProfile(name);
+        fieldProfiles[index] = profile;
+      }
+      return profile;
+    }
 
-  /**
-   * Sets profileSamples
-   *
-   * @param profileSamples value of profileSamples
-   */
-  public void setProfileSamples(Map<String, Map<ProfilingType, RowBuffer>> profileSamples) {
-    this.profileSamples = profileSamples;
+    /**
+     * Gets fieldProfiles
+     *
+     * @return value of fieldProfiles
+     */
+    public FieldProfile[] getFieldProfiles() {
+      return fieldProfiles;
+    }
   }
 }
@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hop.execution.sampler.plugins.dataprof;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBuffer;
+import org.apache.hop.execution.sampler.plugins.dataprof.BasicDataProfilingDataSampler.ProfilingType;
+
+/**
+ * The data profiling results of a single field. Instances are only ever updated by the thread that
+ * owns them. The profiles of the various threads are merged into a new instance when a snapshot of
+ * the profile is taken.
+ */
+public class FieldProfile {
+  private final String name;
+
+  protected Object minValue;
+  protected IValueMeta minMeta;
+  protected Object maxValue;
+  protected IValueMeta maxMeta;
+  protected long nullCount;
+  protected long nonNullCount;
+
+  /** The minimum length of a String field or -1 if no length was seen yet */
+  protected int minLength;
+
+  /** The maximum length of a String field or -1 if no length was seen yet */
+  protected int maxLength;
+
+  protected HyperLogLog distinctValues;
+  protected QuantileSketch quantiles;
+  protected IValueMeta quantilesMeta;
+  protected FrequentValuesSketch topValues;
+  protected IValueMeta topValuesMeta;
+
+  /** A number of original rows in which the various profiling results occur */
+  protected final Map<ProfilingType, RowBuffer> samples;
+
+  public FieldProfile(String name) {
+    this.name = name;
+    this.minLength = -1;
+    this.maxLength = -1;
+    this.samples = new EnumMap<>(ProfilingType.class);
+  }
+
+  /**
+   * Keep a row of data as a sample of the given profiling result.
+   *
+   * @param profilingType The profiling result to keep the row for
+   * @param rowMeta The layout of the row
+   * @param row The row of data
+   * @param maxRows The maximum number of sample rows to keep
+   */
+  public void addSampleRow(
+      ProfilingType profilingType, IRowMeta rowMeta, Object[] row, int maxRows) {
+    RowBuffer rowBuffer =
+        samples.computeIfAbsent(profilingType, k -> new RowBuffer(rowMeta, new ArrayList<>()));
+
+    // Keep the memory consumption sane
+    //
+    if (rowBuffer.size() < maxRows) {
+      rowBuffer.addRow(row);
+    }
+  }
+
+  public void clearSampleRows(ProfilingType profilingType) {
+    samples.remove(profilingType);
+  }
+
+  /**
+   * Merge the results of another profile of the same field into this one. The other profile is not
+   * modified and no state is shared with it afterwards.
+   *
+   * @param profile The profile to merge
+   * @param maxRows The maximum number of sample rows to keep
+   * @throws HopValueException In case the minimum or maximum values can't be compared
+   */
+  public void merge(FieldProfile profile, int maxRows) throws HopValueException {
+    nullCount += profile.nullCount;
+    nonNullCount += profile.nonNullCount;
+    mergeSamples(profile, ProfilingType.NrNulls, maxRows);
+    mergeSamples(profile, ProfilingType.NrNonNulls, maxRows);
+
+    if (profile.minMeta != null) {
+      int compare =
+          minMeta == null ? 1 : minMeta.compare(minValue, profile.minMeta, profile.minValue);
+      if (compare > 0) {
+        minValue = profile.minValue;
+        minMeta = profile.minMeta;
+        clearSampleRows(ProfilingType.MinValue);
+      }
+      if (compare >= 0) {
+        mergeSamples(profile, ProfilingType.MinValue, maxRows);
+      }
+    }
+    if (profile.maxMeta != null) {
+      int compare =
+          maxMeta == null ? -1 : maxMeta.compare(maxValue, profile.maxMeta, profile.maxValue);
+      if (compare < 0) {
+        maxValue = profile.maxValue;
+        maxMeta = profile.maxMeta;
+        clearSampleRows(ProfilingType.MaxValue);
+      }
+      if (compare <= 0) {
+        mergeSamples(profile, ProfilingType.MaxValue, maxRows);
+      }
+    }
+    if (profile.minLength >= 0) {
+      if (minLength < 0 || profile.minLength < minLength) {
+        minLength = profile.minLength;
+        clearSampleRows(ProfilingType.MinLength);
+      }
+      if (profile.minLength == minLength) {
+        mergeSamples(profile, ProfilingType.MinLength, maxRows);
+      }
+    }
+    if (profile.maxLength >= 0) {
+      if (profile.maxLength > maxLength) {
+        maxLength = profile.maxLength;
+        clearSampleRows(ProfilingType.MaxLength);
+      }
+      if (profile.maxLength == maxLength) {
+        mergeSamples(profile, ProfilingType.MaxLength, maxRows);
+      }
+    }
+
+    if (profile.distinctValues != null) {
+      if (distinctValues == null) {
+        distinctValues = new HyperLogLog(profile.distinctValues);
+      } else {
+        distinctValues.merge(profile.distinctValues);
+      }
+    }
+    if (profile.quantiles != null) {
+      if (quantiles == null) {
+        quantiles = new QuantileSketch(profile.quantiles);
+        quantilesMeta = profile.quantilesMeta;
+      } else {
+        quantiles.merge(profile.quantiles);
+      }
+    }
+    if (profile.topValues != null) {
+      if (topValues == null) {
+        topValues = new FrequentValuesSketch(profile.topValues);
+        topValuesMeta = profile.topValuesMeta;
+      } else {
+        topValues.merge(profile.topValues);
+      }
+    }
+  }
+
+  private void mergeSamples(FieldProfile profile, ProfilingType profilingType, int maxRows) {
+    RowBuffer rowBuffer = profile.samples.get(profilingType);
+    if (rowBuffer != null) {
+      for (Object[] row : rowBuffer.getBuffer()) {
+        addSampleRow(profilingType, rowBuffer.getRowMeta(), row, maxRows);
+      }
+    }
+  }
+
+  /**
+   * Gets name
+   *
+   * @return value of name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets minValue
+   *
+   * @return value of minValue
+   */
+  public Object getMinValue() {
+    return minValue;
+  }
+
+  /**
+   * Gets minMeta
+   *
+   * @return value of minMeta
+   */
+  public IValueMeta getMinMeta() {
+    return minMeta;
+  }
+
+  /**
+   * Gets maxValue
+   *
+   * @return value of maxValue
+   */
+  public Object getMaxValue() {
+    return maxValue;
+  }
+
+  /**
+   * Gets maxMeta
+   *
+   * @return value of maxMeta
+   */
+  public IValueMeta getMaxMeta() {
+    return maxMeta;
+  }
+
+  /**
+   * Gets nullCount
+   *
+   * @return value of nullCount
+   */
+  public long getNullCount() {
+    return nullCount;
+  }
+
+  /**
+   * Gets nonNullCount
+   *
+   * @return value of nonNullCount
+   */
+  public long getNonNullCount() {
+    return nonNullCount;
+  }
+
+  /**
+   * Gets minLength
+   *
+   * @return value of minLength
+   */
+  public int getMinLength() {
+    return minLength;
+  }
+
+  /**
+   * Gets maxLength
+   *
+   * @return value of maxLength
+   */
+  public int getMaxLength() {
+    return maxLength;
+  }
+
+  /**
+   * Gets distinctValues
+   *
+   * @return value of distinctValues
+   */
+  public HyperLogLog getDistinctValues() {
+    return distinctValues;
+  }
+
+  /**
+   * Gets quantiles
+   *
+   * @return value of quantiles
+   */
+  public QuantileSketch getQuantiles() {
+    return quantiles;
+  }
+
+  /**
+   * Gets quantilesMeta
+   *
+   * @return value of quantilesMeta
+   */
+  public IValueMeta getQuantilesMeta() {
+    return quantilesMeta;
+  }
+
+  /**
+   * Gets topValues
+   *
+   * @return value of topValues
+   */
+  public FrequentValuesSketch getTopValues() {
+    return topValues;
+  }
+
+  /**
+   * Gets topValuesMeta
+   *
+   * @return value of topValuesMeta
+   */
+  public IValueMeta getTopValuesMeta() {
+    return topValuesMeta;
+  }
+
+  /**
+   * Gets samples
+   *
+   * @return value of samples
+   */
+  public Map<ProfilingType, RowBuffer> getSamples() {
+    return samples;
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hop.execution.sampler.plugins.dataprof;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mergeable Misra-Gries sketch to find the most frequent values of a column with a bounded number
+ * of counters. When all counters are in use, the median count is subtracted from every counter and
+ * the ones that drop to zero are freed. Reported counts are therefore lower bounds which are off by
+ * at most {@link #getMaximumError()}.
+ */
+public class FrequentValuesSketch {
+  public static final int DEFAULT_CAPACITY = 128;
+
+  private final int capacity;
+  private final Map<Object, long[]> counters;
+  private long maximumError;
+
+  public FrequentValuesSketch() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public FrequentValuesSketch(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("The capacity needs to be at least 2");
+    }
+    this.capacity = capacity;
+    this.counters = new HashMap<>();
+  }
+
+  public FrequentValuesSketch(FrequentValuesSketch sketch) {
+    this(sketch.capacity);
+    sketch.counters.forEach((value, count) -> counters.put(value, new long[] {count[0]}));
+    this.maximumError = sketch.maximumError;
+  }
+
+  /**
+   * Add a value to the sketch.
+   *
+   * @param value The value in normal storage. It needs to implement equals() and hashCode().
+   */
+  public void add(Object value) {
+    if (value == null) {
+      return;
+    }
+    long[] count = counters.get(value);
+    if (count != null) {
+      count[0]++;
+      return;
+    }
+    counters.put(value, new long[] {1L});
+    if (counters.size() > capacity) {
+      purge();
+    }
+  }
+
+  /**
+   * Merge another sketch into this one.
+   *
+   * @param sketch The sketch to merge
+   */
+  public void merge(FrequentValuesSketch sketch) {
+    sketch.counters.forEach(
+        (value, count) -> counters.computeIfAbsent(value, k -> new long[1])[0] += count[0]);
+    maximumError += sketch.maximumError;
+    while (counters.size() > capacity) {
+      purge();
+    }
+  }
+
+  /**
+   * Get the most frequent values, most frequent first.
+   *
+   * @param maxValues The maximum number of values to return
+   * @return The values with their (lower bound) counts
+   */
+  public List<Map.Entry<Object, Long>> getTopValues(int maxValues) {
+    List<Map.Entry<Object, Long>> entries = new ArrayList<>(counters.size());
+    counters.forEach((value, count) -> entries.add(Map.entry(value, count[0])));
+    entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+    return entries.subList(0, Math.min(maxValues, entries.size()));
+  }
+
+  private void purge() {
+    long[] counts = new long[counters.size()];
+    int index = 0;
+    for (long[] count : counters.values()) {
+      counts[index++] = count[0];
+    }
+    Arrays.sort(counts);
+    long median = counts[counts.length / 2];
+
+    Iterator<long[]> iterator = counters.values().iterator();
+    while (iterator.hasNext()) {
+      long[] count = iterator.next();
+      count[0] -= median;
+      if (count[0] <= 0) {
+        iterator.remove();
+      }
+    }
+    maximumError += median;
+  }
+
+  /**
+   * Gets maximumError
+   *
+   * @return the maximum amount by which any of the reported counts underestimates the real count
+   */
+  public long getMaximumError() {
+    return maximumError;
+  }
+}
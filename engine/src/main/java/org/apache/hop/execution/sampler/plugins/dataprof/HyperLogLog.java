@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hop.execution.sampler.plugins.dataprof;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * A HyperLogLog sketch to estimate the number of distinct values in a column using a fixed amount
+ * of memory. Two sketches with the same precision can be merged which makes it possible to keep one
+ * sketch per thread and combine them when the profile is requested.
+ */
+public class HyperLogLog {
+  /** 2^12 registers gives a standard error of about 1.6% using 4kB of memory */
+  public static final int DEFAULT_PRECISION = 12;
+
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  public HyperLogLog(int precision) {
+    if (precision < 4 || precision > 18) {
+      throw new IllegalArgumentException("The precision needs to be between 4 and 18");
+    }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  public HyperLogLog(HyperLogLog sketch) {
+    this.precision = sketch.precision;
+    this.registers = Arrays.copyOf(sketch.registers, sketch.registers.length);
+  }
+
+  /**
+   * Add a value to the sketch.
+   *
+   * @param value The value to add, in normal storage. Null values are ignored.
+   */
+  public void add(Object value) {
+    if (value != null) {
+      addHash(hash(value));
+    }
+  }
+
+  /**
+   * Add a 64-bit hash code to the sketch.
+   *
+   * @param hash The well distributed hash code of a value
+   */
+  public void addHash(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    // The guard bit makes sure the rank never exceeds 64-precision+1
+    //
+    long remainder = (hash << precision) | (1L << (precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(remainder) + 1);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  /**
+   * Merge the registers of another sketch into this one.
+   *
+   * @param sketch The sketch to merge, it needs to have the same precision.
+   */
+  public void merge(HyperLogLog sketch) {
+    if (sketch.precision != precision) {
+      throw new IllegalArgumentException(
+          "Unable to merge sketches with precision " + precision + " and " + sketch.precision);
+    }
+    for (int i = 0; i < registers.length; i++) {
+      if (sketch.registers[i] > registers[i]) {
+        registers[i] = sketch.registers[i];
+      }
+    }
+  }
+
+  /**
+   * @return The estimated number of distinct values added to the sketch
+   */
+  public long estimate() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double alpha = 0.7213 / (1 + 1.079 / m);
+    double estimate = alpha * m * m / sum;
+
+    // Linear counting is more accurate for small cardinalities
+    //
+    if (estimate <= 2.5 * m && zeros > 0) {
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * Calculate a 64-bit hash code for a value in normal storage. Equal values of the same Hop data
+   * type get the same hash code.
+   *
+   * @param value The value to hash
+   * @return The hash code
+   */
+  public static long hash(Object value) {
+    if (value instanceof Long) {
+      return mix((Long) value);
+    }
+    if (value instanceof Double) {
+      return mix(Double.doubleToLongBits((Double) value));
+    }
+    if (value instanceof String) {
+      return hashString((String) value);
+    }
+    if (value instanceof Date) {
+      return mix(((Date) value).getTime());
+    }
+    if (value instanceof BigDecimal) {
+      return hashString(((BigDecimal) value).stripTrailingZeros().toString());
+    }
+    if (value instanceof byte[]) {
+      return hashBytes((byte[]) value);
+    }
+    return mix(value.hashCode());
+  }
+
+  // FNV-1a followed by a finalizer to spread the bits.
+  // The characters are hashed directly to avoid encoding the string for every row.
+  //
+  private static long hashString(String string) {
+    long hash = FNV_OFFSET;
+    for (int i = 0; i < string.length(); i++) {
+      hash ^= string.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return mix(hash);
+  }
+
+  private static long hashBytes(byte[] bytes) {
+    long hash = FNV_OFFSET;
+    for (byte b : bytes) {
+      hash ^= b;
+      hash *= FNV_PRIME;
+    }
+    return mix(hash);
+  }
+
+  /** The 64-bit finalizer of MurmurHash3 */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Gets precision
+   *
+   * @return value of precision
+   */
+  public int getPrecision() {
+    return precision;
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hop.execution.sampler.plugins.dataprof;
+
+import java.util.Arrays;
+
+/**
+ * A mergeable sketch to estimate quantiles (median, percentiles) of a numeric column in bounded
+ * memory. Values are collected in a stack of compactors: when a level fills up it is sorted and
+ * every other value is promoted to the next level with double the weight.
+ */
+public class QuantileSketch {
+  public static final int DEFAULT_LEVEL_SIZE = 200;
+
+  private final int levelSize;
+  private double[][] levels;
+  private int[] levelCounts;
+  private long count;
+  private int compactions;
+
+  public QuantileSketch() {
+    this(DEFAULT_LEVEL_SIZE);
+  }
+
+  public QuantileSketch(int levelSize) {
+    if (levelSize < 2) {
+      throw new IllegalArgumentException("The level size needs to be at least 2");
+    }
+    this.levelSize = levelSize;
+    this.levels = new double[0][];
+    this.levelCounts = new int[0];
+  }
+
+  public QuantileSketch(QuantileSketch sketch) {
+    this(sketch.levelSize);
+    this.levels = new double[sketch.levels.length][];
+    for (int h = 0; h < levels.length; h++) {
+      levels[h] = Arrays.copyOf(sketch.levels[h], sketch.levels[h].length);
+    }
+    this.levelCounts = Arrays.copyOf(sketch.levelCounts, sketch.levelCounts.length);
+    this.count = sketch.count;
+    this.compactions = sketch.compactions;
+  }
+
+  /**
+   * Add a value to the sketch
+   *
+   * @param value The value to add
+   */
+  public void add(double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    append(0, value);
+    count++;
+    if (levelCounts[0] >= levelSize) {
+      compact(0);
+    }
+  }
+
+  /**
+   * Merge another sketch into this one.
+   *
+   * @param sketch The sketch to merge
+   */
+  public void merge(QuantileSketch sketch) {
+    for (int h = 0; h < sketch.levels.length; h++) {
+      for (int i = 0; i < sketch.levelCounts[h]; i++) {
+        append(h, sketch.levels[h][i]);
+      }
+    }
+    count += sketch.count;
+    for (int h = 0; h < levels.length; h++) {
+      if (levelCounts[h] >= levelSize) {
+        compact(h);
+      }
+    }
+  }
+
+  /**
+   * Estimate the value at the given quantile.
+   *
+   * @param quantile The quantile between 0 and 1, 0.5 is the median
+   * @return The estimated value or NaN if the sketch is empty
+   */
+  public double getQuantile(double quantile) {
+    return getQuantiles(quantile)[0];
+  }
+
+  /**
+   * Estimate the values at the given quantiles.
+   *
+   * @param quantiles The quantiles between 0 and 1
+   * @return The estimated values, NaN if the sketch is empty
+   */
+  public double[] getQuantiles(double... quantiles) {
+    double[] result = new double[quantiles.length];
+    int size = 0;
+    for (int levelCount : levelCounts) {
+      size += levelCount;
+    }
+    if (size == 0) {
+      Arrays.fill(result, Double.NaN);
+      return result;
+    }
+
+    // Gather the retained values with their weights and sort them on value
+    //
+    double[] values = new double[size];
+    long[] weights = new long[size];
+    int index = 0;
+    long totalWeight = 0;
+    for (int h = 0; h < levels.length; h++) {
+      for (int i = 0; i < levelCounts[h]; i++) {
+        values[index] = levels[h][i];
+        weights[index++] = 1L << h;
+        totalWeight += 1L << h;
+      }
+    }
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+    for (int q = 0; q < quantiles.length; q++) {
+      double target = quantiles[q] * totalWeight;
+      long cumulative = 0;
+      result[q] = values[order[size - 1]];
+      for (int i = 0; i < size; i++) {
+        cumulative += weights[order[i]];
+        if (cumulative >= target) {
+          result[q] = values[order[i]];
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  private void append(int level, double value) {
+    if (levels.length <= level) {
+      levels = Arrays.copyOf(levels, level + 1);
+      levels[level] = new double[levelSize];
+      levelCounts = Arrays.copyOf(levelCounts, level + 1);
+    }
+    if (levelCounts[level] == levels[level].length) {
+      // Only happens while merging sketches
+      levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+    }
+    levels[level][levelCounts[level]++] = value;
+  }
+
+  private void compact(int level) {
+    double[] items = levels[level];
+    int levelCount = levelCounts[level];
+    Arrays.sort(items, 0, levelCount);
+
+    // Alternate between promoting the even and odd positions to avoid a systematic bias.
+    // With an odd number of values the largest one stays behind on this level.
+    //
+    int offset = compactions++ & 1;
+    int pairs = levelCount / 2;
+    for (int i = 0; i < pairs; i++) {
+      append(level + 1, items[2 * i + offset]);
+    }
+    if (levelCount % 2 == 1) {
+      items[0] = items[levelCount - 1];
+      levelCounts[level] = 1;
+    } else {
+      levelCounts[level] = 0;
+    }
+    if (levelCounts[level + 1] >= levelSize) {
+      compact(level + 1);
+    }
+  }
+
+  /**
+   * Gets count
+   *
+   * @return the number of values added to the sketch
+   */
+  public long getCount() {
+    return count;
+  }
+}
@@ -54,6 +54,17 @@ public abstract class AbstractMetaInfo {
     this.modifiedUser = "-";
   }
 
+  protected AbstractMetaInfo(AbstractMetaInfo info) {
+    this.name = info.name;
+    this.nameSynchronizedWithFilename = info.nameSynchronizedWithFilename;
+    this.description = info.description;
+    this.extendedDescription = info.extendedDescription;
+    this.createdUser = info.createdUser;
+    this.modifiedUser = info.modifiedUser;
+    this.createdDate = info.createdDate == null ? null : new Date(info.createdDate.getTime());
+    this.modifiedDate = info.modifiedDate == null ? null : new Date(info.modifiedDate.getTime());
+  }
+
   /**
    * Gets name
    *
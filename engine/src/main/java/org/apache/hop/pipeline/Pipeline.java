@@ -30,8 +30,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
@@ -55,6 +57,8 @@ import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.SequencedRowSet;
+import org.apache.hop.core.SpillableRowSet;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
@@ -103,6 +107,7 @@ import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engines.EmptyPipelineRunConfiguration;
 import org.apache.hop.pipeline.performance.PerformanceSnapShot;
 import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.FusedRunThread;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.hop.pipeline.transform.ITransformFinishedListener;
@@ -141,6 +146,12 @@ public abstract class Pipeline
   public static final String METRIC_NAME_BUFFER_OUT = "buffer_out";
   public static final String METRIC_NAME_FLUSH_BUFFER = "flush_buffer";
   public static final String METRIC_NAME_INIT = "init";
+  public static final String METRIC_NAME_BUFFER_IN_WAIT = "buffer_in_wait";
+  public static final String METRIC_NAME_BUFFER_OUT_BLOCKED = "buffer_out_blocked";
+  public static final String METRIC_NAME_BUFFER_OUT_MAX_FILL_LEVEL = "buffer_out_max_fill_level";
+  public static final String METRIC_NAME_HOP_MAX_FILL_LEVEL = "hop_max_fill_level";
+  public static final String METRIC_NAME_HOP_WAIT = "hop_wait";
+  public static final String METRIC_NAME_HOP_BLOCKED = "hop_blocked";
 
   /** The package name, used for internationalization of messages. */
   private static final Class<?> PKG = Pipeline.class; // For Translator
@@ -181,6 +192,12 @@ public abstract class Pipeline
   /** Indicates that we want to do a topological sort of the transforms in a GUI. */
   private boolean sortingTransformsTopologically;
 
+  /** Indicates that linear chains of transforms are executed in a single thread. */
+  private boolean fusingTransformChains;
+
+  /** The linear chains of transforms which are executed in a single thread. */
+  private List<List<TransformMeta>> fusedTransformChains;
+
   /** Indicates that we are running in preview mode... */
   private boolean preview;
 
@@ -359,6 +376,9 @@ public abstract class Pipeline
 
   protected int rowSetSize;
 
+  /** The number of bytes all the row sets of this pipeline can buffer together, 0 for no limit. */
+  protected long rowSetMemoryBudget;
+
   /** Whether the feedback is shown. */
   protected boolean feedbackShown;
 
@@ -602,6 +622,8 @@ public abstract class Pipeline
 
     List<TransformMeta> hopTransforms = pipelineMeta.getPipelineHopTransforms(false);
 
+    fusedTransformChains = findFusableTransformChains(hopTransforms);
+
     if (log.isDetailed()) {
       log.logDetailed(
           BaseMessages.getString(
@@ -694,6 +716,12 @@ public abstract class Pipeline
             IRowSet rowSet;
             switch (pipelineMeta.getPipelineType()) {
               case Normal:
+                if (isFused(thisTransform, nextTransform)) {
+                  // Both transforms run in the same thread, no locking needed
+                  //
+                  rowSet = new QueueRowSet();
+                  break;
+                }
                 // This is a temporary patch until the batching rowset has proven
                 // to be working in all situations.
                 // Currently there are stalling problems when dealing with small
@@ -776,6 +804,12 @@ public abstract class Pipeline
               + " ");
     }
 
+    preserveRowOrder(hopTransforms);
+
+    useSpillableRowSets();
+
+    applyRowSetMemoryBudget();
+
     if (log.isDetailed()) {
       log.logDetailed(
           BaseMessages.getString(PKG, "Pipeline.Log.AllocatingTransformsAndTransformData"));
@@ -1254,11 +1288,26 @@ public abstract class Pipeline
       case Normal:
 
         // Now start all the threads...
+        // A chain of fused transforms is started in a single thread, by its first transform.
         //
+        Map<String, List<TransformMetaDataCombi>> fusedCombis = getFusedTransformCombis();
         for (final TransformMetaDataCombi combi : transforms) {
-          RunThread runThread = new RunThread(combi);
-          Thread thread = new Thread(runThread);
-          thread.setName(getName() + " - " + combi.transformName);
+          Thread thread = null;
+          if (fusedCombis.containsKey(combi.transformName)) {
+            List<TransformMetaDataCombi> chain = fusedCombis.get(combi.transformName);
+            if (chain.get(0) == combi) {
+              thread = new Thread(new FusedRunThread(chain));
+              thread.setName(
+                  getName()
+                      + " - "
+                      + combi.transformName
+                      + " .. "
+                      + chain.get(chain.size() - 1).transformName);
+            }
+          } else {
+            thread = new Thread(new RunThread(combi));
+            thread.setName(getName() + " - " + combi.transformName);
+          }
           ExtensionPointHandler.callExtensionPoint(
               log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
           // Call an extension point at the end of the transform
@@ -1274,7 +1323,9 @@ public abstract class Pipeline
                 }
               });
 
-          thread.start();
+          if (thread != null) {
+            thread.start();
+          }
         }
         break;
 
@@ -1365,6 +1416,344 @@ public abstract class Pipeline
     }
   }
 
+  /**
+   * Look for linear chains of transforms which can be executed in a single thread. Two transforms
+   * are fused when they both run in a single copy, the first one only sends rows to the second one
+   * and the second one only receives rows from the first one. Both transforms need to declare they
+   * support fused execution (see {@link TransformMeta#supportsFusedExecution()}), all other
+   * transforms keep their own thread and blocking row sets. Transforms reading info streams or
+   * handling errors are never fused, nor are partitioned transforms or mappings.
+   *
+   * @param hopTransforms The transforms used in the pipeline
+   * @return The list of chains, each with at least 2 transforms
+   * @throws HopException in case the number of copies can't be determined
+   */
+  protected List<List<TransformMeta>> findFusableTransformChains(List<TransformMeta> hopTransforms)
+      throws HopException {
+    List<List<TransformMeta>> chains = new ArrayList<>();
+    if (!fusingTransformChains
+        || pipelineMeta.getPipelineType() != PipelineMeta.PipelineType.Normal) {
+      return chains;
+    }
+    for (TransformMeta transformMeta : hopTransforms) {
+      // Only start a chain at a transform which isn't fused with its previous transform
+      //
+      List<TransformMeta> previous = pipelineMeta.findPreviousTransforms(transformMeta, true);
+      if (previous.size() == 1 && isFusable(previous.get(0), transformMeta)) {
+        continue;
+      }
+      List<TransformMeta> chain = new ArrayList<>();
+      chain.add(transformMeta);
+      TransformMeta current = transformMeta;
+      List<TransformMeta> next = pipelineMeta.findNextTransforms(current);
+      while (next.size() == 1 && isFusable(current, next.get(0)) && !chain.contains(next.get(0))) {
+        current = next.get(0);
+        chain.add(current);
+        next = pipelineMeta.findNextTransforms(current);
+      }
+      if (chain.size() > 1) {
+        chains.add(chain);
+        if (log.isDetailed()) {
+          log.logDetailed(
+              "Fusing "
+                  + chain.size()
+                  + " transforms into a single thread, starting at transform '"
+                  + transformMeta.getName()
+                  + "'");
+        }
+      }
+    }
+    return chains;
+  }
+
+  private boolean isFusable(TransformMeta transformMeta, TransformMeta nextTransform)
+      throws HopException {
+    for (TransformMeta meta : new TransformMeta[] {transformMeta, nextTransform}) {
+      if (!meta.supportsFusedExecution()
+          || meta.isMapping()
+          || meta.isPartitioned()
+          || meta.getCopies(this) != 1) {
+        return false;
+      }
+    }
+    if (transformMeta.isDoingErrorHandling() || nextTransform.isDoingErrorHandling()) {
+      return false;
+    }
+    if (!nextTransform.getTransform().getTransformIOMeta().getInfoStreams().isEmpty()) {
+      return false;
+    }
+    return pipelineMeta.findNextTransforms(transformMeta).size() == 1
+        && pipelineMeta.findPreviousTransforms(nextTransform, true).size() == 1;
+  }
+
+  /**
+   * @param transformMeta The source transform of a hop
+   * @param nextTransform The target transform of a hop
+   * @return true if both transforms are executed in the same thread
+   */
+  protected boolean isFused(TransformMeta transformMeta, TransformMeta nextTransform) {
+    if (fusedTransformChains == null) {
+      return false;
+    }
+    for (List<TransformMeta> chain : fusedTransformChains) {
+      int index = chain.indexOf(transformMeta);
+      if (index >= 0) {
+        return index < chain.size() - 1 && chain.get(index + 1).equals(nextTransform);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Map the name of every fused transform on the list of transform combinations of its chain.
+   *
+   * @return The fused transform combinations by transform name
+   */
+  private Map<String, List<TransformMetaDataCombi>> getFusedTransformCombis() {
+    Map<String, List<TransformMetaDataCombi>> fusedCombis = new HashMap<>();
+    if (fusedTransformChains == null) {
+      return fusedCombis;
+    }
+    for (List<TransformMeta> chain : fusedTransformChains) {
+      List<TransformMetaDataCombi> combis = new ArrayList<>();
+      for (TransformMeta transformMeta : chain) {
+        for (TransformMetaDataCombi combi : transforms) {
+          if (combi.transformMeta.equals(transformMeta)) {
+            combis.add(combi);
+          }
+        }
+      }
+      for (TransformMetaDataCombi combi : combis) {
+        fusedCombis.put(combi.transformName, combis);
+      }
+    }
+    return fusedCombis;
+  }
+
+  /**
+   * Replace the row sets to and from the transforms running in multiple copies which need to keep
+   * the rows in order. The rows going to the copies are numbered and the transform reading from the
+   * copies merges them back into the original order. This only works when a single transform copy
+   * distributes rows to the copies and a single transform copy reads from them.
+   *
+   * @param hopTransforms The transforms used in the pipeline
+   * @throws HopException in case the number of copies can't be determined
+   */
+  protected void preserveRowOrder(List<TransformMeta> hopTransforms) throws HopException {
+    if (pipelineMeta.getPipelineType() != PipelineMeta.PipelineType.Normal) {
+      return;
+    }
+    for (TransformMeta transformMeta : hopTransforms) {
+      int copies = transformMeta.getCopies(this);
+      if (!transformMeta.isPreservingRowOrder() || copies <= 1) {
+        continue;
+      }
+      String reason = getRowOrderPreservationProblem(transformMeta);
+      if (reason != null) {
+        log.logBasic(
+            "The order of the rows can't be preserved for transform '"
+                + transformMeta.getName()
+                + "': "
+                + reason);
+        continue;
+      }
+      String previousName =
+          pipelineMeta.findPreviousTransforms(transformMeta, true).get(0).getName();
+      String nextName = pipelineMeta.findNextTransforms(transformMeta).get(0).getName();
+
+      SequencedRowSet.Sequence sequence = new SequencedRowSet.Sequence();
+      for (int c = 0; c < copies; c++) {
+        SequencedRowSet input = new SequencedRowSet(rowSetSize, sequence);
+        replaceRowSet(previousName, 0, transformMeta.getName(), c, input);
+        SequencedRowSet output = new SequencedRowSet(rowSetSize, input);
+        replaceRowSet(transformMeta.getName(), c, nextName, 0, output);
+      }
+      if (log.isDetailed()) {
+        log.logDetailed(
+            "Preserving the order of the rows over "
+                + copies
+                + " copies of transform '"
+                + transformMeta.getName()
+                + "'");
+      }
+    }
+  }
+
+  /**
+   * @param transformMeta The transform to run in multiple copies
+   * @return The reason why the order of the rows can't be preserved or null if it can
+   * @throws HopException in case the number of copies can't be determined
+   */
+  private String getRowOrderPreservationProblem(TransformMeta transformMeta) throws HopException {
+    if (transformMeta.isMapping() || transformMeta.isPartitioned()) {
+      return "partitioned transforms and mappings are not supported";
+    }
+    if (transformMeta.isDoingErrorHandling()) {
+      return "error handling is not supported";
+    }
+    if (!transformMeta.getTransform().getTransformIOMeta().getInfoStreams().isEmpty()) {
+      return "info streams are not supported";
+    }
+    List<TransformMeta> previous = pipelineMeta.findPreviousTransforms(transformMeta, true);
+    List<TransformMeta> next = pipelineMeta.findNextTransforms(transformMeta);
+    if (previous.size() != 1 || next.size() != 1) {
+      return "the transform needs exactly one input and one output hop";
+    }
+    TransformMeta previousTransform = previous.get(0);
+    if (previousTransform.getCopies(this) != 1
+        || previousTransform.isPartitioned()
+        || !previousTransform.isDistributes()
+        || previousTransform.getRowDistribution() != null
+        || pipelineMeta.findNextTransforms(previousTransform).size() != 1) {
+      return "the previous transform needs to run in a single copy and only distribute rows to this transform";
+    }
+    TransformMeta nextTransform = next.get(0);
+    if (nextTransform.getCopies(this) != 1
+        || nextTransform.isPartitioned()
+        || pipelineMeta.findPreviousTransforms(nextTransform, true).size() != 1) {
+      return "the next transform needs to run in a single copy and only read from this transform";
+    }
+    return null;
+  }
+
+  private void replaceRowSet(String from, int fromCopy, String to, int toCopy, IRowSet rowSet) {
+    rowSet.setThreadNameFromToCopy(from, fromCopy, to, toCopy);
+    for (int i = 0; i < rowsets.size(); i++) {
+      IRowSet existing = rowsets.get(i);
+      if (existing.getOriginTransformName().equalsIgnoreCase(from)
+          && existing.getDestinationTransformName().equalsIgnoreCase(to)
+          && existing.getOriginTransformCopy() == fromCopy
+          && existing.getDestinationTransformCopy() == toCopy) {
+        rowsets.set(i, rowSet);
+        return;
+      }
+    }
+    rowsets.add(rowSet);
+  }
+
+  /**
+   * Replace the blocking row sets of the hops marked to spill rows to disk by a {@link
+   * SpillableRowSet}. Unless switched off with {@link Const#HOP_ROWSET_SPILL_ON_DIAMONDS}, the same
+   * is done for the hops into transforms where the streams of a common source transform come
+   * together again (diamond shapes). Such transforms often read one input after the other and the
+   * common source would block forever once the row set of the other input is full.
+   *
+   * <p>Whether the rows can actually be written to a temporary file is only known once they arrive:
+   * a spillable row set blocks like a regular row set for rows with values it can't write (see
+   * {@link SpillableRowSet#canSpill(IRowMeta)}).
+   */
+  protected void useSpillableRowSets() {
+    if (pipelineMeta.getPipelineType() != PipelineMeta.PipelineType.Normal) {
+      return;
+    }
+    Boolean spillOnDiamonds =
+        ValueMetaString.convertStringToBoolean(
+            System.getProperty(Const.HOP_ROWSET_SPILL_ON_DIAMONDS));
+    boolean detectDiamonds = spillOnDiamonds == null || spillOnDiamonds;
+    Map<TransformMeta, Set<TransformMeta>> ancestors = new HashMap<>();
+
+    for (int i = 0; i < rowsets.size(); i++) {
+      IRowSet rowSet = rowsets.get(i);
+      if (!(rowSet instanceof BlockingRowSet) && !(rowSet instanceof BlockingBatchingRowSet)) {
+        continue;
+      }
+      TransformMeta from = pipelineMeta.findTransform(rowSet.getOriginTransformName());
+      TransformMeta to = pipelineMeta.findTransform(rowSet.getDestinationTransformName());
+      if (from == null || to == null) {
+        continue;
+      }
+      PipelineHopMeta hop = pipelineMeta.findPipelineHop(from, to);
+      boolean spilling = hop != null && hop.isSpilling();
+      if (!spilling && detectDiamonds && isDiamondTarget(to, ancestors)) {
+        spilling = true;
+      }
+      if (spilling) {
+        SpillableRowSet spillableRowSet = new SpillableRowSet(rowSetSize);
+        spillableRowSet.setThreadNameFromToCopy(
+            rowSet.getOriginTransformName(),
+            rowSet.getOriginTransformCopy(),
+            rowSet.getDestinationTransformName(),
+            rowSet.getDestinationTransformCopy());
+        rowsets.set(i, spillableRowSet);
+        if (log.isDetailed()) {
+          log.logDetailed("Rows on hop " + spillableRowSet + " can be spilled to disk");
+        }
+      }
+    }
+  }
+
+  /**
+   * @param transformMeta The transform to check
+   * @param ancestors The upstream transforms of the transforms visited so far
+   * @return true if two or more input streams of the transform share an upstream transform
+   */
+  private boolean isDiamondTarget(
+      TransformMeta transformMeta, Map<TransformMeta, Set<TransformMeta>> ancestors) {
+    List<TransformMeta> previous = pipelineMeta.findPreviousTransforms(transformMeta, true);
+    if (previous.size() < 2) {
+      return false;
+    }
+    Set<TransformMeta> seen = new HashSet<>();
+    for (TransformMeta previousTransform : previous) {
+      Set<TransformMeta> upstream = new HashSet<>(getAncestors(previousTransform, ancestors));
+      upstream.add(previousTransform);
+      for (TransformMeta upstreamTransform : upstream) {
+        if (!seen.add(upstreamTransform)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private Set<TransformMeta> getAncestors(
+      TransformMeta transformMeta, Map<TransformMeta, Set<TransformMeta>> ancestors) {
+    Set<TransformMeta> result = ancestors.get(transformMeta);
+    if (result != null) {
+      return result;
+    }
+    result = new HashSet<>();
+    // Mark as visited before recursing: pipelines are acyclic but better safe than sorry
+    //
+    ancestors.put(transformMeta, result);
+    for (TransformMeta previous : pipelineMeta.findPreviousTransforms(transformMeta, true)) {
+      result.add(previous);
+      result.addAll(getAncestors(previous, ancestors));
+    }
+    return result;
+  }
+
+  /**
+   * Divide the row set memory budget over all the blocking row sets of this pipeline. Each row set
+   * sizes its buffer when the first row arrives, based on the estimated size of the rows.
+   */
+  protected void applyRowSetMemoryBudget() {
+    if (rowSetMemoryBudget <= 0) {
+      return;
+    }
+    List<BlockingRowSet> blockingRowSets = new ArrayList<>();
+    for (IRowSet rowSet : rowsets) {
+      if (rowSet instanceof BlockingRowSet) {
+        blockingRowSets.add((BlockingRowSet) rowSet);
+      }
+    }
+    if (blockingRowSets.isEmpty()) {
+      return;
+    }
+    long maxBytes = rowSetMemoryBudget / blockingRowSets.size();
+    for (BlockingRowSet rowSet : blockingRowSets) {
+      rowSet.setMaxBytes(maxBytes);
+    }
+    if (log.isDetailed()) {
+      log.logDetailed(
+          "Row set memory budget of "
+              + rowSetMemoryBudget
+              + " bytes divided over "
+              + blockingRowSets.size()
+              + " row sets");
+    }
+  }
+
   /** Adds a transform performance snapshot. */
   protected void addTransformPerformanceSnapShot() {
 
@@ -1417,6 +1806,8 @@ public abstract class Pipeline
           // Make the difference...
           //
           snapShot.diff(previous, transform.rowsetInputSize(), transform.rowsetOutputSize());
+          snapShot.setInputWaitTime(transform.getInputWaitTime());
+          snapShot.setOutputBlockedTime(transform.getOutputBlockedTime());
           snapShotList.add(snapShot);
 
           if (transformPerformanceSnapshotSizeLimit > 0
@@ -1445,6 +1836,16 @@ public abstract class Pipeline
     for (TransformMetaDataCombi combi : transforms) {
       combi.transform.cleanup();
     }
+
+    // Remove the temporary files of the spillable row sets
+    //
+    if (rowsets != null) {
+      for (IRowSet rowSet : rowsets) {
+        if (rowSet instanceof SpillableRowSet) {
+          ((SpillableRowSet) rowSet).cleanup();
+        }
+      }
+    }
   }
 
   /** Waits until all RunThreads have finished. */
@@ -1838,6 +2239,32 @@ public abstract class Pipeline
     this.sortingTransformsTopologically = sortingTransformsTopologically;
   }
 
+  /**
+   * Gets fusingTransformChains
+   *
+   * @return true if linear chains of transforms are executed in a single thread
+   */
+  public boolean isFusingTransformChains() {
+    return fusingTransformChains;
+  }
+
+  /**
+   * @param fusingTransformChains true if linear chains of transforms are executed in a single
+   *     thread
+   */
+  public void setFusingTransformChains(boolean fusingTransformChains) {
+    this.fusingTransformChains = fusingTransformChains;
+  }
+
+  /**
+   * Gets fusedTransformChains
+   *
+   * @return The linear chains of transforms which are executed in a single thread
+   */
+  public List<List<TransformMeta>> getFusedTransformChains() {
+    return fusedTransformChains;
+  }
+
   /**
    * Gets the meta-data for the pipeline.
    *
@@ -3262,6 +3689,50 @@ public abstract class Pipeline
           "090",
           true);
 
+  public static final IEngineMetric METRIC_BUFFER_IN_WAIT =
+      new EngineMetric(
+          METRIC_NAME_BUFFER_IN_WAIT,
+          "Input wait (ms)",
+          "The time the transform waited for rows on empty input buffers",
+          "092",
+          true);
+  public static final IEngineMetric METRIC_BUFFER_OUT_BLOCKED =
+      new EngineMetric(
+          METRIC_NAME_BUFFER_OUT_BLOCKED,
+          "Output blocked (ms)",
+          "The time the transform was blocked writing to full output buffers",
+          "094",
+          true);
+  public static final IEngineMetric METRIC_BUFFER_OUT_MAX_FILL_LEVEL =
+      new EngineMetric(
+          METRIC_NAME_BUFFER_OUT_MAX_FILL_LEVEL,
+          "Max output buffer",
+          "The highest number of rows seen in any of the output buffers of the transform",
+          "096",
+          true);
+
+  public static final IEngineMetric METRIC_HOP_MAX_FILL_LEVEL =
+      new EngineMetric(
+          METRIC_NAME_HOP_MAX_FILL_LEVEL,
+          "Max fill level",
+          "The highest number of rows seen in the buffer of the hop",
+          "200",
+          true);
+  public static final IEngineMetric METRIC_HOP_WAIT =
+      new EngineMetric(
+          METRIC_NAME_HOP_WAIT,
+          "Consumer wait (ms)",
+          "The time the receiving transform waited for rows on the empty buffer of the hop",
+          "210",
+          true);
+  public static final IEngineMetric METRIC_HOP_BLOCKED =
+      new EngineMetric(
+          METRIC_NAME_HOP_BLOCKED,
+          "Producer blocked (ms)",
+          "The time the sending transform was blocked on the full buffer of the hop",
+          "220",
+          true);
+
   public static final IEngineMetric METRIC_INIT =
       new EngineMetric(
           METRIC_NAME_INIT,
@@ -3329,6 +3800,32 @@ public abstract class Pipeline
               outputBufferSize += rowSet.size();
             }
             metrics.setComponentMetric(combi.transform, METRIC_BUFFER_OUT, outputBufferSize);
+            metrics.setComponentMetric(
+                combi.transform, METRIC_BUFFER_IN_WAIT, combi.transform.getInputWaitTime());
+            metrics.setComponentMetric(
+                combi.transform, METRIC_BUFFER_OUT_BLOCKED, combi.transform.getOutputBlockedTime());
+            metrics.setComponentMetric(
+                combi.transform,
+                METRIC_BUFFER_OUT_MAX_FILL_LEVEL,
+                combi.transform.getOutputBufferMaxFillLevel());
+
+            // The metrics of every hop (row set) leaving this transform copy
+            //
+            for (IRowSet rowSet : transform.getOutputRowSets()) {
+              if (rowSet instanceof BlockingRowSet) {
+                BlockingRowSet blockingRowSet = (BlockingRowSet) rowSet;
+                metrics.setHopMetric(
+                    rowSet.getName(),
+                    METRIC_HOP_MAX_FILL_LEVEL,
+                    (long) blockingRowSet.getMaxFillLevel());
+                metrics.setHopMetric(
+                    rowSet.getName(), METRIC_HOP_WAIT, blockingRowSet.getGetWaitNanos() / 1000000L);
+                metrics.setHopMetric(
+                    rowSet.getName(),
+                    METRIC_HOP_BLOCKED,
+                    blockingRowSet.getPutWaitNanos() / 1000000L);
+              }
+            }
 
             TransformStatus transformStatus = new TransformStatus(combi.transform);
             metrics.setComponentSpeed(combi.transform, transformStatus.getSpeed());
@@ -3504,6 +4001,24 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets rowSetMemoryBudget
+   *
+   * @return The number of bytes all the row sets of this pipeline can buffer together, 0 for no
+   *     limit.
+   */
+  public long getRowSetMemoryBudget() {
+    return rowSetMemoryBudget;
+  }
+
+  /**
+   * @param rowSetMemoryBudget The number of bytes all the row sets of this pipeline can buffer
+   *     together, 0 for no limit.
+   */
+  public void setRowSetMemoryBudget(long rowSetMemoryBudget) {
+    this.rowSetMemoryBudget = rowSetMemoryBudget;
+  }
+
   /**
    * Gets feedbackShown
    *
@@ -32,6 +32,11 @@ public class PipelineHopMeta extends BaseHopMeta<TransformMeta>
     implements Comparable<PipelineHopMeta>, Cloneable {
   private static final Class<?> PKG = Pipeline.class; // For Translator
 
+  public static final String XML_SPILLING_TAG = "spill";
+
+  /** Rows on this hop which don't fit in memory are written to temporary files */
+  private boolean spilling;
+
   public PipelineHopMeta(TransformMeta from, TransformMeta to, boolean en) {
     this.from = from;
     this.to = to;
@@ -53,6 +58,7 @@ public class PipelineHopMeta extends BaseHopMeta<TransformMeta>
       this.from = searchTransform(transforms, XmlHandler.getTagValue(hopNode, XML_FROM_TAG));
       this.to = searchTransform(transforms, XmlHandler.getTagValue(hopNode, XML_TO_TAG));
       this.enabled = getTagValueAsBoolean(hopNode, XML_ENABLED_TAG, true);
+      this.spilling = getTagValueAsBoolean(hopNode, XML_SPILLING_TAG, false);
     } catch (Exception e) {
       throw new HopXmlException(
           BaseMessages.getString(PKG, "PipelineHopMeta.Exception.UnableToLoadHopInfo"), e);
@@ -67,6 +73,7 @@ public class PipelineHopMeta extends BaseHopMeta<TransformMeta>
         hop.isEnabled(),
         hop.hasChanged(),
         hop.isErrorHop());
+    this.spilling = hop.isSpilling();
   }
 
   @Override
@@ -138,9 +145,31 @@ public class PipelineHopMeta extends BaseHopMeta<TransformMeta>
       xml.append("      ").append(XmlHandler.addTagValue(XML_FROM_TAG, this.from.getName()));
       xml.append("      ").append(XmlHandler.addTagValue(XML_TO_TAG, this.to.getName()));
       xml.append("      ").append(XmlHandler.addTagValue(XML_ENABLED_TAG, enabled));
+      if (spilling) {
+        xml.append("      ").append(XmlHandler.addTagValue(XML_SPILLING_TAG, spilling));
+      }
       xml.append("    ").append(XmlHandler.closeTag(XML_HOP_TAG)).append(Const.CR);
     }
 
     return xml.toString();
   }
+
+  /**
+   * Gets spilling
+   *
+   * @return true if the rows on this hop which don't fit in memory are written to temporary files
+   */
+  public boolean isSpilling() {
+    return spilling;
+  }
+
+  /**
+   * @param spilling true to write the rows on this hop which don't fit in memory to temporary files
+   */
+  public void setSpilling(boolean spilling) {
+    if (this.spilling != spilling) {
+      setChanged();
+      this.spilling = spilling;
+    }
+  }
 }
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopXmlException;
+import org.apache.hop.core.util.StringUtil;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+
+/**
+ * Singleton which keeps parsed pipelines in memory. Workflows which run the same pipeline over and
+ * over again and mapping or executor transforms loading the same child pipeline don't need to parse
+ * the XML and instantiate all the transform metadata every time.<br>
+ * Pipelines are cached per (resolved) filename. A cached pipeline is only re-used as long as the
+ * modification time of the file doesn't change, the same metadata provider is used and the
+ * variables referenced in the file still have the same values as when it was loaded. Callers always
+ * receive a copy which they can modify freely. <br>
+ * The cache is only used when variable HOP_PIPELINE_META_CACHE is set to Y.
+ */
+public class PipelineMetaCache {
+  private static final Class<?> PKG = PipelineMeta.class; // For Translator
+
+  /** The maximum number of pipelines to keep around */
+  public static final int MAX_CACHE_SIZE = 250;
+
+  private static PipelineMetaCache instance;
+
+  private final Map<String, CacheEntry> cache;
+
+  private PipelineMetaCache() {
+    cache =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > MAX_CACHE_SIZE;
+              }
+            });
+  }
+
+  public static synchronized PipelineMetaCache getInstance() {
+    if (instance == null) {
+      instance = new PipelineMetaCache();
+    }
+    return instance;
+  }
+
+  /**
+   * See if the pipeline metadata cache is enabled with variable HOP_PIPELINE_META_CACHE.
+   *
+   * @param variables The variables to resolve with or null to only look at the system properties
+   * @return true if pipelines should be cached
+   */
+  public static boolean isEnabled(IVariables variables) {
+    String value;
+    if (variables == null) {
+      value = System.getProperty(Const.HOP_PIPELINE_META_CACHE);
+    } else {
+      value = variables.getVariable(Const.HOP_PIPELINE_META_CACHE);
+    }
+    return Const.toBoolean(value);
+  }
+
+  /**
+   * Load a pipeline from the given file. If caching is enabled and the file didn't change since the
+   * last time it was loaded, we return a copy of the cached pipeline.
+   *
+   * @param filename The name of the file to load
+   * @param metadataProvider The metadata provider to reference
+   * @param variables The variables to use during loading
+   * @return The pipeline metadata
+   * @throws HopException In case something went wrong loading or validating the file
+   */
+  public static PipelineMeta loadPipelineMeta(
+      String filename, IHopMetadataProvider metadataProvider, IVariables variables)
+      throws HopException {
+    if (!isEnabled(variables)) {
+      return new PipelineMeta(filename, metadataProvider, variables);
+    }
+    return getInstance().load(filename, metadataProvider, variables);
+  }
+
+  private PipelineMeta load(
+      String filename, IHopMetadataProvider metadataProvider, IVariables variables)
+      throws HopException {
+    long lastModified;
+    try {
+      FileObject pipelineFile = HopVfs.getFileObject(filename);
+      if (!pipelineFile.exists()) {
+        throw new HopXmlException(
+            BaseMessages.getString(PKG, "PipelineMeta.Exception.InvalidXMLPath", filename));
+      }
+      lastModified = pipelineFile.getContent().getLastModifiedTime();
+    } catch (HopException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new HopXmlException(
+          BaseMessages.getString(
+              PKG, "PipelineMeta.Exception.ErrorOpeningOrValidatingTheXMLFile", filename),
+          e);
+    }
+
+    CacheEntry entry = cache.get(filename);
+    if (entry == null
+        || entry.lastModified != lastModified
+        || entry.metadataProvider != metadataProvider
+        || !entry.hasSameVariables(variables)) {
+      Map<String, String> usedVariables = getUsedVariables(filename, variables);
+      PipelineMeta pipelineMeta = new PipelineMeta(filename, metadataProvider, variables);
+      entry = new CacheEntry(lastModified, metadataProvider, usedVariables, pipelineMeta);
+      cache.put(filename, entry);
+    }
+
+    // Hand out a copy so the cached version is never modified by the caller.
+    //
+    PipelineMeta copy;
+    synchronized (entry.pipelineMeta) {
+      copy = (PipelineMeta) entry.pipelineMeta.realClone(false);
+      // realClone() shares the pipeline information (name, description, ...)
+      copy.setInfo(new PipelineMetaInfo(entry.pipelineMeta.getInfo()));
+    }
+    copy.setMetadataProvider(metadataProvider);
+    copy.setFilename(filename);
+    copy.clearChanged();
+    return copy;
+  }
+
+  /**
+   * Find the variables referenced in the given file with the values they have now.
+   *
+   * @param filename The file to scan
+   * @param variables The variables to look up the values in
+   * @return The referenced variable names with their values
+   * @throws HopException In case the file can't be read
+   */
+  private static Map<String, String> getUsedVariables(String filename, IVariables variables)
+      throws HopException {
+    List<String> names = new ArrayList<>();
+    StringUtil.getUsedVariables(
+        HopVfs.getTextFileContent(filename, Const.XML_ENCODING), names, true);
+    Map<String, String> usedVariables = new HashMap<>();
+    for (String name : names) {
+      usedVariables.put(name, variables == null ? null : variables.getVariable(name));
+    }
+    return usedVariables;
+  }
+
+  /**
+   * Remove the cached version of the given file
+   *
+   * @param filename The name of the file to forget about
+   */
+  public void remove(String filename) {
+    cache.remove(filename);
+  }
+
+  /** Clears the cache */
+  public void clear() {
+    cache.clear();
+  }
+
+  /**
+   * @return The number of cached pipelines
+   */
+  public int size() {
+    return cache.size();
+  }
+
+  private static final class CacheEntry {
+    private final long lastModified;
+    private final IHopMetadataProvider metadataProvider;
+
+    /** The variables referenced in the file with the values they had during loading */
+    private final Map<String, String> usedVariables;
+
+    private final PipelineMeta pipelineMeta;
+
+    private CacheEntry(
+        long lastModified,
+        IHopMetadataProvider metadataProvider,
+        Map<String, String> usedVariables,
+        PipelineMeta pipelineMeta) {
+      this.lastModified = lastModified;
+      this.metadataProvider = metadataProvider;
+      this.usedVariables = usedVariables;
+      this.pipelineMeta = pipelineMeta;
+    }
+
+    private boolean hasSameVariables(IVariables variables) {
+      for (Map.Entry<String, String> usedVariable : usedVariables.entrySet()) {
+        String value = variables == null ? null : variables.getVariable(usedVariable.getKey());
+        if (!Objects.equals(usedVariable.getValue(), value)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
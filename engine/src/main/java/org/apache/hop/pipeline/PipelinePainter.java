@@ -1003,6 +1003,11 @@ public class PipelinePainter extends BasePainter<PipelineHopMeta, TransformMeta>
     if (hop.isSplit()) {
       activeLinewidth = lineWidth + 2;
     }
+    if (hop.isSpilling()) {
+      // Hops which spill rows to disk are dotted
+      //
+      linestyle = linestyle == ELineStyle.DASH ? ELineStyle.DASHDOT : ELineStyle.DOT;
+    }
 
     // Check to see if the source transform is an info transform for the target transform.
     //
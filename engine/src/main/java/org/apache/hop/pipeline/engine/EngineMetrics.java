@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -40,6 +41,9 @@ public class EngineMetrics {
 
   private Map<IEngineComponent, List<PerformanceSnapShot>> componentPerformanceSnapshots;
 
+  /** The metrics of the hops (row sets) between components, by row set name */
+  private Map<String, Map<IEngineMetric, Long>> hopMetricsMap;
+
   public EngineMetrics() {
     components = new ArrayList<>();
     componentMetricsMap = new HashMap<>();
@@ -47,6 +51,7 @@ public class EngineMetrics {
     componentSpeedMap = new HashMap<>();
     componentRunningMap = new HashMap<>();
     componentPerformanceSnapshots = new HashMap<>();
+    hopMetricsMap = new LinkedHashMap<>();
   }
 
   /**
@@ -154,6 +159,38 @@ public class EngineMetrics {
     return metricsMap.remove(metric);
   }
 
+  /**
+   * Set the amount for a metric of a hop between two components
+   *
+   * @param hopName The name of the hop (row set), e.g. "A.0 - B.0"
+   * @param metric The metric (e.g. max fill level, ...)
+   * @param amount The amount
+   */
+  public void setHopMetric(String hopName, IEngineMetric metric, Long amount) {
+    if (hopName == null || metric == null) {
+      throw new RuntimeException("Please provide a hop and a name for the metric to set");
+    }
+    hopMetricsMap.computeIfAbsent(hopName, k -> new HashMap<>()).put(metric, amount);
+  }
+
+  /**
+   * Retrieve the amount for a metric of a hop between two components
+   *
+   * @param hopName The name of the hop (row set), e.g. "A.0 - B.0"
+   * @param metric The metric (e.g. max fill level, ...)
+   * @return the metric amount or null if nothing was found
+   */
+  public Long getHopMetric(String hopName, IEngineMetric metric) {
+    if (hopName == null || metric == null) {
+      throw new RuntimeException("Please provide a hop and a name for the metric to retrieve");
+    }
+    Map<IEngineMetric, Long> metricsMap = hopMetricsMap.get(hopName);
+    if (metricsMap == null) {
+      return null;
+    }
+    return metricsMap.get(metric);
+  }
+
   public void addCompomentPerformanceSnapShot(
       IEngineComponent component, PerformanceSnapShot snapShot) {
     if (component == null || snapShot == null) {
@@ -296,4 +333,20 @@ public class EngineMetrics {
       Map<IEngineComponent, List<PerformanceSnapShot>> componentPerformanceSnapshots) {
     this.componentPerformanceSnapshots = componentPerformanceSnapshots;
   }
+
+  /**
+   * Gets hopMetricsMap
+   *
+   * @return value of hopMetricsMap
+   */
+  public Map<String, Map<IEngineMetric, Long>> getHopMetricsMap() {
+    return hopMetricsMap;
+  }
+
+  /**
+   * @param hopMetricsMap The hopMetricsMap to set
+   */
+  public void setHopMetricsMap(Map<String, Map<IEngineMetric, Long>> hopMetricsMap) {
+    this.hopMetricsMap = hopMetricsMap;
+  }
 }
@@ -101,6 +101,27 @@ public interface IEngineComponent {
 
   long getOutputBufferSize();
 
+  /**
+   * @return The time in milliseconds this component waited for rows on empty input buffers
+   */
+  default long getInputWaitTime() {
+    return 0L;
+  }
+
+  /**
+   * @return The time in milliseconds this component was blocked writing to full output buffers
+   */
+  default long getOutputBlockedTime() {
+    return 0L;
+  }
+
+  /**
+   * @return The highest number of rows seen in any of the output buffers of this component
+   */
+  default long getOutputBufferMaxFillLevel() {
+    return 0L;
+  }
+
   /**
    * Add a rowlistener to the transform allowing you to inspect (or manipulate, be careful) the rows
    * coming in or exiting the transform.
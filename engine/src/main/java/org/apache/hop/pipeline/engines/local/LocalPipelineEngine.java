@@ -128,8 +128,11 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
 
     int sizeRowsSet = Const.toInt(resolve(config.getRowSetSize()), Const.ROWS_IN_ROWSET);
     setRowSetSize(sizeRowsSet);
+    long rowSetMemoryBudgetMb = Const.toLong(resolve(config.getRowSetMemoryBudget()), 0L);
+    setRowSetMemoryBudget(rowSetMemoryBudgetMb * 1024L * 1024L);
     setSafeModeEnabled(config.isSafeModeEnabled());
     setSortingTransformsTopologically(config.isSortingTransformsTopologically());
+    setFusingTransformChains(config.isFusingTransformChains());
     setGatheringMetrics(config.isGatheringMetrics());
     setFeedbackShown(config.isFeedbackShown());
     setFeedbackSize(Const.toInt(resolve(config.getFeedbackSize()), Const.ROWS_UPDATE));
@@ -45,6 +45,18 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "rowset_size")
   protected String rowSetSize;
 
+  @GuiWidgetElement(
+      id = "rowSetMemoryBudget",
+      order = "015",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetMemoryBudget.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetMemoryBudget.ToolTip")
+  @HopMetadataProperty(key = "rowset_memory_budget")
+  protected String rowSetMemoryBudget;
+
   @GuiWidgetElement(
       id = "safeModeEnabled",
       order = "020",
@@ -75,6 +87,18 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "topo_sort")
   protected boolean sortingTransformsTopologically;
 
+  @GuiWidgetElement(
+      id = "fusingTransformChains",
+      order = "045",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.FusingTransformChains.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.FusingTransformChains.ToolTip")
+  @HopMetadataProperty(key = "fuse_transform_chains")
+  protected boolean fusingTransformChains;
+
   /** Whether the feedback is shown. */
   @GuiWidgetElement(
       id = "feedbackShown",
@@ -164,12 +188,14 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public LocalPipelineRunConfiguration(LocalPipelineRunConfiguration config) {
     super(config);
     this.rowSetSize = config.rowSetSize;
+    this.rowSetMemoryBudget = config.rowSetMemoryBudget;
     this.feedbackShown = config.feedbackShown;
     this.feedbackSize = config.feedbackSize;
     this.waitTime = config.waitTime;
     this.safeModeEnabled = config.safeModeEnabled;
     this.gatheringMetrics = config.gatheringMetrics;
     this.sortingTransformsTopologically = config.sortingTransformsTopologically;
+    this.fusingTransformChains = config.fusingTransformChains;
     this.sampleTypeInGui = config.sampleTypeInGui;
     this.sampleSize = config.sampleSize;
     this.transactional = config.transactional;
@@ -204,6 +230,22 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets rowSetMemoryBudget
+   *
+   * @return The memory in MB all the row sets of a pipeline can use together
+   */
+  public String getRowSetMemoryBudget() {
+    return rowSetMemoryBudget;
+  }
+
+  /**
+   * @param rowSetMemoryBudget The memory in MB all the row sets of a pipeline can use together
+   */
+  public void setRowSetMemoryBudget(String rowSetMemoryBudget) {
+    this.rowSetMemoryBudget = rowSetMemoryBudget;
+  }
+
   /**
    * Gets safeModeEnabled
    *
@@ -252,6 +294,23 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sortingTransformsTopologically = sortingTransformsTopologically;
   }
 
+  /**
+   * Gets fusingTransformChains
+   *
+   * @return true if linear chains of single copy transforms are executed in a single thread
+   */
+  public boolean isFusingTransformChains() {
+    return fusingTransformChains;
+  }
+
+  /**
+   * @param fusingTransformChains true if linear chains of single copy transforms are executed in a
+   *     single thread
+   */
+  public void setFusingTransformChains(boolean fusingTransformChains) {
+    this.fusingTransformChains = fusingTransformChains;
+  }
+
   /**
    * Gets feedbackShown
    *
@@ -542,6 +542,16 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
               component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize());
           engineMetrics.setComponentMetric(
               component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize());
+          engineMetrics.setComponentMetric(
+              component, Pipeline.METRIC_BUFFER_IN_WAIT, transformStatus.getInputWaitTime());
+          engineMetrics.setComponentMetric(
+              component,
+              Pipeline.METRIC_BUFFER_OUT_BLOCKED,
+              transformStatus.getOutputBlockedTime());
+          engineMetrics.setComponentMetric(
+              component,
+              Pipeline.METRIC_BUFFER_OUT_MAX_FILL_LEVEL,
+              transformStatus.getOutputBufferMaxFillLevel());
           engineMetrics.setComponentSpeed(component, transformStatus.getSpeed());
           engineMetrics.getComponents().add(component);
         }
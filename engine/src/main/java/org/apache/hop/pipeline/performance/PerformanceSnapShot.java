@@ -46,6 +46,9 @@ public class PerformanceSnapShot {
   private long inputBufferSize;
   private long outputBufferSize;
 
+  private long inputWaitTime;
+  private long outputBlockedTime;
+
   /**
    * @param date
    * @param componentName
@@ -390,6 +393,35 @@ public class PerformanceSnapShot {
     this.outputBufferSize = outputBufferSize;
   }
 
+  /**
+   * @return the total time in ms the transform waited for rows on empty input buffers
+   */
+  public long getInputWaitTime() {
+    return inputWaitTime;
+  }
+
+  /**
+   * @param inputWaitTime the total time in ms the transform waited for rows on empty input buffers
+   */
+  public void setInputWaitTime(long inputWaitTime) {
+    this.inputWaitTime = inputWaitTime;
+  }
+
+  /**
+   * @return the total time in ms the transform was blocked writing to full output buffers
+   */
+  public long getOutputBlockedTime() {
+    return outputBlockedTime;
+  }
+
+  /**
+   * @param outputBlockedTime the total time in ms the transform was blocked writing to full output
+   *     buffers
+   */
+  public void setOutputBlockedTime(long outputBlockedTime) {
+    this.outputBlockedTime = outputBlockedTime;
+  }
+
   /**
    * @return the seqNr
    */
@@ -41,7 +41,9 @@ import org.apache.hop.core.BlockingRowSet;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.SequencedRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopRowException;
 import org.apache.hop.core.exception.HopTransformException;
@@ -304,6 +306,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   private int lowerBufferBoundary;
 
+  /** Whether the input rows come from the copies of a transform which preserves row order */
+  private Boolean readingSequencedRows;
+
   /** maximum number of errors to allow */
   private Long maxErrors = -1L;
 
@@ -1197,7 +1202,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
 
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
+        if (isLocking(rs) && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
           try {
             Thread.sleep(0, 1);
           } catch (InterruptedException e) {
@@ -1233,7 +1238,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
 
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
+        if (isLocking(rs) && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
           try {
             Thread.sleep(0, 1);
           } catch (InterruptedException e) {
@@ -1527,6 +1532,17 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return row;
   }
 
+  /**
+   * Row sets which are only used by a single thread, like the ones between fused transforms, don't
+   * need us to back off to reduce the stress on the locking system.
+   *
+   * @param rowSet The row set to check
+   * @return true if the row set is shared between threads
+   */
+  private static boolean isLocking(IRowSet rowSet) {
+    return !(rowSet instanceof QueueRowSet);
+  }
+
   private Object[] handleGetRow() throws HopException {
 
     // Are we pausing the transform? If so, stall forever...
@@ -1551,6 +1567,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     //
     waitUntilPipelineIsStarted();
 
+    if (isReadingSequencedRows()) {
+      return handleRowRead(getSequencedRow());
+    }
+
     IRowSet inputRowSet = null;
     Object[] row = null;
 
@@ -1588,7 +1608,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       // The buffer to grow beyond "a few" entries.
       // We'll only do that if the previous transform has not ended...
 
-      if (!inputRowSet.isDone() && inputRowSet.size() <= lowerBufferBoundary && !isStopped()) {
+      if (isLocking(inputRowSet)
+          && !inputRowSet.isDone()
+          && inputRowSet.size() <= lowerBufferBoundary
+          && !isStopped()) {
         try {
           Thread.sleep(0, 1);
         } catch (InterruptedException e) {
@@ -1699,6 +1722,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       inputRowSetsLock.readLock().unlock();
     }
 
+    return handleRowRead(row);
+  }
+
+  private Object[] handleRowRead(Object[] row) throws HopException {
     if (row != null) {
       // OK, before we return the row, let's see if we need to check on mixing
       // row compositions...
@@ -1718,6 +1745,83 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return row;
   }
 
+  /**
+   * @return true if this transform reads from the copies of a transform which preserves the order
+   *     of the rows
+   */
+  private boolean isReadingSequencedRows() {
+    if (readingSequencedRows == null) {
+      inputRowSetsLock.readLock().lock();
+      try {
+        boolean sequenced = !inputRowSets.isEmpty();
+        for (IRowSet rowSet : inputRowSets) {
+          if (!(rowSet instanceof SequencedRowSet) || !((SequencedRowSet) rowSet).isMerging()) {
+            sequenced = false;
+          }
+        }
+        readingSequencedRows = sequenced;
+      } finally {
+        inputRowSetsLock.readLock().unlock();
+      }
+    }
+    return readingSequencedRows;
+  }
+
+  /**
+   * Merge the rows coming from the copies of a transform back into their original order. We can
+   * pass on the row with the lowest sequence number as soon as none of the other copies can still
+   * produce a row with a lower number.
+   *
+   * @return The next row or null if all the copies are finished
+   */
+  private Object[] getSequencedRow() {
+    SequencedRowSet.Sequence shared = ((SequencedRowSet) inputRowSets.get(0)).getSequence();
+    while (!isStopped()) {
+      long changes = shared.getChanges();
+      SequencedRowSet next = null;
+      long nextSequence = Long.MAX_VALUE;
+      long lowestBound = Long.MAX_VALUE;
+      boolean finished = true;
+      for (IRowSet rowSet : inputRowSets) {
+        SequencedRowSet sequencedRowSet = (SequencedRowSet) rowSet;
+        // Read the watermark before looking at the buffer: rows produced after this point have a
+        // sequence number which is at least the watermark.
+        //
+        long lowWatermark = sequencedRowSet.getLowWatermark();
+        boolean done = sequencedRowSet.isDone();
+        long sequence = sequencedRowSet.peekSequence();
+        if (sequence >= 0) {
+          finished = false;
+          if (sequence < nextSequence) {
+            nextSequence = sequence;
+            next = sequencedRowSet;
+          }
+        } else if (!done) {
+          finished = false;
+          lowestBound = Math.min(lowestBound, lowWatermark);
+        }
+      }
+      if (finished) {
+        return null;
+      }
+      if (next != null && nextSequence < lowestBound) {
+        Object[] row = next.getRowImmediate();
+        obtainInputRowMeta(row, next);
+        incrementLinesRead();
+        return row;
+      }
+      // Wait for the other copies to catch up
+      //
+      try {
+        shared.awaitChange(changes, Const.TIMEOUT_GET_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+    }
+    return null;
+  }
+
   /**
    * The first non-null row we get we'll lock in the row metadata. For scenarios with multiple
    * inputs, we move the metadata around (e.g. Merge Rows).
@@ -1945,7 +2049,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     // The buffer to grow beyond "a few" entries.
     // We'll only do that if the previous transform has not ended...
 
-    if (!rowSet.isDone() && rowSet.size() <= lowerBufferBoundary && !isStopped()) {
+    if (isLocking(rowSet)
+        && !rowSet.isDone()
+        && rowSet.size() <= lowerBufferBoundary
+        && !isStopped()) {
       try {
         Thread.sleep(0, 1);
       } catch (InterruptedException e) {
@@ -2866,6 +2973,39 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return total;
   }
 
+  @Override
+  public long getInputWaitTime() {
+    long nanos = 0L;
+    for (IRowSet inputRowSet : getInputRowSets()) {
+      if (inputRowSet instanceof BlockingRowSet) {
+        nanos += ((BlockingRowSet) inputRowSet).getGetWaitNanos();
+      }
+    }
+    return nanos / 1000000L;
+  }
+
+  @Override
+  public long getOutputBlockedTime() {
+    long nanos = 0L;
+    for (IRowSet outputRowSet : getOutputRowSets()) {
+      if (outputRowSet instanceof BlockingRowSet) {
+        nanos += ((BlockingRowSet) outputRowSet).getPutWaitNanos();
+      }
+    }
+    return nanos / 1000000L;
+  }
+
+  @Override
+  public long getOutputBufferMaxFillLevel() {
+    long maxFillLevel = 0L;
+    for (IRowSet outputRowSet : getOutputRowSets()) {
+      if (outputRowSet instanceof BlockingRowSet) {
+        maxFillLevel = Math.max(maxFillLevel, ((BlockingRowSet) outputRowSet).getMaxFillLevel());
+      }
+    }
+    return maxFillLevel;
+  }
+
   /*
    * (non-Javadoc)
    *
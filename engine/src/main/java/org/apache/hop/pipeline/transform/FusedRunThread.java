@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * Executes a linear chain of transforms in a single thread. Every transform in the chain, except
+ * the first one, reads from a single (non-blocking) row set which is filled by the previous
+ * transform in the chain. The first transform is driven the same way as in {@link RunThread}. After
+ * every row of the first transform, the rows it produced are pushed down the chain by calling
+ * processRow() on the next transforms for as long as they have input available.
+ */
+public class FusedRunThread implements Runnable {
+
+  private final List<RunThread> runThreads;
+
+  public FusedRunThread(List<TransformMetaDataCombi> combis) {
+    this.runThreads = new ArrayList<>();
+    for (TransformMetaDataCombi combi : combis) {
+      runThreads.add(new RunThread(combi));
+    }
+  }
+
+  @Override
+  public void run() {
+    int size = runThreads.size();
+    boolean[] finished = new boolean[size];
+    int nrFinished = 0;
+
+    // Keep a reference to the input row sets, a transform removes them when they are depleted.
+    //
+    IRowSet[] inputRowSets = new IRowSet[size];
+    for (int i = 1; i < size; i++) {
+      inputRowSets[i] = runThreads.get(i).getTransform().getInputRowSets().get(0);
+    }
+
+    for (RunThread runThread : runThreads) {
+      runThread.startRunning();
+    }
+
+    while (nrFinished < size) {
+      for (int i = 0; i < size; i++) {
+        if (finished[i]) {
+          continue;
+        }
+        RunThread runThread = runThreads.get(i);
+        ITransform transform = runThread.getTransform();
+        boolean done;
+        try {
+          if (i == 0) {
+            done = processRow(transform);
+          } else {
+            done = processAvailableRows(transform, inputRowSets[i]);
+          }
+        } catch (Throwable t) {
+          runThread.handleError(t);
+          done = true;
+        }
+        if (done) {
+          finished[i] = true;
+          nrFinished++;
+          if (i < size - 1) {
+            // Make sure the next transform in the chain sees the end of its input
+            //
+            inputRowSets[i + 1].setDone();
+          }
+          runThread.finishRunning();
+        }
+      }
+
+      // Rows sent to a transform that finished early are discarded to keep memory in check
+      //
+      for (int i = 1; i < size; i++) {
+        if (finished[i] && !finished[i - 1]) {
+          inputRowSets[i].clear();
+        }
+      }
+    }
+  }
+
+  /**
+   * Call processRow() once on the given transform.
+   *
+   * @param transform The transform to process a row with
+   * @return true if the transform is done
+   * @throws HopException in case processing the row fails
+   */
+  private boolean processRow(ITransform transform) throws HopException {
+    return transform.isStopped() || !transform.processRow() || transform.isStopped();
+  }
+
+  /**
+   * Call processRow() on the given transform as long as there are rows in its input row set. Once
+   * the input is finished we keep on calling it until the transform signals it is done.
+   *
+   * @param transform The transform to process rows with
+   * @param rowSet The input row set of the transform
+   * @return true if the transform is done
+   * @throws HopException in case processing a row fails
+   */
+  private boolean processAvailableRows(ITransform transform, IRowSet rowSet) throws HopException {
+    while (rowSet.size() > 0 || rowSet.isDone()) {
+      if (processRow(transform)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the transforms executed by this thread
+   *
+   * @return The transforms of the chain, in order of execution
+   */
+  public List<ITransform> getTransforms() {
+    List<ITransform> transforms = new ArrayList<>();
+    for (RunThread runThread : runThreads) {
+      transforms.add(runThread.getTransform());
+    }
+    return transforms;
+  }
+}
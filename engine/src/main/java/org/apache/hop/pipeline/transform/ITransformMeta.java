@@ -335,6 +335,18 @@ public interface ITransformMeta {
    */
   boolean supportsMultiCopyExecution();
 
+  /**
+   * A transform can only be fused into a single thread with the transforms around it when every
+   * call to processRow() reads at most one row with getRow(). When the transforms are fused, the
+   * input buffer is only filled by the same thread in between calls to processRow().
+   *
+   * @return true if this transform can be executed in a fused chain of transforms. By default
+   *     return false.
+   */
+  default boolean supportsFusedExecution() {
+    return false;
+  }
+
   /**
    * Get a list of all the resource dependencies that the transform is depending on.
    *
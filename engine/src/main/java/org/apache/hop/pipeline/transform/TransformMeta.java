@@ -98,6 +98,10 @@ public class TransformMeta
   @HopMetadataProperty(key = "copies")
   private String copiesString;
 
+  /** Keep the rows in their original order when running this transform in multiple copies */
+  @HopMetadataProperty(key = "preserve_order")
+  private boolean preservingRowOrder;
+
   @HopMetadataProperty(key = "GUI")
   private Point location;
 
@@ -180,6 +184,9 @@ public class TransformMeta
             XmlHandler.addTagValue(
                 "custom_distribution", rowDistribution == null ? null : rowDistribution.getCode()));
     xml.append("    ").append(XmlHandler.addTagValue("copies", copiesString));
+    if (preservingRowOrder) {
+      xml.append("    ").append(XmlHandler.addTagValue("preserve_order", true));
+    }
 
     xml.append(transformPartitioningMeta.getXml());
     if (targetTransformPartitioningMeta != null) {
@@ -241,6 +248,8 @@ public class TransformMeta
         /* Handle info general to all transform types... */
         description = XmlHandler.getTagValue(transformNode, "description");
         copiesString = XmlHandler.getTagValue(transformNode, "copies");
+        preservingRowOrder =
+            "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "preserve_order"));
         String sdistri = XmlHandler.getTagValue(transformNode, "distribute");
         distributes = "Y".equalsIgnoreCase(sdistri);
         if (sdistri == null) {
@@ -432,6 +441,7 @@ public class TransformMeta
     this.setRowDistribution(transformMeta.getRowDistribution());
     this.copiesString = transformMeta.copiesString;
     this.copiesCache = null; // force re-calculation
+    this.preservingRowOrder = transformMeta.preservingRowOrder;
     if (transformMeta.location != null) {
       this.location = new Point(transformMeta.location.x, transformMeta.location.y);
     } else {
@@ -668,6 +678,10 @@ public class TransformMeta
     return transform.supportsMultiCopyExecution();
   }
 
+  public boolean supportsFusedExecution() {
+    return transform.supportsFusedExecution();
+  }
+
   public boolean supportsErrorHandling() {
     return transform.supportsErrorHandling();
   }
@@ -817,6 +831,24 @@ public class TransformMeta
     copiesCache = null;
   }
 
+  /**
+   * @return true if the rows keep their original order when this transform runs in multiple copies
+   */
+  public boolean isPreservingRowOrder() {
+    return preservingRowOrder;
+  }
+
+  /**
+   * @param preservingRowOrder true if the rows need to keep their original order when this
+   *     transform runs in multiple copies
+   */
+  public void setPreservingRowOrder(boolean preservingRowOrder) {
+    if (this.preservingRowOrder != preservingRowOrder) {
+      this.preservingRowOrder = preservingRowOrder;
+      setChanged();
+    }
+  }
+
   @Override
   public void setAttributesMap(Map<String, Map<String, String>> attributesMap) {
     this.attributesMap = attributesMap;
@@ -49,6 +49,9 @@ public class TransformStatus {
   private long linesRejected;
   private long inputBufferSize;
   private long outputBufferSize;
+  private long inputWaitTime;
+  private long outputBlockedTime;
+  private long outputBufferMaxFillLevel;
   private long errors;
   private String statusDescription;
   private double seconds;
@@ -112,6 +115,13 @@ public class TransformStatus {
     //
     this.inputBufferSize += component.getInputBufferSize();
     this.outputBufferSize += component.getOutputBufferSize();
+
+    // The time spent waiting on empty input buffers and full output buffers (in ms)
+    //
+    this.inputWaitTime += component.getInputWaitTime();
+    this.outputBlockedTime += component.getOutputBlockedTime();
+    this.outputBufferMaxFillLevel =
+        Math.max(outputBufferMaxFillLevel, component.getOutputBufferMaxFillLevel());
   }
 
   public String getHTMLTableRow(boolean urlInTransformName) {
@@ -175,6 +185,10 @@ public class TransformStatus {
       xml.append(XmlHandler.addTagValue("errors", errors, false));
       xml.append(XmlHandler.addTagValue("input_buffer_size", inputBufferSize, false));
       xml.append(XmlHandler.addTagValue("output_buffer_size", outputBufferSize, false));
+      xml.append(XmlHandler.addTagValue("input_wait_time", inputWaitTime, false));
+      xml.append(XmlHandler.addTagValue("output_blocked_time", outputBlockedTime, false));
+      xml.append(
+          XmlHandler.addTagValue("output_buffer_max_fill_level", outputBufferMaxFillLevel, false));
       xml.append(XmlHandler.addTagValue("statusDescription", statusDescription, false));
       xml.append(XmlHandler.addTagValue("seconds", seconds, false));
       xml.append(XmlHandler.addTagValue("speed", speed, false));
@@ -219,6 +233,10 @@ public class TransformStatus {
     errors = Long.parseLong(XmlHandler.getTagValue(node, "errors"));
     inputBufferSize = Long.parseLong(XmlHandler.getTagValue(node, "input_buffer_size"));
     outputBufferSize = Long.parseLong(XmlHandler.getTagValue(node, "output_buffer_size"));
+    inputWaitTime = Const.toLong(XmlHandler.getTagValue(node, "input_wait_time"), 0L);
+    outputBlockedTime = Const.toLong(XmlHandler.getTagValue(node, "output_blocked_time"), 0L);
+    outputBufferMaxFillLevel =
+        Const.toLong(XmlHandler.getTagValue(node, "output_buffer_max_fill_level"), 0L);
     statusDescription = XmlHandler.getTagValue(node, "statusDescription");
     seconds = Double.parseDouble(XmlHandler.getTagValue(node, "seconds"));
     speed = XmlHandler.getTagValue(node, "speed");
@@ -562,6 +580,54 @@ public class TransformStatus {
     this.inputBufferSize = inputBufferSize;
   }
 
+  /**
+   * Gets inputWaitTime
+   *
+   * @return The time in ms spent waiting for rows on empty input buffers
+   */
+  public long getInputWaitTime() {
+    return inputWaitTime;
+  }
+
+  /**
+   * @param inputWaitTime The inputWaitTime to set
+   */
+  public void setInputWaitTime(long inputWaitTime) {
+    this.inputWaitTime = inputWaitTime;
+  }
+
+  /**
+   * Gets outputBlockedTime
+   *
+   * @return The time in ms spent blocked on full output buffers
+   */
+  public long getOutputBlockedTime() {
+    return outputBlockedTime;
+  }
+
+  /**
+   * @param outputBlockedTime The outputBlockedTime to set
+   */
+  public void setOutputBlockedTime(long outputBlockedTime) {
+    this.outputBlockedTime = outputBlockedTime;
+  }
+
+  /**
+   * Gets outputBufferMaxFillLevel
+   *
+   * @return The highest number of rows seen in any of the output buffers
+   */
+  public long getOutputBufferMaxFillLevel() {
+    return outputBufferMaxFillLevel;
+  }
+
+  /**
+   * @param outputBufferMaxFillLevel The outputBufferMaxFillLevel to set
+   */
+  public void setOutputBufferMaxFillLevel(long outputBufferMaxFillLevel) {
+    this.outputBufferMaxFillLevel = outputBufferMaxFillLevel;
+  }
+
   /**
    * Gets outputBufferSize
    *
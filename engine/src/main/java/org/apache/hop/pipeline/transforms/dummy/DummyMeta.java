@@ -124,4 +124,9 @@ public class DummyMeta extends BaseTransformMeta<Dummy, DummyData> {
       remarks.add(cr);
     }
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
@@ -93,17 +93,29 @@ public abstract class BaseFileInputTransform<
     return super.init();
   }
 
+  /**
+   * Claim the index of the next file to process. By default all the files are processed in order.
+   * Transforms reading in parallel can override this to share the files between copies.
+   *
+   * @return the index of the next file to process or -1 if all files are processed
+   */
+  protected int claimNextFileIndex() {
+    return data.currentFileIndex < data.files.nrOfFiles() ? data.currentFileIndex : -1;
+  }
+
   /**
    * Open next VFS file for processing.
    *
-   * <p>This method will support different parallelization methods later.
+   * <p>The file to open is given by {@link #claimNextFileIndex()}.
    */
   protected boolean openNextFile() {
     try {
-      if (data.currentFileIndex >= data.files.nrOfFiles()) {
+      int fileIndex = claimNextFileIndex();
+      if (fileIndex < 0) {
         // all files already processed
         return false;
       }
+      data.currentFileIndex = fileIndex;
 
       // Is this the last file?
       data.file = data.files.getFile(data.currentFileIndex);
@@ -129,4 +129,9 @@ public class InjectorMeta extends BaseTransformMeta<Injector, InjectorData> {
   public void setInjectorFields(List<InjectorField> injectorFields) {
     this.injectorFields = injectorFields;
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
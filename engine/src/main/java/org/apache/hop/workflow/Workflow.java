@@ -29,6 +29,8 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
@@ -171,6 +173,14 @@ public abstract class Workflow extends Variables
 
   protected IHopMetadataProvider metadataProvider;
 
+  /** The maximum number of actions executing at the same time, 0 or less means no limit */
+  protected int maxParallelActions;
+
+  /** Start the actions which took the longest before first when waiting for the limit */
+  protected boolean prioritizingLongActions;
+
+  private WorkflowActionScheduler actionScheduler;
+
   /**
    * This enum stores bit masks which are used to manipulate with statuses over field {@link
    * Workflow#status}
@@ -295,6 +305,9 @@ public abstract class Workflow extends Variables
       //
       fireWorkflowStartedListeners();
 
+      actionScheduler =
+          new WorkflowActionScheduler(
+              maxParallelActions, prioritizingLongActions, workflowMeta.getName());
       result = executeFromStart();
     } catch (Throwable je) {
       log.logError(
@@ -319,6 +332,10 @@ public abstract class Workflow extends Variables
 
         executionEndDate = new Date();
 
+        if (actionScheduler != null) {
+          actionScheduler.shutdown();
+        }
+
         fireWorkflowFinishListeners();
 
         // release unused vfs connections
@@ -650,7 +667,32 @@ public abstract class Workflow extends Variables
         getActiveActions().add(actionMeta.clone());
       }
       log.snap(Metrics.METRIC_ACTION_START, cloneJei.toString());
-      newResult = cloneJei.execute(prevResult, nr);
+      WorkflowActionScheduler scheduler = getActionScheduler();
+      String historyKey = getActionHistoryKey(actionMeta);
+      boolean permitted;
+      try {
+        permitted = scheduler.acquire(historyKey, this::isStopped);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException(
+            BaseMessages.getString(
+                PKG, "Workflow.Log.UnexpectedErrorWhileWaitingForAction", actionMeta.getName()),
+            e);
+      }
+      if (permitted) {
+        final long executionStart = System.currentTimeMillis();
+        try {
+          newResult = cloneJei.execute(prevResult, nr);
+        } finally {
+          scheduler.release();
+        }
+        scheduler.recordDuration(historyKey, System.currentTimeMillis() - executionStart);
+      } else {
+        // Stopped while waiting to execute
+        newResult = prevResult.clone();
+        newResult.setResult(false);
+        newResult.setStopped(true);
+      }
       log.snap(Metrics.METRIC_ACTION_STOP, cloneJei.toString());
 
       // Action execution duration
@@ -709,7 +751,7 @@ public abstract class Workflow extends Variables
     // Keep track of all the threads we fired in case of parallel execution...
     // Keep track of the results of these executions too.
     //
-    final List<Thread> threads = new ArrayList<>();
+    final List<Future<?>> threads = new ArrayList<>();
     // next 2 lists is being modified concurrently so must be synchronized for this case.
     final Queue<Result> threadResults = new ConcurrentLinkedQueue<>();
     final Queue<HopException> threadExceptions = new ConcurrentLinkedQueue<>();
@@ -781,9 +823,7 @@ public abstract class Workflow extends Variables
                   threadResults.add(threadResult);
                 }
               };
-          Thread thread = new Thread(runnable);
-          threads.add(thread);
-          thread.start();
+          threads.add(getActionScheduler().submit(runnable));
           if (log.isBasic()) {
             log.logBasic(
                 BaseMessages.getString(
@@ -817,12 +857,12 @@ public abstract class Workflow extends Variables
     //
     if (actionMeta.isLaunchingInParallel()) {
       for (int i = 0; i < threads.size(); i++) {
-        Thread thread = threads.get(i);
+        Future<?> thread = threads.get(i);
         ActionMeta nextAction = threadActions.get(i);
 
         try {
-          thread.join();
-        } catch (InterruptedException e) {
+          thread.get();
+        } catch (InterruptedException | ExecutionException e) {
           log.logError(
               workflowMeta.toString(),
               BaseMessages.getString(
@@ -876,6 +916,58 @@ public abstract class Workflow extends Variables
     return res;
   }
 
+  /**
+   * The scheduler is created at the start of the execution, this creates one for executions started
+   * in another way.
+   */
+  private synchronized WorkflowActionScheduler getActionScheduler() {
+    if (actionScheduler == null) {
+      actionScheduler =
+          new WorkflowActionScheduler(
+              maxParallelActions, prioritizingLongActions, workflowMeta.getName());
+    }
+    return actionScheduler;
+  }
+
+  private String getActionHistoryKey(ActionMeta actionMeta) {
+    return Const.NVL(workflowMeta.getFilename(), workflowMeta.getName())
+        + "/"
+        + actionMeta.getName();
+  }
+
+  /**
+   * Gets maxParallelActions
+   *
+   * @return the maximum number of actions executing at the same time, 0 or less for no limit
+   */
+  public int getMaxParallelActions() {
+    return maxParallelActions;
+  }
+
+  /**
+   * @param maxParallelActions The maximum number of actions executing at the same time, 0 or less
+   *     for no limit
+   */
+  public void setMaxParallelActions(int maxParallelActions) {
+    this.maxParallelActions = maxParallelActions;
+  }
+
+  /**
+   * Gets prioritizingLongActions
+   *
+   * @return true if the actions which took the longest before are started first
+   */
+  public boolean isPrioritizingLongActions() {
+    return prioritizingLongActions;
+  }
+
+  /**
+   * @param prioritizingLongActions true to start the actions which took the longest before first
+   */
+  public void setPrioritizingLongActions(boolean prioritizingLongActions) {
+    this.prioritizingLongActions = prioritizingLongActions;
+  }
+
   /**
    * Get the number of errors that happened in the workflow.
    *
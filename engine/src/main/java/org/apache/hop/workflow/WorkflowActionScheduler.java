@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.workflow;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the parallel branches of a workflow and limits the number of actions executing at the same
+ * time. Branches run on a shared thread pool. An action takes a permit only while it executes, not
+ * while its branch waits for the branches it launched itself, so nested parallel launches can not
+ * dead-lock on the limit.
+ *
+ * <p>When actions wait for a permit the longest running ones, estimated from their previous
+ * executions in this JVM, can be started first.
+ */
+public class WorkflowActionScheduler {
+
+  private static final int MAX_HISTORY_SIZE = 10000;
+
+  /** Last elapsed time in ms of actions, by workflow and action name */
+  private static final Map<String, Long> durationHistory = new ConcurrentHashMap<>();
+
+  private final int maxParallelActions;
+  private final boolean prioritizingLongActions;
+  private final String threadNamePrefix;
+  private final AtomicInteger threadNr = new AtomicInteger();
+  private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+
+  private ExecutorService executor;
+  private int running;
+  private long waiterNr;
+
+  /**
+   * @param maxParallelActions the maximum number of actions executing at the same time, 0 or less
+   *     for no limit
+   * @param prioritizingLongActions start the actions which took the longest before first
+   * @param workflowName the name of the workflow, used to name the threads
+   */
+  public WorkflowActionScheduler(
+      int maxParallelActions, boolean prioritizingLongActions, String workflowName) {
+    this.maxParallelActions = maxParallelActions;
+    this.prioritizingLongActions = prioritizingLongActions;
+    this.threadNamePrefix = "Workflow " + workflowName + " branch ";
+  }
+
+  /**
+   * Run a branch of the workflow in parallel.
+   *
+   * @param branch the branch to run
+   * @return the future to wait on
+   */
+  public synchronized Future<?> submit(Runnable branch) {
+    if (executor == null) {
+      executor =
+          Executors.newCachedThreadPool(
+              r -> new Thread(r, threadNamePrefix + threadNr.incrementAndGet()));
+    }
+    return executor.submit(branch);
+  }
+
+  /**
+   * Wait for a permit to execute an action.
+   *
+   * @param historyKey the key of the action in the duration history
+   * @param stopped tells if the workflow was stopped while waiting
+   * @return true if the permit was acquired, false if the workflow was stopped
+   * @throws InterruptedException when interrupted while waiting
+   */
+  public boolean acquire(String historyKey, BooleanSupplier stopped) throws InterruptedException {
+    if (maxParallelActions <= 0) {
+      return true;
+    }
+    long estimate = prioritizingLongActions ? getEstimatedDuration(historyKey) : 0L;
+    synchronized (this) {
+      Waiter waiter = new Waiter(estimate, waiterNr++);
+      waiters.add(waiter);
+      try {
+        while (running >= maxParallelActions || waiters.peek() != waiter) {
+          if (stopped.getAsBoolean()) {
+            return false;
+          }
+          wait(100);
+        }
+        running++;
+        return true;
+      } finally {
+        waiters.remove(waiter);
+        notifyAll();
+      }
+    }
+  }
+
+  /** Give back the permit of an action which finished executing. */
+  public void release() {
+    if (maxParallelActions <= 0) {
+      return;
+    }
+    synchronized (this) {
+      running--;
+      notifyAll();
+    }
+  }
+
+  /**
+   * Remember how long an action took to estimate the next execution.
+   *
+   * @param historyKey the key of the action in the duration history
+   * @param elapsedMillis the duration of the execution
+   */
+  public void recordDuration(String historyKey, long elapsedMillis) {
+    if (durationHistory.size() >= MAX_HISTORY_SIZE) {
+      durationHistory.clear();
+    }
+    durationHistory.put(historyKey, elapsedMillis);
+  }
+
+  /**
+   * @param historyKey the key of the action in the duration history
+   * @return the last duration in ms or 0 if the action was not executed before
+   */
+  public static long getEstimatedDuration(String historyKey) {
+    return durationHistory.getOrDefault(historyKey, 0L);
+  }
+
+  /** Stop the threads of the pool once the running branches are done. */
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+
+  public int getMaxParallelActions() {
+    return maxParallelActions;
+  }
+
+  public boolean isPrioritizingLongActions() {
+    return prioritizingLongActions;
+  }
+
+  /** An action waiting for a permit: longest estimate first, then first come first served. */
+  private static final class Waiter implements Comparable<Waiter> {
+    private final long estimate;
+    private final long nr;
+
+    Waiter(long estimate, long nr) {
+      this.estimate = estimate;
+      this.nr = nr;
+    }
+
+    @Override
+    public int compareTo(Waiter other) {
+      int compare = Long.compare(other.estimate, estimate);
+      return compare != 0 ? compare : Long.compare(nr, other.nr);
+    }
+  }
+}
@@ -105,6 +105,11 @@ public class LocalWorkflowEngine extends Workflow implements IWorkflowEngine<Wor
     LocalWorkflowRunConfiguration config =
         (LocalWorkflowRunConfiguration) workflowRunConfiguration.getEngineRunConfiguration();
 
+    // Limit the number of actions executing in parallel?
+    //
+    setMaxParallelActions(Const.toInt(resolve(config.getMaxParallelActions()), 0));
+    setPrioritizingLongActions(config.isPrioritizingLongActions());
+
     // See if we need to enable transactions...
     //
     IExtensionData parentExtensionData = getParentPipeline();
@@ -50,6 +50,30 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   @HopMetadataProperty(key = "transactional")
   protected boolean transactional;
 
+  @GuiWidgetElement(
+      id = "maxParallelActions",
+      order = "100",
+      parentId = WorkflowRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.MaxParallelActions.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.MaxParallelActions.ToolTip")
+  @HopMetadataProperty(key = "max_parallel_actions")
+  protected String maxParallelActions;
+
+  @GuiWidgetElement(
+      id = "prioritizingLongActions",
+      order = "110",
+      parentId = WorkflowRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.PrioritizingLongActions.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.PrioritizingLongActions.ToolTip")
+  @HopMetadataProperty(key = "prioritize_long_actions")
+  protected boolean prioritizingLongActions;
+
   public LocalWorkflowRunConfiguration() {
     super();
     safeModeEnabled = false;
@@ -59,6 +83,8 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
     super(config);
     this.safeModeEnabled = config.safeModeEnabled;
     this.transactional = config.transactional;
+    this.maxParallelActions = config.maxParallelActions;
+    this.prioritizingLongActions = config.prioritizingLongActions;
   }
 
   @Override
@@ -97,4 +123,36 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   public void setTransactional(boolean transactional) {
     this.transactional = transactional;
   }
+
+  /**
+   * Gets maxParallelActions
+   *
+   * @return value of maxParallelActions
+   */
+  public String getMaxParallelActions() {
+    return maxParallelActions;
+  }
+
+  /**
+   * @param maxParallelActions The maximum number of actions executing at the same time
+   */
+  public void setMaxParallelActions(String maxParallelActions) {
+    this.maxParallelActions = maxParallelActions;
+  }
+
+  /**
+   * Gets prioritizingLongActions
+   *
+   * @return value of prioritizingLongActions
+   */
+  public boolean isPrioritizingLongActions() {
+    return prioritizingLongActions;
+  }
+
+  /**
+   * @param prioritizingLongActions The prioritizingLongActions to set
+   */
+  public void setPrioritizingLongActions(boolean prioritizingLongActions) {
+    this.prioritizingLongActions = prioritizingLongActions;
+  }
 }
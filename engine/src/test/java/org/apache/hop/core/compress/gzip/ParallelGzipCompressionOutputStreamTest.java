@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.gzip;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.apache.hop.core.compress.CompressionPluginType;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class ParallelGzipCompressionOutputStreamTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  public static final String PROVIDER_NAME = "Parallel GZip";
+
+  public ICompressionProvider provider = null;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    PluginRegistry.addPluginType(CompressionPluginType.getInstance());
+    PluginRegistry.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    provider = CompressionProviderFactory.getInstance().getCompressionProviderByName(PROVIDER_NAME);
+  }
+
+  @Test
+  public void testProvider() {
+    assertNotNull(provider);
+    assertEquals("gz", provider.getDefaultExtension());
+  }
+
+  @Test
+  public void testWriteManyBlocks() throws IOException {
+    // Some compressible data spanning many small blocks
+    //
+    byte[] data = new byte[100000];
+    Random random = new Random(42);
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) ('a' + random.nextInt(8));
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ParallelGzipCompressionOutputStream outStream =
+        new ParallelGzipCompressionOutputStream(out, provider, 1000);
+    outStream.write(data[0]);
+    outStream.write(data, 1, 49999);
+    outStream.flush();
+    outStream.write(data, 50000, 50000);
+    outStream.close();
+
+    assertArrayEquals(data, decompress(out.toByteArray()));
+  }
+
+  @Test
+  public void testEmptyStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new ParallelGzipCompressionOutputStream(out, provider, 1000).close();
+    assertEquals(0, decompress(out.toByteArray()).length);
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    ParallelGzipCompressionOutputStream outStream =
+        new ParallelGzipCompressionOutputStream(new ByteArrayOutputStream(), provider, 1000);
+    outStream.close();
+    try {
+      outStream.write("This will throw an Exception if the stream is already closed".getBytes());
+      fail();
+    } catch (IOException e) {
+      // Success, The Output Stream was already closed
+    }
+  }
+
+  private byte[] decompress(byte[] compressed) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return in.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hop.execution.sampler.plugins.dataprof;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBuffer;
+import org.apache.hop.core.row.RowMetaBuilder;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.execution.sampler.ExecutionDataSamplerMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BasicDataProfilingDataSamplerTest {
+
+  @Before
+  public void before() throws Exception {
+    HopClientEnvironment.init();
+  }
+
+  @Test
+  public void testHyperLogLog() {
+    HyperLogLog first = new HyperLogLog();
+    HyperLogLog second = new HyperLogLog();
+    for (long i = 0; i < 100000; i++) {
+      first.add(i);
+      second.add("value-" + i);
+      second.add("value-" + i);
+    }
+    assertEquals(100000, first.estimate(), 5000);
+    assertEquals(100000, second.estimate(), 5000);
+
+    // Small cardinalities are close to exact
+    //
+    HyperLogLog small = new HyperLogLog();
+    for (long i = 0; i < 100; i++) {
+      small.add(i % 10);
+    }
+    assertEquals(10, small.estimate());
+
+    first.merge(second);
+    assertEquals(200000, first.estimate(), 10000);
+  }
+
+  @Test
+  public void testQuantileSketch() {
+    QuantileSketch first = new QuantileSketch();
+    QuantileSketch second = new QuantileSketch();
+    for (int i = 0; i < 50000; i++) {
+      first.add(i * 2);
+      second.add(i * 2 + 1);
+    }
+    assertEquals(50000, first.getQuantile(0.5), 2000);
+
+    first.merge(second);
+    assertEquals(100000, first.getCount());
+    double[] quantiles = first.getQuantiles(0.0, 0.25, 0.5, 0.75, 1.0);
+    assertEquals(0, quantiles[0], 1000);
+    assertEquals(25000, quantiles[1], 2000);
+    assertEquals(50000, quantiles[2], 2000);
+    assertEquals(75000, quantiles[3], 2000);
+    assertEquals(100000, quantiles[4], 1000);
+
+    assertTrue(Double.isNaN(new QuantileSketch().getQuantile(0.5)));
+  }
+
+  @Test
+  public void testFrequentValuesSketch() {
+    FrequentValuesSketch first = new FrequentValuesSketch(16);
+    FrequentValuesSketch second = new FrequentValuesSketch(16);
+    for (long i = 0; i < 10000; i++) {
+      first.add("frequent");
+      first.add("unique-" + i);
+      second.add("frequent");
+      second.add("other");
+      second.add("unique-" + i);
+    }
+    first.merge(second);
+
+    List<Map.Entry<Object, Long>> topValues = first.getTopValues(2);
+    assertEquals(2, topValues.size());
+    assertEquals("frequent", topValues.get(0).getKey());
+    assertEquals("other", topValues.get(1).getKey());
+    long count = topValues.get(0).getValue();
+    assertTrue(count <= 20000);
+    assertTrue(count + first.getMaximumError() >= 20000);
+  }
+
+  @Test
+  public void testProfileMergedOverThreads() throws Exception {
+    BasicDataProfilingDataSampler sampler = new BasicDataProfilingDataSampler();
+    sampler.setProfilingDistinctCount(true);
+    sampler.setProfilingQuantiles(true);
+    sampler.setProfilingTopValues(true);
+    BasicDataProfilingDataSamplerStore store =
+        sampler.createSamplerStore(new ExecutionDataSamplerMeta("test", "0", "id", false, true));
+    store.init(new Variables(), null, null);
+
+    IRowMeta rowMeta = new RowMetaBuilder().addInteger("id").addString("name").build();
+
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      int offset = t * 1000;
+      threads[t] =
+          new Thread(
+              () -> {
+                try {
+                  for (long i = 0; i < 1000; i++) {
+                    Object[] row = new Object[] {offset + i, i % 3 == 0 ? null : "name-" + i % 7};
+                    sampler.sampleRow(store, IStream.StreamType.OUTPUT, rowMeta, row);
+                  }
+                } catch (Exception e) {
+                  throw new RuntimeException(e);
+                }
+              });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(4, store.getAccumulators().size());
+
+    Map<String, FieldProfile> profiles = store.getProfileSnapshot();
+    FieldProfile id = profiles.get("id");
+    assertEquals(0L, id.getMinValue());
+    assertEquals(3999L, id.getMaxValue());
+    assertEquals(4000, id.getNonNullCount());
+    assertEquals(4000, id.getDistinctValues().estimate(), 200);
+    assertEquals(2000, id.getQuantiles().getQuantile(0.5), 200);
+
+    FieldProfile name = profiles.get("name");
+    assertEquals(4 * 334, name.getNullCount());
+    assertEquals(6, name.getMinLength());
+    assertEquals(7, name.getDistinctValues().estimate());
+    assertEquals(7, name.getTopValues().getTopValues(10).size());
+
+    Map<String, RowBuffer> samples = store.getSamples();
+    RowBuffer distinct = samples.get("test.0: DistinctCount-value-name");
+    assertNotNull(distinct);
+    assertEquals(7L, distinct.getBuffer().get(0)[0]);
+    RowBuffer topValues = samples.get("test.0: TopValues-value-name");
+    assertNotNull(topValues);
+    assertEquals(7, topValues.size());
+    RowBuffer quantiles = samples.get("test.0: Quantiles-value-id");
+    assertNotNull(quantiles);
+    assertEquals(BasicDataProfilingDataSamplerStore.QUANTILES.length, quantiles.size());
+    assertEquals(store.getMaxRows(), samples.get("test.0: NrNulls-samples-name").size());
+    assertTrue(store.getSamplesMetadata().containsKey("test.0: MinValue-value-id"));
+  }
+}
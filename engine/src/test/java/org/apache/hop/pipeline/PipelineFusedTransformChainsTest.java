@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class PipelineFusedTransformChainsTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @BeforeClass
+  public static void beforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  /**
+   * injector -> a -> b -> c, with c sending rows to both d and e. The chain injector .. c is fused,
+   * d and e keep their own thread.
+   */
+  private PipelineMeta createPipelineMeta() {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("fused");
+    TransformMeta injector = new TransformMeta("injector", new InjectorMeta());
+    pipelineMeta.addTransform(injector);
+    TransformMeta previous = injector;
+    for (String name : new String[] {"a", "b", "c"}) {
+      TransformMeta transformMeta = new TransformMeta(name, new DummyMeta());
+      pipelineMeta.addTransform(transformMeta);
+      pipelineMeta.addPipelineHop(new PipelineHopMeta(previous, transformMeta));
+      previous = transformMeta;
+    }
+    for (String name : new String[] {"d", "e"}) {
+      TransformMeta transformMeta = new TransformMeta(name, new DummyMeta());
+      pipelineMeta.addTransform(transformMeta);
+      pipelineMeta.addPipelineHop(new PipelineHopMeta(previous, transformMeta));
+    }
+    return pipelineMeta;
+  }
+
+  private Pipeline createPipeline(boolean fusing) {
+    Pipeline pipeline = new LocalPipelineEngine(createPipelineMeta());
+    LocalPipelineRunConfiguration runConfiguration =
+        (LocalPipelineRunConfiguration)
+            pipeline.getPipelineRunConfiguration().getEngineRunConfiguration();
+    runConfiguration.setFusingTransformChains(fusing);
+    return pipeline;
+  }
+
+  @Test
+  public void testFindFusableTransformChains() throws Exception {
+    Pipeline pipeline = createPipeline(true);
+    pipeline.prepareExecution();
+
+    List<List<TransformMeta>> chains = pipeline.getFusedTransformChains();
+    assertEquals(1, chains.size());
+    assertEquals(4, chains.get(0).size());
+    assertEquals("injector", chains.get(0).get(0).getName());
+    assertEquals("c", chains.get(0).get(3).getName());
+
+    IRowSet fused = pipeline.findRowSet("a", 0, "b", 0);
+    assertTrue(fused instanceof QueueRowSet);
+    IRowSet notFused = pipeline.findRowSet("c", 0, "d", 0);
+    assertTrue(!(notFused instanceof QueueRowSet));
+  }
+
+  @Test
+  public void testOnlyFuseSupportingTransforms() throws Exception {
+    // A transform which doesn't declare support for fused execution breaks the chain in two
+    //
+    PipelineMeta pipelineMeta = createPipelineMeta();
+    TransformMeta b = pipelineMeta.findTransform("b");
+    b.setTransform(
+        new DummyMeta() {
+          @Override
+          public boolean supportsFusedExecution() {
+            return false;
+          }
+        });
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.setFusingTransformChains(true);
+
+    List<List<TransformMeta>> chains =
+        pipeline.findFusableTransformChains(pipelineMeta.getPipelineHopTransforms(false));
+    assertEquals(1, chains.size());
+    assertEquals(2, chains.get(0).size());
+    assertEquals("injector", chains.get(0).get(0).getName());
+    assertEquals("a", chains.get(0).get(1).getName());
+  }
+
+  @Test
+  public void testNoFusingByDefault() throws Exception {
+    Pipeline pipeline = createPipeline(false);
+    pipeline.prepareExecution();
+
+    assertTrue(pipeline.getFusedTransformChains().isEmpty());
+    assertTrue(!(pipeline.findRowSet("a", 0, "b", 0) instanceof QueueRowSet));
+  }
+
+  @Test(timeout = 30000)
+  public void testExecuteFusedChain() throws Exception {
+    Pipeline pipeline = createPipeline(true);
+    pipeline.prepareExecution();
+
+    AtomicLong rowsD = new AtomicLong();
+    AtomicLong sum = new AtomicLong();
+    pipeline
+        .getTransform("d", 0)
+        .addRowListener(
+            new RowAdapter() {
+              @Override
+              public void rowReadEvent(IRowMeta rowMeta, Object[] row)
+                  throws HopTransformException {
+                rowsD.incrementAndGet();
+                sum.addAndGet((Long) row[0]);
+              }
+            });
+    AtomicLong rowsE = new AtomicLong();
+    pipeline
+        .getTransform("e", 0)
+        .addRowListener(
+            new RowAdapter() {
+              @Override
+              public void rowReadEvent(IRowMeta rowMeta, Object[] row) {
+                rowsE.incrementAndGet();
+              }
+            });
+
+    RowProducer rowProducer = pipeline.addRowProducer("injector", 0);
+    pipeline.startThreads();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    long expectedSum = 0;
+    for (long i = 0; i < 25000; i++) {
+      rowProducer.putRow(rowMeta, new Object[] {i});
+      expectedSum += i;
+    }
+    rowProducer.finished();
+    pipeline.waitUntilFinished();
+
+    assertEquals(0, pipeline.getErrors());
+    assertEquals(12500, rowsD.get());
+    assertEquals(12500, rowsE.get());
+    assertEquals(25000, pipeline.getTransform("b", 0).getLinesWritten());
+    assertEquals(25000, pipeline.getTransform("c", 0).getLinesRead());
+    assertTrue(sum.get() > 0 && sum.get() < expectedSum);
+  }
+}
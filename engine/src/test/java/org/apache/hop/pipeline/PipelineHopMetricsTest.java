@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.engine.EngineMetrics;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformStatus;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class PipelineHopMetricsTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @BeforeClass
+  public static void beforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Test(timeout = 30000)
+  public void testHopMetrics() throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("hop-metrics");
+    TransformMeta injector = new TransformMeta("injector", new InjectorMeta());
+    pipelineMeta.addTransform(injector);
+    TransformMeta dummy = new TransformMeta("dummy", new DummyMeta());
+    pipelineMeta.addTransform(dummy);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, dummy));
+
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.prepareExecution();
+    RowProducer rowProducer = pipeline.addRowProducer("injector", 0);
+
+    // Fill the buffer of the hop before anything is reading from it
+    //
+    IRowSet rowSet = pipeline.findRowSet("injector", 0, "dummy", 0);
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    for (long i = 0; i < 50; i++) {
+      rowSet.putRow(rowMeta, new Object[] {i});
+    }
+    String hopName = rowSet.getName();
+    ITransform injectorTransform = pipeline.getTransform("injector", 0);
+
+    EngineMetrics metrics = pipeline.getEngineMetrics();
+    assertEquals(
+        Long.valueOf(50L), metrics.getHopMetric(hopName, Pipeline.METRIC_HOP_MAX_FILL_LEVEL));
+    assertNotNull(metrics.getHopMetric(hopName, Pipeline.METRIC_HOP_WAIT));
+    assertNotNull(metrics.getHopMetric(hopName, Pipeline.METRIC_HOP_BLOCKED));
+    assertEquals(
+        Long.valueOf(50L),
+        metrics.getComponentMetric(injectorTransform, Pipeline.METRIC_BUFFER_OUT_MAX_FILL_LEVEL));
+
+    pipeline.startThreads();
+    rowProducer.finished();
+    pipeline.waitUntilFinished();
+    assertEquals(0, pipeline.getErrors());
+
+    // The highest fill level is kept and passed on to the transform status of Hop servers
+    //
+    metrics = pipeline.getEngineMetrics();
+    assertEquals(
+        Long.valueOf(50L), metrics.getHopMetric(hopName, Pipeline.METRIC_HOP_MAX_FILL_LEVEL));
+    TransformStatus transformStatus = new TransformStatus(injectorTransform);
+    TransformStatus fromXml = new TransformStatus().fromXml(transformStatus.getXml());
+    assertEquals(50L, fromXml.getOutputBufferMaxFillLevel());
+  }
+}
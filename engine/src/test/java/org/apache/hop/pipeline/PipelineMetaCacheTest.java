@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.metadata.serializer.memory.MemoryMetadataProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PipelineMetaCacheTest {
+
+  private MemoryMetadataProvider metadataProvider;
+  private IVariables variables;
+  private File directory;
+
+  @Before
+  public void setUp() throws Exception {
+    HopEnvironment.init();
+    metadataProvider = new MemoryMetadataProvider();
+    variables = new Variables();
+    variables.setVariable(Const.HOP_PIPELINE_META_CACHE, "Y");
+    directory = Files.createTempDirectory("pipeline-meta-cache").toFile();
+    PipelineMetaCache.getInstance().clear();
+  }
+
+  @After
+  public void tearDown() {
+    PipelineMetaCache.getInstance().clear();
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void testCacheHit() throws Exception {
+    File file = writePipeline("test.hpl", "first", 1000L);
+
+    PipelineMeta first = load(file, variables);
+    assertEquals("first", first.getDescription());
+
+    // Changing the content without changing the modification time proves the copy comes from the
+    // cache
+    //
+    writePipeline("test.hpl", "second", 1000L);
+    PipelineMeta second = load(file, variables);
+    assertEquals("first", second.getDescription());
+    assertNotSame(first, second);
+    assertEquals(1, PipelineMetaCache.getInstance().size());
+
+    // Callers can modify their copy without affecting the cache
+    //
+    second.setDescription("modified");
+    assertEquals("first", load(file, variables).getDescription());
+  }
+
+  @Test
+  public void testInvalidationWhenFileChanges() throws Exception {
+    File file = writePipeline("test.hpl", "first", 1000L);
+    assertEquals("first", load(file, variables).getDescription());
+
+    writePipeline("test.hpl", "second", 2000L);
+    assertEquals("second", load(file, variables).getDescription());
+    assertEquals(1, PipelineMetaCache.getInstance().size());
+
+    PipelineMetaCache.getInstance().remove(file.getAbsolutePath());
+    assertEquals(0, PipelineMetaCache.getInstance().size());
+  }
+
+  @Test
+  public void testKeysPerFilenameAndUsedVariables() throws Exception {
+    File file1 = writePipeline("test1.hpl", "first ${USED_VARIABLE}", 1000L);
+    File file2 = writePipeline("test2.hpl", "second", 1000L);
+    variables.setVariable("USED_VARIABLE", "one");
+    assertEquals("first ${USED_VARIABLE}", load(file1, variables).getDescription());
+    assertEquals("second", load(file2, variables).getDescription());
+    assertEquals(2, PipelineMetaCache.getInstance().size());
+
+    // Variables which aren't referenced in the file don't matter
+    //
+    IVariables otherVariables = new Variables();
+    otherVariables.copyFrom(variables);
+    otherVariables.setVariable("UNUSED_VARIABLE", "value");
+    writePipeline("test1.hpl", "changed ${USED_VARIABLE}", 1000L);
+    assertEquals("first ${USED_VARIABLE}", load(file1, otherVariables).getDescription());
+
+    // Another value for a referenced variable reloads the file
+    //
+    otherVariables.setVariable("USED_VARIABLE", "two");
+    assertEquals("changed ${USED_VARIABLE}", load(file1, otherVariables).getDescription());
+    assertEquals(2, PipelineMetaCache.getInstance().size());
+
+    PipelineMetaCache.getInstance().remove(file1.getAbsolutePath());
+    assertEquals(1, PipelineMetaCache.getInstance().size());
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    File file = writePipeline("test.hpl", "first", 1000L);
+    load(file, new Variables());
+    assertEquals(0, PipelineMetaCache.getInstance().size());
+  }
+
+  private PipelineMeta load(File file, IVariables variables) throws Exception {
+    return PipelineMetaCache.loadPipelineMeta(file.getAbsolutePath(), metadataProvider, variables);
+  }
+
+  private File writePipeline(String name, String description, long lastModified) throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName(name);
+    pipelineMeta.setDescription(description);
+    File file = new File(directory, name);
+    Files.write(
+        file.toPath(), pipelineMeta.getXml(new Variables()).getBytes(StandardCharsets.UTF_8));
+    file.setLastModified(lastModified);
+    return file;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.SequencedRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class PipelinePreserveRowOrderTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final int COPIES = 4;
+
+  @BeforeClass
+  public static void beforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  /** injector -> parallel (4 copies) -> output */
+  private Pipeline createPipeline(boolean preservingRowOrder) {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("ordered");
+    TransformMeta injector = new TransformMeta("injector", new InjectorMeta());
+    pipelineMeta.addTransform(injector);
+    TransformMeta parallel = new TransformMeta("parallel", new DummyMeta());
+    parallel.setCopies(COPIES);
+    parallel.setPreservingRowOrder(preservingRowOrder);
+    pipelineMeta.addTransform(parallel);
+    TransformMeta output = new TransformMeta("output", new DummyMeta());
+    pipelineMeta.addTransform(output);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, parallel));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(parallel, output));
+    return new LocalPipelineEngine(pipelineMeta);
+  }
+
+  @Test
+  public void testRowSetsAreReplaced() throws Exception {
+    Pipeline pipeline = createPipeline(true);
+    pipeline.prepareExecution();
+    for (int c = 0; c < COPIES; c++) {
+      assertTrue(pipeline.findRowSet("injector", 0, "parallel", c) instanceof SequencedRowSet);
+      assertTrue(pipeline.findRowSet("parallel", c, "output", 0) instanceof SequencedRowSet);
+    }
+
+    pipeline = createPipeline(false);
+    pipeline.prepareExecution();
+    assertFalse(pipeline.findRowSet("injector", 0, "parallel", 0) instanceof SequencedRowSet);
+  }
+
+  @Test(timeout = 60000)
+  public void testRowOrderIsPreserved() throws Exception {
+    Pipeline pipeline = createPipeline(true);
+    pipeline.prepareExecution();
+
+    List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+    pipeline
+        .getTransform("output", 0)
+        .addRowListener(
+            new RowAdapter() {
+              @Override
+              public void rowReadEvent(IRowMeta rowMeta, Object[] row) {
+                ids.add((Long) row[0]);
+              }
+            });
+
+    RowProducer rowProducer = pipeline.addRowProducer("injector", 0);
+    pipeline.startThreads();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    int nrRows = 50000;
+    for (long i = 0; i < nrRows; i++) {
+      rowProducer.putRow(rowMeta, new Object[] {i});
+    }
+    rowProducer.finished();
+    pipeline.waitUntilFinished();
+
+    assertEquals(0, pipeline.getErrors());
+    assertEquals(nrRows, ids.size());
+    for (int i = 0; i < nrRows; i++) {
+      assertEquals(Long.valueOf(i), ids.get(i));
+    }
+    for (int c = 0; c < COPIES; c++) {
+      assertTrue(pipeline.getTransform("parallel", c).getLinesWritten() > 0);
+    }
+  }
+}
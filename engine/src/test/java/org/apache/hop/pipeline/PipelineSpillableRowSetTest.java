@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.SpillableRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaSerializable;
+import org.apache.hop.core.xml.XmlHandler;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorField;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.w3c.dom.Node;
+
+public class PipelineSpillableRowSetTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @BeforeClass
+  public static void beforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @After
+  public void after() {
+    System.clearProperty(Const.HOP_ROWSET_SPILL_ON_DIAMONDS);
+  }
+
+  /** injector -> left -> join and injector -> right -> join */
+  private PipelineMeta createDiamond(InjectorField... fields) {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("diamond");
+    InjectorMeta injectorMeta = new InjectorMeta();
+    injectorMeta.setInjectorFields(Arrays.asList(fields));
+    TransformMeta injector = new TransformMeta("injector", injectorMeta);
+    injector.setDistributes(false);
+    pipelineMeta.addTransform(injector);
+    TransformMeta left = new TransformMeta("left", new DummyMeta());
+    pipelineMeta.addTransform(left);
+    TransformMeta right = new TransformMeta("right", new DummyMeta());
+    pipelineMeta.addTransform(right);
+    TransformMeta join = new TransformMeta("join", new DummyMeta());
+    pipelineMeta.addTransform(join);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, left));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, right));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(left, join));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(right, join));
+    return pipelineMeta;
+  }
+
+  @Test
+  public void testDiamondUsesSpillableRowSets() throws Exception {
+    Pipeline pipeline = new LocalPipelineEngine(createDiamond());
+    pipeline.prepareExecution();
+    assertTrue(pipeline.findRowSet("left", 0, "join", 0) instanceof SpillableRowSet);
+    assertTrue(pipeline.findRowSet("right", 0, "join", 0) instanceof SpillableRowSet);
+    assertFalse(pipeline.findRowSet("injector", 0, "left", 0) instanceof SpillableRowSet);
+    assertFalse(pipeline.findRowSet("injector", 0, "right", 0) instanceof SpillableRowSet);
+  }
+
+  @Test
+  public void testDiamondDetectionSwitchedOff() throws Exception {
+    System.setProperty(Const.HOP_ROWSET_SPILL_ON_DIAMONDS, "N");
+    Pipeline pipeline = new LocalPipelineEngine(createDiamond());
+    pipeline.prepareExecution();
+    assertFalse(pipeline.findRowSet("left", 0, "join", 0) instanceof SpillableRowSet);
+    assertFalse(pipeline.findRowSet("right", 0, "join", 0) instanceof SpillableRowSet);
+  }
+
+  @Test(timeout = 60000)
+  public void testDiamondWithValuesWhichCantBeSerialized() throws Exception {
+    // writeData can't handle the serializable values: the row sets block instead of spilling
+    //
+    Pipeline pipeline = new LocalPipelineEngine(createDiamond());
+    pipeline.setRowSetSize(5);
+    pipeline.prepareExecution();
+    assertTrue(pipeline.findRowSet("left", 0, "join", 0) instanceof SpillableRowSet);
+
+    AtomicLong count = new AtomicLong();
+    pipeline
+        .getTransform("join", 0)
+        .addRowListener(
+            new RowAdapter() {
+              @Override
+              public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                count.incrementAndGet();
+              }
+            });
+
+    RowProducer rowProducer = pipeline.addRowProducer("injector", 0);
+    pipeline.startThreads();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaSerializable("object"));
+    int nrRows = 2000;
+    for (long i = 0; i < nrRows; i++) {
+      rowProducer.putRow(rowMeta, new Object[] {i, new StringBuilder("object")});
+    }
+    rowProducer.finished();
+    pipeline.waitUntilFinished();
+    SpillableRowSet rowSet = (SpillableRowSet) pipeline.findRowSet("left", 0, "join", 0);
+    pipeline.cleanup();
+
+    assertEquals(0, pipeline.getErrors());
+    assertEquals(2L * nrRows, count.get());
+    assertEquals(0, rowSet.getTotalSpilledRows());
+  }
+
+  @Test
+  public void testMarkedHop() throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("marked");
+    TransformMeta injector = new TransformMeta("injector", new InjectorMeta());
+    pipelineMeta.addTransform(injector);
+    TransformMeta output = new TransformMeta("output", new DummyMeta());
+    pipelineMeta.addTransform(output);
+    PipelineHopMeta hop = new PipelineHopMeta(injector, output);
+    pipelineMeta.addPipelineHop(hop);
+
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.prepareExecution();
+    assertFalse(pipeline.findRowSet("injector", 0, "output", 0) instanceof SpillableRowSet);
+
+    hop.setSpilling(true);
+    pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.prepareExecution();
+    assertTrue(pipeline.findRowSet("injector", 0, "output", 0) instanceof SpillableRowSet);
+  }
+
+  @Test
+  public void testHopXml() throws Exception {
+    PipelineMeta pipelineMeta = createDiamond();
+    PipelineHopMeta hop = pipelineMeta.getPipelineHop(0);
+    assertFalse(hop.getXml().contains(PipelineHopMeta.XML_SPILLING_TAG));
+
+    hop.setSpilling(true);
+    Node node =
+        XmlHandler.getSubNode(XmlHandler.loadXmlString(hop.getXml()), PipelineHopMeta.XML_HOP_TAG);
+    PipelineHopMeta copy = new PipelineHopMeta(node, pipelineMeta.getTransforms());
+    assertTrue(copy.isSpilling());
+    assertTrue(copy.clone().isSpilling());
+  }
+
+  @Test(timeout = 60000)
+  public void testRowsPassThroughDiamond() throws Exception {
+    Pipeline pipeline = new LocalPipelineEngine(createDiamond());
+    pipeline.prepareExecution();
+
+    AtomicLong count = new AtomicLong();
+    pipeline
+        .getTransform("join", 0)
+        .addRowListener(
+            new RowAdapter() {
+              @Override
+              public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                count.incrementAndGet();
+              }
+            });
+
+    RowProducer rowProducer = pipeline.addRowProducer("injector", 0);
+    pipeline.startThreads();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    int nrRows = 30000;
+    for (long i = 0; i < nrRows; i++) {
+      rowProducer.putRow(rowMeta, new Object[] {i});
+    }
+    rowProducer.finished();
+    pipeline.waitUntilFinished();
+    pipeline.cleanup();
+
+    assertEquals(0, pipeline.getErrors());
+    assertEquals(2L * nrRows, count.get());
+  }
+}
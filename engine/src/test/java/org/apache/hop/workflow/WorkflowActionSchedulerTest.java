@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.workflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class WorkflowActionSchedulerTest {
+
+  @Test
+  public void testMaxParallelActions() throws Exception {
+    WorkflowActionScheduler scheduler = new WorkflowActionScheduler(2, false, "limit");
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < 8; i++) {
+        futures.add(
+            scheduler.submit(
+                () -> {
+                  try {
+                    assertTrue(scheduler.acquire("limit/action", () -> false));
+                    try {
+                      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                      Thread.sleep(20);
+                      running.decrementAndGet();
+                    } finally {
+                      scheduler.release();
+                    }
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      scheduler.shutdown();
+    }
+    assertEquals(2, maxRunning.get());
+  }
+
+  @Test
+  public void testLongestActionsFirst() throws Exception {
+    WorkflowActionScheduler scheduler = new WorkflowActionScheduler(1, true, "priority");
+    scheduler.recordDuration("priority/short", 10L);
+    scheduler.recordDuration("priority/long", 1000L);
+    assertEquals(1000L, WorkflowActionScheduler.getEstimatedDuration("priority/long"));
+    assertEquals(0L, WorkflowActionScheduler.getEstimatedDuration("priority/unknown"));
+
+    // Hold the only permit until both actions are waiting
+    //
+    assertTrue(scheduler.acquire("priority/first", () -> false));
+
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch shortWaiting = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (String name : new String[] {"short", "long"}) {
+        futures.add(
+            scheduler.submit(
+                () -> {
+                  try {
+                    if ("long".equals(name)) {
+                      shortWaiting.await();
+                      Thread.sleep(50);
+                    } else {
+                      shortWaiting.countDown();
+                    }
+                    assertTrue(scheduler.acquire("priority/" + name, () -> false));
+                    order.add(name);
+                    scheduler.release();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                }));
+      }
+      Thread.sleep(200);
+      scheduler.release();
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      scheduler.shutdown();
+    }
+    assertEquals(List.of("long", "short"), order);
+  }
+
+  @Test
+  public void testStoppedWhileWaiting() throws Exception {
+    WorkflowActionScheduler scheduler = new WorkflowActionScheduler(1, false, "stop");
+    assertTrue(scheduler.acquire("stop/first", () -> false));
+    long start = System.currentTimeMillis();
+    assertFalse(scheduler.acquire("stop/second", () -> System.currentTimeMillis() - start > 150));
+    scheduler.release();
+    assertTrue(scheduler.acquire("stop/third", () -> false));
+    scheduler.release();
+  }
+
+  @Test
+  public void testNoLimit() throws Exception {
+    WorkflowActionScheduler scheduler = new WorkflowActionScheduler(0, false, "unlimited");
+    for (int i = 0; i < 100; i++) {
+      assertTrue(scheduler.acquire("unlimited/action", () -> true));
+    }
+  }
+}
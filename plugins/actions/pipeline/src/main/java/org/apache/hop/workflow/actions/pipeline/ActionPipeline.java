@@ -46,6 +46,7 @@ import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.metadata.api.HopMetadataProperty;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.PipelineMetaCache;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engine.PipelineEngineFactory;
@@ -626,7 +627,7 @@ public class ActionPipeline extends ActionBase implements Cloneable, IAction {
 
       String realFilename = tmpSpace.resolve(getFilename());
 
-      pipelineMeta = new PipelineMeta(realFilename, metadataProvider, this);
+      pipelineMeta = PipelineMetaCache.loadPipelineMeta(realFilename, metadataProvider, this);
 
       if (pipelineMeta != null) {
         // Pass the metadata references
@@ -172,6 +172,10 @@ public class GraphOutput extends BaseNeoTransform<GraphOutputMeta, GraphOutputDa
 
     wrapUpTransaction();
 
+    if (data.partitionedWriter != null) {
+      data.partitionedWriter.close();
+      data.partitionedWriter = null;
+    }
     if (data.session != null) {
       data.session.close();
     }
@@ -431,6 +435,30 @@ public class GraphOutput extends BaseNeoTransform<GraphOutputMeta, GraphOutputDa
 
       data.relationshipsCache = new HashMap<>();
       data.cypherMap = new HashMap<>();
+
+      // Write out of order batches over multiple sessions?
+      //
+      int parallelWriters = Const.toInt(resolve(meta.getParallelWriters()), 1);
+      if (!meta.isReturningGraph()
+          && meta.isOutOfOrderAllowed()
+          && data.batchSize > 1
+          && parallelWriters > 1) {
+        data.partitionFieldIndexes = findPartitionFieldIndexes();
+        data.partitionedWriter =
+            new GraphPartitionedWriter(
+                parallelWriters,
+                data.batchSize,
+                () -> data.neoConnection.getSession(log, data.driver, this),
+                this::processSummary);
+        if (log.isDetailed()) {
+          logDetailed(
+              "Writing batches over "
+                  + parallelWriters
+                  + " sessions, partitioned on "
+                  + data.partitionFieldIndexes.length
+                  + " primary key field(s)");
+        }
+      }
     }
 
     if (meta.isReturningGraph()) {
@@ -454,7 +482,7 @@ public class GraphOutput extends BaseNeoTransform<GraphOutputMeta, GraphOutputDa
         logDebug("Merge statement : " + cypher);
       }
 
-      boolean errors = executeStatement(data, cypher, parameters);
+      boolean errors = executeStatement(data, row, cypher, parameters);
       if (errors) {
         // Stop processing on error
         //
@@ -525,10 +553,56 @@ public class GraphOutput extends BaseNeoTransform<GraphOutputMeta, GraphOutputDa
     }
   }
 
+  /**
+   * Find the fields of the primary key of the first node which has one in the field mappings. Rows
+   * are partitioned on these values over the parallel writers so that a node is always updated by
+   * the same session.
+   */
+  private int[] findPartitionFieldIndexes() {
+    String partitionNodeName = null;
+    List<Integer> indexes = new ArrayList<>();
+    for (int f = 0; f < meta.getFieldModelMappings().size(); f++) {
+      FieldModelMapping fieldModelMapping = meta.getFieldModelMappings().get(f);
+      if (fieldModelMapping.getTargetType() != ModelTargetType.Node) {
+        continue;
+      }
+      GraphNode node = data.graphModel.findNode(fieldModelMapping.getTargetName());
+      GraphProperty property =
+          node == null ? null : node.findProperty(fieldModelMapping.getTargetProperty());
+      if (property == null || !property.isPrimary()) {
+        continue;
+      }
+      if (partitionNodeName == null) {
+        partitionNodeName = fieldModelMapping.getTargetName();
+      }
+      if (partitionNodeName.equals(fieldModelMapping.getTargetName())) {
+        indexes.add(data.fieldIndexes[f]);
+      }
+    }
+    return indexes.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private int getPartitionKeyHash(Object[] row) {
+    Object[] key = new Object[data.partitionFieldIndexes.length];
+    for (int i = 0; i < key.length; i++) {
+      key[i] = row[data.partitionFieldIndexes[i]];
+    }
+    // deep used because Binary type is a native byte[]
+    return Arrays.deepHashCode(key);
+  }
+
   private boolean executeStatement(
-      GraphOutputData data, String cypher, Map<String, Object> parameters) {
+      GraphOutputData data, Object[] row, String cypher, Map<String, Object> parameters) {
     boolean errors = false;
-    if (data.batchSize <= 1) {
+    if (data.partitionedWriter != null) {
+      try {
+        long written = data.partitionedWriter.add(getPartitionKeyHash(row), cypher, parameters);
+        setLinesOutput(getLinesOutput() + written);
+      } catch (HopException e) {
+        logError("Error writing batch to Neo4j", e);
+        errors = true;
+      }
+    } else if (data.batchSize <= 1) {
       Result result = data.session.run(cypher, parameters);
       errors = processSummary(result);
     } else {
@@ -623,8 +697,11 @@ public class GraphOutput extends BaseNeoTransform<GraphOutputMeta, GraphOutputDa
   }
 
   private boolean processSummary(Result result) {
+    return processSummary(result.consume());
+  }
+
+  private boolean processSummary(ResultSummary summary) {
     boolean errors = false;
-    ResultSummary summary = result.consume();
     for (Notification notification : summary.notifications()) {
       log.logError(notification.title() + " (" + notification.severity() + ")");
       log.logError(
@@ -1375,7 +1452,15 @@ public class GraphOutput extends BaseNeoTransform<GraphOutputMeta, GraphOutputDa
 
   private void wrapUpTransaction() {
 
-    if (meta.isOutOfOrderAllowed()) {
+    if (data.partitionedWriter != null) {
+      try {
+        setLinesOutput(getLinesOutput() + data.partitionedWriter.flush());
+      } catch (HopException e) {
+        logError("Error writing batch to Neo4j", e);
+        stopAll();
+        setErrors(1L);
+      }
+    } else if (meta.isOutOfOrderAllowed()) {
       boolean errors = emptyUnwindMap();
       if (errors) {
         stopAll();
@@ -56,6 +56,12 @@ public class GraphOutputData extends BaseNeoTransformData implements ITransformD
 
   // A mapping between a cypher statements and it's unwind parameters map...
   public Map<String, List<Map<String, Object>>> unwindMapList;
+
+  // Writes the unwind batches over multiple sessions, null when writing with one session
+  public GraphPartitionedWriter partitionedWriter;
+
+  // The fields with the primary key of the node used to partition rows over the writers
+  public int[] partitionFieldIndexes;
   public Map<String, Map<String, GraphRelationship>> fieldValueRelationshipMap;
   public Map<String, Map<String, List<GraphRelationship>>> relationshipsCache;
 
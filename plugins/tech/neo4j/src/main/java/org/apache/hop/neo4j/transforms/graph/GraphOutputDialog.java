@@ -80,6 +80,8 @@ public class GraphOutputDialog extends BaseTransformDialog implements ITransform
 
   private Label wlBatchSize;
   private TextVar wBatchSize;
+  private Label wlParallelWriters;
+  private TextVar wParallelWriters;
   private Label wlCreateIndexes;
   private Button wCreateIndexes;
   private Button wReturnGraph;
@@ -207,6 +209,27 @@ public class GraphOutputDialog extends BaseTransformDialog implements ITransform
     wBatchSize.setLayoutData(fdBatchSize);
     lastControl = wBatchSize;
 
+    wlParallelWriters = new Label(shell, SWT.RIGHT);
+    wlParallelWriters.setText("Parallel writers (sessions)");
+    wlParallelWriters.setToolTipText(
+        "Write out of order batches over this many sessions in parallel."
+            + Const.CR
+            + "Rows are divided over the sessions on the primary key of their first node.");
+    PropsUi.setLook(wlParallelWriters);
+    FormData fdlParallelWriters = new FormData();
+    fdlParallelWriters.left = new FormAttachment(0, 0);
+    fdlParallelWriters.right = new FormAttachment(middle, -margin);
+    fdlParallelWriters.top = new FormAttachment(lastControl, 2 * margin);
+    wlParallelWriters.setLayoutData(fdlParallelWriters);
+    wParallelWriters = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wParallelWriters);
+    FormData fdParallelWriters = new FormData();
+    fdParallelWriters.left = new FormAttachment(middle, 0);
+    fdParallelWriters.right = new FormAttachment(100, 0);
+    fdParallelWriters.top = new FormAttachment(wlParallelWriters, 0, SWT.CENTER);
+    wParallelWriters.setLayoutData(fdParallelWriters);
+    lastControl = wParallelWriters;
+
     wlCreateIndexes = new Label(shell, SWT.RIGHT);
     wlCreateIndexes.setText("Create indexes? ");
     wlCreateIndexes.setToolTipText(
@@ -528,6 +551,8 @@ public class GraphOutputDialog extends BaseTransformDialog implements ITransform
     wConnection.setEnabled(toNeo);
     wlBatchSize.setEnabled(toNeo);
     wBatchSize.setEnabled(toNeo);
+    wlParallelWriters.setEnabled(toNeo);
+    wParallelWriters.setEnabled(toNeo);
     wlCreateIndexes.setEnabled(toNeo);
     wCreateIndexes.setEnabled(toNeo);
 
@@ -705,6 +730,7 @@ public class GraphOutputDialog extends BaseTransformDialog implements ITransform
     }
 
     wBatchSize.setText(Const.NVL(input.getBatchSize(), ""));
+    wParallelWriters.setText(Const.NVL(input.getParallelWriters(), ""));
     wCreateIndexes.setSelection(input.isCreatingIndexes());
 
     {
@@ -774,6 +800,7 @@ public class GraphOutputDialog extends BaseTransformDialog implements ITransform
     transformName = wTransformName.getText(); // return value
     input.setConnectionName(wConnection.getText());
     input.setBatchSize(wBatchSize.getText());
+    input.setParallelWriters(wParallelWriters.getText());
     input.setCreatingIndexes(wCreateIndexes.getSelection());
     input.setModel(wModel.getText());
 
@@ -58,6 +58,12 @@ public class GraphOutputMeta extends BaseTransformMeta<GraphOutput, GraphOutputD
       injectionKeyDescription = "GraphOutput.Injection.BATCH_SIZE")
   private String batchSize;
 
+  @HopMetadataProperty(
+      key = "parallel_writers",
+      injectionKey = "parallel_writers",
+      injectionKeyDescription = "GraphOutput.Injection.PARALLEL_WRITERS")
+  private String parallelWriters;
+
   @HopMetadataProperty(
       key = "create_indexes",
       injectionKey = "create_indexes",
@@ -130,6 +136,7 @@ public class GraphOutputMeta extends BaseTransformMeta<GraphOutput, GraphOutputD
   @Override
   public void setDefault() {
     batchSize = "1000";
+    parallelWriters = "1";
   }
 
   @Override
@@ -196,6 +203,22 @@ public class GraphOutputMeta extends BaseTransformMeta<GraphOutput, GraphOutputD
     this.batchSize = batchSize;
   }
 
+  /**
+   * Gets parallelWriters
+   *
+   * @return value of parallelWriters
+   */
+  public String getParallelWriters() {
+    return parallelWriters;
+  }
+
+  /**
+   * @param parallelWriters The number of sessions to write out of order batches with
+   */
+  public void setParallelWriters(String parallelWriters) {
+    this.parallelWriters = parallelWriters;
+  }
+
   /**
    * Gets creatingIndexes
    *
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.neo4j.transforms.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.apache.hop.core.exception.HopException;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.summary.ResultSummary;
+
+/**
+ * Writes UNWIND batches over a number of sessions in parallel. Rows are assigned to a partition by
+ * the hash of their node key so that all updates of a node go through the same session, in order.
+ * Every partition has its own session and writer thread, with at most one batch in flight while the
+ * next one is being built. Batches are written with managed write transactions which the driver
+ * retries on transient errors like deadlocks.
+ */
+public class GraphPartitionedWriter {
+
+  private final long batchSize;
+  private final Supplier<Session> sessionSupplier;
+  private final Predicate<ResultSummary> errorChecker;
+  private final Partition[] partitions;
+
+  /**
+   * @param nrPartitions the number of parallel sessions
+   * @param batchSize the number of rows per partition to send in one batch
+   * @param sessionSupplier creates a session for every partition
+   * @param errorChecker reports and returns true if the summary of a statement contains errors
+   */
+  public GraphPartitionedWriter(
+      int nrPartitions,
+      long batchSize,
+      Supplier<Session> sessionSupplier,
+      Predicate<ResultSummary> errorChecker) {
+    this.batchSize = batchSize;
+    this.sessionSupplier = sessionSupplier;
+    this.errorChecker = errorChecker;
+    this.partitions = new Partition[nrPartitions];
+    for (int i = 0; i < nrPartitions; i++) {
+      partitions[i] = new Partition(i);
+    }
+  }
+
+  /**
+   * Add the parameters of a row to the batch of its partition, sending the batch when it is full.
+   *
+   * @param keyHash the hash of the node key of the row
+   * @param cypher the UNWIND cypher statement
+   * @param parameters the row parameters
+   * @return the number of rows written by batches which completed in the meantime
+   * @throws HopException if a previous batch of the partition failed
+   */
+  public long add(int keyHash, String cypher, Map<String, Object> parameters) throws HopException {
+    Partition partition = partitions[Math.floorMod(keyHash ^ (keyHash >>> 16), partitions.length)];
+    partition.unwindMap.computeIfAbsent(cypher, k -> new ArrayList<>()).add(parameters);
+    partition.count++;
+    if (partition.count >= batchSize) {
+      return partition.submit();
+    }
+    return 0;
+  }
+
+  /**
+   * Send all pending rows and wait until every partition is written.
+   *
+   * @return the number of rows written
+   * @throws HopException if a batch failed
+   */
+  public long flush() throws HopException {
+    long written = 0;
+    HopException exception = null;
+    for (Partition partition : partitions) {
+      try {
+        written += partition.submit();
+      } catch (HopException e) {
+        exception = e;
+      }
+    }
+    for (Partition partition : partitions) {
+      try {
+        written += partition.await();
+      } catch (HopException e) {
+        exception = e;
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+    return written;
+  }
+
+  /** Stop the writer threads and close the sessions. Rows which were not flushed are dropped. */
+  public void close() {
+    for (Partition partition : partitions) {
+      partition.close();
+    }
+  }
+
+  private class Partition {
+    private final ExecutorService executor;
+    private Session session;
+    private Map<String, List<Map<String, Object>>> unwindMap = new LinkedHashMap<>();
+    private int count;
+    private Future<Long> pending;
+
+    Partition(int number) {
+      executor =
+          Executors.newSingleThreadExecutor(
+              r -> {
+                Thread thread = new Thread(r, "Neo4j graph writer " + number);
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+
+    /** Hand the current batch to the writer thread, after the previous batch completed. */
+    long submit() throws HopException {
+      if (count == 0) {
+        return 0;
+      }
+      long written = await();
+      final Map<String, List<Map<String, Object>>> batch = unwindMap;
+      unwindMap = new LinkedHashMap<>();
+      count = 0;
+      pending = executor.submit(() -> write(batch));
+      return written;
+    }
+
+    long await() throws HopException {
+      if (pending == null) {
+        return 0;
+      }
+      try {
+        return pending.get();
+      } catch (ExecutionException e) {
+        throw new HopException("Error writing a batch to Neo4j", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException("Interrupted while writing a batch to Neo4j", e);
+      } finally {
+        pending = null;
+      }
+    }
+
+    private long write(Map<String, List<Map<String, Object>>> batch) throws HopException {
+      if (session == null) {
+        session = sessionSupplier.get();
+      }
+      long written = 0;
+      for (Map.Entry<String, List<Map<String, Object>>> entry : batch.entrySet()) {
+        String cypher = entry.getKey();
+        // The unwind parameters list is called "props" :
+        //
+        Map<String, Object> props = Collections.singletonMap("props", entry.getValue());
+        ResultSummary summary = session.writeTransaction(tx -> tx.run(cypher, props).consume());
+        if (errorChecker.test(summary)) {
+          throw new HopException("Error executing UNWIND statement: " + cypher);
+        }
+        written += entry.getValue().size();
+      }
+      return written;
+    }
+
+    void close() {
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+          executor.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        executor.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+      if (session != null) {
+        session.close();
+        session = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.neo4j.transforms.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.hop.core.exception.HopException;
+import org.junit.Test;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.TransactionWork;
+import org.neo4j.driver.summary.ResultSummary;
+
+public class GraphPartitionedWriterTest {
+
+  private final List<Session> sessions = new CopyOnWriteArrayList<>();
+  private final Map<Session, List<Object>> writtenKeys = new ConcurrentHashMap<>();
+
+  @SuppressWarnings("unchecked")
+  private Session createSession() {
+    Session session = mock(Session.class);
+    Transaction transaction = mock(Transaction.class);
+    Result result = mock(Result.class);
+    when(result.consume()).thenReturn(mock(ResultSummary.class));
+    when(transaction.run(anyString(), anyMap()))
+        .thenAnswer(
+            invocation -> {
+              Map<String, Object> props = invocation.getArgument(1);
+              for (Map<String, Object> row : (List<Map<String, Object>>) props.get("props")) {
+                writtenKeys.computeIfAbsent(session, s -> new ArrayList<>()).add(row.get("key"));
+              }
+              return result;
+            });
+    when(session.writeTransaction(any()))
+        .thenAnswer(
+            invocation -> ((TransactionWork<?>) invocation.getArgument(0)).execute(transaction));
+    sessions.add(session);
+    return session;
+  }
+
+  @Test
+  public void testRowsArePartitionedByKey() throws Exception {
+    GraphPartitionedWriter writer =
+        new GraphPartitionedWriter(4, 10, this::createSession, summary -> false);
+    long written = 0;
+    for (int i = 0; i < 1000; i++) {
+      Integer key = i % 50;
+      written +=
+          writer.add(key.hashCode(), "UNWIND $props AS pr", Collections.singletonMap("key", key));
+    }
+    written += writer.flush();
+    writer.close();
+
+    assertEquals(1000, written);
+    assertEquals(4, sessions.size());
+    // every key is only ever written by one session
+    for (Session session : sessions) {
+      for (Session other : sessions) {
+        if (session != other) {
+          List<Object> keys = new ArrayList<>(writtenKeys.get(session));
+          keys.retainAll(writtenKeys.get(other));
+          assertTrue(keys.isEmpty());
+        }
+      }
+      verify(session).close();
+    }
+  }
+
+  @Test
+  public void testErrorsAreReported() throws Exception {
+    GraphPartitionedWriter writer =
+        new GraphPartitionedWriter(2, 5, this::createSession, summary -> true);
+    try {
+      for (int i = 0; i < 10; i++) {
+        writer.add(i, "UNWIND $props AS pr", Collections.singletonMap("key", i));
+      }
+      writer.flush();
+      fail("Expected an exception");
+    } catch (HopException e) {
+      // expected
+    } finally {
+      writer.close();
+    }
+  }
+}
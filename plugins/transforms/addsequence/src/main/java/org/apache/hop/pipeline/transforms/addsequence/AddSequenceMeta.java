@@ -405,4 +405,9 @@ public class AddSequenceMeta extends BaseTransformMeta<AddSequence, AddSequenceD
   public void setSchemaName(String schemaName) {
     this.schemaName = schemaName;
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
@@ -18,17 +18,25 @@
 package org.apache.hop.pipeline.transforms.analyticquery;
 
 import java.util.concurrent.ConcurrentLinkedQueue;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
-/** Performs analytic queries (LEAD/LAG, etc) based on a group */
+/**
+ * Performs analytic queries based on a group. LEAD and LAG look a fixed number of rows ahead or
+ * back, ranks and aggregates over a frame of rows are calculated incrementally as rows arrive (see
+ * {@link WindowFunction}). NTILE needs the size of the group, so these groups are buffered in a
+ * {@link PartitionBuffer} first.
+ */
 public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQueryData> {
 
   private static final Class<?> PKG = AnalyticQuery.class; // For Translator
@@ -82,43 +90,71 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
         }
       }
 
-      // Setup of "window size" and "queue_size"
+      // Setup of "window size" and "queue_size", only LEAD and LAG look at other rows
       int maxOffset = 0;
-      for (int i = 0; i < meta.getQueryFields().size(); i++) {
+      boolean needsGroupSize = false;
+      int nrQueryFields = meta.getQueryFields().size();
+      data.subjectnrs = new int[nrQueryFields];
+      data.windowFunctions = new WindowFunction[nrQueryFields];
+      for (int i = 0; i < nrQueryFields; i++) {
         QueryField queryField = meta.getQueryFields().get(i);
+        QueryField.AggregateType type = queryField.getAggregateType();
 
-        if (queryField.getValueField() > maxOffset) {
+        if (!type.isCumulative()
+            && type != QueryField.AggregateType.NTILE
+            && queryField.getValueField() > maxOffset) {
           maxOffset = queryField.getValueField();
         }
+
+        data.subjectnrs[i] =
+            Utils.isEmpty(queryField.getSubjectField())
+                ? -1
+                : data.inputRowMeta.indexOfValue(queryField.getSubjectField());
+        IValueMeta subjectMeta =
+            data.subjectnrs[i] < 0 ? null : data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+        if (type.isCumulative()) {
+          data.windowFunctions[i] = WindowFunction.create(queryField, subjectMeta);
+        }
+        if (type == QueryField.AggregateType.NTILE) {
+          needsGroupSize = true;
+        }
       }
       data.window_size = maxOffset;
       data.queue_size = (maxOffset * 2) + 1;
 
+      // NTILE needs to know the size of the group before the first row of the group is passed
+      //
+      if (needsGroupSize) {
+        data.partitionBuffer =
+            new PartitionBuffer(
+                data.outputRowMeta,
+                Const.toInt(resolve(meta.getMaxRowsInMemory()), 100000),
+                resolve(meta.getSpillDirectory()));
+      }
+
       // After we've processed the metadata we're all set
       first = false;
     }
 
     /* If our row is null we're done, clear the queue and end otherwise process the row */
     if (r == null) {
-      clearQueue();
+      finishGroup();
       setOutputDone();
       return false;
     } else {
       /* First with every group change AND the first row */
       if (!sameGroup(this.data.previous, r)) {
-        clearQueue();
+        finishGroup();
         resetGroup();
       }
-      /* Add this row to the end of the queue */
-      data.data.add(r);
-      /* Push the extra records off the end of the queue */
-      while (data.data.size() > data.queue_size) {
-        data.data.poll();
-      }
-
       data.previous = r.clone();
 
-      processQueue();
+      Object[] row = calculateWindowFunctions(r);
+      if (data.partitionBuffer != null) {
+        data.partitionBuffer.add(row);
+      } else {
+        addToQueue(row);
+      }
     }
 
     if (log.isBasic() && checkFeedback(getLinesRead())) {
@@ -128,6 +164,81 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
     return true;
   }
 
+  /**
+   * Calculate the incremental window functions for a new row of the group.
+   *
+   * @param r The input row
+   * @return A copy of the row in the output layout with the values of these functions
+   */
+  private Object[] calculateWindowFunctions(Object[] r) throws HopValueException {
+    Object[] row = RowDataUtil.createResizedCopy(r, data.outputRowMeta.size());
+    int inputSize = data.inputRowMeta.size();
+    for (int j = 0; j < data.windowFunctions.length; j++) {
+      WindowFunction windowFunction = data.windowFunctions[j];
+      if (windowFunction != null) {
+        Object subject = data.subjectnrs[j] < 0 ? null : r[data.subjectnrs[j]];
+        row[inputSize + j] = windowFunction.add(subject);
+      } else {
+        row[inputSize + j] = null;
+      }
+    }
+    return row;
+  }
+
+  private void addToQueue(Object[] row) throws HopTransformException {
+    /* Add this row to the end of the queue */
+    data.data.add(row);
+    /* Push the extra records off the end of the queue */
+    while (data.data.size() > data.queue_size) {
+      data.data.poll();
+    }
+    processQueue();
+  }
+
+  /** Pass the remaining rows of the group, with the NTILE buckets if the group was buffered. */
+  private void finishGroup() throws HopException {
+    if (data.partitionBuffer != null && data.data != null) {
+      long groupSize = data.partitionBuffer.size();
+      long rowNr = 0;
+      Object[] row;
+      while ((row = data.partitionBuffer.next()) != null) {
+        setBuckets(row, rowNr++, groupSize);
+        addToQueue(row);
+      }
+      data.partitionBuffer.clear();
+    }
+    clearQueue();
+  }
+
+  private void setBuckets(Object[] row, long rowNr, long groupSize) {
+    int inputSize = data.inputRowMeta.size();
+    for (int j = 0; j < meta.getQueryFields().size(); j++) {
+      QueryField queryField = meta.getQueryFields().get(j);
+      if (queryField.getAggregateType() == QueryField.AggregateType.NTILE) {
+        row[inputSize + j] = getBucket(rowNr, groupSize, Math.max(queryField.getValueField(), 1));
+      }
+    }
+  }
+
+  /**
+   * The NTILE bucket of a row: the group is divided in buckets which differ at most one row in
+   * size, the larger buckets come first.
+   *
+   * @param rowNr The 0-based number of the row in the group
+   * @param groupSize The number of rows in the group
+   * @param buckets The number of buckets
+   * @return The 1-based bucket
+   */
+  static long getBucket(long rowNr, long groupSize, long buckets) {
+    long bucketSize = groupSize / buckets;
+    long largeBuckets = groupSize % buckets;
+    long largeRows = largeBuckets * (bucketSize + 1);
+    if (rowNr < largeRows) {
+      return rowNr / (bucketSize + 1) + 1;
+    }
+    return largeBuckets + (rowNr - largeRows) / bucketSize + 1;
+  }
+
   public void processQueue() throws HopTransformException {
 
     // If we've filled up our queue for processing
@@ -161,14 +272,18 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
     int index = i - 1;
     Object[] rows = data.data.toArray();
 
-    Object[] fields = new Object[meta.getQueryFields().size()];
+    // The rows in the queue already hold the values of the other functions
+    //
+    Object[] newRow =
+        RowDataUtil.createResizedCopy((Object[]) rows[index], data.outputRowMeta.size());
+    int inputSize = data.inputRowMeta.size();
     for (int j = 0; j < meta.getQueryFields().size(); j++) {
       QueryField queryField = meta.getQueryFields().get(j);
 
       // field_index is the location inside a row of the subject of this
       // ie, ORDERTOTAL might be the subject ofthis field lag or lead
       // so we determine that ORDERTOTAL's index in the row
-      int fieldIndex = data.inputRowMeta.indexOfValue(queryField.getSubjectField());
+      int fieldIndex = data.subjectnrs[j];
       int rowIndex = 0;
       switch (queryField.getAggregateType()) {
         case LAG:
@@ -178,32 +293,35 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
           rowIndex = index + queryField.getValueField();
           break;
         case NONE:
-        default:
           break;
+        default:
+          continue;
       }
       if (rowIndex < rows.length && rowIndex >= 0) {
         Object[] singleRow = (Object[]) rows[rowIndex];
         if (singleRow != null && singleRow[fieldIndex] != null) {
-          fields[j] = ((Object[]) rows[rowIndex])[fieldIndex];
+          newRow[inputSize + j] = ((Object[]) rows[rowIndex])[fieldIndex];
         } else {
           // set default
-          fields[j] = null;
+          newRow[inputSize + j] = null;
         }
       } else {
         // set default
-        fields[j] = null;
+        newRow[inputSize + j] = null;
       }
     }
 
-    Object[] newRow =
-        RowDataUtil.addRowData((Object[]) rows[index], data.inputRowMeta.size(), fields);
-
     putRow(data.outputRowMeta, newRow);
   }
 
   public void resetGroup() {
     data.data = new ConcurrentLinkedQueue<>();
     data.queue_cursor = 0;
+    for (WindowFunction windowFunction : data.windowFunctions) {
+      if (windowFunction != null) {
+        windowFunction.reset();
+      }
+    }
   }
 
   // Is the row r of the same group as previous?
@@ -223,4 +341,13 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
       return false;
     }
   }
+
+  @Override
+  public void dispose() {
+    if (data.partitionBuffer != null) {
+      data.partitionBuffer.clear();
+      data.partitionBuffer = null;
+    }
+    super.dispose();
+  }
 }
@@ -44,6 +44,15 @@ public class AnalyticQueryData extends BaseTransformData implements ITransformDa
 
   public Object[] previous;
 
+  // The index of the subject field of every query field, -1 if there is none
+  public int[] subjectnrs;
+
+  // The incrementally calculated function of every query field, null for LEAD, LAG and NTILE
+  public WindowFunction[] windowFunctions;
+
+  // The rows of the current group, only used when a function needs the size of the group (NTILE)
+  public PartitionBuffer partitionBuffer;
+
   public AnalyticQueryData() {
     super();
   }
@@ -36,6 +36,7 @@ import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.dialog.MessageDialogWithToggle;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -56,6 +57,10 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
 
   private TableView wAgg;
 
+  private TextVar wMaxRowsInMemory;
+
+  private TextVar wSpillDirectory;
+
   private final AnalyticQueryMeta input;
   private ColumnInfo[] ciKey;
   private ColumnInfo[] ciReturn;
@@ -108,12 +113,52 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
     fdTransformName.right = new FormAttachment(100, 0);
     wTransformName.setLayoutData(fdTransformName);
 
+    // The number of rows of a group to keep in memory for NTILE
+    Label wlMaxRowsInMemory = new Label(shell, SWT.RIGHT);
+    wlMaxRowsInMemory.setText(
+        BaseMessages.getString(PKG, "AnalyticQueryDialog.MaxRowsInMemory.Label"));
+    wlMaxRowsInMemory.setToolTipText(
+        BaseMessages.getString(PKG, "AnalyticQueryDialog.MaxRowsInMemory.Tooltip"));
+    PropsUi.setLook(wlMaxRowsInMemory);
+    FormData fdlMaxRowsInMemory = new FormData();
+    fdlMaxRowsInMemory.left = new FormAttachment(0, 0);
+    fdlMaxRowsInMemory.right = new FormAttachment(middle, -margin);
+    fdlMaxRowsInMemory.top = new FormAttachment(wTransformName, margin);
+    wlMaxRowsInMemory.setLayoutData(fdlMaxRowsInMemory);
+    wMaxRowsInMemory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wMaxRowsInMemory);
+    wMaxRowsInMemory.addModifyListener(lsMod);
+    FormData fdMaxRowsInMemory = new FormData();
+    fdMaxRowsInMemory.left = new FormAttachment(middle, 0);
+    fdMaxRowsInMemory.top = new FormAttachment(wTransformName, margin);
+    fdMaxRowsInMemory.right = new FormAttachment(100, 0);
+    wMaxRowsInMemory.setLayoutData(fdMaxRowsInMemory);
+
+    // The directory to write the rest of large groups to
+    Label wlSpillDirectory = new Label(shell, SWT.RIGHT);
+    wlSpillDirectory.setText(
+        BaseMessages.getString(PKG, "AnalyticQueryDialog.SpillDirectory.Label"));
+    PropsUi.setLook(wlSpillDirectory);
+    FormData fdlSpillDirectory = new FormData();
+    fdlSpillDirectory.left = new FormAttachment(0, 0);
+    fdlSpillDirectory.right = new FormAttachment(middle, -margin);
+    fdlSpillDirectory.top = new FormAttachment(wMaxRowsInMemory, margin);
+    wlSpillDirectory.setLayoutData(fdlSpillDirectory);
+    wSpillDirectory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wSpillDirectory);
+    wSpillDirectory.addModifyListener(lsMod);
+    FormData fdSpillDirectory = new FormData();
+    fdSpillDirectory.left = new FormAttachment(middle, 0);
+    fdSpillDirectory.top = new FormAttachment(wMaxRowsInMemory, margin);
+    fdSpillDirectory.right = new FormAttachment(100, 0);
+    wSpillDirectory.setLayoutData(fdSpillDirectory);
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "AnalyticQueryDialog.Group.Label"));
     PropsUi.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlTransformName, margin);
+    fdlGroup.top = new FormAttachment(wSpillDirectory, margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int nrGroupColumns = 1;
@@ -263,6 +308,9 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
 
   /** Copy information from the meta-data input to the dialog fields. */
   public void getData() {
+    wMaxRowsInMemory.setText(Const.NVL(input.getMaxRowsInMemory(), ""));
+    wSpillDirectory.setText(Const.NVL(input.getSpillDirectory(), ""));
+
     for (GroupField groupField : input.getGroupFields()) {
       TableItem tableItem = new TableItem(wGroup.table, SWT.NONE);
       tableItem.setText(1, Const.NVL(groupField.getFieldName(), ""));
@@ -293,6 +341,9 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
       return;
     }
 
+    input.setMaxRowsInMemory(wMaxRowsInMemory.getText());
+    input.setSpillDirectory(wSpillDirectory.getText());
+
     input.getGroupFields().clear();
     input.getQueryFields().clear();
 
@@ -26,6 +26,9 @@ import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.metadata.api.HopMetadataProperty;
@@ -55,9 +58,22 @@ public class AnalyticQueryMeta extends BaseTransformMeta<AnalyticQuery, Analytic
   @HopMetadataProperty(groupKey = "fields", key = "field")
   private List<QueryField> queryFields;
 
+  /**
+   * The maximum number of rows of a group kept in memory for NTILE, the rest of the group is
+   * written to disk
+   */
+  @HopMetadataProperty(key = "max_rows_in_memory", injectionKey = "MAX_ROWS_IN_MEMORY")
+  private String maxRowsInMemory;
+
+  /** The directory to write large groups to */
+  @HopMetadataProperty(key = "spill_directory", injectionKey = "SPILL_DIRECTORY")
+  private String spillDirectory;
+
   public AnalyticQueryMeta() {
     groupFields = new ArrayList<>();
     queryFields = new ArrayList<>();
+    maxRowsInMemory = "100000";
+    spillDirectory = "${java.io.tmpdir}";
   }
 
   @Override
@@ -81,12 +97,19 @@ public class AnalyticQueryMeta extends BaseTransformMeta<AnalyticQuery, Analytic
 
       int indexOfSubject = r.indexOfValue(queryField.getSubjectField());
 
-      // if we found the subjectField in the IRowMeta, and we should....
-      if (indexOfSubject > -1) {
-        IValueMeta vmi = r.getValueMeta(indexOfSubject).clone();
+      // Row numbers, buckets and row counts don't need a subject
+      //
+      if (indexOfSubject < 0 && !queryField.getAggregateType().isSubjectRequired()) {
+        IValueMeta vmi = new ValueMetaInteger(queryField.getAggregateField());
+        vmi.setLength(IValueMeta.DEFAULT_INTEGER_LENGTH, 0);
         vmi.setOrigin(origin);
-        vmi.setName(queryField.getAggregateField());
         fields.addValueMeta(vmi);
+        continue;
+      }
+
+      // if we found the subjectField in the IRowMeta, and we should....
+      if (indexOfSubject > -1) {
+        fields.addValueMeta(getResultValueMeta(queryField, r.getValueMeta(indexOfSubject), origin));
       } else {
         // we have a condition where the subjectField can't be found from the iRowMeta
         StringBuilder sbFieldNames = new StringBuilder();
@@ -113,6 +136,47 @@ public class AnalyticQueryMeta extends BaseTransformMeta<AnalyticQuery, Analytic
     r.addRowMeta(fields);
   }
 
+  /**
+   * The metadata of the result of a query field with a subject. LEAD, LAG, MIN and MAX return
+   * values of the subject, the other functions return numbers.
+   */
+  private static IValueMeta getResultValueMeta(
+      QueryField queryField, IValueMeta subjectMeta, String origin) {
+    IValueMeta vmi;
+    switch (queryField.getAggregateType()) {
+      case ROW_NUMBER:
+      case RANK:
+      case DENSE_RANK:
+      case NTILE:
+      case COUNT:
+        vmi = new ValueMetaInteger(queryField.getAggregateField());
+        vmi.setLength(IValueMeta.DEFAULT_INTEGER_LENGTH, 0);
+        break;
+      case SUM:
+        if (subjectMeta.isInteger()) {
+          vmi = new ValueMetaInteger(queryField.getAggregateField());
+        } else if (subjectMeta.isBigNumber()) {
+          vmi = new ValueMetaBigNumber(queryField.getAggregateField());
+        } else {
+          vmi = new ValueMetaNumber(queryField.getAggregateField());
+        }
+        break;
+      case AVG:
+        if (subjectMeta.isBigNumber()) {
+          vmi = new ValueMetaBigNumber(queryField.getAggregateField());
+        } else {
+          vmi = new ValueMetaNumber(queryField.getAggregateField());
+        }
+        break;
+      default:
+        vmi = subjectMeta.clone();
+        vmi.setName(queryField.getAggregateField());
+        break;
+    }
+    vmi.setOrigin(origin);
+    return vmi;
+  }
+
   @Override
   public void check(
       List<ICheckResult> remarks,
@@ -182,6 +246,38 @@ public class AnalyticQueryMeta extends BaseTransformMeta<AnalyticQuery, Analytic
     this.queryFields = queryFields;
   }
 
+  /**
+   * Gets maxRowsInMemory
+   *
+   * @return value of maxRowsInMemory
+   */
+  public String getMaxRowsInMemory() {
+    return maxRowsInMemory;
+  }
+
+  /**
+   * @param maxRowsInMemory The maxRowsInMemory to set
+   */
+  public void setMaxRowsInMemory(String maxRowsInMemory) {
+    this.maxRowsInMemory = maxRowsInMemory;
+  }
+
+  /**
+   * Gets spillDirectory
+   *
+   * @return value of spillDirectory
+   */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * @param spillDirectory The spillDirectory to set
+   */
+  public void setSpillDirectory(String spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
+
   @Override
   public boolean supportsMultiCopyExecution() {
     return false;
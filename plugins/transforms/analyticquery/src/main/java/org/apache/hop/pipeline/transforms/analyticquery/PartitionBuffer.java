@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.RowSpillFile;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * Holds the rows of one group for functions which need the size of the group, like NTILE. Up to a
+ * maximum number of rows are kept in memory, the rest is written to a compressed temporary file.
+ * The rows are read back in the order in which they were added.
+ */
+public class PartitionBuffer {
+  private final IRowMeta rowMeta;
+  private final int maxRowsInMemory;
+  private final String directory;
+
+  private final List<Object[]> memory = new ArrayList<>();
+  private RowSpillFile file;
+  private boolean reading;
+
+  private int memoryIndex;
+
+  public PartitionBuffer(IRowMeta rowMeta, int maxRowsInMemory, String directory) {
+    this.rowMeta = rowMeta;
+    this.maxRowsInMemory = Math.max(maxRowsInMemory, 1);
+    this.directory = directory;
+  }
+
+  public void add(Object[] row) throws HopException {
+    if (memory.size() < maxRowsInMemory) {
+      memory.add(row);
+      return;
+    }
+    if (file == null) {
+      file = new RowSpillFile(directory, "hop-analytic-", rowMeta);
+    }
+    file.write(row);
+  }
+
+  /**
+   * @return The number of rows in the group
+   */
+  public long size() {
+    return memory.size() + (file == null ? 0 : file.getRows());
+  }
+
+  public boolean isSpilled() {
+    return file != null;
+  }
+
+  /**
+   * @return The next row in the order they were added, null once all rows are read
+   */
+  public Object[] next() throws HopException {
+    if (memoryIndex < memory.size()) {
+      Object[] row = memory.get(memoryIndex);
+      memory.set(memoryIndex++, null);
+      return row;
+    }
+    if (file == null) {
+      return null;
+    }
+    if (!reading) {
+      file.rewind();
+      reading = true;
+    }
+    return file.read();
+  }
+
+  /** Remove all rows and the temporary file, the buffer can then be used for the next group. */
+  public void clear() {
+    memory.clear();
+    memoryIndex = 0;
+    reading = false;
+    if (file != null) {
+      file.delete();
+      file = null;
+    }
+  }
+}
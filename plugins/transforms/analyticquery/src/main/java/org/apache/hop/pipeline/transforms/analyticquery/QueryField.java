@@ -27,7 +27,16 @@ public class QueryField {
   public enum AggregateType {
     NONE(""),
     LEAD(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.LEAD")),
-    LAG(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.LAG"));
+    LAG(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.LAG")),
+    ROW_NUMBER(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.ROW_NUMBER")),
+    RANK(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.RANK")),
+    DENSE_RANK(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.DENSE_RANK")),
+    NTILE(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.NTILE")),
+    SUM(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.SUM")),
+    AVG(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.AVG")),
+    MIN(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.MIN")),
+    MAX(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.MAX")),
+    COUNT(BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.COUNT"));
 
     private String description;
 
@@ -36,7 +45,32 @@ public class QueryField {
     }
 
     public static final String[] getDescriptions() {
-      return new String[] {LEAD.description, LAG.description};
+      String[] descriptions = new String[values().length - 1];
+      for (int i = 1; i < values().length; i++) {
+        descriptions[i - 1] = values()[i].description;
+      }
+      return descriptions;
+    }
+
+    /**
+     * @return true if the function reads the value of the subject field
+     */
+    public boolean isSubjectRequired() {
+      return this != ROW_NUMBER && this != NTILE && this != COUNT;
+    }
+
+    /**
+     * @return true if the value is calculated from the rows up to the current row
+     */
+    public boolean isCumulative() {
+      return this == ROW_NUMBER
+          || this == RANK
+          || this == DENSE_RANK
+          || this == SUM
+          || this == AVG
+          || this == MIN
+          || this == MAX
+          || this == COUNT;
     }
 
     public static final AggregateType findTypeWithName(String name) {
@@ -82,7 +116,11 @@ public class QueryField {
   @HopMetadataProperty(key = "type", injectionKey = "OUTPUT.AGGREGATE_TYPE")
   private AggregateType aggregateType;
 
-  /** Offset "N" of how many rows to go forward/back */
+  /**
+   * Offset "N" of how many rows to go forward/back. For SUM, AVG, MIN, MAX and COUNT the number of
+   * rows in the frame ending at the current row, 0 for all rows since the start of the group. For
+   * NTILE the number of buckets.
+   */
   // @Injection(group = "fields", name = "OUTPUT.VALUE_FIELD")
   @HopMetadataProperty(key = "valuefield", injectionKey = "OUTPUT.VALUE_FIELD")
   private int valueField;
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * ROW_NUMBER, RANK and DENSE_RANK. The rows of a group need to be sorted on the subject field: rows
+ * with the same subject value get the same rank.
+ */
+public class RankFunction implements WindowFunction {
+  private final QueryField.AggregateType type;
+  private final IValueMeta subjectMeta;
+
+  private long rowNumber;
+  private long rank;
+  private long denseRank;
+  private Object previous;
+
+  public RankFunction(QueryField.AggregateType type, IValueMeta subjectMeta) {
+    this.type = type;
+    this.subjectMeta = subjectMeta;
+  }
+
+  @Override
+  public void reset() {
+    rowNumber = 0;
+    rank = 0;
+    denseRank = 0;
+    previous = null;
+  }
+
+  @Override
+  public Object add(Object value) throws HopValueException {
+    rowNumber++;
+    if (type == QueryField.AggregateType.ROW_NUMBER) {
+      return rowNumber;
+    }
+    if (rowNumber == 1 || subjectMeta.compare(previous, value) != 0) {
+      rank = rowNumber;
+      denseRank++;
+    }
+    previous = value;
+    return type == QueryField.AggregateType.RANK ? rank : denseRank;
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * SUM, AVG and COUNT over a frame of rows ending at the current row. The total is kept up to date
+ * incrementally: the value of the new row is added and, once the frame is full, the value of the
+ * row leaving the frame is subtracted. The values in the frame are kept in a ring buffer. Without a
+ * frame size the totals simply run from the start of the group.
+ *
+ * <p>Null values are ignored, like in SQL. COUNT without a subject field counts the rows. Integers
+ * and big numbers are summed exactly, other numbers use compensated summation so the rounding
+ * errors don't add up when values leave the frame.
+ */
+public class SlidingAggregate implements WindowFunction {
+  private static final Object NOT_NULL = Boolean.TRUE;
+
+  private final QueryField.AggregateType type;
+  private final IValueMeta subjectMeta;
+  private final boolean integer;
+  private final boolean bigNumber;
+
+  /** The values in the frame, null if the frame starts at the beginning of the group */
+  private final Object[] frame;
+
+  private int position;
+  private int filled;
+
+  private long count;
+  private long longSum;
+  private double doubleSum;
+  private double compensation;
+  private BigDecimal bigSum;
+
+  public SlidingAggregate(QueryField.AggregateType type, IValueMeta subjectMeta, int frameSize) {
+    this.type = type;
+    this.subjectMeta = subjectMeta;
+    this.integer = subjectMeta != null && subjectMeta.isInteger();
+    this.bigNumber = subjectMeta != null && subjectMeta.isBigNumber();
+    this.frame = frameSize > 0 ? new Object[frameSize] : null;
+    reset();
+  }
+
+  @Override
+  public void reset() {
+    position = 0;
+    filled = 0;
+    count = 0;
+    longSum = 0;
+    doubleSum = 0;
+    compensation = 0;
+    bigSum = BigDecimal.ZERO;
+  }
+
+  @Override
+  public Object add(Object value) throws HopValueException {
+    Object entering = toNative(value);
+    if (frame != null) {
+      if (filled == frame.length) {
+        remove(frame[position]);
+      } else {
+        filled++;
+      }
+      frame[position] = entering;
+      position = (position + 1) % frame.length;
+    }
+    if (entering != null) {
+      count++;
+      if (type != QueryField.AggregateType.COUNT) {
+        if (integer) {
+          longSum += (Long) entering;
+        } else if (bigNumber) {
+          bigSum = bigSum.add((BigDecimal) entering);
+        } else {
+          addDouble((Double) entering);
+        }
+      }
+    }
+    return getResult();
+  }
+
+  private Object toNative(Object value) throws HopValueException {
+    if (subjectMeta == null) {
+      return NOT_NULL;
+    }
+    if (subjectMeta.isNull(value)) {
+      return null;
+    }
+    if (type == QueryField.AggregateType.COUNT) {
+      return NOT_NULL;
+    }
+    if (integer) {
+      return subjectMeta.getInteger(value);
+    }
+    if (bigNumber) {
+      return subjectMeta.getBigNumber(value);
+    }
+    return subjectMeta.getNumber(value);
+  }
+
+  private void remove(Object leaving) {
+    if (leaving == null) {
+      return;
+    }
+    count--;
+    if (type != QueryField.AggregateType.COUNT) {
+      if (integer) {
+        longSum -= (Long) leaving;
+      } else if (bigNumber) {
+        bigSum = bigSum.subtract((BigDecimal) leaving);
+      } else {
+        addDouble(-(Double) leaving);
+      }
+    }
+  }
+
+  /** Kahan summation: keep track of the low-order bits lost in every addition. */
+  private void addDouble(double value) {
+    double y = value - compensation;
+    double t = doubleSum + y;
+    compensation = (t - doubleSum) - y;
+    doubleSum = t;
+  }
+
+  private Object getResult() {
+    if (type == QueryField.AggregateType.COUNT) {
+      return count;
+    }
+    if (count == 0) {
+      return null;
+    }
+    if (type == QueryField.AggregateType.SUM) {
+      if (integer) {
+        return longSum;
+      }
+      return bigNumber ? bigSum : (Object) doubleSum;
+    }
+    // AVG
+    //
+    if (bigNumber) {
+      return bigSum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128);
+    }
+    return integer ? (double) longSum / count : doubleSum / count;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import java.util.Arrays;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * MIN and MAX over a frame of rows ending at the current row, using a monotonic deque. The deque
+ * only holds the rows which can still become the extreme of a later frame: a value is dropped as
+ * soon as a newer, better value arrives. The front of the deque is the extreme of the current
+ * frame, so every row costs amortized constant time whatever the frame size. Null values are
+ * ignored.
+ */
+public class SlidingExtreme implements WindowFunction {
+  private final boolean minimum;
+  private final IValueMeta subjectMeta;
+  private final int frameSize;
+
+  /** Circular deque of row numbers and values, at most frameSize entries */
+  private final long[] rowNumbers;
+
+  private final Object[] values;
+  private int head;
+  private int size;
+
+  private long rowNumber;
+
+  /** The extreme since the start of the group when there is no frame size */
+  private Object extreme;
+
+  public SlidingExtreme(boolean minimum, IValueMeta subjectMeta, int frameSize) {
+    this.minimum = minimum;
+    this.subjectMeta = subjectMeta;
+    this.frameSize = frameSize;
+    this.rowNumbers = frameSize > 0 ? new long[frameSize] : null;
+    this.values = frameSize > 0 ? new Object[frameSize] : null;
+  }
+
+  @Override
+  public void reset() {
+    head = 0;
+    size = 0;
+    rowNumber = 0;
+    extreme = null;
+    if (values != null) {
+      Arrays.fill(values, null);
+    }
+  }
+
+  @Override
+  public Object add(Object value) throws HopValueException {
+    rowNumber++;
+    boolean isNull = subjectMeta.isNull(value);
+
+    if (frameSize == 0) {
+      if (!isNull && (extreme == null || isBetterOrEqual(value, extreme))) {
+        extreme = value;
+      }
+      return extreme;
+    }
+
+    // Drop the values which left the frame from the front
+    //
+    while (size > 0 && rowNumbers[head] <= rowNumber - frameSize) {
+      values[head] = null;
+      head = (head + 1) % frameSize;
+      size--;
+    }
+
+    if (!isNull) {
+      // Drop the values from the back which can never be the extreme again
+      //
+      while (size > 0) {
+        int last = (head + size - 1) % frameSize;
+        if (!isBetterOrEqual(value, values[last])) {
+          break;
+        }
+        values[last] = null;
+        size--;
+      }
+      int tail = (head + size) % frameSize;
+      rowNumbers[tail] = rowNumber;
+      values[tail] = value;
+      size++;
+    }
+
+    return size == 0 ? null : values[head];
+  }
+
+  private boolean isBetterOrEqual(Object value, Object other) throws HopValueException {
+    int compare = subjectMeta.compare(value, other);
+    return minimum ? compare <= 0 : compare >= 0;
+  }
+}
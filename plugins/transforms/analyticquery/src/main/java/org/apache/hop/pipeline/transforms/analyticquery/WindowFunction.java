@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * A window function which is calculated incrementally: every row of a group is passed in order and
+ * the value for that row is returned right away, using only the rows up to and including it.
+ */
+public interface WindowFunction {
+
+  /** Forget all rows, called at the start of every group. */
+  void reset();
+
+  /**
+   * Add the next row of the group.
+   *
+   * @param value The value of the subject field in the row, null if there is no subject
+   * @return The value of the function for this row
+   * @throws HopValueException In case the value can't be converted or compared
+   */
+  Object add(Object value) throws HopValueException;
+
+  /**
+   * Create the function to calculate a query field.
+   *
+   * @param queryField The query field
+   * @param subjectMeta The metadata of the subject field, null if there is none
+   * @return The function or null if the field isn't calculated incrementally (LEAD, LAG, NTILE)
+   */
+  static WindowFunction create(QueryField queryField, IValueMeta subjectMeta) {
+    int frameSize = Math.max(queryField.getValueField(), 0);
+    switch (queryField.getAggregateType()) {
+      case ROW_NUMBER:
+      case RANK:
+      case DENSE_RANK:
+        return new RankFunction(queryField.getAggregateType(), subjectMeta);
+      case SUM:
+      case AVG:
+      case COUNT:
+        return new SlidingAggregate(queryField.getAggregateType(), subjectMeta, frameSize);
+      case MIN:
+      case MAX:
+        return new SlidingExtreme(
+            queryField.getAggregateType() == QueryField.AggregateType.MIN, subjectMeta, frameSize);
+      default:
+        return null;
+    }
+  }
+}
@@ -33,6 +33,8 @@ public class AnalyticQueryMetaInjectionTest extends BaseMetadataInjectionTest<An
 
   @Test
   public void test() throws Exception {
+    check("MAX_ROWS_IN_MEMORY", () -> meta.getMaxRowsInMemory());
+    check("SPILL_DIRECTORY", () -> meta.getSpillDirectory());
     check("GROUP_FIELDS", () -> meta.getGroupFields().get(0).getFieldName());
     check("OUTPUT.AGGREGATE_FIELD", () -> meta.getQueryFields().get(0).getAggregateField());
     check("OUTPUT.SUBJECT_FIELD", () -> meta.getQueryFields().get(0).getSubjectField());
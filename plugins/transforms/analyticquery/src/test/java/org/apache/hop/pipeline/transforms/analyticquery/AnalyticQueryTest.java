@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.nullable;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnalyticQueryTest {
+  // Sorted on the group and the value
+  private static final Object[][] ROWS = {
+    {"a", 10L}, {"a", 20L}, {"a", 20L}, {"a", 30L}, {"a", 40L}, {"b", 5L}, {"b", 5L}, {"c", 1L}
+  };
+
+  private TransformMockHelper<AnalyticQueryMeta, AnalyticQueryData> smh;
+  private File spillDirectory;
+
+  @Before
+  public void setUp() throws Exception {
+    smh =
+        new TransformMockHelper<>(
+            "AnalyticQuery", AnalyticQueryMeta.class, AnalyticQueryData.class);
+    when(smh.logChannelFactory.create(any(), nullable(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+
+    spillDirectory = Files.createTempDirectory("analyticquery").toFile();
+  }
+
+  @After
+  public void cleanUp() {
+    smh.cleanUp();
+    File[] files = spillDirectory.listFiles();
+    assertEquals("Temporary files are left behind", 0, files == null ? 0 : files.length);
+    spillDirectory.delete();
+  }
+
+  @Test
+  public void testWindowFunctions() throws Exception {
+    List<String> expected =
+        Arrays.asList(
+            // group, value, lag, lead, row number, rank, dense rank, running sum, sliding max,
+            // ntile
+            "a;10;null;20;1;1;1;10;10;1;",
+            "a;20;10;20;2;2;2;30;20;1;",
+            "a;20;20;30;3;2;2;50;20;2;",
+            "a;30;20;40;4;4;3;80;30;2;",
+            "a;40;30;null;5;5;4;120;40;3;",
+            "b;5;null;5;1;1;1;5;5;1;",
+            "b;5;5;null;2;1;1;10;5;2;",
+            "c;1;null;null;1;1;1;1;1;1;");
+
+    // Keep the groups in memory and spill all but the first row of a group
+    //
+    assertEquals(expected, analyticQuery("100000"));
+    assertEquals(expected, analyticQuery("1"));
+  }
+
+  @Test
+  public void testBuckets() {
+    // 10 rows in 3 buckets: 4, 3, 3
+    long[] expected = {1, 1, 1, 1, 2, 2, 2, 3, 3, 3};
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], AnalyticQuery.getBucket(i, 10, 3));
+    }
+    // More buckets than rows
+    assertEquals(1, AnalyticQuery.getBucket(0, 2, 5));
+    assertEquals(2, AnalyticQuery.getBucket(1, 2, 5));
+  }
+
+  private List<String> analyticQuery(String maxRowsInMemory) throws Exception {
+    AnalyticQueryMeta meta = new AnalyticQueryMeta();
+    meta.setMaxRowsInMemory(maxRowsInMemory);
+    meta.setSpillDirectory(spillDirectory.getAbsolutePath());
+    meta.getGroupFields().add(new GroupField("group"));
+    meta.getQueryFields()
+        .addAll(
+            Arrays.asList(
+                new QueryField("lag", "value", QueryField.AggregateType.LAG, 1),
+                new QueryField("lead", "value", QueryField.AggregateType.LEAD, 1),
+                new QueryField("row_number", null, QueryField.AggregateType.ROW_NUMBER, 0),
+                new QueryField("rank", "value", QueryField.AggregateType.RANK, 0),
+                new QueryField("dense_rank", "value", QueryField.AggregateType.DENSE_RANK, 0),
+                new QueryField("sum", "value", QueryField.AggregateType.SUM, 0),
+                new QueryField("max", "value", QueryField.AggregateType.MAX, 2),
+                new QueryField("ntile", null, QueryField.AggregateType.NTILE, 3)));
+
+    AnalyticQuery transform =
+        new AnalyticQuery(
+            smh.transformMeta, meta, new AnalyticQueryData(), 0, smh.pipelineMeta, smh.pipeline);
+    transform.init();
+    transform.addRowSetToInputRowSets(createRowSet());
+    IRowSet output = new QueueRowSet();
+    transform.addRowSetToOutputRowSets(output);
+
+    while (transform.processRow()) {
+      // Keep going
+    }
+    transform.dispose();
+
+    List<String> result = new ArrayList<>();
+    Object[] row;
+    while ((row = output.getRowImmediate()) != null) {
+      StringBuilder line = new StringBuilder();
+      for (int i = 0; i < output.getRowMeta().size(); i++) {
+        line.append(row[i]).append(';');
+      }
+      result.add(line.toString());
+    }
+    return result;
+  }
+
+  private IRowSet createRowSet() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("group"));
+    rowMeta.addValueMeta(new ValueMetaInteger("value"));
+
+    IRowSet rowSet = new QueueRowSet();
+    for (Object[] row : ROWS) {
+      rowSet.putRow(rowMeta, row.clone());
+    }
+    rowSet.setDone();
+    return rowSet;
+  }
+}
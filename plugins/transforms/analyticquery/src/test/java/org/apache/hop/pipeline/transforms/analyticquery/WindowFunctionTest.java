@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.junit.Test;
+
+public class WindowFunctionTest {
+
+  private static WindowFunction create(
+      QueryField.AggregateType type, IValueMeta subjectMeta, int n) {
+    return WindowFunction.create(new QueryField("result", "subject", type, n), subjectMeta);
+  }
+
+  @Test
+  public void testRanks() throws Exception {
+    IValueMeta subjectMeta = new ValueMetaInteger("subject");
+    Long[] values = {1L, 1L, 2L, 3L, 3L, 3L, 7L};
+    long[] rowNumbers = {1, 2, 3, 4, 5, 6, 7};
+    long[] ranks = {1, 1, 3, 4, 4, 4, 7};
+    long[] denseRanks = {1, 1, 2, 3, 3, 3, 4};
+
+    WindowFunction rowNumber = create(QueryField.AggregateType.ROW_NUMBER, subjectMeta, 0);
+    WindowFunction rank = create(QueryField.AggregateType.RANK, subjectMeta, 0);
+    WindowFunction denseRank = create(QueryField.AggregateType.DENSE_RANK, subjectMeta, 0);
+    for (int pass = 0; pass < 2; pass++) {
+      for (int i = 0; i < values.length; i++) {
+        assertEquals(rowNumbers[i], rowNumber.add(values[i]));
+        assertEquals(ranks[i], rank.add(values[i]));
+        assertEquals(denseRanks[i], denseRank.add(values[i]));
+      }
+      // A new group starts over
+      rowNumber.reset();
+      rank.reset();
+      denseRank.reset();
+    }
+  }
+
+  @Test
+  public void testSlidingIntegerAggregates() throws Exception {
+    IValueMeta subjectMeta = new ValueMetaInteger("subject");
+    Random random = new Random(42);
+    Long[] values = new Long[200];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(10) == 0 ? null : (long) random.nextInt(1000) - 500;
+    }
+
+    for (int n : new int[] {0, 1, 3, 10}) {
+      WindowFunction sum = create(QueryField.AggregateType.SUM, subjectMeta, n);
+      WindowFunction avg = create(QueryField.AggregateType.AVG, subjectMeta, n);
+      WindowFunction count = create(QueryField.AggregateType.COUNT, subjectMeta, n);
+      WindowFunction min = create(QueryField.AggregateType.MIN, subjectMeta, n);
+      WindowFunction max = create(QueryField.AggregateType.MAX, subjectMeta, n);
+
+      for (int i = 0; i < values.length; i++) {
+        // Brute force over the frame ending at this row
+        //
+        long expectedSum = 0;
+        long expectedCount = 0;
+        Long expectedMin = null;
+        Long expectedMax = null;
+        for (int k = n == 0 ? 0 : Math.max(0, i - n + 1); k <= i; k++) {
+          if (values[k] != null) {
+            expectedSum += values[k];
+            expectedCount++;
+            expectedMin = expectedMin == null ? values[k] : Math.min(expectedMin, values[k]);
+            expectedMax = expectedMax == null ? values[k] : Math.max(expectedMax, values[k]);
+          }
+        }
+
+        String message = "N=" + n + ", row " + i;
+        Object sumValue = sum.add(values[i]);
+        Object avgValue = avg.add(values[i]);
+        assertEquals(message, expectedCount, count.add(values[i]));
+        assertEquals(message, expectedMin, min.add(values[i]));
+        assertEquals(message, expectedMax, max.add(values[i]));
+        if (expectedCount == 0) {
+          assertNull(message, sumValue);
+          assertNull(message, avgValue);
+        } else {
+          assertEquals(message, expectedSum, sumValue);
+          assertEquals(message, (double) expectedSum / expectedCount, (Double) avgValue, 1e-9);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCountRows() throws Exception {
+    WindowFunction count =
+        WindowFunction.create(
+            new QueryField("result", null, QueryField.AggregateType.COUNT, 2), null);
+    assertEquals(1L, count.add(null));
+    assertEquals(2L, count.add(null));
+    assertEquals(2L, count.add(null));
+    count.reset();
+    assertEquals(1L, count.add(null));
+  }
+
+  @Test
+  public void testCompensatedNumberSum() throws Exception {
+    WindowFunction sum = create(QueryField.AggregateType.SUM, new ValueMetaNumber("subject"), 0);
+    Object result = null;
+    for (int i = 0; i < 10; i++) {
+      result = sum.add(0.1);
+    }
+    // A naive double sum gives 0.9999999999999999
+    assertEquals(1.0, result);
+  }
+
+  @Test
+  public void testBigNumberAggregates() throws Exception {
+    IValueMeta subjectMeta = new ValueMetaBigNumber("subject");
+    WindowFunction sum = create(QueryField.AggregateType.SUM, subjectMeta, 2);
+    WindowFunction avg = create(QueryField.AggregateType.AVG, subjectMeta, 2);
+
+    BigDecimal[] values = {
+      new BigDecimal("0.1"), new BigDecimal("0.2"), new BigDecimal("0.3"), new BigDecimal("0.4")
+    };
+    String[] sums = {"0.1", "0.3", "0.5", "0.7"};
+    String[] averages = {"0.1", "0.15", "0.25", "0.35"};
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(0, new BigDecimal(sums[i]).compareTo((BigDecimal) sum.add(values[i])));
+      assertEquals(0, new BigDecimal(averages[i]).compareTo((BigDecimal) avg.add(values[i])));
+    }
+  }
+}
@@ -212,4 +212,9 @@ public class CalculatorMeta extends BaseTransformMeta<Calculator, CalculatorData
   public void setFailIfNoFile(boolean failIfNoFile) {
     this.failIfNoFile = failIfNoFile;
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.combinationlookup;
+
+import java.util.Arrays;
+import org.apache.commons.collections4.map.LRUMap;
+
+/**
+ * The technical key cache of the combination lookup. The keys are the serialized key field values
+ * of a combination. When the cache is full, the least recently used combination is removed in
+ * constant time.
+ */
+public class CombinationCache extends LRUMap<byte[], Long> {
+
+  private static final int DEFAULT_INITIAL_SIZE = 5000;
+
+  private long hits;
+  private long misses;
+
+  /**
+   * @param maxSize the maximum number of combinations to keep in the cache or 0 to keep all
+   *     combinations.
+   */
+  public CombinationCache(int maxSize) {
+    super(
+        maxSize > 0 ? maxSize : Integer.MAX_VALUE,
+        maxSize > 0 ? Math.min(maxSize, DEFAULT_INITIAL_SIZE) : DEFAULT_INITIAL_SIZE);
+  }
+
+  /**
+   * Look up the technical key of a combination and count the cache hit or miss.
+   *
+   * @param key the serialized key field values
+   * @return the technical key or null if the combination isn't in the cache
+   */
+  public Long lookup(byte[] key) {
+    Long technicalKey = get(key);
+    if (technicalKey == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return technicalKey;
+  }
+
+  @Override
+  protected int hash(Object key) {
+    return Arrays.hashCode((byte[]) key);
+  }
+
+  @Override
+  protected boolean isEqualKey(Object key1, Object key2) {
+    return Arrays.equals((byte[]) key1, (byte[]) key2);
+  }
+
+  /**
+   * Gets hits
+   *
+   * @return value of hits
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Gets misses
+   *
+   * @return value of misses
+   */
+  public long getMisses() {
+    return misses;
+  }
+}
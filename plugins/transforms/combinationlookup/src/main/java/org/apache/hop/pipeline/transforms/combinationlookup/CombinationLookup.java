@@ -20,13 +20,10 @@ package org.apache.hop.pipeline.transforms.combinationlookup;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import org.apache.hop.core.Const;
-import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopConfigException;
@@ -34,6 +31,8 @@ import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.logging.Metrics;
+import org.apache.hop.core.metrics.MetricsSnapshotType;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
@@ -71,6 +70,12 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
   private static final int CREATION_METHOD_SEQUENCE = 2;
   private static final int CREATION_METHOD_TABLEMAX = 3;
 
+  public static final Metrics METRIC_CACHE_HITS =
+      new Metrics(MetricsSnapshotType.SUM, "METRIC_COMBINATION_LOOKUP_CACHE_HITS", "Cache hits");
+  public static final Metrics METRIC_CACHE_MISSES =
+      new Metrics(
+          MetricsSnapshotType.SUM, "METRIC_COMBINATION_LOOKUP_CACHE_MISSES", "Cache misses");
+
   private int techKeyCreation;
 
   public CombinationLookup(
@@ -104,105 +109,57 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     }
   }
 
-  private Long lookupInCache(IRowMeta rowMeta, Object[] row) {
+  /**
+   * Serialize the key field values of a combination into a cache key.
+   *
+   * @param rowMeta The metadata of the key values
+   * @param row The key values
+   * @return the cache key
+   * @throws HopValueException in case a value can't be converted or serialized
+   */
+  private byte[] getCacheKey(IRowMeta rowMeta, Object[] row) throws HopValueException {
+    Object[] keyValues = new Object[data.cacheKeyRowMeta.size()];
+    for (int i = 0; i < keyValues.length; i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(i);
+      IValueMeta keyValueMeta = data.cacheKeyRowMeta.getValueMeta(i);
+      if (valueMeta.getType() == keyValueMeta.getType() && !valueMeta.isStorageBinaryString()) {
+        keyValues[i] = row[i];
+      } else {
+        keyValues[i] = keyValueMeta.convertData(valueMeta, row[i]);
+      }
+    }
+    return RowMeta.extractData(data.cacheKeyRowMeta, keyValues);
+  }
+
+  private Long lookupInCache(byte[] cacheKey) {
     // Short circuit if cache is disabled.
-    if (meta.getCacheSize() == -1) {
+    if (cacheKey == null) {
       return null;
     }
 
     // try to find the row in the cache...
     //
-    return data.cache.get(new RowMetaAndData(rowMeta, row));
+    return data.cache.lookup(cacheKey);
   }
 
   /**
-   * Adds a row to the cache In case we are doing updates, we need to store the complete rows from
-   * the database. These are the values we need to store
+   * Adds a combination to the cache. When the cache is full, the least recently used combination is
+   * removed from it.
    *
-   * <p>Key: - natural key fields Value: - Technical key - lookup fields / extra fields (allows us
-   * to compare or retrieve) - Date_from - Date_to
-   *
-   * @param rowMeta
-   * @param row
-   * @param tk
-   * @throws HopValueException
+   * @param cacheKey The serialized key values of the combination
+   * @param tk The technical key of the combination
    */
-  private void addToCache(IRowMeta rowMeta, Object[] row, Long tk) throws HopValueException {
+  private void addToCache(byte[] cacheKey, Long tk) {
     // Short circuit if cache is disabled.
-    if (meta.getCacheSize() == -1) {
+    if (cacheKey == null) {
       return;
     }
 
     // store it in the cache if needed.
-    data.cache.put(new RowMetaAndData(rowMeta, row), tk);
-
-    // check if the size is not too big...
-    // Allow for a buffer overrun of 20% and then remove those 20% in one go.
-    // Just to keep performance in track.
-    //
-    int tenPercent = meta.getCacheSize() / 10;
-    if (meta.getCacheSize() > 0 && data.cache.size() > meta.getCacheSize() + tenPercent) {
-      // Which cache entries do we delete here?
-      // We delete those with the lowest technical key...
-      // Those would arguably be the "oldest" dimension entries.
-      // Oh well... Nothing is going to be perfect here...
-      //
-      // Getting the lowest 20% requires some kind of sorting algorithm and I'm not sure we want to
-      // do that.
-      // Sorting is slow and even in the best case situation we need to do 2 passes over the cache
-      // entries...
-      //
-      // Perhaps we should get 20% random values and delete everything below the lowest but one TK.
-      //
-      List<RowMetaAndData> keys = new ArrayList<>(data.cache.keySet());
-      int sizeBefore = keys.size();
-      List<Long> samples = new ArrayList<>();
-
-      // Take 10 sample technical keys....
-      int transformsize = keys.size() / 5;
-      if (transformsize < 1) {
-        transformsize = 1; // make sure we have no endless loop
-      }
-      for (int i = 0; i < keys.size(); i += transformsize) {
-        RowMetaAndData key = keys.get(i);
-        Long value = data.cache.get(key);
-        if (value != null) {
-          samples.add(value);
-        }
-      }
-      // Sort these 5 elements...
-      Collections.sort(samples);
-
-      // What is the smallest?
-      // Take the second, not the fist in the list, otherwise we would be removing a single entry =
-      // not good.
-      if (samples.size() > 1) {
-        data.smallestCacheKey = samples.get(1).longValue();
-      } else { // except when there is only one sample
-        data.smallestCacheKey = samples.get(0).longValue();
-      }
-
-      // Remove anything in the cache <= smallest.
-      // This makes it almost single pass...
-      // This algorithm is not 100% correct, but I guess it beats sorting the whole cache all the
-      // time.
-      //
-      for (int i = 0; i < keys.size(); i++) {
-        RowMetaAndData key = keys.get(i);
-        Long value = data.cache.get(key);
-        if (value != null) {
-          if (value.longValue() <= data.smallestCacheKey) {
-            data.cache.remove(key); // this one has to go.
-          }
-        }
-      }
-
-      int sizeAfter = data.cache.size();
-      logDetailed("Reduced the lookup cache from " + sizeBefore + " to " + sizeAfter + " rows.");
-    }
+    data.cache.put(cacheKey, tk);
 
     if (isRowLevel()) {
-      logRowlevel("Cache store: key=" + rowMeta.getString(row) + "    key=" + tk);
+      logRowlevel("Cache store: key=" + Arrays.toString(cacheKey) + "    key=" + tk);
     }
   }
 
@@ -254,7 +211,8 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     }
 
     // Before doing the actual lookup in the database, see if it's not in the cache...
-    valKey = lookupInCache(data.hashRowMeta, hashRow);
+    byte[] cacheKey = data.cache != null ? getCacheKey(data.hashRowMeta, hashRow) : null;
+    valKey = lookupInCache(cacheKey);
     if (valKey == null) {
       data.db.setValues(data.lookupRowMeta, lookupRow, data.prepStatementLookup);
       Object[] add = data.db.getLookup(data.prepStatementLookup);
@@ -297,7 +255,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
         }
 
         // Also store it in our Hashtable...
-        addToCache(data.hashRowMeta, hashRow, valKey);
+        addToCache(cacheKey, valKey);
       } else {
         // Entry already exists...
         //
@@ -305,7 +263,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
             data.db
                 .getReturnRowMeta()
                 .getInteger(add, 0); // Sometimes it's not an integer, believe it or not.
-        addToCache(data.hashRowMeta, hashRow, valKey);
+        addToCache(cacheKey, valKey);
       }
     }
 
@@ -391,6 +349,18 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
         data.hashRowMeta.addValueMeta(getInputRowMeta().getValueMeta(data.keynrs[i])); // KEYi = ?
       }
 
+      // The cache keys are the serialized key values in normal storage.
+      //
+      if (meta.getCacheSize() >= 0) {
+        data.cacheKeyRowMeta = new RowMeta();
+        for (IValueMeta valueMeta : data.hashRowMeta.getValueMetaList()) {
+          IValueMeta keyValueMeta = valueMeta.clone();
+          keyValueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+          data.cacheKeyRowMeta.addValueMeta(keyValueMeta);
+        }
+        data.cache = new CombinationCache(meta.getCacheSize());
+      }
+
       setCombiLookup(getInputRowMeta());
       preloadCache(data.hashRowMeta);
     }
@@ -705,11 +675,6 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       data.realSchemaName = resolve(meta.getSchemaName());
       data.realTableName = resolve(meta.getTableName());
 
-      if (meta.getCacheSize() > 0) {
-        data.cache = new HashMap<>((int) (meta.getCacheSize() * 1.5));
-      } else {
-        data.cache = new HashMap<>();
-      }
       if (meta.getDatabaseMeta() == null) {
         logError(
             BaseMessages.getString(
@@ -737,6 +702,20 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
 
   @Override
   public void dispose() {
+    if (data.cache != null) {
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "CombinationLookup.Log.CacheStatistics",
+                Long.toString(data.cache.getHits()),
+                Long.toString(data.cache.getMisses()),
+                Integer.toString(data.cache.size())));
+      }
+      getLogChannel().snap(METRIC_CACHE_HITS, data.cache.getHits());
+      getLogChannel().snap(METRIC_CACHE_MISSES, data.cache.getMisses());
+    }
+
     if (data.db != null) {
       try {
         if (!data.db.isAutoCommit()) {
@@ -832,13 +811,18 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
         logDebug("Using preload cache statement:" + Const.CR + sql);
       }
       cacheValues = data.db.getRows(databaseMeta.stripCR(sql), meta.getCacheSize());
+      IRowMeta cacheRowMeta = data.db.getReturnRowMeta();
+      IRowMeta keyRowMeta = new RowMeta();
+      for (int i = 1; i < cacheRowMeta.size(); i++) {
+        keyRowMeta.addValueMeta(cacheRowMeta.getValueMeta(i));
+      }
       for (Object[] cacheRow : cacheValues) {
         // Create a correctly structured array for the cache
         Object[] hashRow = new Object[data.hashRowMeta.size()];
         // Assumes the technical key is at position 0 !!
         System.arraycopy(cacheRow, 1, hashRow, 0, hashRow.length);
-        // Potential Cache Overflow is ahndled inside
-        addToCache(hashRowMeta, hashRow, (Long) cacheRow[0]);
+        // The least recently used entries are removed if the cache is full
+        addToCache(getCacheKey(keyRowMeta, hashRow), cacheRowMeta.getInteger(cacheRow, 0));
         incrementLinesInput();
       }
     }
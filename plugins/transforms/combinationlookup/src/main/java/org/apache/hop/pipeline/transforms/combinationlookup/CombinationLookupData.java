@@ -18,8 +18,6 @@
 package org.apache.hop.pipeline.transforms.combinationlookup;
 
 import java.sql.PreparedStatement;
-import java.util.Map;
-import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
@@ -29,7 +27,10 @@ public class CombinationLookupData extends BaseTransformData implements ITransfo
   public Database db;
   public int[] keynrs; // nrs in row of the keys
 
-  public Map<RowMetaAndData, Long> cache;
+  public CombinationCache cache;
+
+  /** The key fields in normal storage, used to serialize the cache keys */
+  public IRowMeta cacheKeyRowMeta;
 
   public IRowMeta outputRowMeta;
   public IRowMeta lookupRowMeta;
@@ -43,7 +44,6 @@ public class CombinationLookupData extends BaseTransformData implements ITransfo
 
   public PreparedStatement prepStatementLookup;
   public PreparedStatement prepStatementInsert;
-  public long smallestCacheKey;
 
   /** Default Constructor */
   public CombinationLookupData() {
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.combinationlookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class CombinationCacheTest {
+
+  @Test
+  public void testKeysAreComparedByValue() {
+    CombinationCache cache = new CombinationCache(10);
+    cache.put(new byte[] {1, 2, 3}, 42L);
+
+    assertEquals(Long.valueOf(42L), cache.lookup(new byte[] {1, 2, 3}));
+    assertNull(cache.lookup(new byte[] {1, 2, 4}));
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    CombinationCache cache = new CombinationCache(2);
+    cache.put(new byte[] {1}, 1L);
+    cache.put(new byte[] {2}, 2L);
+
+    // Use the first entry so that the second one is the least recently used
+    cache.lookup(new byte[] {1});
+    cache.put(new byte[] {3}, 3L);
+
+    assertEquals(2, cache.size());
+    assertEquals(Long.valueOf(1L), cache.lookup(new byte[] {1}));
+    assertNull(cache.lookup(new byte[] {2}));
+    assertEquals(Long.valueOf(3L), cache.lookup(new byte[] {3}));
+  }
+
+  @Test
+  public void testUnlimitedCache() {
+    CombinationCache cache = new CombinationCache(0);
+    for (int i = 0; i < 10000; i++) {
+      cache.put(new byte[] {(byte) i, (byte) (i >> 8)}, (long) i);
+    }
+    assertEquals(10000, cache.size());
+  }
+}
@@ -17,15 +17,19 @@
 
 package org.apache.hop.pipeline.transforms.delete;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseBatchLookup;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
@@ -89,6 +93,9 @@ public class Delete extends BaseTransform<DeleteMeta, DeleteData> {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (!flushBatch()) {
+        return false;
+      }
 
       setOutputDone();
       return false;
@@ -148,6 +155,15 @@ public class Delete extends BaseTransform<DeleteMeta, DeleteData> {
       }
 
       prepareDelete(getInputRowMeta());
+      prepareBatchDelete(getInputRowMeta());
+    }
+
+    if (data.batchBuffer != null) {
+      data.batchBuffer.add(r);
+      if (data.batchBuffer.size() >= data.deleteBatchSize) {
+        return flushBatch();
+      }
+      return true;
     }
 
     try {
@@ -181,6 +197,146 @@ public class Delete extends BaseTransform<DeleteMeta, DeleteData> {
     return true;
   }
 
+  /**
+   * Delete all buffered rows with a single statement and pass them on.
+   *
+   * @return false if the transform had to stop because of an error
+   */
+  private boolean flushBatch() throws HopException {
+    if (data.batchBuffer == null || data.batchBuffer.isEmpty()) {
+      return true;
+    }
+    List<Object[]> rows = new ArrayList<>(data.batchBuffer);
+    data.batchBuffer.clear();
+
+    try {
+      PreparedStatement ps;
+      IRowMeta parameterRowMeta;
+      if (rows.size() == data.deleteBatchSize) {
+        ps = data.prepStatementBatchDelete;
+        parameterRowMeta = data.batchParameterRowMeta;
+      } else {
+        ps = prepareBatchDeleteStatement(rows.size());
+        parameterRowMeta = getBatchParameterRowMeta(rows.size());
+      }
+
+      Object[] parameters = new Object[parameterRowMeta.size()];
+      int index = 0;
+      for (Object[] row : rows) {
+        for (int keynr : data.keynrs) {
+          parameters[index++] = row[keynr];
+        }
+      }
+      data.db.setValues(parameterRowMeta, parameters, ps);
+
+      if (log.isDebug()) {
+        logDebug(
+            BaseMessages.getString(
+                PKG,
+                "Delete.Log.SetValuesForBatchDelete",
+                parameterRowMeta.getString(parameters),
+                Integer.toString(rows.size())));
+      }
+
+      try {
+        data.db.insertRow(ps);
+      } finally {
+        if (ps != data.prepStatementBatchDelete) {
+          data.db.closePreparedStatement(ps);
+        }
+      }
+    } catch (HopException e) {
+      if (getTransformMeta().isDoingErrorHandling()) {
+        // The whole statement failed, so we can't tell which row caused it
+        for (Object[] row : rows) {
+          putError(getInputRowMeta(), row, 1, e.toString(), null, "DEL001");
+        }
+        return true;
+      }
+      logError(BaseMessages.getString(PKG, "Delete.Log.ErrorInTransform") + e.getMessage());
+      setErrors(1);
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+
+    for (Object[] row : rows) {
+      incrementLinesUpdated();
+      putRow(data.outputRowMeta, row);
+    }
+    if (checkFeedback(getLinesRead()) && log.isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "Delete.Log.LineNumber") + getLinesRead());
+    }
+    return true;
+  }
+
+  /**
+   * Set up batched deletes if a delete batch size is configured and all keys are compared on
+   * equality. Rows are then deleted with a single statement matching any of the keys in the batch.
+   */
+  private void prepareBatchDelete(IRowMeta rowMeta) throws HopDatabaseException {
+    int batchSize = Const.toInt(resolve(meta.getDeleteBatchSize()), 0);
+    if (batchSize <= 1) {
+      return;
+    }
+    for (DeleteKeyField keyField : meta.getLookup().getFields()) {
+      if (!"=".equals(Const.trim(keyField.getKeyCondition()))) {
+        logBasic(
+            BaseMessages.getString(
+                PKG, "Delete.Log.BatchDeleteDisabled", keyField.getKeyCondition()));
+        return;
+      }
+    }
+
+    // Keep the number of parameters per statement within what drivers generally accept
+    data.deleteBatchSize =
+        Math.min(
+            batchSize,
+            DatabaseBatchLookup.MAX_PARAMETERS_PER_QUERY / Math.max(1, data.keynrs.length));
+    data.prepStatementBatchDelete = prepareBatchDeleteStatement(data.deleteBatchSize);
+    data.batchParameterRowMeta = getBatchParameterRowMeta(data.deleteBatchSize);
+    data.batchBuffer = new ArrayList<>(data.deleteBatchSize);
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "Delete.Log.BatchDeleteEnabled", data.deleteBatchSize));
+    }
+  }
+
+  private PreparedStatement prepareBatchDeleteStatement(int nrRows) throws HopDatabaseException {
+    DatabaseMeta databaseMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
+    List<DeleteKeyField> keyFields = meta.getLookup().getFields();
+    String[] keyColumns = new String[keyFields.size()];
+    for (int i = 0; i < keyColumns.length; i++) {
+      keyColumns[i] = keyFields.get(i).getKeyLookup();
+    }
+
+    String sql =
+        "DELETE FROM "
+            + data.schemaTable
+            + Const.CR
+            + "WHERE "
+            + DatabaseBatchLookup.getKeyCondition(databaseMeta, keyColumns, nrRows);
+    try {
+      if (log.isDetailed()) {
+        logDetailed("Setting batch delete preparedStatement to [" + sql + "]");
+      }
+      return data.db.getConnection().prepareStatement(databaseMeta.stripCR(sql));
+    } catch (SQLException ex) {
+      throw new HopDatabaseException(
+          "Unable to prepare statement for SQL statement [" + sql + "]", ex);
+    }
+  }
+
+  private IRowMeta getBatchParameterRowMeta(int nrRows) {
+    IRowMeta parameterRowMeta = new RowMeta();
+    for (int i = 0; i < nrRows; i++) {
+      for (IValueMeta valueMeta : data.deleteParameterRowMeta.getValueMetaList()) {
+        parameterRowMeta.addValueMeta(valueMeta.clone());
+      }
+    }
+    return parameterRowMeta;
+  }
+
   // Lookup certain fields in a table
   public void prepareDelete(IRowMeta rowMeta) throws HopDatabaseException {
     DatabaseMeta databaseMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
@@ -260,6 +416,7 @@ public class Delete extends BaseTransform<DeleteMeta, DeleteData> {
 
   @Override
   public void batchComplete() throws HopException {
+    flushBatch();
     commitBatch(false);
   }
 
@@ -279,7 +436,13 @@ public class Delete extends BaseTransform<DeleteMeta, DeleteData> {
             data.db.rollback();
           }
         }
-        if (dispose) data.db.closeUpdate();
+        if (dispose) {
+          if (data.prepStatementBatchDelete != null) {
+            data.db.closePreparedStatement(data.prepStatementBatchDelete);
+            data.prepStatementBatchDelete = null;
+          }
+          data.db.closeUpdate();
+        }
       } catch (HopDatabaseException e) {
         logError(
             BaseMessages.getString(PKG, "Delete.Log.UnableToCommitUpdateConnection")
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.delete;
 
 import java.sql.PreparedStatement;
+import java.util.List;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
@@ -37,6 +38,13 @@ public class DeleteData extends BaseTransformData implements ITransformData {
 
   public PreparedStatement prepStatementDelete;
 
+  /** The number of rows deleted per statement, batched deletes are disabled if 1 or less */
+  public int deleteBatchSize;
+
+  public List<Object[]> batchBuffer;
+  public PreparedStatement prepStatementBatchDelete;
+  public IRowMeta batchParameterRowMeta;
+
   public DeleteData() {
     super();
 
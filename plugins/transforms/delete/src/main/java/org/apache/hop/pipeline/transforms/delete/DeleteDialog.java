@@ -73,6 +73,8 @@ public class DeleteDialog extends BaseTransformDialog implements ITransformDialo
 
   private TextVar wCommit;
 
+  private TextVar wDeleteBatchSize;
+
   private final DeleteMeta input;
 
   private final List<String> inputFields = new ArrayList<>();
@@ -227,12 +229,32 @@ public class DeleteDialog extends BaseTransformDialog implements ITransformDialo
     fdCommit.right = new FormAttachment(100, 0);
     wCommit.setLayoutData(fdCommit);
 
+    // Delete batch size line
+    Label wlDeleteBatchSize = new Label(shell, SWT.RIGHT);
+    wlDeleteBatchSize.setText(BaseMessages.getString(PKG, "DeleteDialog.DeleteBatchSize.Label"));
+    wlDeleteBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "DeleteDialog.DeleteBatchSize.Tooltip"));
+    PropsUi.setLook(wlDeleteBatchSize);
+    FormData fdlDeleteBatchSize = new FormData();
+    fdlDeleteBatchSize.left = new FormAttachment(0, 0);
+    fdlDeleteBatchSize.top = new FormAttachment(wCommit, margin);
+    fdlDeleteBatchSize.right = new FormAttachment(middle, -margin);
+    wlDeleteBatchSize.setLayoutData(fdlDeleteBatchSize);
+    wDeleteBatchSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wDeleteBatchSize);
+    wDeleteBatchSize.addModifyListener(lsMod);
+    FormData fdDeleteBatchSize = new FormData();
+    fdDeleteBatchSize.left = new FormAttachment(middle, 0);
+    fdDeleteBatchSize.top = new FormAttachment(wCommit, margin);
+    fdDeleteBatchSize.right = new FormAttachment(100, 0);
+    wDeleteBatchSize.setLayoutData(fdDeleteBatchSize);
+
     Label wlKey = new Label(shell, SWT.NONE);
     wlKey.setText(BaseMessages.getString(PKG, "DeleteDialog.Key.Label"));
     PropsUi.setLook(wlKey);
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment(0, 0);
-    fdlKey.top = new FormAttachment(wCommit, margin);
+    fdlKey.top = new FormAttachment(wDeleteBatchSize, margin);
     wlKey.setLayoutData(fdlKey);
 
     int nrKeyCols = 4;
@@ -353,6 +375,7 @@ public class DeleteDialog extends BaseTransformDialog implements ITransformDialo
     }
 
     wCommit.setText(input.getCommitSizeVar());
+    wDeleteBatchSize.setText(Const.NVL(input.getDeleteBatchSize(), ""));
 
     List<DeleteKeyField> keyFields = input.getLookup().getFields();
 
@@ -456,6 +479,7 @@ public class DeleteDialog extends BaseTransformDialog implements ITransformDialo
     int nrkeys = wKey.nrNonEmpty();
 
     inf.setCommitSize(wCommit.getText());
+    inf.setDeleteBatchSize(wDeleteBatchSize.getText());
 
     if (log.isDebug()) {
       logDebug(BaseMessages.getString(PKG, "DeleteDialog.Log.FoundKeys", String.valueOf(nrkeys)));
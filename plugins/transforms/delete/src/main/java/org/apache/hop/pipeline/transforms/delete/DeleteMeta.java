@@ -69,6 +69,12 @@ public class DeleteMeta extends BaseTransformMeta<Delete, DeleteData> {
       injectionKeyDescription = "Delete.Injection.CommitSize.Field")
   private String commitSize;
 
+  /** Number of rows to delete with a single statement */
+  @HopMetadataProperty(
+      key = "delete_batch_size",
+      injectionKeyDescription = "Delete.Injection.DeleteBatchSize.Field")
+  private String deleteBatchSize;
+
   public DeleteMeta() {
     super();
     lookup = new DeleteLookupField();
@@ -120,10 +126,26 @@ public class DeleteMeta extends BaseTransformMeta<Delete, DeleteData> {
     this.commitSize = commitSize;
   }
 
+  /**
+   * @return The number of rows to delete with a single statement, 0 or 1 to delete every row
+   *     separately.
+   */
+  public String getDeleteBatchSize() {
+    return deleteBatchSize;
+  }
+
+  /**
+   * @param deleteBatchSize The delete batch size to set.
+   */
+  public void setDeleteBatchSize(String deleteBatchSize) {
+    this.deleteBatchSize = deleteBatchSize;
+  }
+
   public DeleteMeta(DeleteMeta obj) {
 
     this.connection = obj.connection;
     this.commitSize = obj.commitSize;
+    this.deleteBatchSize = obj.deleteBatchSize;
     this.lookup = new DeleteLookupField(obj.lookup);
   }
 
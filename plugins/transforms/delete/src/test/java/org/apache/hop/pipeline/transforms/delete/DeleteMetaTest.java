@@ -57,12 +57,13 @@ public class DeleteMetaTest implements IInitializer<ITransformMeta> {
   @Before
   public void setUpLoadSave() throws Exception {
     PluginRegistry.init();
-    List<String> attributes = Arrays.asList("commit", "connection", "lookup");
+    List<String> attributes = Arrays.asList("commit", "delete_batch_size", "connection", "lookup");
 
     Map<String, String> getterMap =
         new HashMap<String, String>() {
           {
             put("commit", "getCommitSize");
+            put("delete_batch_size", "getDeleteBatchSize");
             put("connection", "getConnection");
             put("lookup", "getLookup");
           }
@@ -71,6 +72,7 @@ public class DeleteMetaTest implements IInitializer<ITransformMeta> {
         new HashMap<String, String>() {
           {
             put("commit", "setCommitSize");
+            put("delete_batch_size", "setDeleteBatchSize");
             put("connection", "setConnection");
             put("lookup", "setLookup");
           }
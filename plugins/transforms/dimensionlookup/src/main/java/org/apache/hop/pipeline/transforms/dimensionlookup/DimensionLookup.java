@@ -24,6 +24,8 @@ import static org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookup
 import static org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.StartDateAlternative.NULL;
 import static org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.StartDateAlternative.SYSTEM_DATE;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -86,6 +88,18 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
 
+      if (data.batchUpdates) {
+        try {
+          executeBatches();
+        } catch (HopException e) {
+          logError(
+              BaseMessages.getString(
+                  PKG, "DimensionLookup.Log.TransformCanNotContinueForErrors", e.getMessage()));
+          logError(Const.getStackTracker(e));
+          setErrors(1);
+          stopAll();
+        }
+      }
       setOutputDone(); // signal end to receiver(s)
       return false;
     }
@@ -194,6 +208,18 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       }
 
       setDimLookup(data.outputRowMeta);
+
+      // Batch the inserts and updates to the dimension table if we can.
+      //
+      data.batchUpdates =
+          meta.isUpdate() && meta.isUseBatchUpdate() && data.db.getUseBatchInsert(true);
+      if (data.batchUpdates && log.isDetailed()) {
+        logDetailed(BaseMessages.getString(PKG, "DimensionLookup.Log.UsingBatchUpdates"));
+      }
+
+      if (meta.isUpdate() && meta.isPreloadingCache() && meta.getCacheSize() >= 0) {
+        preloadUpdateCache();
+      }
     }
 
     // convert row to normal storage...
@@ -208,6 +234,10 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
           lookupValues(data.inputRowMeta, r); // add new values to the row in rowset[0].
       putRow(data.outputRowMeta, outputRow); // copy row to output rowset(s)
 
+      if (data.batchUpdates && data.batchCounter >= getBatchSize()) {
+        executeBatches();
+      }
+
       if (checkFeedback(getLinesRead()) && log.isBasic()) {
         logBasic(BaseMessages.getString(PKG, "DimensionLookup.Log.LineNumber") + getLinesRead());
       }
@@ -357,6 +387,78 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     }
   }
 
+  /**
+   * Pre-load the lookup cache with the current version of every natural key in the dimension table.
+   * This is used when updating the dimension so that the incoming rows can be compared with the
+   * cache instead of doing a lookup in the database for every row.
+   *
+   * @throws HopException in case there is a database or cache problem.
+   */
+  private void preloadUpdateCache() throws HopException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    DLFields f = meta.getFields();
+
+    // Retrieve the same values as the dimension lookup, followed by the natural keys.
+    // Sorting on the version makes sure the last version of a natural key ends up in the cache.
+    //
+    String sql = "SELECT " + getLookupSelectList(databaseMeta);
+    for (DLKey key : f.getKeys()) {
+      sql += ", " + databaseMeta.quoteField(key.getLookup());
+    }
+    sql +=
+        " FROM "
+            + data.schemaTable
+            + " ORDER BY "
+            + databaseMeta.quoteField(f.getReturns().getVersionField());
+
+    if (log.isDetailed()) {
+      logDetailed("Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR);
+    }
+
+    ResultSet resultSet = data.db.openQuery(sql);
+    try {
+      IRowMeta rowMeta = data.db.getReturnRowMeta();
+      int nrReturnValues = rowMeta.size() - data.keynrs.length;
+
+      data.returnRowMeta = new RowMeta();
+      for (int i = 0; i < nrReturnValues; i++) {
+        data.returnRowMeta.addValueMeta(rowMeta.getValueMeta(i));
+      }
+      data.cacheValueRowMeta = assembleCacheValueRowMeta();
+
+      long nrRows = 0;
+      Object[] row = data.db.getRow(resultSet);
+      while (row != null && !isStopped()) {
+        Object[] keyValues = new Object[data.keynrs.length];
+        for (int i = 0; i < keyValues.length; i++) {
+          IValueMeta keyValueMeta = data.cacheKeyRowMeta.getValueMeta(i);
+          keyValues[i] =
+              keyValueMeta.convertData(
+                  rowMeta.getValueMeta(nrReturnValues + i), row[nrReturnValues + i]);
+        }
+        Object[] returnValues = Arrays.copyOf(row, nrReturnValues);
+
+        // Keys evicted to respect the cache size are simply looked up in the database again
+        //
+        addToCache(keyValues, returnValues);
+        nrRows++;
+
+        row = data.db.getRow(resultSet);
+      }
+
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "DimensionLookup.Log.PreloadedCache",
+                Long.toString(nrRows),
+                Integer.toString(data.cache.size())));
+      }
+    } finally {
+      data.db.closeQuery(resultSet);
+    }
+  }
+
   private synchronized Object[] lookupValues(IRowMeta rowMeta, Object[] row) throws HopException {
     DLFields f = meta.getFields();
 
@@ -450,6 +552,11 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       // Perform the lookup in the database...
       //
       if (returnRow == null) {
+        // The database needs to see the pending batched changes before we can look anything up.
+        //
+        if (data.batchUpdates) {
+          executeBatches();
+        }
         data.db.setValues(data.lookupRowMeta, lookupRow, data.prepStatementLookup);
         returnRow = data.db.getLookup(data.prepStatementLookup);
         data.returnRowMeta = data.db.getReturnRowMeta();
@@ -556,6 +663,17 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
                 valueDateTo);
 
         incrementLinesOutput();
+
+        // In batch mode the new entry isn't in the database yet: remember it in the cache.
+        //
+        if (data.batchUpdates && technicalKey != null && meta.getCacheSize() >= 0) {
+          Object[] values =
+              getCacheValues(rowMeta, row, technicalKey, valueVersion, valueDateFrom, valueDateTo);
+          if (values != null) {
+            addToCache(lookupRow, values);
+          }
+        }
+
         returnRow = new Object[data.returnRowMeta.size()];
         int returnIndex = 0;
 
@@ -864,31 +982,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
      * SELECT <tk>, <version>, ... , FROM <table> WHERE key1=keys[1] AND key2=keys[2] ... AND ( <datefrom> is null OR
      * <datefrom> <= <datefield> ) AND <dateto> >= <datefield>
      */
-    String sql =
-        "SELECT "
-            + databaseMeta.quoteField(f.getReturns().getKeyField())
-            + ", "
-            + databaseMeta.quoteField(f.getReturns().getVersionField());
-
-    for (DLField field : f.getFields()) {
-      // Don't retrieve the fields without input
-      if (StringUtils.isNotEmpty(field.getLookup())
-          && isLookupOrUpdateTypeWithArgument(meta.isUpdate(), field)) {
-        sql += ", " + databaseMeta.quoteField(field.getLookup());
-
-        if (StringUtils.isNotEmpty(field.getName()) && !field.getLookup().equals(field.getName())) {
-          sql += " AS " + databaseMeta.quoteField(field.getName());
-        }
-      }
-    }
-
-    if (meta.getCacheSize() >= 0) {
-      sql +=
-          ", "
-              + databaseMeta.quoteField(f.getDate().getFrom())
-              + ", "
-              + databaseMeta.quoteField(f.getDate().getTo());
-    }
+    String sql = "SELECT " + getLookupSelectList(databaseMeta);
 
     sql += " FROM " + data.schemaTable + " WHERE ";
 
@@ -939,6 +1033,40 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     }
   }
 
+  /**
+   * The list of values retrieved by the dimension lookup: technical key, version, the fields to
+   * retrieve and the date range if the cache is used.
+   */
+  private String getLookupSelectList(DatabaseMeta databaseMeta) throws HopTransformException {
+    DLFields f = meta.getFields();
+
+    String sql =
+        databaseMeta.quoteField(f.getReturns().getKeyField())
+            + ", "
+            + databaseMeta.quoteField(f.getReturns().getVersionField());
+
+    for (DLField field : f.getFields()) {
+      // Don't retrieve the fields without input
+      if (StringUtils.isNotEmpty(field.getLookup())
+          && isLookupOrUpdateTypeWithArgument(meta.isUpdate(), field)) {
+        sql += ", " + databaseMeta.quoteField(field.getLookup());
+
+        if (StringUtils.isNotEmpty(field.getName()) && !field.getLookup().equals(field.getName())) {
+          sql += " AS " + databaseMeta.quoteField(field.getName());
+        }
+      }
+    }
+
+    if (meta.getCacheSize() >= 0) {
+      sql +=
+          ", "
+              + databaseMeta.quoteField(f.getDate().getFrom())
+              + ", "
+              + databaseMeta.quoteField(f.getDate().getTo());
+    }
+    return sql;
+  }
+
   protected boolean isAutoIncrement() {
     return meta.getFields().getReturns().getCreationMethod()
         == TechnicalKeyCreationMethod.AUTO_INCREMENT;
@@ -1221,7 +1349,12 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
     // INSERT NEW VALUE!
     data.db.setValues(data.insertRowMeta, insertRow, data.prepStatementInsert);
-    data.db.insertRow(data.prepStatementInsert);
+    if (technicalKey == null) {
+      // We need the generated key right away, no batching possible
+      data.db.insertRow(data.prepStatementInsert);
+    } else {
+      writeRow(data.prepStatementInsert);
+    }
 
     if (isDebug()) {
       logDebug("Row inserted!");
@@ -1306,7 +1439,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       if (isDebug()) {
         logDebug("Values set for update (" + data.updateRowMeta.size() + ")");
       }
-      data.db.insertRow(data.prepStatementUpdate); // do the actual update
+      writeRow(data.prepStatementUpdate); // do the actual update
       if (isDebug()) {
         logDebug("Row updated!");
       }
@@ -1419,7 +1552,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
     data.db.setValues(
         data.dimensionUpdateRowMeta, dimensionUpdateRow, data.prepStatementDimensionUpdate);
-    data.db.insertRow(data.prepStatementDimensionUpdate);
+    writeRow(data.prepStatementDimensionUpdate);
   }
 
   // This updates all versions of a dimension entry.
@@ -1517,7 +1650,71 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
         punchThroughRow,
         data.prepStatementPunchThrough); // set values for
     // update
-    data.db.insertRow(data.prepStatementPunchThrough); // do the actual punch through update
+    writeRow(data.prepStatementPunchThrough); // do the actual punch through update
+  }
+
+  /**
+   * Execute the prepared statement or add it to its batch when batch updates are used.
+   *
+   * @param statement the prepared statement with all values set
+   * @throws HopDatabaseException in case the statement can't be executed
+   */
+  private void writeRow(PreparedStatement statement) throws HopDatabaseException {
+    if (!data.batchUpdates) {
+      data.db.insertRow(statement);
+      return;
+    }
+    try {
+      statement.addBatch();
+      data.pendingBatches.add(statement);
+      data.batchCounter++;
+    } catch (SQLException e) {
+      throw new HopDatabaseException("Unable to add a statement to the dimension batch", e);
+    }
+  }
+
+  /**
+   * Send the pending batches to the database and commit. New versions are inserted first, then
+   * previous versions are closed and finally the updates and punch-through updates are executed.
+   *
+   * @throws HopDatabaseException in case one of the batches fails
+   */
+  private void executeBatches() throws HopDatabaseException {
+    if (data.batchCounter == 0) {
+      return;
+    }
+    PreparedStatement[] statements = {
+      data.prepStatementInsert,
+      data.prepStatementUpdate,
+      data.prepStatementDimensionUpdate,
+      data.prepStatementPunchThrough
+    };
+    try {
+      for (PreparedStatement statement : statements) {
+        if (statement != null && data.pendingBatches.contains(statement)) {
+          statement.executeBatch();
+          statement.clearBatch();
+        }
+      }
+    } catch (SQLException e) {
+      throw new HopDatabaseException("Unable to execute the batched dimension updates", e);
+    }
+    if (isDebug()) {
+      logDebug("Executed " + data.batchCounter + " batched dimension statements");
+    }
+    data.pendingBatches.clear();
+    data.batchCounter = 0;
+
+    if (!data.db.isAutoCommit()) {
+      data.db.commit();
+    }
+  }
+
+  /**
+   * @return the number of statements to batch before they are sent to the database
+   */
+  private int getBatchSize() {
+    return meta.getCommitSize() > 0 ? meta.getCommitSize() : 100;
   }
 
   /**
@@ -1830,9 +2027,26 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     return false;
   }
 
+  @Override
+  public void batchComplete() throws HopException {
+    if (data.batchUpdates) {
+      executeBatches();
+    }
+  }
+
   @Override
   public void dispose() {
     if (data.db != null) {
+      if (data.batchUpdates && getErrors() == 0) {
+        try {
+          executeBatches();
+        } catch (HopDatabaseException e) {
+          logError(
+              BaseMessages.getString(PKG, "DimensionLookup.Log.ErrorOccurredInProcessing")
+                  + e.getMessage());
+          setErrors(1);
+        }
+      }
       try {
         if (!data.db.isAutoCommit()) {
           if (getErrors() == 0) {
@@ -19,7 +19,9 @@ package org.apache.hop.pipeline.transforms.dimensionlookup;
 
 import java.sql.PreparedStatement;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.hash.ByteArrayHashMap;
 import org.apache.hop.core.row.IRowMeta;
@@ -60,6 +62,15 @@ public class DimensionLookupData extends BaseTransformData implements ITransform
   public IRowMeta dimensionUpdateRowMeta;
   public IRowMeta punchThroughRowMeta;
 
+  /** True if inserts, version closures and updates are sent to the database in batches */
+  public boolean batchUpdates;
+
+  /** The number of statements added to the batches since the last flush */
+  public int batchCounter;
+
+  /** The prepared statements with pending batched statements */
+  public Set<PreparedStatement> pendingBatches = new HashSet<>();
+
   public IRowMeta cacheKeyRowMeta;
   public IRowMeta cacheValueRowMeta;
 
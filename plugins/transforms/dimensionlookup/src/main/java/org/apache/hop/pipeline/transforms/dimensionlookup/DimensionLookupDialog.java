@@ -94,6 +94,9 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
   private Label wlCommit;
   private Text wCommit;
 
+  private Label wlBatch;
+  private Button wBatch;
+
   private Button wUseCache;
 
   private Label wlPreloadCache;
@@ -312,6 +315,24 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     fdCommit.right = new FormAttachment(100, 0);
     wCommit.setLayoutData(fdCommit);
 
+    // Use batch updates?
+    wlBatch = new Label(mainComposite, SWT.RIGHT);
+    wlBatch.setText(BaseMessages.getString(PKG, "DimensionLookupDialog.Batch.Label"));
+    wlBatch.setToolTipText(BaseMessages.getString(PKG, "DimensionLookupDialog.Batch.Tooltip"));
+    PropsUi.setLook(wlBatch);
+    FormData fdlBatch = new FormData();
+    fdlBatch.left = new FormAttachment(0, 0);
+    fdlBatch.right = new FormAttachment(middle, -margin);
+    fdlBatch.top = new FormAttachment(wCommit, margin);
+    wlBatch.setLayoutData(fdlBatch);
+    wBatch = new Button(mainComposite, SWT.CHECK);
+    PropsUi.setLook(wBatch);
+    FormData fdBatch = new FormData();
+    fdBatch.left = new FormAttachment(middle, 0);
+    fdBatch.top = new FormAttachment(wlBatch, 0, SWT.CENTER);
+    fdBatch.right = new FormAttachment(100, 0);
+    wBatch.setLayoutData(fdBatch);
+
     // Use Cache?
     Label wlUseCache = new Label(mainComposite, SWT.RIGHT);
     wlUseCache.setText(BaseMessages.getString(PKG, "DimensionLookupDialog.UseCache.Label"));
@@ -319,7 +340,7 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     FormData fdlUseCache = new FormData();
     fdlUseCache.left = new FormAttachment(0, 0);
     fdlUseCache.right = new FormAttachment(middle, -margin);
-    fdlUseCache.top = new FormAttachment(wCommit, margin);
+    fdlUseCache.top = new FormAttachment(wBatch, margin);
     wlUseCache.setLayoutData(fdlUseCache);
     wUseCache = new Button(mainComposite, SWT.CHECK);
     PropsUi.setLook(wUseCache);
@@ -1005,6 +1026,8 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     wTkRename.setEnabled(!update);
 
     wCreate.setEnabled(update);
+    wlBatch.setEnabled(update);
+    wBatch.setEnabled(update);
 
     // Set the technical creation key fields correct... then disable
     // depending on update or not. Then reset if we're updating. It makes
@@ -1036,8 +1059,8 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
 
     // Caching...
     //
-    wlPreloadCache.setEnabled(wUseCache.getSelection() && !wUpdate.getSelection());
-    wPreloadCache.setEnabled(wUseCache.getSelection() && !wUpdate.getSelection());
+    wlPreloadCache.setEnabled(wUseCache.getSelection());
+    wPreloadCache.setEnabled(wUseCache.getSelection());
 
     wlCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
     wCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
@@ -1139,6 +1162,7 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     wSeq.setText(Const.NVL(input.getSequenceName(), ""));
 
     wCommit.setText("" + input.getCommitSize());
+    wBatch.setSelection(input.isUseBatchUpdate());
 
     wUseCache.setSelection(input.getCacheSize() >= 0);
     wPreloadCache.setSelection(input.isPreloadingCache());
@@ -1254,6 +1278,7 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     f.getDate().setTo(wToDate.getText());
 
     in.setCommitSize(Const.toInt(wCommit.getText(), 0));
+    in.setUseBatchUpdate(wBatch.getSelection());
 
     if (wUseCache.getSelection()) {
       in.setCacheSize(Const.toInt(wCacheSize.getText(), -1));
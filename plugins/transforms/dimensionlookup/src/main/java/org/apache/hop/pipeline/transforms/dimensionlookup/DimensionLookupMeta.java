@@ -112,8 +112,15 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
       injectionKeyDescription = "DimensionLookup.Injection.COMMIT_SIZE")
   private int commitSize;
 
-  /** Flag to indicate the use of batch updates, default disabled for backward compatibility */
-  @HopMetadataProperty(key = "useBatch")
+  /**
+   * Flag to indicate the use of batch updates, default disabled for backward compatibility. When
+   * updating the dimension, inserts, version closures, updates and punch-throughs are then sent to
+   * the database in JDBC batches of commit size rows.
+   */
+  @HopMetadataProperty(
+      key = "useBatch",
+      injectionKey = "USE_BATCH_UPDATE",
+      injectionKeyDescription = "DimensionLookup.Injection.USE_BATCH_UPDATE")
   private boolean useBatchUpdate;
 
   /** The year to use as minus infinity in the dimensions date range */
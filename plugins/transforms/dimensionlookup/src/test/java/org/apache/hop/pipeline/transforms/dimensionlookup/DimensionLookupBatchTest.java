@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.dimensionlookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.List;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.hash.ByteArrayHashMap;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.DLField;
+import org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.DLFields;
+import org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.DLKey;
+import org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.StartDateAlternative;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @see DimensionLookup
+ */
+public class DimensionLookupBatchTest {
+  private TransformMockHelper<DimensionLookupMeta, DimensionLookupData> smh;
+
+  @Before
+  public void setUp() {
+    smh =
+        new TransformMockHelper<>(
+            "dimensionLookup", DimensionLookupMeta.class, DimensionLookupData.class);
+    when(smh.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @After
+  public void cleanUp() {
+    smh.cleanUp();
+  }
+
+  @Test
+  public void testInsertAndNewVersionInTheSameBatch() throws Exception {
+    DatabaseMeta databaseMeta = mock(DatabaseMeta.class);
+    when(databaseMeta.quoteField(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(databaseMeta.stripCR(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    PreparedStatement insertStatement = mock(PreparedStatement.class);
+    PreparedStatement updateStatement = mock(PreparedStatement.class);
+    Connection connection = mock(Connection.class);
+    when(connection.prepareStatement(anyString())).thenReturn(insertStatement, updateStatement);
+
+    IRowMeta returnRowMeta = new RowMeta();
+    returnRowMeta.addValueMeta(new ValueMetaInteger("customer_tk"));
+    returnRowMeta.addValueMeta(new ValueMetaInteger("version"));
+    returnRowMeta.addValueMeta(new ValueMetaString("city"));
+    returnRowMeta.addValueMeta(new ValueMetaDate("date_from"));
+    returnRowMeta.addValueMeta(new ValueMetaDate("date_to"));
+
+    Database db = mock(Database.class);
+    when(db.getConnection()).thenReturn(connection);
+    when(db.getReturnRowMeta()).thenReturn(returnRowMeta);
+    when(db.getNextValue(any(), any(), any())).thenReturn(1L, 2L);
+
+    // Natural key "customer", type 2 field "city"
+    //
+    DLKey key = new DLKey();
+    key.setName("customer");
+    key.setLookup("customer");
+    DLField field = new DLField();
+    field.setName("city");
+    field.setLookup("city");
+    field.setUpdate(DimensionLookupMeta.DimensionUpdateType.INSERT.getCode());
+    DLFields fields = new DLFields();
+    fields.setKeys(Arrays.asList(key));
+    fields.setFields(Arrays.asList(field));
+    fields.getReturns().setKeyField("customer_tk");
+    fields.getReturns().setVersionField("version");
+    fields
+        .getReturns()
+        .setCreationMethod(DimensionLookupMeta.TechnicalKeyCreationMethod.TABLE_MAXIMUM);
+    fields.getDate().setFrom("date_from");
+    fields.getDate().setTo("date_to");
+
+    DimensionLookupMeta meta = smh.iTransformMeta;
+    when(meta.getFields()).thenReturn(fields);
+    when(meta.isUpdate()).thenReturn(true);
+    when(meta.getCacheSize()).thenReturn(100);
+    when(meta.getCommitSize()).thenReturn(100);
+    when(meta.getDatabaseMeta()).thenReturn(databaseMeta);
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("customer"));
+    inputRowMeta.addValueMeta(new ValueMetaString("city"));
+    inputRowMeta.addValueMeta(new ValueMetaDate("changed"));
+    IRowMeta outputRowMeta = inputRowMeta.clone();
+    outputRowMeta.addValueMeta(new ValueMetaInteger("customer_tk"));
+    IRowMeta lookupRowMeta = new RowMeta();
+    lookupRowMeta.addValueMeta(inputRowMeta.getValueMeta(0).clone());
+    lookupRowMeta.addValueMeta(new ValueMetaDate("changed"));
+    lookupRowMeta.addValueMeta(new ValueMetaDate("changed"));
+
+    DimensionLookupData data = smh.iTransformData;
+    data.db = db;
+    data.schemaTable = "dim_customer";
+    data.prepStatementLookup = mock(PreparedStatement.class);
+    data.inputRowMeta = inputRowMeta;
+    data.outputRowMeta = outputRowMeta;
+    data.lookupRowMeta = lookupRowMeta;
+    data.returnRowMeta = returnRowMeta;
+    data.keynrs = new int[] {0};
+    data.fieldnrs = new int[] {1};
+    data.datefieldnr = 2;
+    data.lazyList = new ArrayList<>();
+    data.startDateAlternative = StartDateAlternative.NONE;
+    data.minDate = new GregorianCalendar(1900, Calendar.JANUARY, 1).getTime();
+    data.maxDate = new GregorianCalendar(2199, Calendar.DECEMBER, 31).getTime();
+    data.cacheKeyRowMeta = new RowMeta();
+    data.cacheKeyRowMeta.addValueMeta(inputRowMeta.getValueMeta(0).clone());
+    data.cache = new ByteArrayHashMap(100, data.cacheKeyRowMeta);
+    data.batchUpdates = true;
+    data.pendingBatches = new HashSet<>();
+
+    DimensionLookup transform =
+        new DimensionLookup(smh.transformMeta, meta, data, 0, smh.pipelineMeta, smh.pipeline);
+    transform.setInputRowMeta(inputRowMeta);
+    Date january = new GregorianCalendar(2020, Calendar.JANUARY, 1).getTime();
+    Date june = new GregorianCalendar(2020, Calendar.JUNE, 1).getTime();
+    transform.addRowSetToInputRowSets(
+        smh.getMockInputRowSet(
+            new Object[] {"c1", "Brussels", january}, new Object[] {"c1", "Antwerp", june}));
+    List<Long> technicalKeys = new ArrayList<>();
+    transform.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            technicalKeys.add((Long) row[3]);
+          }
+        });
+    transform.first = false;
+
+    while (transform.processRow()) {
+      // keep going
+    }
+
+    // The new customer isn't in the database until the batch is executed: the second row has to
+    // find it in the cache to create version 2 instead of a duplicate version 1.
+    //
+    verify(db, times(1)).getLookup(any(PreparedStatement.class));
+    assertEquals(Arrays.asList(1L, 2L), technicalKeys);
+    verify(insertStatement, times(2)).addBatch();
+    verify(updateStatement, times(1)).addBatch();
+    verify(insertStatement, times(1)).executeBatch();
+    verify(updateStatement, times(1)).executeBatch();
+    verify(db, times(1)).commit();
+    assertEquals(2, transform.getLinesOutput());
+  }
+}
@@ -52,6 +52,7 @@ public class DimensionLookupMetaTest {
     assertNotNull(meta.getSchemaName());
     assertTrue(meta.isUpdate());
     assertEquals(100, meta.getCommitSize());
+    assertTrue(meta.isUseBatchUpdate());
     assertEquals(5000, meta.getCacheSize());
     assertEquals(1, meta.getFields().getKeys().size());
     assertEquals(2, meta.getFields().getFields().size());
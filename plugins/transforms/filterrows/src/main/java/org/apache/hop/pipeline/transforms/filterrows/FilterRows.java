@@ -45,9 +45,14 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private synchronized boolean keepRow(IRowMeta rowMeta, Object[] row) throws HopException {
+  private boolean keepRow(IRowMeta rowMeta, Object[] row) throws HopException {
     try {
-      return meta.getCondition().evaluate(rowMeta, row);
+      if (data.condition == null) {
+        // Compile the condition once for the layout of the input rows
+        //
+        data.condition = meta.getCondition().compile(rowMeta);
+      }
+      return data.condition.evaluate(row);
     } catch (Exception e) {
       String message =
           BaseMessages.getString(
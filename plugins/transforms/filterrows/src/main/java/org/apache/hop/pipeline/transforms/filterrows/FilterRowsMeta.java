@@ -457,4 +457,9 @@ public class FilterRowsMeta extends BaseTransformMeta<FilterRows, FilterRowsData
       }
     }
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
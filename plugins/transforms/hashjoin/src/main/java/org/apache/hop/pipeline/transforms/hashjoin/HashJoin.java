@@ -0,0 +1,562 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.RowSpillFile;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+
+/**
+ * Join rows from 2 streams on equal keys without requiring sorted input. All rows of the build side
+ * are loaded in a {@link HashJoinTable}, the rows of the probe side are then streamed past it.
+ *
+ * <p>When the estimated size of the build side grows beyond the memory limit, both sides are split
+ * in partitions on the hash of the key and written to disk. Every partition is then joined on its
+ * own (grace hash join).
+ *
+ * <p>When the transform runs in multiple copies, the copies build one {@link HashJoinShared} table
+ * and probe it in parallel. In that case the table is always kept in memory.
+ */
+public class HashJoin extends BaseTransform<HashJoinMeta, HashJoinData> {
+  private static final Class<?> PKG = HashJoinMeta.class; // For Translator
+
+  /** The number of partitions used when the build side is spilled to disk */
+  static final int NR_PARTITIONS = 32;
+
+  private static final int PARTITION_SHIFT = 32 - Integer.numberOfTrailingZeros(NR_PARTITIONS);
+
+  static final String SHARED_TABLE_PREFIX = "HashJoinTable:";
+
+  private static final long MB = 1024L * 1024L;
+
+  public HashJoin(
+      TransformMeta transformMeta,
+      HashJoinMeta meta,
+      HashJoinData data,
+      int copyNr,
+      PipelineMeta pipelineMeta,
+      Pipeline pipeline) {
+    super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
+  }
+
+  @Override
+  public boolean init() {
+    if (!super.init()) {
+      return false;
+    }
+
+    if (meta.getKeyFields1().isEmpty()
+        || meta.getKeyFields1().size() != meta.getKeyFields2().size()) {
+      logError(BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.KeysMismatch"));
+      return false;
+    }
+    if (Const.indexOfString(meta.getJoinType(), HashJoinMeta.joinTypes) < 0) {
+      logError(BaseMessages.getString(PKG, "HashJoin.Log.InvalidJoinType", meta.getJoinType()));
+      return false;
+    }
+
+    data.memoryLimit =
+        Const.toLong(
+                resolve(meta.getMemoryLimit()), Long.parseLong(HashJoinMeta.DEFAULT_MEMORY_LIMIT))
+            * MB;
+    data.spillDirectory = resolve(meta.getSpillDirectory());
+
+    final int copies = getTransformMeta().getCopies(this);
+    if (copies > 1) {
+      Map<String, Object> extensionDataMap = getPipeline().getExtensionDataMap();
+      synchronized (extensionDataMap) {
+        data.shared =
+            (HashJoinShared)
+                extensionDataMap.computeIfAbsent(
+                    SHARED_TABLE_PREFIX + getTransformName(), k -> new HashJoinShared(copies));
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean processRow() throws HopException {
+    if (first) {
+      first = false;
+      initializeInputs();
+    }
+
+    if (data.shared != null) {
+      joinShared();
+    } else {
+      joinLocal();
+    }
+
+    setOutputDone();
+    return false;
+  }
+
+  /** Find both inputs, read the first row of each and work out the layout of the rows. */
+  private void initializeInputs() throws HopException {
+    List<IStream> infoStreams = meta.getTransformIOMeta().getInfoStreams();
+
+    data.rowSets = new IRowSet[2];
+    data.rowMetas = new IRowMeta[2];
+    data.keyNrs = new int[2][];
+    data.buffers = new ArrayList<>();
+    data.done = new boolean[2];
+    data.rowSizes = new long[2];
+
+    for (int i = 0; i < 2; i++) {
+      String transformName = infoStreams.get(i).getTransformName();
+      data.rowSets[i] = findInputRowSet(transformName);
+      if (data.rowSets[i] == null) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG, "HashJoin.Exception.UnableToFindSpecifiedTransform", transformName));
+      }
+
+      List<Object[]> buffer = new ArrayList<>();
+      data.buffers.add(buffer);
+      Object[] row = getRowFrom(data.rowSets[i]);
+      if (row != null) {
+        data.rowMetas[i] = data.rowSets[i].getRowMeta();
+        buffer.add(row);
+      } else {
+        data.done[i] = true;
+        data.rowMetas[i] = getPipelineMeta().getTransformFields(this, transformName);
+      }
+      data.rowSizes[i] = RowDataUtil.estimateRowSize(data.rowMetas[i]);
+
+      List<String> keyFields = i == 0 ? meta.getKeyFields1() : meta.getKeyFields2();
+      data.keyNrs[i] = new int[keyFields.size()];
+      for (int k = 0; k < keyFields.size(); k++) {
+        data.keyNrs[i][k] = data.rowMetas[i].indexOfValue(keyFields.get(k));
+        if (data.keyNrs[i][k] < 0) {
+          throw new HopTransformException(
+              BaseMessages.getString(
+                  PKG, "HashJoin.Exception.UnableToFindFieldInReferenceStream", keyFields.get(k)));
+        }
+      }
+    }
+
+    // Equal keys need to have the same hash, so the data types need to be the same
+    //
+    for (int k = 0; k < data.keyNrs[0].length; k++) {
+      IValueMeta key1 = data.rowMetas[0].getValueMeta(data.keyNrs[0][k]);
+      IValueMeta key2 = data.rowMetas[1].getValueMeta(data.keyNrs[1][k]);
+      if (key1.getType() != key2.getType()) {
+        throw new HopTransformException(
+            BaseMessages.getString(
+                PKG,
+                "HashJoin.Exception.KeyTypesDiffer",
+                key1.getName(),
+                key1.getTypeDesc(),
+                key2.getName(),
+                key2.getTypeDesc()));
+      }
+    }
+
+    data.outputRowMeta = new RowMeta();
+    data.outputRowMeta.mergeRowMeta(data.rowMetas[0].clone());
+    if (!meta.isLeftOnly()) {
+      data.outputRowMeta.mergeRowMeta(data.rowMetas[1].clone());
+    }
+  }
+
+  /** Join in a single copy: build a private hash table and spill it to disk when needed. */
+  private void joinLocal() throws HopException {
+    if (HashJoinMeta.BUILD_SIDE_FIRST.equalsIgnoreCase(meta.getBuildSide())) {
+      data.build = 0;
+    } else if (HashJoinMeta.BUILD_SIDE_SECOND.equalsIgnoreCase(meta.getBuildSide())) {
+      data.build = 1;
+    } else {
+      data.build = chooseBuildSide();
+    }
+    int build = data.build;
+    int probe = 1 - build;
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "HashJoin.Log.BuildSide", data.rowSets[build].getOriginTransformName()));
+    }
+
+    // Build
+    //
+    data.table = new HashJoinTable(data.rowMetas[build], data.keyNrs[build]);
+    data.buildBytes = 0;
+    for (Object[] row : data.buffers.get(build)) {
+      addBuildRow(row);
+    }
+    data.buffers.get(build).clear();
+    Object[] row;
+    while (!data.done[build] && !isStopped()) {
+      row = getRowFrom(data.rowSets[build]);
+      if (row == null) {
+        data.done[build] = true;
+      } else {
+        addBuildRow(row);
+      }
+    }
+    if (isStopped()) {
+      return;
+    }
+
+    // Probe
+    //
+    if (data.buildFiles == null) {
+      data.table.seal();
+      for (Object[] probeRow : data.buffers.get(probe)) {
+        probeRow(data.table, probeRow);
+      }
+      data.buffers.get(probe).clear();
+      while (!data.done[probe] && !isStopped()) {
+        row = getRowFrom(data.rowSets[probe]);
+        if (row == null) {
+          data.done[probe] = true;
+        } else {
+          probeRow(data.table, row);
+        }
+      }
+      if (!isStopped()) {
+        emitBuildRows(data.table);
+      }
+      data.table = null;
+    } else {
+      for (Object[] probeRow : data.buffers.get(probe)) {
+        spillProbeRow(probeRow);
+      }
+      data.buffers.get(probe).clear();
+      while (!data.done[probe] && !isStopped()) {
+        row = getRowFrom(data.rowSets[probe]);
+        if (row == null) {
+          data.done[probe] = true;
+        } else {
+          spillProbeRow(row);
+        }
+      }
+      joinPartitions();
+    }
+  }
+
+  /**
+   * Read both inputs alternately until one of them is finished: that one becomes the build side.
+   * When the rows read exceed the memory limit before that, the second input is used.
+   *
+   * @return The index of the build side
+   */
+  private int chooseBuildSide() throws HopException {
+    long[] bytes = new long[2];
+    for (int i = 0; i < 2; i++) {
+      bytes[i] = data.buffers.get(i).size() * data.rowSizes[i];
+    }
+    while (!data.done[0] && !data.done[1] && !isStopped()) {
+      for (int i = 0; i < 2; i++) {
+        Object[] row = getRowFrom(data.rowSets[i]);
+        if (row == null) {
+          data.done[i] = true;
+        } else {
+          data.buffers.get(i).add(row);
+          bytes[i] += data.rowSizes[i];
+        }
+      }
+      if (bytes[0] + bytes[1] > data.memoryLimit) {
+        return 1;
+      }
+    }
+    if (data.done[0] && data.done[1]) {
+      return bytes[0] < bytes[1] ? 0 : 1;
+    }
+    return data.done[0] ? 0 : 1;
+  }
+
+  private void addBuildRow(Object[] row) throws HopException {
+    int build = data.build;
+    int hash = HashJoinTable.hash(data.rowMetas[build], row, data.keyNrs[build]);
+    if (data.buildFiles != null) {
+      getPartitionFile(data.buildFiles, build, hash).write(row);
+      return;
+    }
+    data.table.add(row, hash);
+    data.buildBytes += data.rowSizes[build];
+    if (data.buildBytes > data.memoryLimit) {
+      spillTable();
+    }
+  }
+
+  /** Move the rows of the hash table to the partition files of the build side. */
+  private void spillTable() throws HopException {
+    logBasic(
+        BaseMessages.getString(
+            PKG, "HashJoin.Log.SpillingToDisk", data.memoryLimit / MB, data.spillDirectory));
+
+    data.buildFiles = new RowSpillFile[NR_PARTITIONS];
+    data.probeFiles = new RowSpillFile[NR_PARTITIONS];
+    HashJoinTable table = data.table;
+    data.table = null;
+    for (int i = 0; i < table.size(); i++) {
+      int hash = table.getHash(i);
+      getPartitionFile(data.buildFiles, data.build, hash).write(table.getRow(i));
+    }
+  }
+
+  private void spillProbeRow(Object[] row) throws HopException {
+    int probe = 1 - data.build;
+    int hash = HashJoinTable.hash(data.rowMetas[probe], row, data.keyNrs[probe]);
+    getPartitionFile(data.probeFiles, probe, hash).write(row);
+  }
+
+  private RowSpillFile getPartitionFile(RowSpillFile[] files, int side, int hash)
+      throws HopException {
+    int partition = hash >>> PARTITION_SHIFT;
+    RowSpillFile file = files[partition];
+    if (file == null) {
+      file = new RowSpillFile(data.spillDirectory, "hop-hashjoin-", data.rowMetas[side]);
+      files[partition] = file;
+    }
+    return file;
+  }
+
+  /** Join the partitions on disk one by one. Rows with equal keys are always in the same one. */
+  private void joinPartitions() throws HopException {
+    int build = data.build;
+    for (int partition = 0; partition < NR_PARTITIONS && !isStopped(); partition++) {
+      RowSpillFile buildFile = data.buildFiles[partition];
+      RowSpillFile probeFile = data.probeFiles[partition];
+
+      HashJoinTable table =
+          new HashJoinTable(
+              data.rowMetas[build],
+              data.keyNrs[build],
+              buildFile == null ? 0 : (int) Math.min(buildFile.getRows(), Integer.MAX_VALUE - 8));
+      Object[] row;
+      if (buildFile != null) {
+        buildFile.rewind();
+        while ((row = buildFile.read()) != null) {
+          table.add(row, HashJoinTable.hash(data.rowMetas[build], row, data.keyNrs[build]));
+        }
+      }
+      table.seal();
+
+      if (probeFile != null) {
+        probeFile.rewind();
+        while ((row = probeFile.read()) != null && !isStopped()) {
+          probeRow(table, row);
+        }
+      }
+      if (!isStopped()) {
+        emitBuildRows(table);
+      }
+
+      if (buildFile != null) {
+        buildFile.delete();
+        data.buildFiles[partition] = null;
+      }
+      if (probeFile != null) {
+        probeFile.delete();
+        data.probeFiles[partition] = null;
+      }
+    }
+  }
+
+  /**
+   * Join in multiple copies: all copies add their build rows to the shared table and probe it with
+   * their own probe rows. The copy which finishes last emits the remaining build rows.
+   */
+  private void joinShared() throws HopException {
+    if (HashJoinMeta.BUILD_SIDE_FIRST.equalsIgnoreCase(meta.getBuildSide())) {
+      data.build = 0;
+    } else {
+      data.build = 1;
+    }
+    int build = data.build;
+    int probe = 1 - build;
+
+    List<Object[]> rows = data.buffers.get(build);
+    while (!data.done[build] && !isStopped()) {
+      Object[] row = getRowFrom(data.rowSets[build]);
+      if (row == null) {
+        data.done[build] = true;
+      } else {
+        rows.add(row);
+      }
+    }
+    if (isStopped()) {
+      return;
+    }
+    int[] hashes = new int[rows.size()];
+    for (int i = 0; i < hashes.length; i++) {
+      hashes[i] = HashJoinTable.hash(data.rowMetas[build], rows.get(i), data.keyNrs[build]);
+    }
+    data.shared.addRows(data.rowMetas[build], data.keyNrs[build], rows, hashes);
+    data.buffers.set(build, new ArrayList<>());
+
+    HashJoinTable table = null;
+    try {
+      while (table == null) {
+        if (isStopped()) {
+          return;
+        }
+        table = data.shared.waitForTable(100);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    }
+
+    if (getCopy() == 0 && table.size() * data.rowSizes[build] > data.memoryLimit) {
+      logBasic(
+          BaseMessages.getString(PKG, "HashJoin.Log.SharedTableTooLarge", data.memoryLimit / MB));
+    }
+
+    for (Object[] probeRow : data.buffers.get(probe)) {
+      probeRow(table, probeRow);
+    }
+    data.buffers.get(probe).clear();
+    while (!data.done[probe] && !isStopped()) {
+      Object[] row = getRowFrom(data.rowSets[probe]);
+      if (row == null) {
+        data.done[probe] = true;
+      } else {
+        probeRow(table, row);
+      }
+    }
+    if (isStopped()) {
+      return;
+    }
+
+    if (data.shared.finishProbing()) {
+      emitBuildRows(table);
+    }
+  }
+
+  /** Look up a row of the probe side and pass the joined rows. */
+  private void probeRow(HashJoinTable table, Object[] row) throws HopException {
+    int probe = 1 - data.build;
+    IRowMeta probeMeta = data.rowMetas[probe];
+    int[] probeKeyNrs = data.keyNrs[probe];
+    int hash = HashJoinTable.hash(probeMeta, row, probeKeyNrs);
+    int index = table.find(hash, probeMeta, row, probeKeyNrs);
+
+    if (meta.isLeftOnly()) {
+      if (probe == 0) {
+        // Semi join: pass the row once if there is a match, anti join: if there is none
+        //
+        if ((index >= 0) == meta.isSemiJoin()) {
+          putJoinedRow(row, null);
+        }
+      } else {
+        // The first stream is in the table: mark the matches and pass them at the end
+        //
+        while (index >= 0) {
+          table.setMatched(index);
+          index = table.findNext(index, hash, probeMeta, row, probeKeyNrs);
+        }
+      }
+      return;
+    }
+
+    boolean found = index >= 0;
+    while (index >= 0) {
+      table.setMatched(index);
+      putBuildAndProbeRow(table.getRow(index), row);
+      index = table.findNext(index, hash, probeMeta, row, probeKeyNrs);
+    }
+    if (!found && isPreserved(probe)) {
+      putBuildAndProbeRow(null, row);
+    }
+  }
+
+  /**
+   * Pass the rows of the hash table which are only known once all probe rows are seen: the
+   * unmatched rows of an outer join and the rows of a semi or anti join on the first stream.
+   */
+  private void emitBuildRows(HashJoinTable table) throws HopException {
+    boolean leftOnly = meta.isLeftOnly() && data.build == 0;
+    if (!leftOnly && !isPreserved(data.build)) {
+      return;
+    }
+    for (int i = 0; i < table.size() && !isStopped(); i++) {
+      boolean matched = table.isMatched(i);
+      if (leftOnly) {
+        if (matched == meta.isSemiJoin()) {
+          putJoinedRow(table.getRow(i), null);
+        }
+      } else if (!matched) {
+        putBuildAndProbeRow(table.getRow(i), null);
+      }
+    }
+  }
+
+  private boolean isPreserved(int side) {
+    return side == 0 ? meta.isLeftPreserved() : meta.isRightPreserved();
+  }
+
+  private void putBuildAndProbeRow(Object[] buildRow, Object[] probeRow)
+      throws HopTransformException {
+    if (data.build == 0) {
+      putJoinedRow(buildRow, probeRow);
+    } else {
+      putJoinedRow(probeRow, buildRow);
+    }
+  }
+
+  /** Pass the fields of the first and second stream, null if there is no row on that side. */
+  private void putJoinedRow(Object[] one, Object[] two) throws HopTransformException {
+    Object[] outputRow = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+    int oneSize = data.rowMetas[0].size();
+    if (one != null) {
+      System.arraycopy(one, 0, outputRow, 0, oneSize);
+    }
+    if (two != null && !meta.isLeftOnly()) {
+      System.arraycopy(two, 0, outputRow, oneSize, data.rowMetas[1].size());
+    }
+    putRow(data.outputRowMeta, outputRow);
+  }
+
+  @Override
+  public void dispose() {
+    deleteFiles(data.buildFiles);
+    deleteFiles(data.probeFiles);
+    data.buildFiles = null;
+    data.probeFiles = null;
+    data.table = null;
+    data.buffers = null;
+    super.dispose();
+  }
+
+  private static void deleteFiles(RowSpillFile[] files) {
+    if (files != null) {
+      for (RowSpillFile file : files) {
+        if (file != null) {
+          file.delete();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import java.util.List;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.RowSpillFile;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.transform.BaseTransformData;
+import org.apache.hop.pipeline.transform.ITransformData;
+
+public class HashJoinData extends BaseTransformData implements ITransformData {
+  /** The first (left) and second (right) input, in this order */
+  public IRowSet[] rowSets;
+
+  public IRowMeta[] rowMetas;
+  public int[][] keyNrs;
+
+  /** The rows read before the build side was known */
+  public List<List<Object[]>> buffers;
+
+  public boolean[] done;
+
+  /** The estimated size of a row in memory for both inputs */
+  public long[] rowSizes;
+
+  /** The index of the input which is loaded in the hash table: 0 or 1 */
+  public int build;
+
+  public IRowMeta outputRowMeta;
+
+  /** The estimated size of the build rows in the hash table */
+  public long buildBytes;
+
+  public long memoryLimit;
+  public String spillDirectory;
+
+  public HashJoinTable table;
+
+  /** The partitions of the build and probe side once the hash table is spilled to disk */
+  public RowSpillFile[] buildFiles;
+
+  public RowSpillFile[] probeFiles;
+
+  /** The hash table shared with the other copies, null when running in a single copy */
+  public HashJoinShared shared;
+
+  /** Default initializer */
+  public HashJoinData() {
+    super();
+  }
+}
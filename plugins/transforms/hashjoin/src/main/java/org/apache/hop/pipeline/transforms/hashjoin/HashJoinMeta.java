@@ -0,0 +1,444 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.CheckResult;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.ICheckResult;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.PipelineMeta.PipelineType;
+import org.apache.hop.pipeline.transform.BaseTransformMeta;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.ITransformIOMeta;
+import org.apache.hop.pipeline.transform.TransformIOMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+import org.apache.hop.pipeline.transform.stream.IStream.StreamType;
+import org.apache.hop.pipeline.transform.stream.Stream;
+import org.apache.hop.pipeline.transform.stream.StreamIcon;
+
+@Transform(
+    id = "HashJoin",
+    image = "hashjoin.svg",
+    name = "i18n::HashJoin.Name",
+    description = "i18n::HashJoin.Description",
+    categoryDescription = "i18n:org.apache.hop.pipeline.transform:BaseTransform.Category.Joins",
+    keywords = "i18n::HashJoinMeta.keyword",
+    documentationUrl = "/pipeline/transforms/hashjoin.html")
+public class HashJoinMeta extends BaseTransformMeta<HashJoin, HashJoinData> {
+  private static final Class<?> PKG = HashJoinMeta.class; // For Translator
+
+  public static final String JOIN_TYPE_INNER = "INNER";
+  public static final String JOIN_TYPE_LEFT_OUTER = "LEFT OUTER";
+  public static final String JOIN_TYPE_RIGHT_OUTER = "RIGHT OUTER";
+  public static final String JOIN_TYPE_FULL_OUTER = "FULL OUTER";
+  public static final String JOIN_TYPE_LEFT_SEMI = "LEFT SEMI";
+  public static final String JOIN_TYPE_LEFT_ANTI = "LEFT ANTI";
+
+  public static final String[] joinTypes = {
+    JOIN_TYPE_INNER,
+    JOIN_TYPE_LEFT_OUTER,
+    JOIN_TYPE_RIGHT_OUTER,
+    JOIN_TYPE_FULL_OUTER,
+    JOIN_TYPE_LEFT_SEMI,
+    JOIN_TYPE_LEFT_ANTI
+  };
+
+  public static final String BUILD_SIDE_AUTOMATIC = "AUTOMATIC";
+  public static final String BUILD_SIDE_FIRST = "FIRST";
+  public static final String BUILD_SIDE_SECOND = "SECOND";
+
+  public static final String[] buildSides = {
+    BUILD_SIDE_AUTOMATIC, BUILD_SIDE_FIRST, BUILD_SIDE_SECOND
+  };
+
+  public static final String DEFAULT_MEMORY_LIMIT = "256";
+
+  @HopMetadataProperty(
+      key = "join_type",
+      injectionKey = "JOIN_TYPE",
+      injectionKeyDescription = "HashJoin.Injection.JOIN_TYPE")
+  private String joinType;
+
+  @HopMetadataProperty(
+      key = "transform1",
+      injectionKey = "LEFT_TRANSFORM",
+      injectionKeyDescription = "HashJoin.Injection.LEFT_TRANSFORM")
+  private String leftTransformName;
+
+  @HopMetadataProperty(
+      key = "transform2",
+      injectionKey = "RIGHT_TRANSFORM",
+      injectionKeyDescription = "HashJoin.Injection.RIGHT_TRANSFORM")
+  private String rightTransformName;
+
+  @HopMetadataProperty(
+      groupKey = "keys_1",
+      key = "key",
+      injectionGroupKey = "KEY_FIELDS1",
+      injectionGroupDescription = "HashJoin.Injection.KEY_FIELDS1",
+      injectionKey = "KEY_FIELD1",
+      injectionKeyDescription = "HashJoin.Injection.KEY_FIELD1")
+  private List<String> keyFields1;
+
+  @HopMetadataProperty(
+      groupKey = "keys_2",
+      key = "key",
+      injectionGroupKey = "KEY_FIELDS2",
+      injectionGroupDescription = "HashJoin.Injection.KEY_FIELDS2",
+      injectionKey = "KEY_FIELD2",
+      injectionKeyDescription = "HashJoin.Injection.KEY_FIELD2")
+  private List<String> keyFields2;
+
+  /** Which input is loaded in the hash table: AUTOMATIC, FIRST or SECOND */
+  @HopMetadataProperty(
+      key = "build_side",
+      injectionKey = "BUILD_SIDE",
+      injectionKeyDescription = "HashJoin.Injection.BUILD_SIDE")
+  private String buildSide;
+
+  /** The size of the hash table in MB above which the rows are spilled to disk */
+  @HopMetadataProperty(
+      key = "memory_limit",
+      injectionKey = "MEMORY_LIMIT",
+      injectionKeyDescription = "HashJoin.Injection.MEMORY_LIMIT")
+  private String memoryLimit;
+
+  @HopMetadataProperty(
+      key = "spill_directory",
+      injectionKey = "SPILL_DIRECTORY",
+      injectionKeyDescription = "HashJoin.Injection.SPILL_DIRECTORY")
+  private String spillDirectory;
+
+  @Override
+  public boolean excludeFromRowLayoutVerification() {
+    return true;
+  }
+
+  public HashJoinMeta() {
+    keyFields1 = new ArrayList<>();
+    keyFields2 = new ArrayList<>();
+    joinType = JOIN_TYPE_INNER;
+    buildSide = BUILD_SIDE_AUTOMATIC;
+    memoryLimit = DEFAULT_MEMORY_LIMIT;
+    spillDirectory = "${java.io.tmpdir}";
+  }
+
+  @Override
+  public HashJoinMeta clone() {
+    HashJoinMeta meta = new HashJoinMeta();
+
+    meta.leftTransformName = this.leftTransformName;
+    meta.rightTransformName = this.rightTransformName;
+    meta.joinType = this.joinType;
+    meta.keyFields1.addAll(this.keyFields1);
+    meta.keyFields2.addAll(this.keyFields2);
+    meta.buildSide = this.buildSide;
+    meta.memoryLimit = this.memoryLimit;
+    meta.spillDirectory = this.spillDirectory;
+
+    return meta;
+  }
+
+  @Override
+  public void searchInfoAndTargetTransforms(List<TransformMeta> transforms) {
+    List<IStream> infoStreams = getTransformIOMeta().getInfoStreams();
+    infoStreams.get(0).setTransformMeta(TransformMeta.findTransform(transforms, leftTransformName));
+    infoStreams
+        .get(1)
+        .setTransformMeta(TransformMeta.findTransform(transforms, rightTransformName));
+  }
+
+  @Override
+  public void check(
+      List<ICheckResult> remarks,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IRowMeta prev,
+      String[] input,
+      String[] output,
+      IRowMeta info,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider) {
+    if (Const.indexOfString(joinType, joinTypes) < 0) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.InvalidJoinType", joinType),
+              transformMeta));
+    }
+    if (keyFields1.isEmpty() || keyFields1.size() != keyFields2.size()) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.KeysMismatch"),
+              transformMeta));
+    } else {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_OK,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.KeysOk"),
+              transformMeta));
+    }
+  }
+
+  @Override
+  public void getFields(
+      IRowMeta r,
+      String name,
+      IRowMeta[] info,
+      TransformMeta nextTransform,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider)
+      throws HopTransformException {
+    // We don't have any input fields here in "r" as they are all info fields.
+    // So we just merge in the info fields.  Semi and anti joins only pass the first stream.
+    //
+    if (info != null) {
+      int nrInfo = isLeftOnly() ? Math.min(1, info.length) : info.length;
+      for (int i = 0; i < nrInfo; i++) {
+        if (info[i] != null) {
+          r.mergeRowMeta(info[i], name);
+        }
+      }
+    }
+
+    for (int i = 0; i < r.size(); i++) {
+      IValueMeta vmi = r.getValueMeta(i);
+      if (vmi != null && Utils.isEmpty(vmi.getName())) {
+        vmi.setOrigin(name);
+      }
+    }
+  }
+
+  public ITransform getTransform(
+      TransformMeta transformMeta, HashJoinData data, int cnr, PipelineMeta tr, Pipeline pipeline) {
+    return new HashJoin(transformMeta, this, data, cnr, tr, pipeline);
+  }
+
+  /** Returns the Input/Output metadata for this transform: two info streams to join. */
+  @Override
+  public ITransformIOMeta getTransformIOMeta() {
+    ITransformIOMeta ioMeta = super.getTransformIOMeta(false);
+    if (ioMeta == null) {
+
+      ioMeta = new TransformIOMeta(true, true, false, false, false, false);
+
+      ioMeta.addStream(
+          new Stream(
+              StreamType.INFO,
+              null,
+              BaseMessages.getString(PKG, "HashJoinMeta.InfoStream.FirstStream.Description"),
+              StreamIcon.INFO,
+              null));
+      ioMeta.addStream(
+          new Stream(
+              StreamType.INFO,
+              null,
+              BaseMessages.getString(PKG, "HashJoinMeta.InfoStream.SecondStream.Description"),
+              StreamIcon.INFO,
+              null));
+      setTransformIOMeta(ioMeta);
+    }
+
+    return ioMeta;
+  }
+
+  @Override
+  public void resetTransformIoMeta() {
+    // Don't reset!
+  }
+
+  @Override
+  public PipelineType[] getSupportedPipelineTypes() {
+    return new PipelineType[] {
+      PipelineType.Normal,
+    };
+  }
+
+  /**
+   * @return true if the rows of the first stream without a match are passed
+   */
+  public boolean isLeftPreserved() {
+    return JOIN_TYPE_LEFT_OUTER.equalsIgnoreCase(joinType)
+        || JOIN_TYPE_FULL_OUTER.equalsIgnoreCase(joinType);
+  }
+
+  /**
+   * @return true if the rows of the second stream without a match are passed
+   */
+  public boolean isRightPreserved() {
+    return JOIN_TYPE_RIGHT_OUTER.equalsIgnoreCase(joinType)
+        || JOIN_TYPE_FULL_OUTER.equalsIgnoreCase(joinType);
+  }
+
+  public boolean isSemiJoin() {
+    return JOIN_TYPE_LEFT_SEMI.equalsIgnoreCase(joinType);
+  }
+
+  public boolean isAntiJoin() {
+    return JOIN_TYPE_LEFT_ANTI.equalsIgnoreCase(joinType);
+  }
+
+  /**
+   * @return true if only the fields of the first stream are passed (semi and anti joins)
+   */
+  public boolean isLeftOnly() {
+    return isSemiJoin() || isAntiJoin();
+  }
+
+  /**
+   * Gets joinType
+   *
+   * @return value of joinType
+   */
+  public String getJoinType() {
+    return joinType;
+  }
+
+  /**
+   * @param joinType The joinType to set
+   */
+  public void setJoinType(String joinType) {
+    this.joinType = joinType;
+  }
+
+  /**
+   * Gets leftTransformName
+   *
+   * @return value of leftTransformName
+   */
+  public String getLeftTransformName() {
+    return leftTransformName;
+  }
+
+  /**
+   * @param leftTransformName The leftTransformName to set
+   */
+  public void setLeftTransformName(String leftTransformName) {
+    this.leftTransformName = leftTransformName;
+  }
+
+  /**
+   * Gets rightTransformName
+   *
+   * @return value of rightTransformName
+   */
+  public String getRightTransformName() {
+    return rightTransformName;
+  }
+
+  /**
+   * @param rightTransformName The rightTransformName to set
+   */
+  public void setRightTransformName(String rightTransformName) {
+    this.rightTransformName = rightTransformName;
+  }
+
+  /**
+   * Gets keyFields1
+   *
+   * @return value of keyFields1
+   */
+  public List<String> getKeyFields1() {
+    return keyFields1;
+  }
+
+  /**
+   * @param keyFields1 The keyFields1 to set
+   */
+  public void setKeyFields1(List<String> keyFields1) {
+    this.keyFields1 = keyFields1;
+  }
+
+  /**
+   * Gets keyFields2
+   *
+   * @return value of keyFields2
+   */
+  public List<String> getKeyFields2() {
+    return keyFields2;
+  }
+
+  /**
+   * @param keyFields2 The keyFields2 to set
+   */
+  public void setKeyFields2(List<String> keyFields2) {
+    this.keyFields2 = keyFields2;
+  }
+
+  /**
+   * Gets buildSide
+   *
+   * @return value of buildSide
+   */
+  public String getBuildSide() {
+    return buildSide;
+  }
+
+  /**
+   * @param buildSide The buildSide to set
+   */
+  public void setBuildSide(String buildSide) {
+    this.buildSide = buildSide;
+  }
+
+  /**
+   * Gets memoryLimit
+   *
+   * @return value of memoryLimit
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param memoryLimit The memoryLimit to set
+   */
+  public void setMemoryLimit(String memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * Gets spillDirectory
+   *
+   * @return value of spillDirectory
+   */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * @param spillDirectory The spillDirectory to set
+   */
+  public void setSpillDirectory(String spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * The hash table shared by the copies of a hash join transform. Every copy adds the build rows it
+ * received, the last copy to finish seals the table and all copies then probe it in parallel. The
+ * last copy to finish probing passes the build rows which are only emitted at the end.
+ */
+public class HashJoinShared {
+  private final AtomicInteger copiesBuilding;
+  private final AtomicInteger copiesProbing;
+  private final CountDownLatch sealed = new CountDownLatch(1);
+
+  private HashJoinTable table;
+
+  public HashJoinShared(int copies) {
+    this.copiesBuilding = new AtomicInteger(copies);
+    this.copiesProbing = new AtomicInteger(copies);
+  }
+
+  /**
+   * Add the build rows of one copy to the shared table and mark that copy as built.
+   *
+   * @param rowMeta The layout of the build rows
+   * @param keyNrs The indexes of the key fields
+   * @param rows The build rows of the copy
+   * @param hashes The hashes of the keys of the rows
+   */
+  public void addRows(IRowMeta rowMeta, int[] keyNrs, List<Object[]> rows, int[] hashes) {
+    synchronized (this) {
+      // The layout of a copy without rows comes from the pipeline metadata and can differ in
+      // storage type from the actual rows, so the table takes the layout of the first rows.
+      //
+      if (table == null && !rows.isEmpty()) {
+        table = new HashJoinTable(rowMeta, keyNrs, rows.size());
+      }
+      for (int i = 0; i < rows.size(); i++) {
+        table.add(rows.get(i), hashes[i]);
+      }
+    }
+    if (copiesBuilding.decrementAndGet() == 0) {
+      synchronized (this) {
+        if (table == null) {
+          table = new HashJoinTable(rowMeta, keyNrs);
+        }
+        table.seal();
+      }
+      sealed.countDown();
+    }
+  }
+
+  /**
+   * Wait until all copies added their rows.
+   *
+   * @param millis The maximum time to wait
+   * @return The sealed table or null if it's not sealed yet
+   */
+  public HashJoinTable waitForTable(long millis) throws InterruptedException {
+    if (sealed.await(millis, TimeUnit.MILLISECONDS)) {
+      synchronized (this) {
+        return table;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Mark a copy as done probing.
+   *
+   * @return true if this was the last copy to finish
+   */
+  public boolean finishProbing() {
+    return copiesProbing.decrementAndGet() == 0;
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import java.util.Arrays;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * The hash table of the build side of a hash join. Rows are kept in an array and chained per bucket
+ * through parallel int arrays, so no objects are allocated per entry. Rows with equal keys keep the
+ * order in which they were added.
+ *
+ * <p>The table is filled with {@link #add(Object[], int)} and then sealed with {@link #seal()}
+ * before it's probed. Once sealed, lookups don't modify the table apart from the matched flags, so
+ * several threads can probe it at the same time.
+ */
+public class HashJoinTable {
+  private static final int MIN_BUCKETS = 16;
+
+  private final IRowMeta rowMeta;
+  private final int[] keyNrs;
+
+  private Object[][] rows;
+  private int[] hashes;
+  private int size;
+
+  private int[] buckets;
+  private int[] next;
+  private int mask;
+  private boolean[] matched;
+
+  public HashJoinTable(IRowMeta rowMeta, int[] keyNrs) {
+    this(rowMeta, keyNrs, 1024);
+  }
+
+  public HashJoinTable(IRowMeta rowMeta, int[] keyNrs, int initialCapacity) {
+    this.rowMeta = rowMeta;
+    this.keyNrs = keyNrs;
+    this.rows = new Object[Math.max(initialCapacity, MIN_BUCKETS)][];
+    this.hashes = new int[rows.length];
+  }
+
+  /**
+   * Calculate the hash of the key values of a row. Keys which compare as equal get the same hash,
+   * also for big numbers with a different scale and case-insensitive strings.
+   *
+   * @param rowMeta The layout of the row
+   * @param row The row data
+   * @param keyNrs The indexes of the key fields
+   * @return The hash of the key
+   * @throws HopValueException In case a value can't be converted
+   */
+  public static int hash(IRowMeta rowMeta, Object[] row, int[] keyNrs) throws HopValueException {
+    int hash = 1;
+    for (int keyNr : keyNrs) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(keyNr);
+      Object value = row[keyNr];
+      int valueHash;
+      if (valueMeta.isNull(value)) {
+        valueHash = 0;
+      } else if (valueMeta.isBigNumber()) {
+        valueHash = valueMeta.getBigNumber(value).stripTrailingZeros().hashCode();
+      } else if (valueMeta.isString() && valueMeta.isCaseInsensitive()) {
+        valueHash = valueMeta.getString(value).toLowerCase().hashCode();
+      } else {
+        valueHash = valueMeta.hashCode(value);
+      }
+      hash = 31 * hash + valueHash;
+    }
+    return mix(hash);
+  }
+
+  /** The finalizer of MurmurHash3: spreads the bits so the low and high bits are both usable. */
+  static int mix(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+
+  /**
+   * Add a row to the table. This is only allowed before the table is sealed.
+   *
+   * @param row The row to add
+   * @param hash The hash of the key of the row, see {@link #hash(IRowMeta, Object[], int[])}
+   */
+  public void add(Object[] row, int hash) {
+    if (buckets != null) {
+      throw new IllegalStateException("Rows can't be added to a sealed hash table");
+    }
+    if (size == rows.length) {
+      int capacity = rows.length + (rows.length >> 1);
+      rows = Arrays.copyOf(rows, capacity);
+      hashes = Arrays.copyOf(hashes, capacity);
+    }
+    rows[size] = row;
+    hashes[size] = hash;
+    size++;
+  }
+
+  /** Build the buckets. After this call the table can be probed but no rows can be added. */
+  public void seal() {
+    if (buckets != null) {
+      return;
+    }
+    int nrBuckets = Integer.highestOneBit(Math.max(size * 2 - 1, MIN_BUCKETS - 1)) << 1;
+    mask = nrBuckets - 1;
+    buckets = new int[nrBuckets];
+    Arrays.fill(buckets, -1);
+    next = new int[size];
+    matched = new boolean[size];
+
+    // Insert backwards so the chains keep the order in which the rows were added
+    //
+    for (int i = size - 1; i >= 0; i--) {
+      int bucket = hashes[i] & mask;
+      next[i] = buckets[bucket];
+      buckets[bucket] = i;
+    }
+  }
+
+  /**
+   * Find the first row in the table with the same key as the given row.
+   *
+   * @param hash The hash of the key of the probe row
+   * @param probeMeta The layout of the probe row
+   * @param probeRow The probe row
+   * @param probeKeyNrs The indexes of the key fields in the probe row
+   * @return The index of the first matching row or -1 if there is none
+   * @throws HopValueException In case the keys can't be compared
+   */
+  public int find(int hash, IRowMeta probeMeta, Object[] probeRow, int[] probeKeyNrs)
+      throws HopValueException {
+    return scan(buckets[hash & mask], hash, probeMeta, probeRow, probeKeyNrs);
+  }
+
+  /**
+   * Find the next row in the table with the same key as the given row.
+   *
+   * @param index The index returned by the previous call to find or findNext
+   * @see #find(int, IRowMeta, Object[], int[])
+   */
+  public int findNext(int index, int hash, IRowMeta probeMeta, Object[] probeRow, int[] probeKeyNrs)
+      throws HopValueException {
+    return scan(next[index], hash, probeMeta, probeRow, probeKeyNrs);
+  }
+
+  private int scan(int index, int hash, IRowMeta probeMeta, Object[] probeRow, int[] probeKeyNrs)
+      throws HopValueException {
+    while (index >= 0) {
+      if (hashes[index] == hash
+          && probeMeta.compare(probeRow, rowMeta, rows[index], probeKeyNrs, keyNrs) == 0) {
+        return index;
+      }
+      index = next[index];
+    }
+    return -1;
+  }
+
+  public Object[] getRow(int index) {
+    return rows[index];
+  }
+
+  public int getHash(int index) {
+    return hashes[index];
+  }
+
+  public void setMatched(int index) {
+    matched[index] = true;
+  }
+
+  public boolean isMatched(int index) {
+    return matched[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets rowMeta
+   *
+   * @return value of rowMeta
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.loadsave.LoadSaveTester;
+import org.apache.hop.pipeline.transforms.loadsave.validator.IFieldLoadSaveValidator;
+import org.apache.hop.pipeline.transforms.loadsave.validator.ListLoadSaveValidator;
+import org.apache.hop.pipeline.transforms.loadsave.validator.StringLoadSaveValidator;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class HashJoinMetaTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Test
+  public void testSerialization() throws HopException {
+    List<String> attributes =
+        Arrays.asList(
+            "joinType",
+            "keyFields1",
+            "keyFields2",
+            "leftTransformName",
+            "rightTransformName",
+            "buildSide",
+            "memoryLimit",
+            "spillDirectory");
+
+    Map<String, IFieldLoadSaveValidator<?>> attrValidatorMap = new HashMap<>();
+    attrValidatorMap.put(
+        "keyFields1", new ListLoadSaveValidator<String>(new StringLoadSaveValidator()) {});
+    attrValidatorMap.put(
+        "keyFields2", new ListLoadSaveValidator<String>(new StringLoadSaveValidator()) {});
+
+    LoadSaveTester loadSaveTester =
+        new LoadSaveTester(
+            HashJoinMeta.class,
+            attributes,
+            new HashMap<>(),
+            new HashMap<>(),
+            attrValidatorMap,
+            new HashMap<>());
+    loadSaveTester.testSerialization();
+  }
+
+  @Test
+  public void testGetFields() throws Exception {
+    RowMeta inputRow1 = new RowMeta();
+    inputRow1.addValueMeta(new ValueMetaInteger("id"));
+    inputRow1.addValueMeta(new ValueMetaString("name"));
+
+    RowMeta inputRow2 = new RowMeta();
+    inputRow2.addValueMeta(new ValueMetaInteger("id"));
+    inputRow2.addValueMeta(new ValueMetaString("value"));
+
+    HashJoinMeta meta = new HashJoinMeta();
+    TransformMeta transformMeta = new TransformMeta("Hash join", meta);
+
+    RowMeta outputRowMeta = new RowMeta();
+    meta.getFields(
+        outputRowMeta,
+        "Hash join",
+        new IRowMeta[] {inputRow1, inputRow2},
+        transformMeta,
+        new Variables(),
+        null);
+    assertEquals(4, outputRowMeta.size());
+    assertEquals("id_1", outputRowMeta.getValueMeta(2).getName());
+    assertEquals("value", outputRowMeta.getValueMeta(3).getName());
+
+    // Semi and anti joins only pass the fields of the first stream
+    //
+    meta.setJoinType(HashJoinMeta.JOIN_TYPE_LEFT_ANTI);
+    outputRowMeta = new RowMeta();
+    meta.getFields(
+        outputRowMeta,
+        "Hash join",
+        new IRowMeta[] {inputRow1, inputRow2},
+        transformMeta,
+        new Variables(),
+        null);
+    assertEquals(2, outputRowMeta.size());
+    assertEquals("name", outputRowMeta.getValueMeta(1).getName());
+  }
+
+  @Test
+  public void testJoinTypeFlags() {
+    HashJoinMeta meta = new HashJoinMeta();
+    assertFalse(meta.isLeftPreserved());
+    assertFalse(meta.isRightPreserved());
+
+    meta.setJoinType(HashJoinMeta.JOIN_TYPE_FULL_OUTER);
+    assertTrue(meta.isLeftPreserved());
+    assertTrue(meta.isRightPreserved());
+
+    meta.setJoinType(HashJoinMeta.JOIN_TYPE_LEFT_SEMI);
+    assertTrue(meta.isSemiJoin());
+    assertTrue(meta.isLeftOnly());
+    assertFalse(meta.isLeftPreserved());
+  }
+
+  @Test
+  public void cloneTest() {
+    HashJoinMeta meta = new HashJoinMeta();
+    meta.setKeyFields1(Arrays.asList("kf1-1", "kf1-2"));
+    meta.setKeyFields2(Arrays.asList("kf2-1", "kf2-2"));
+    meta.setJoinType(HashJoinMeta.JOIN_TYPE_RIGHT_OUTER);
+    meta.setBuildSide(HashJoinMeta.BUILD_SIDE_FIRST);
+    meta.setMemoryLimit("64");
+    meta.setSpillDirectory("/tmp/spill");
+
+    HashJoinMeta aClone = meta.clone();
+    assertNotSame(meta, aClone);
+    assertEquals(meta.getKeyFields1(), aClone.getKeyFields1());
+    assertEquals(meta.getKeyFields2(), aClone.getKeyFields2());
+    assertEquals(meta.getJoinType(), aClone.getJoinType());
+    assertEquals(meta.getBuildSide(), aClone.getBuildSide());
+    assertEquals(meta.getMemoryLimit(), aClone.getMemoryLimit());
+    assertEquals(meta.getSpillDirectory(), aClone.getSpillDirectory());
+    assertNotSame(meta.getTransformIOMeta(), aClone.getTransformIOMeta());
+  }
+}
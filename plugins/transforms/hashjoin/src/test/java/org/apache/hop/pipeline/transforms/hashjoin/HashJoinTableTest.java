@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class HashJoinTableTest {
+
+  private static final int[] KEYS = {0};
+
+  private static IRowMeta rowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    return rowMeta;
+  }
+
+  private static void add(HashJoinTable table, IRowMeta rowMeta, Object[] row) throws Exception {
+    table.add(row, HashJoinTable.hash(rowMeta, row, KEYS));
+  }
+
+  @Test
+  public void testFindAllMatchesInInsertionOrder() throws Exception {
+    IRowMeta rowMeta = rowMeta();
+    HashJoinTable table = new HashJoinTable(rowMeta, KEYS, 2);
+    for (int i = 0; i < 1000; i++) {
+      add(table, rowMeta, new Object[] {(long) (i % 10), "row" + i});
+    }
+    table.seal();
+    assertEquals(1000, table.size());
+
+    Object[] probe = {7L, "probe"};
+    int hash = HashJoinTable.hash(rowMeta, probe, KEYS);
+    int count = 0;
+    int previous = -1;
+    for (int index = table.find(hash, rowMeta, probe, KEYS);
+        index >= 0;
+        index = table.findNext(index, hash, rowMeta, probe, KEYS)) {
+      assertEquals(7L, table.getRow(index)[0]);
+      assertTrue(index > previous);
+      previous = index;
+      count++;
+    }
+    assertEquals(100, count);
+
+    Object[] missing = {42L, "missing"};
+    assertEquals(
+        -1, table.find(HashJoinTable.hash(rowMeta, missing, KEYS), rowMeta, missing, KEYS));
+  }
+
+  @Test
+  public void testMatchedFlags() throws Exception {
+    IRowMeta rowMeta = rowMeta();
+    HashJoinTable table = new HashJoinTable(rowMeta, KEYS);
+    add(table, rowMeta, new Object[] {1L, "a"});
+    add(table, rowMeta, new Object[] {2L, "b"});
+    table.seal();
+
+    assertFalse(table.isMatched(0));
+    table.setMatched(1);
+    assertTrue(table.isMatched(1));
+    assertFalse(table.isMatched(0));
+  }
+
+  @Test
+  public void testEmptyTable() throws Exception {
+    IRowMeta rowMeta = rowMeta();
+    HashJoinTable table = new HashJoinTable(rowMeta, KEYS);
+    table.seal();
+    Object[] probe = {1L, "a"};
+    assertEquals(-1, table.find(HashJoinTable.hash(rowMeta, probe, KEYS), rowMeta, probe, KEYS));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAddAfterSeal() throws Exception {
+    IRowMeta rowMeta = rowMeta();
+    HashJoinTable table = new HashJoinTable(rowMeta, KEYS);
+    table.seal();
+    add(table, rowMeta, new Object[] {1L, "a"});
+  }
+
+  @Test
+  public void testEqualBigNumbersHashTheSame() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+    assertEquals(
+        HashJoinTable.hash(rowMeta, new Object[] {new BigDecimal("1.50")}, KEYS),
+        HashJoinTable.hash(rowMeta, new Object[] {new BigDecimal("1.5")}, KEYS));
+  }
+}
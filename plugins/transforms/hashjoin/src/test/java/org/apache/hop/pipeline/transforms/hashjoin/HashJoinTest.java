@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.nullable;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashJoinTest {
+  private static final Object[][] LEFT = {
+    {1L, "a"}, {2L, "b"}, {2L, "bb"}, {3L, "c"}, {null, "n"}, {5L, "e"}
+  };
+  private static final Object[][] RIGHT = {{2L, "x"}, {3L, "y"}, {3L, "yy"}, {4L, "z"}};
+
+  private TransformMockHelper<HashJoinMeta, HashJoinData> smh;
+  private TransformMeta leftTransformMeta;
+  private TransformMeta rightTransformMeta;
+  private File spillDirectory;
+
+  @Before
+  public void setUp() throws Exception {
+    smh = new TransformMockHelper<>("HashJoin", HashJoinMeta.class, HashJoinData.class);
+    when(smh.logChannelFactory.create(any(), nullable(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+
+    leftTransformMeta = mock(TransformMeta.class);
+    when(leftTransformMeta.getName()).thenReturn("left");
+    when(smh.pipelineMeta.findTransform("left")).thenReturn(leftTransformMeta);
+    rightTransformMeta = mock(TransformMeta.class);
+    when(rightTransformMeta.getName()).thenReturn("right");
+    when(smh.pipelineMeta.findTransform("right")).thenReturn(rightTransformMeta);
+
+    spillDirectory = Files.createTempDirectory("hashjoin").toFile();
+  }
+
+  @After
+  public void cleanUp() {
+    smh.cleanUp();
+    File[] files = spillDirectory.listFiles();
+    assertEquals("Spill files are left behind", 0, files == null ? 0 : files.length);
+    spillDirectory.delete();
+  }
+
+  @Test
+  public void testAllJoinTypesAndBuildSides() throws Exception {
+    for (String joinType : HashJoinMeta.joinTypes) {
+      List<String> expected = nestedLoopJoin(joinType);
+      for (String buildSide : HashJoinMeta.buildSides) {
+        assertEquals(joinType + " / " + buildSide, expected, hashJoin(joinType, buildSide, "256"));
+      }
+    }
+  }
+
+  @Test
+  public void testSpillToDisk() throws Exception {
+    // A memory limit of 0 spills the hash table after the first row
+    //
+    for (String joinType : HashJoinMeta.joinTypes) {
+      List<String> expected = nestedLoopJoin(joinType);
+      for (String buildSide : HashJoinMeta.buildSides) {
+        assertEquals(joinType + " / " + buildSide, expected, hashJoin(joinType, buildSide, "0"));
+      }
+    }
+  }
+
+  @Test
+  public void testMultipleCopies() throws Exception {
+    // The copies share one hash table, the last copy to finish emits the unmatched build rows
+    //
+    when(smh.transformMeta.getCopies(any())).thenReturn(2);
+    when(smh.pipeline.getExtensionDataMap()).thenReturn(new HashMap<>());
+    for (String joinType : HashJoinMeta.joinTypes) {
+      List<String> expected = nestedLoopJoin(joinType);
+      for (String buildSide : HashJoinMeta.buildSides) {
+        smh.pipeline.getExtensionDataMap().clear();
+        assertEquals(
+            joinType + " / " + buildSide, expected, hashJoin(joinType, buildSide, "256", 2));
+      }
+    }
+  }
+
+  private List<String> hashJoin(String joinType, String buildSide, String memoryLimit)
+      throws Exception {
+    return hashJoin(joinType, buildSide, memoryLimit, 1);
+  }
+
+  /** Run the given number of copies in parallel, every copy gets part of the rows of each input. */
+  private List<String> hashJoin(String joinType, String buildSide, String memoryLimit, int copies)
+      throws Exception {
+    HashJoinMeta meta = new HashJoinMeta();
+    meta.setJoinType(joinType);
+    meta.setBuildSide(buildSide);
+    meta.setMemoryLimit(memoryLimit);
+    meta.setSpillDirectory(spillDirectory.getAbsolutePath());
+    meta.setLeftTransformName("left");
+    meta.setRightTransformName("right");
+    meta.setKeyFields1(Arrays.asList("id"));
+    meta.setKeyFields2(Arrays.asList("id"));
+    meta.searchInfoAndTargetTransforms(Arrays.asList(leftTransformMeta, rightTransformMeta));
+
+    HashJoin[] transforms = new HashJoin[copies];
+    IRowSet[] outputs = new IRowSet[copies];
+    for (int copy = 0; copy < copies; copy++) {
+      transforms[copy] =
+          new HashJoin(
+              smh.transformMeta, meta, new HashJoinData(), copy, smh.pipelineMeta, smh.pipeline);
+      transforms[copy].init();
+      transforms[copy].addRowSetToInputRowSets(
+          createRowSet("left", "name", part(LEFT, copy, copies), copy));
+      transforms[copy].addRowSetToInputRowSets(
+          createRowSet("right", "value", part(RIGHT, copy, copies), copy));
+      outputs[copy] = new QueueRowSet();
+      transforms[copy].addRowSetToOutputRowSets(outputs[copy]);
+    }
+
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    Thread[] threads = new Thread[copies];
+    for (int copy = 0; copy < copies; copy++) {
+      HashJoin transform = transforms[copy];
+      threads[copy] =
+          new Thread(
+              () -> {
+                try {
+                  while (transform.processRow()) {
+                    // Keep going
+                  }
+                } catch (Throwable e) {
+                  errors.add(e);
+                } finally {
+                  transform.dispose();
+                }
+              });
+      threads[copy].start();
+    }
+    for (Thread thread : threads) {
+      thread.join(10000);
+    }
+    assertEquals(Collections.emptyList(), errors);
+
+    List<String> result = new ArrayList<>();
+    for (IRowSet output : outputs) {
+      Object[] row;
+      while ((row = output.getRowImmediate()) != null) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < output.getRowMeta().size(); i++) {
+          line.append(row[i]).append(';');
+        }
+        result.add(line.toString());
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  /** The rows of the given copy when the rows are distributed round robin. */
+  private static Object[][] part(Object[][] rows, int copy, int copies) {
+    List<Object[]> part = new ArrayList<>();
+    for (int i = copy; i < rows.length; i += copies) {
+      part.add(rows[i]);
+    }
+    return part.toArray(new Object[0][]);
+  }
+
+  private IRowSet createRowSet(String transformName, String fieldName, Object[][] rows, int copy) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString(fieldName));
+
+    IRowSet rowSet = new QueueRowSet();
+    rowSet.setThreadNameFromToCopy(transformName, 0, "HashJoin", copy);
+    for (Object[] row : rows) {
+      rowSet.putRow(rowMeta, row.clone());
+    }
+    rowSet.setDone();
+    return rowSet;
+  }
+
+  /** The reference result: compare every left row with every right row. */
+  private static List<String> nestedLoopJoin(String joinType) {
+    HashJoinMeta meta = new HashJoinMeta();
+    meta.setJoinType(joinType);
+    List<String> result = new ArrayList<>();
+    boolean[] rightMatched = new boolean[RIGHT.length];
+    for (Object[] left : LEFT) {
+      boolean matched = false;
+      for (int r = 0; r < RIGHT.length; r++) {
+        if (Objects.equals(left[0], RIGHT[r][0])) {
+          matched = true;
+          rightMatched[r] = true;
+          if (!meta.isLeftOnly()) {
+            result.add(line(left, RIGHT[r]));
+          }
+        }
+      }
+      if (meta.isLeftOnly()) {
+        if (matched == meta.isSemiJoin()) {
+          result.add(left[0] + ";" + left[1] + ";");
+        }
+      } else if (!matched && meta.isLeftPreserved()) {
+        result.add(line(left, null));
+      }
+    }
+    if (meta.isRightPreserved()) {
+      for (int r = 0; r < RIGHT.length; r++) {
+        if (!rightMatched[r]) {
+          result.add(line(null, RIGHT[r]));
+        }
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  private static String line(Object[] left, Object[] right) {
+    Object[] values = new Object[4];
+    if (left != null) {
+      System.arraycopy(left, 0, values, 0, 2);
+    }
+    if (right != null) {
+      System.arraycopy(right, 0, values, 2, 2);
+    }
+    StringBuilder line = new StringBuilder();
+    for (Object value : values) {
+      line.append(value).append(';');
+    }
+    return line.toString();
+  }
+}
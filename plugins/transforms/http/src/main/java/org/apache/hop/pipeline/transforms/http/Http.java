@@ -18,11 +18,16 @@
 package org.apache.hop.pipeline.transforms.http;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
@@ -70,30 +75,29 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private Object[] execHttp(IRowMeta rowMeta, Object[] row) throws HopException {
-    if (first) {
-      first = false;
-      data.argnrs = new int[meta.getArgumentField().length];
-
-      for (int i = 0; i < meta.getArgumentField().length; i++) {
-        data.argnrs[i] = rowMeta.indexOfValue(meta.getArgumentField()[i]);
-        if (data.argnrs[i] < 0) {
-          logError(
-              BaseMessages.getString(PKG, "HTTP.Log.ErrorFindingField")
-                  + meta.getArgumentField()[i]
-                  + "]");
-          throw new HopTransformException(
-              BaseMessages.getString(
-                  PKG, "HTTP.Exception.CouldnotFindField", meta.getArgumentField()[i]));
-        }
+  private void prepareArguments(IRowMeta rowMeta) throws HopException {
+    data.argnrs = new int[meta.getArgumentField().length];
+
+    for (int i = 0; i < meta.getArgumentField().length; i++) {
+      data.argnrs[i] = rowMeta.indexOfValue(meta.getArgumentField()[i]);
+      if (data.argnrs[i] < 0) {
+        logError(
+            BaseMessages.getString(PKG, "HTTP.Log.ErrorFindingField")
+                + meta.getArgumentField()[i]
+                + "]");
+        throw new HopTransformException(
+            BaseMessages.getString(
+                PKG, "HTTP.Exception.CouldnotFindField", meta.getArgumentField()[i]));
       }
     }
-
-    return callHttpService(rowMeta, row);
   }
 
-  @VisibleForTesting
-  Object[] callHttpService(IRowMeta rowMeta, Object[] rowData) throws HopException {
+  /**
+   * Builds the client once per transform copy, in init() before any request threads are started.
+   * All clients share the connection pool of the {@link HttpClientManager} so connections are kept
+   * alive and re-used across rows.
+   */
+  private CloseableHttpClient createHttpClient() {
     HttpClientManager.HttpClientBuilderFacade clientBuilder =
         HttpClientManager.getInstance().createBuilder();
 
@@ -113,33 +117,55 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
       clientBuilder.ignoreSsl(true);
     }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+    return clientBuilder.build();
+  }
 
-    // Prepare Http get
-    URI uri = null;
-    try {
-      URIBuilder uriBuilder = constructUrlBuilder(rowMeta, rowData);
+  @VisibleForTesting
+  Object[] callHttpService(IRowMeta rowMeta, Object[] rowData) throws HopException {
+    return executeRequest(rowMeta, rowData, createRequest(rowMeta, rowData));
+  }
 
+  /**
+   * Creates the request for the given row. This reads the row values and is always done on the
+   * thread of the transform itself.
+   */
+  private HttpGet createRequest(IRowMeta rowMeta, Object[] rowData) throws HopException {
+    URIBuilder uriBuilder = constructUrlBuilder(rowMeta, rowData);
+    URI uri;
+    try {
       uri = uriBuilder.build();
-      HttpGet method = new HttpGet(uri);
-
-      // Add Custom Http headers
-      if (data.useHeaderParameters) {
-        for (int i = 0; i < data.header_parameters_nrs.length; i++) {
-          method.addHeader(
-              data.headerParameters[i].getName(),
-              data.inputRowMeta.getString(rowData, data.header_parameters_nrs[i]));
-          if (isDebug()) {
-            log.logDebug(
-                BaseMessages.getString(
-                    PKG,
-                    "HTTPDialog.Log.HeaderValue",
-                    data.headerParameters[i].getName(),
-                    data.inputRowMeta.getString(rowData, data.header_parameters_nrs[i])));
-          }
+    } catch (Exception e) {
+      throw new HopException(BaseMessages.getString(PKG, "HTTP.Log.UnableCreateUrl"), e);
+    }
+    HttpGet method = new HttpGet(uri);
+
+    // Add Custom Http headers
+    if (data.useHeaderParameters) {
+      for (int i = 0; i < data.header_parameters_nrs.length; i++) {
+        method.addHeader(
+            data.headerParameters[i].getName(),
+            data.inputRowMeta.getString(rowData, data.header_parameters_nrs[i]));
+        if (isDebug()) {
+          log.logDebug(
+              BaseMessages.getString(
+                  PKG,
+                  "HTTPDialog.Log.HeaderValue",
+                  data.headerParameters[i].getName(),
+                  data.inputRowMeta.getString(rowData, data.header_parameters_nrs[i])));
         }
       }
+    }
+    return method;
+  }
 
+  /**
+   * Executes the request and appends the results to a copy of the row. This can run on one of the
+   * threads of the request executor.
+   */
+  private Object[] executeRequest(IRowMeta rowMeta, Object[] rowData, HttpGet method)
+      throws HopException {
+    URI uri = method.getURI();
+    try {
       Object[] newRow = null;
       if (rowData != null) {
         newRow = rowData.clone();
@@ -166,7 +192,7 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
         HttpClientContext localContext = HttpClientContext.create();
         localContext.setAuthCache(authCache);
 
-        httpResponse = httpClient.execute(target, method, localContext);
+        httpResponse = execute(target, method, localContext);
 
         // calculate the responseTime
         long responseTime = System.currentTimeMillis() - startTime;
@@ -256,6 +282,61 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
     }
   }
 
+  /**
+   * Executes the request, retrying after I/O errors and after responses telling us to back off. The
+   * delay between retries doubles on every attempt.
+   */
+  private CloseableHttpResponse execute(
+      HttpHost target, HttpGet method, HttpClientContext localContext)
+      throws IOException, InterruptedException {
+    CloseableHttpClient httpClient = data.httpClient;
+    for (int attempt = 0; ; attempt++) {
+      throttle();
+      try {
+        CloseableHttpResponse httpResponse = httpClient.execute(target, method, localContext);
+        if (attempt >= data.maxRetries || !isRetryableStatusCode(requestStatusCode(httpResponse))) {
+          return httpResponse;
+        }
+        httpResponse.close();
+      } catch (UnknownHostException e) {
+        throw e;
+      } catch (IOException e) {
+        if (attempt >= data.maxRetries || isStopped()) {
+          throw e;
+        }
+      }
+      method.reset();
+      long delay = data.retryDelay << Math.min(attempt, 16);
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG, "HTTP.Log.RetryingRequest", method.getURI(), attempt + 1, delay));
+      }
+      Thread.sleep(delay);
+    }
+  }
+
+  private static boolean isRetryableStatusCode(int statusCode) {
+    return statusCode == 429 || statusCode == HttpURLConnection.HTTP_UNAVAILABLE;
+  }
+
+  /** Waits until the next request is allowed to start according to the request rate limit. */
+  private void throttle() throws InterruptedException {
+    if (data.requestInterval <= 0) {
+      return;
+    }
+    long now = System.nanoTime();
+    long slot =
+        Math.max(
+            now,
+            data.nextRequestSlot.getAndAccumulate(
+                now, (previous, current) -> Math.max(previous, current) + data.requestInterval));
+    long wait = slot - now;
+    if (wait > 0) {
+      TimeUnit.NANOSECONDS.sleep(wait);
+    }
+  }
+
   private URIBuilder constructUrlBuilder(IRowMeta outputRowMeta, Object[] row)
       throws HopValueException, HopException {
     URIBuilder uriBuilder;
@@ -300,7 +381,11 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
 
     boolean firstWithoutPreviousTransforms = first && data.withoutPreviousTransforms;
     if (r == null && !firstWithoutPreviousTransforms) {
-      setOutputDone();
+      // Wait for the requests still in flight
+      //
+      if (flushPendingRequests(0)) {
+        setOutputDone();
+      }
       return false;
     }
 
@@ -358,37 +443,83 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
                 resolve(meta.getHeaderParameter()[i]),
                 data.outputRowMeta.getString(r, data.header_parameters_nrs[i]));
       }
+
+      prepareArguments(data.inputRowMeta);
+      first = false;
     } // end if first
 
+    if (data.executor == null) {
+      try {
+        putResultRow(callHttpService(data.inputRowMeta, r)); // add new values to the row
+      } catch (HopException e) {
+        return handleRequestError(r, e);
+      }
+      return true;
+    }
+
+    // Keep a number of requests in flight, results are passed on in the order of the input rows
+    //
     try {
-      Object[] outputRowData = execHttp(data.inputRowMeta, r); // add new values to the row
-      putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
+      IRowMeta rowMeta = data.inputRowMeta;
+      HttpGet method = createRequest(rowMeta, r);
+      Future<Object[]> result = data.executor.submit(() -> executeRequest(rowMeta, r, method));
+      data.pendingRows.add(r);
+      data.pendingResults.add(result);
+    } catch (HopException e) {
+      return handleRequestError(r, e);
+    }
+    return flushPendingRequests(data.parallelRequests - 1);
+  }
 
-      if (checkFeedback(getLinesRead())) {
-        if (isDetailed()) {
-          logDetailed(BaseMessages.getString(PKG, "HTTP.LineNumber") + getLinesRead());
+  /**
+   * Passes on the results of the oldest requests in flight until no more than the given number of
+   * requests remain.
+   *
+   * @return false if the transform needs to stop because of an error
+   */
+  private boolean flushPendingRequests(int remaining) throws HopException {
+    while (data.pendingResults.size() > remaining) {
+      Object[] row = data.pendingRows.poll();
+      Future<Object[]> result = data.pendingResults.poll();
+      try {
+        putResultRow(result.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException(e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (!handleRequestError(
+            row, cause instanceof HopException ? (HopException) cause : new HopException(cause))) {
+          return false;
         }
       }
-    } catch (HopException e) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
+    }
+    return true;
+  }
 
-      if (getTransformMeta().isDoingErrorHandling()) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError(BaseMessages.getString(PKG, "HTTP.ErrorInTransformRunning") + e.getMessage());
-        setErrors(1);
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-      if (sendToErrorRow) {
-        // Simply add this row to the error row
-        putError(data.inputRowMeta, r, 1, errorMessage, null, "HTTP001");
+  private void putResultRow(Object[] outputRowData) throws HopException {
+    putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
+
+    if (checkFeedback(getLinesRead())) {
+      if (isDetailed()) {
+        logDetailed(BaseMessages.getString(PKG, "HTTP.LineNumber") + getLinesRead());
       }
     }
+  }
 
+  /**
+   * @return true if the row was sent to the error handling, false if the transform needs to stop
+   */
+  private boolean handleRequestError(Object[] row, HopException e) throws HopException {
+    if (!getTransformMeta().isDoingErrorHandling()) {
+      logError(BaseMessages.getString(PKG, "HTTP.ErrorInTransformRunning") + e.getMessage());
+      setErrors(1);
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    // Simply add this row to the error row
+    putError(data.inputRowMeta, row, 1, e.toString(), null, "HTTP001");
     return true;
   }
 
@@ -408,8 +539,58 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
       data.withoutPreviousTransforms =
           getPipelineMeta().getPrevTransforms(getTransformMeta()).length == 0;
 
+      data.parallelRequests =
+          Math.max(
+              1,
+              Const.toInt(resolve(meta.getParallelRequests()), HttpMeta.DEFAULT_PARALLEL_REQUESTS));
+      data.maxRetries = Math.max(0, Const.toInt(resolve(meta.getMaxRetries()), 0));
+      data.retryDelay =
+          Math.max(0L, Const.toLong(resolve(meta.getRetryDelay()), HttpMeta.DEFAULT_RETRY_DELAY));
+      double requestsPerSecond = Const.toDouble(resolve(meta.getRequestsPerSecond()), 0);
+      data.requestInterval =
+          requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0L;
+
+      // The request threads only use the client, they never create one
+      //
+      try {
+        data.httpClient = createHttpClient();
+      } catch (Exception e) {
+        logError(BaseMessages.getString(PKG, "HTTP.Log.UnableToCreateClient"), e);
+        return false;
+      }
+
+      if (data.parallelRequests > 1) {
+        data.executor =
+            Executors.newFixedThreadPool(
+                data.parallelRequests,
+                runnable -> {
+                  Thread thread = new Thread(runnable, getTransformName() + " - HTTP request");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+      }
+
       return true;
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    if (data.executor != null) {
+      data.executor.shutdownNow();
+      data.executor = null;
+    }
+    data.pendingRows.clear();
+    data.pendingResults.clear();
+    if (data.httpClient != null) {
+      try {
+        data.httpClient.close();
+      } catch (IOException e) {
+        logError(BaseMessages.getString(PKG, "HTTP.Log.UnableToCloseClient"), e);
+      }
+      data.httpClient = null;
+    }
+    super.dispose();
+  }
 }
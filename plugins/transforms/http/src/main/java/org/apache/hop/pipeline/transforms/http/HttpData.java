@@ -17,10 +17,16 @@
 
 package org.apache.hop.pipeline.transforms.http;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
 
 public class HttpData extends BaseTransformData implements ITransformData {
   public int[] argnrs;
@@ -40,6 +46,27 @@ public class HttpData extends BaseTransformData implements ITransformData {
   public int realConnectionTimeout;
   public boolean withoutPreviousTransforms;
 
+  /** The client used for all the requests of this copy, backed by the shared connection pool */
+  public CloseableHttpClient httpClient;
+
+  public int parallelRequests;
+  public int maxRetries;
+  public long retryDelay;
+
+  /** The minimum time between the start of two requests in nanoseconds, 0 is unlimited */
+  public long requestInterval;
+
+  public final AtomicLong nextRequestSlot = new AtomicLong();
+
+  /** Executes the requests when more than one request is kept in flight */
+  public ExecutorService executor;
+
+  /** The input rows of the requests in flight, in input order */
+  public final Deque<Object[]> pendingRows = new ArrayDeque<>();
+
+  /** The results of the requests in flight, in input order */
+  public final Deque<Future<Object[]>> pendingResults = new ArrayDeque<>();
+
   /** Default constructor. */
   public HttpData() {
     super();
@@ -113,6 +113,14 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
 
   private TextVar wCloseIdleConnectionsTime;
 
+  private TextVar wParallelRequests;
+
+  private TextVar wMaxRetries;
+
+  private TextVar wRetryDelay;
+
+  private TextVar wRequestsPerSecond;
+
   public HttpDialog(
       Shell parent, IVariables variables, Object in, PipelineMeta pipelineMeta, String sname) {
     super(parent, variables, (BaseTransformMeta) in, pipelineMeta, sname);
@@ -174,6 +182,11 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     setupConnectionTimeoutLine(lsMod, gSettings);
     setupSocketTimeoutLine(lsMod, gSettings);
     setupCloseWaitTimeLine(lsMod, gSettings);
+    wParallelRequests =
+        setupSettingLine(lsMod, wCloseIdleConnectionsTime, gSettings, "ParallelRequests");
+    wMaxRetries = setupSettingLine(lsMod, wParallelRequests, gSettings, "MaxRetries");
+    wRetryDelay = setupSettingLine(lsMod, wMaxRetries, gSettings, "RetryDelay");
+    wRequestsPerSecond = setupSettingLine(lsMod, wRetryDelay, gSettings, "RequestsPerSecond");
 
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment(0, 0);
@@ -646,6 +659,30 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     return gOutputFields;
   }
 
+  private TextVar setupSettingLine(
+      ModifyListener lsMod, Control lastControl, Group gSettings, String name) {
+    int margin = props.getMargin();
+    int middle = props.getMiddlePct();
+    Label wlSetting = new Label(gSettings, SWT.RIGHT);
+    wlSetting.setText(BaseMessages.getString(PKG, "HTTPDialog." + name + ".Label"));
+    PropsUi.setLook(wlSetting);
+    FormData fdlSetting = new FormData();
+    fdlSetting.top = new FormAttachment(lastControl, margin);
+    fdlSetting.left = new FormAttachment(0, 0);
+    fdlSetting.right = new FormAttachment(middle, -margin);
+    wlSetting.setLayoutData(fdlSetting);
+    TextVar wSetting = new TextVar(variables, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wSetting.addModifyListener(lsMod);
+    wSetting.setToolTipText(BaseMessages.getString(PKG, "HTTPDialog." + name + ".Tooltip"));
+    PropsUi.setLook(wSetting);
+    FormData fdSetting = new FormData();
+    fdSetting.top = new FormAttachment(lastControl, margin);
+    fdSetting.left = new FormAttachment(middle, 0);
+    fdSetting.right = new FormAttachment(100, 0);
+    wSetting.setLayoutData(fdSetting);
+    return wSetting;
+  }
+
   private void setupCloseWaitTimeLine(ModifyListener lsMod, Group gSettings) {
     int margin = props.getMargin();
     int middle = props.getMiddlePct();
@@ -1000,6 +1037,10 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     wSocketTimeOut.setText(Const.NVL(input.getSocketTimeout(), ""));
     wConnectionTimeOut.setText(Const.NVL(input.getConnectionTimeout(), ""));
     wCloseIdleConnectionsTime.setText(Const.NVL(input.getCloseIdleConnectionsTime(), ""));
+    wParallelRequests.setText(Const.NVL(input.getParallelRequests(), ""));
+    wMaxRetries.setText(Const.NVL(input.getMaxRetries(), ""));
+    wRetryDelay.setText(Const.NVL(input.getRetryDelay(), ""));
+    wRequestsPerSecond.setText(Const.NVL(input.getRequestsPerSecond(), ""));
 
     wUrl.setText(Const.NVL(input.getUrl(), ""));
     wUrlInField.setSelection(input.isUrlInField());
@@ -1091,6 +1132,10 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     input.setSocketTimeout(wSocketTimeOut.getText());
     input.setConnectionTimeout(wConnectionTimeOut.getText());
     input.setCloseIdleConnectionsTime(wCloseIdleConnectionsTime.getText());
+    input.setParallelRequests(wParallelRequests.getText());
+    input.setMaxRetries(wMaxRetries.getText());
+    input.setRetryDelay(wRetryDelay.getText());
+    input.setRequestsPerSecond(wRequestsPerSecond.getText());
 
     transformName = wTransformName.getText(); // return value
 
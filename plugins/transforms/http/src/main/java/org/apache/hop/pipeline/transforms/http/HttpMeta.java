@@ -59,10 +59,29 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
   // the time to wait till a connection is closed (milliseconds)? -1 is no not close.
   public static final int DEFAULT_CLOSE_CONNECTIONS_TIME = -1;
 
+  // the number of requests a single copy keeps in flight at the same time
+  public static final int DEFAULT_PARALLEL_REQUESTS = 1;
+
+  // the delay before the first retry of a failed request, doubled on every next retry
+  // (milliseconds)
+  public static final int DEFAULT_RETRY_DELAY = 1000;
+
   private String socketTimeout;
   private String connectionTimeout;
   private String closeIdleConnectionsTime;
 
+  /** The number of requests each copy keeps in flight, output rows keep the input order */
+  private String parallelRequests;
+
+  /** The number of times a request is retried after an I/O error or a 429/503 response */
+  private String maxRetries;
+
+  /** The delay before the first retry in milliseconds */
+  private String retryDelay;
+
+  /** The maximum number of requests per second and per copy, empty means unlimited */
+  private String requestsPerSecond;
+
   /** URL / service to be called */
   private String url;
 
@@ -131,6 +150,62 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
     this.closeIdleConnectionsTime = closeIdleConnectionsTime;
   }
 
+  /**
+   * @return Returns the number of requests kept in flight per copy.
+   */
+  public String getParallelRequests() {
+    return parallelRequests;
+  }
+
+  /**
+   * @param parallelRequests The number of requests to keep in flight per copy.
+   */
+  public void setParallelRequests(String parallelRequests) {
+    this.parallelRequests = parallelRequests;
+  }
+
+  /**
+   * @return Returns the maximum number of retries of a failed request.
+   */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * @param maxRetries The maximum number of retries of a failed request.
+   */
+  public void setMaxRetries(String maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * @return Returns the delay before the first retry (milliseconds).
+   */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /**
+   * @param retryDelay The delay before the first retry (milliseconds).
+   */
+  public void setRetryDelay(String retryDelay) {
+    this.retryDelay = retryDelay;
+  }
+
+  /**
+   * @return Returns the maximum number of requests per second.
+   */
+  public String getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  /**
+   * @param requestsPerSecond The maximum number of requests per second.
+   */
+  public void setRequestsPerSecond(String requestsPerSecond) {
+    this.requestsPerSecond = requestsPerSecond;
+  }
+
   /**
    * @return Returns the socketTimeout.
    */
@@ -293,6 +368,10 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
     socketTimeout = String.valueOf(DEFAULT_SOCKET_TIMEOUT);
     connectionTimeout = String.valueOf(DEFAULT_CONNECTION_TIMEOUT);
     closeIdleConnectionsTime = String.valueOf(DEFAULT_CLOSE_CONNECTIONS_TIME);
+    parallelRequests = String.valueOf(DEFAULT_PARALLEL_REQUESTS);
+    maxRetries = "0";
+    retryDelay = String.valueOf(DEFAULT_RETRY_DELAY);
+    requestsPerSecond = "";
     int i;
     int nrargs;
     int nrquery;
@@ -370,6 +449,10 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
     retval.append("    " + XmlHandler.addTagValue("connectionTimeout", connectionTimeout));
     retval.append(
         "    " + XmlHandler.addTagValue("closeIdleConnectionsTime", closeIdleConnectionsTime));
+    retval.append("    " + XmlHandler.addTagValue("parallelRequests", parallelRequests));
+    retval.append("    " + XmlHandler.addTagValue("maxRetries", maxRetries));
+    retval.append("    " + XmlHandler.addTagValue("retryDelay", retryDelay));
+    retval.append("    " + XmlHandler.addTagValue("requestsPerSecond", requestsPerSecond));
 
     retval.append("    <lookup>").append(Const.CR);
 
@@ -419,6 +502,10 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
       socketTimeout = XmlHandler.getTagValue(transformNode, "socketTimeout");
       connectionTimeout = XmlHandler.getTagValue(transformNode, "connectionTimeout");
       closeIdleConnectionsTime = XmlHandler.getTagValue(transformNode, "closeIdleConnectionsTime");
+      parallelRequests = XmlHandler.getTagValue(transformNode, "parallelRequests");
+      maxRetries = XmlHandler.getTagValue(transformNode, "maxRetries");
+      retryDelay = XmlHandler.getTagValue(transformNode, "retryDelay");
+      requestsPerSecond = XmlHandler.getTagValue(transformNode, "requestsPerSecond");
 
       Node lookup = XmlHandler.getSubNode(transformNode, "lookup");
       nrargs = XmlHandler.countNodes(lookup, "arg");
@@ -55,6 +55,10 @@ public class HttpMetaLoadSaveTest {
             "socketTimeout",
             "connectionTimeout",
             "closeIdleConnectionsTime",
+            "parallelRequests",
+            "maxRetries",
+            "retryDelay",
+            "requestsPerSecond",
             "argumentField",
             "argumentParameter",
             "headerField",
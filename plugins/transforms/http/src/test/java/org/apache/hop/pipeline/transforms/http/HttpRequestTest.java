@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.reflect.Whitebox.setInternalState;
+
+import java.io.ByteArrayInputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests the re-use of the client, the retries and the rate limit of the requests. */
+public class HttpRequestTest {
+
+  private final IRowMeta rowMeta = mock(IRowMeta.class);
+  private final HttpData data = new HttpData();
+  private final HttpMeta meta = mock(HttpMeta.class);
+  private final Http http = mock(Http.class);
+  private final CloseableHttpClient client = mock(CloseableHttpClient.class);
+
+  @Before
+  public void setup() throws Exception {
+    doReturn(mock(CloseableHttpResponse.class))
+        .when(client)
+        .execute(any(HttpHost.class), any(HttpRequest.class), any(HttpContext.class));
+    doReturn("body").when(meta).getFieldName();
+    doReturn("UTF-8").when(meta).getEncoding();
+
+    data.httpClient = client;
+    data.realUrl = "http://hop.apache.org";
+    data.argnrs = new int[0];
+
+    doCallRealMethod().when(http).callHttpService(any(IRowMeta.class), any(Object[].class));
+    doReturn(HttpURLConnection.HTTP_NO_CONTENT)
+        .when(http)
+        .requestStatusCode(any(CloseableHttpResponse.class));
+    doReturn(new Header[0]).when(http).searchForHeaders(any(CloseableHttpResponse.class));
+    setInternalState(http, "log", mock(ILogChannel.class));
+    setInternalState(http, "data", data);
+    setInternalState(http, "meta", meta);
+  }
+
+  @Test
+  public void testClientIsReused() throws Exception {
+    http.callHttpService(rowMeta, new Object[] {0});
+    http.callHttpService(rowMeta, new Object[] {0});
+
+    assertEquals(client, data.httpClient);
+    verify(client, times(2))
+        .execute(any(HttpHost.class), any(HttpRequest.class), any(HttpContext.class));
+  }
+
+  @Test
+  public void testRetryUnavailable() throws Exception {
+    data.maxRetries = 3;
+    data.retryDelay = 1L;
+    doReturn(HttpURLConnection.HTTP_UNAVAILABLE, 429, HttpURLConnection.HTTP_OK)
+        .when(http)
+        .requestStatusCode(any(CloseableHttpResponse.class));
+    CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+    BasicHttpEntity entity = new BasicHttpEntity();
+    entity.setContent(new ByteArrayInputStream("ok".getBytes()));
+    doReturn(entity).when(response).getEntity();
+    doReturn(response)
+        .when(client)
+        .execute(any(HttpHost.class), any(HttpRequest.class), any(HttpContext.class));
+
+    assertEquals("ok", http.callHttpService(rowMeta, new Object[] {0})[0]);
+    verify(client, times(3))
+        .execute(any(HttpHost.class), any(HttpRequest.class), any(HttpContext.class));
+  }
+
+  @Test(expected = HopException.class)
+  public void testRetriesExhausted() throws Exception {
+    data.maxRetries = 2;
+    data.retryDelay = 1L;
+    doThrow(new SocketTimeoutException())
+        .when(client)
+        .execute(any(HttpHost.class), any(HttpRequest.class), any(HttpContext.class));
+    try {
+      http.callHttpService(rowMeta, new Object[] {0});
+    } finally {
+      verify(client, times(3))
+          .execute(any(HttpHost.class), any(HttpRequest.class), any(HttpContext.class));
+    }
+  }
+
+  @Test
+  public void testRequestsPerSecond() throws Exception {
+    data.requestInterval = TimeUnit.MILLISECONDS.toNanos(20);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 6; i++) {
+      http.callHttpService(rowMeta, new Object[] {0});
+    }
+    // The first request starts right away, the other five wait for their slot
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+  }
+}
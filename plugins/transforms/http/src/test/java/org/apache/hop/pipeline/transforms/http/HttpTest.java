@@ -23,15 +23,12 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
-import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.reflect.Whitebox.setInternalState;
 
 import java.io.ByteArrayInputStream;
 import java.net.HttpURLConnection;
 import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.core.row.IRowMeta;
-import org.apache.hop.core.util.HttpClientManager;
 import org.apache.http.Header;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
@@ -42,11 +39,9 @@ import org.apache.http.protocol.HttpContext;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest(HttpClientManager.class)
 public class HttpTest {
 
   private ILogChannel log = mock(ILogChannel.class);
@@ -63,14 +58,8 @@ public class HttpTest {
 
   @Before
   public void setup() throws Exception {
-    HttpClientManager.HttpClientBuilderFacade builder =
-        mock(HttpClientManager.HttpClientBuilderFacade.class);
-
-    HttpClientManager manager = mock(HttpClientManager.class);
-    doReturn(builder).when(manager).createBuilder();
-
+    // The client is created in init()
     CloseableHttpClient client = mock(CloseableHttpClient.class);
-    doReturn(client).when(builder).build();
 
     CloseableHttpResponse response = mock(CloseableHttpResponse.class);
     doReturn(response)
@@ -81,9 +70,7 @@ public class HttpTest {
     entity.setContent(new ByteArrayInputStream(DATA.getBytes()));
     doReturn(entity).when(response).getEntity();
 
-    mockStatic(HttpClientManager.class);
-    when(HttpClientManager.getInstance()).thenReturn(manager);
-
+    setInternalState(data, "httpClient", client);
     setInternalState(data, "realUrl", "http://project-hop.org");
     setInternalState(data, "argnrs", new int[0]);
 
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.httppost;
 import static org.apache.hop.pipeline.transforms.httppost.HttpPostMeta.DEFAULT_ENCODING;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
@@ -84,7 +85,14 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private Object[] callHttpPOST(Object[] rowData) throws HopException {
+  /**
+   * Builds the client once per transform copy. All clients share the connection pool of the {@link
+   * HttpClientManager} so connections are kept alive and re-used across rows.
+   */
+  private CloseableHttpClient getHttpClient() {
+    if (data.httpClient != null) {
+      return data.httpClient;
+    }
     HttpClientManager.HttpClientBuilderFacade clientBuilder =
         HttpClientManager.getInstance().createBuilder();
 
@@ -104,7 +112,12 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
       clientBuilder.ignoreSsl(true);
     }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+    data.httpClient = clientBuilder.build();
+    return data.httpClient;
+  }
+
+  private Object[] callHttpPOST(Object[] rowData) throws HopException {
+    CloseableHttpClient httpClient = getHttpClient();
 
     // get dynamic url ?
     if (meta.isUrlInField()) {
@@ -588,4 +601,17 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    if (data.httpClient != null) {
+      try {
+        data.httpClient.close();
+      } catch (IOException e) {
+        logError(BaseMessages.getString(PKG, "HTTPPOST.Log.UnableToCloseClient"), e);
+      }
+      data.httpClient = null;
+    }
+    super.dispose();
+  }
 }
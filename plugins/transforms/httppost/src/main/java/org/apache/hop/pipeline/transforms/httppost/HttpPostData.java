@@ -21,6 +21,7 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
 
 public class HttpPostData extends BaseTransformData implements ITransformData {
   public IRowMeta outputRowMeta;
@@ -49,6 +50,9 @@ public class HttpPostData extends BaseTransformData implements ITransformData {
   public int realConnectionTimeout;
   public int realcloseIdleConnectionsTime;
 
+  /** The client used for all the requests of this copy, backed by the shared connection pool */
+  public CloseableHttpClient httpClient;
+
   public HttpPostData() {
     super();
     indexOfUrlField = -1;
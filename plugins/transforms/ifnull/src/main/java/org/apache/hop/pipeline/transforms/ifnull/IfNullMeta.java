@@ -276,4 +276,9 @@ public class IfNullMeta extends BaseTransformMeta<IfNull, IfNullData> {
   public boolean supportsErrorHandling() {
     return true;
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseBatchLookup;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
@@ -80,6 +81,46 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
     Object[] add = data.db.getLookup(data.prepStatementLookup);
     incrementLinesInput();
 
+    writeValues(rowMeta, row, lookupRow, add, data.db.getReturnRowMeta(), null);
+  }
+
+  /**
+   * Look up a row in the results of the batched lookup instead of querying the database.
+   *
+   * @param rowMeta The metadata of the input row
+   * @param row The input row
+   */
+  protected synchronized void lookupValuesInBatch(IRowMeta rowMeta, Object[] row)
+      throws HopException {
+    Object[] lookupRow = new Object[data.lookupParameterRowMeta.size()];
+    for (int i = 0; i < data.keynrs.length; i++) {
+      lookupRow[i] = row[data.keynrs[i]];
+    }
+    Object[] key = data.batchLookup.getKey(rowMeta, row, data.keynrs);
+    Object[] add = data.batchResults.get(key);
+    incrementLinesInput();
+
+    writeValues(rowMeta, row, lookupRow, add, data.batchLookup.getReturnRowMeta(), key);
+  }
+
+  /**
+   * Insert, update or skip a row depending on the result of the lookup.
+   *
+   * @param rowMeta The metadata of the input row
+   * @param row The input row
+   * @param lookupRow The key values used in the lookup
+   * @param add The values found in the table or null if the key wasn't found
+   * @param returnRowMeta The metadata of the values found
+   * @param batchKey The key in the batched lookup results to keep up to date or null
+   */
+  private void writeValues(
+      IRowMeta rowMeta,
+      Object[] row,
+      Object[] lookupRow,
+      Object[] add,
+      IRowMeta returnRowMeta,
+      Object[] batchKey)
+      throws HopException {
     if (add == null) {
       /*
        * nothing was found:
@@ -105,6 +146,7 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
       data.db.insertRow();
 
       incrementLinesOutput();
+      rememberValues(rowMeta, row, null, batchKey);
     } else {
       if (!meta.isUpdateBypassed()) {
         if (log.isRowLevel()) {
@@ -123,7 +165,7 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
           InsertUpdateValue valueField = meta.getInsertUpdateLookupField().getValueFields().get(i);
           if (valueField.isUpdate()) {
             IValueMeta valueMeta = rowMeta.getValueMeta(data.valuenrs[i]);
-            IValueMeta retMeta = data.db.getReturnRowMeta().getValueMeta(i);
+            IValueMeta retMeta = returnRowMeta.getValueMeta(i);
 
             Object rowvalue = row[data.valuenrs[i]];
             Object retvalue = add[i];
@@ -158,6 +200,7 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
           data.db.setValues(data.updateParameterRowMeta, updateRow, data.prepStatementUpdate);
           data.db.insertRow(data.prepStatementUpdate);
           incrementLinesUpdated();
+          rememberValues(rowMeta, row, add, batchKey);
         } else {
           incrementLinesSkipped();
         }
@@ -172,15 +215,40 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
     }
   }
 
+  /**
+   * Keep the batched lookup results in line with the values just written so a key that occurs more
+   * than once in the same batch sees the result of the earlier rows, as it would with row-by-row
+   * lookups.
+   */
+  private void rememberValues(IRowMeta rowMeta, Object[] row, Object[] found, Object[] batchKey)
+      throws HopException {
+    if (batchKey == null || DatabaseBatchLookup.hasNullValue(batchKey)) {
+      return;
+    }
+    Object[] values = new Object[data.valuenrs.length];
+    for (int i = 0; i < data.valuenrs.length; i++) {
+      InsertUpdateValue valueField = meta.getInsertUpdateLookupField().getValueFields().get(i);
+      if (found == null || valueField.isUpdate()) {
+        values[i] =
+            rowMeta
+                .getValueMeta(data.valuenrs[i])
+                .convertToNormalStorageType(row[data.valuenrs[i]]);
+      } else {
+        values[i] = found[i];
+      }
+    }
+    data.batchResults.put(batchKey, values);
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
-    boolean sendToErrorRow = false;
-    String errorMessage = null;
-
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) {
       // no more input to be expected...
+      if (!flushBatch()) {
+        return false;
+      }
 
       setOutputDone();
       return false;
@@ -311,10 +379,36 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
         }
         prepareUpdate(getInputRowMeta());
       }
+
+      prepareBatchLookup(getInputRowMeta());
+    }
+
+    if (data.batchBuffer != null) {
+      data.batchBuffer.add(r);
+      if (data.batchBuffer.size() >= data.lookupBatchSize) {
+        return flushBatch();
+      }
+      return true;
     }
 
+    return writeRow(r, false);
+  }
+
+  /**
+   * Write a single row, looking it up either in the database or in the batched lookup results.
+   *
+   * @return false if the transform had to stop because of an error
+   */
+  private boolean writeRow(Object[] r, boolean batched) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
     try {
-      lookupValues(getInputRowMeta(), r); // add new values to the row in rowset[0].
+      if (batched) {
+        lookupValuesInBatch(getInputRowMeta(), r);
+      } else {
+        lookupValues(getInputRowMeta(), r); // add new values to the row in rowset[0].
+      }
       putRow(
           data.outputRowMeta,
           r); // Nothing changed to the input, return the same row, pass a "cloned" metadata
@@ -346,6 +440,84 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
     return true;
   }
 
+  /**
+   * Resolve the existence of all buffered rows with a single lookup query and write them.
+   *
+   * @return false if the transform had to stop because of an error
+   */
+  private boolean flushBatch() throws HopException {
+    if (data.batchBuffer == null || data.batchBuffer.isEmpty()) {
+      return true;
+    }
+    List<Object[]> rows = new ArrayList<>(data.batchBuffer);
+    data.batchBuffer.clear();
+
+    try {
+      List<Object[]> keys = new ArrayList<>(rows.size());
+      for (Object[] row : rows) {
+        keys.add(data.batchLookup.getKey(getInputRowMeta(), row, data.keynrs));
+      }
+      data.batchResults = data.batchLookup.lookup(keys);
+    } catch (HopException e) {
+      logError(BaseMessages.getString(PKG, "InsertUpdate.Log.ErrorInTransform"), e);
+      setErrors(1);
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+
+    for (Object[] row : rows) {
+      if (!writeRow(row, true)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Set up the batched lookup if a lookup batch size is configured and all keys are compared on
+   * equality. Other conditions can't be resolved with a single keyed query, so these keep looking
+   * up row by row.
+   */
+  private void prepareBatchLookup(IRowMeta rowMeta) {
+    data.lookupBatchSize = Const.toInt(resolve(meta.getLookupBatchSize()), 0);
+    if (data.lookupBatchSize <= 1) {
+      return;
+    }
+    List<InsertUpdateKeyField> keyFields = meta.getInsertUpdateLookupField().getLookupKeys();
+    for (InsertUpdateKeyField keyField : keyFields) {
+      if (!"=".equals(Const.trim(keyField.getKeyCondition()))) {
+        logBasic(
+            BaseMessages.getString(
+                PKG, "InsertUpdate.Log.BatchLookupDisabled", keyField.getKeyCondition()));
+        return;
+      }
+    }
+
+    String[] keyColumns = new String[keyFields.size()];
+    IRowMeta keyRowMeta = new RowMeta();
+    for (int i = 0; i < keyFields.size(); i++) {
+      keyColumns[i] = keyFields.get(i).getKeyLookup();
+      keyRowMeta.addValueMeta(rowMeta.getValueMeta(data.keynrs[i]).clone());
+    }
+    List<InsertUpdateValue> valueFields = meta.getInsertUpdateLookupField().getValueFields();
+    String[] returnColumns = new String[valueFields.size()];
+    IRowMeta returnRowMeta = new RowMeta();
+    for (int i = 0; i < valueFields.size(); i++) {
+      returnColumns[i] = valueFields.get(i).getUpdateLookup();
+      returnRowMeta.addValueMeta(rowMeta.getValueMeta(data.valuenrs[i]).clone());
+    }
+
+    data.batchLookup =
+        new DatabaseBatchLookup(
+            data.db, data.schemaTable, keyColumns, keyRowMeta, returnColumns, returnRowMeta);
+    data.batchBuffer = new ArrayList<>(data.lookupBatchSize);
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "InsertUpdate.Log.BatchLookupEnabled", data.lookupBatchSize));
+    }
+  }
+
   public void setLookup(IRowMeta rowMeta) throws HopDatabaseException {
     data.lookupParameterRowMeta = new RowMeta();
     data.lookupReturnRowMeta = new RowMeta();
@@ -531,6 +703,7 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
 
   @Override
   public void batchComplete() throws HopException {
+    flushBatch();
     commitBatch(false);
   }
 
@@ -551,6 +724,9 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
           }
         }
         if (dispose) {
+          if (data.batchLookup != null) {
+            data.batchLookup.close();
+          }
           data.db.closeUpdate();
           data.db.closeInsert();
         }
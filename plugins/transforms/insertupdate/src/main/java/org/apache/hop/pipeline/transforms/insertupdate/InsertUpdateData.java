@@ -18,7 +18,10 @@
 package org.apache.hop.pipeline.transforms.insertupdate;
 
 import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseBatchLookup;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -43,6 +46,13 @@ public class InsertUpdateData extends BaseTransformData implements ITransformDat
   public IRowMeta lookupReturnRowMeta;
   public IRowMeta insertRowMeta;
 
+  /** The number of rows to look up at once, batched lookups are disabled if 1 or less */
+  public int lookupBatchSize;
+
+  public DatabaseBatchLookup batchLookup;
+  public List<Object[]> batchBuffer;
+  public Map<Object[], Object[]> batchResults;
+
   /** Default constructor. */
   public InsertUpdateData() {
     super();
@@ -83,6 +83,8 @@ public class InsertUpdateDialog extends BaseTransformDialog implements ITransfor
 
   private TextVar wCommit;
 
+  private TextVar wLookupBatchSize;
+
   private Button wUpdateBypassed;
 
   private final InsertUpdateMeta input;
@@ -229,6 +231,27 @@ public class InsertUpdateDialog extends BaseTransformDialog implements ITransfor
     fdCommit.right = new FormAttachment(100, 0);
     wCommit.setLayoutData(fdCommit);
 
+    // Lookup batch size line
+    Label wlLookupBatchSize = new Label(shell, SWT.RIGHT);
+    wlLookupBatchSize.setText(
+        BaseMessages.getString(PKG, "InsertUpdateDialog.LookupBatchSize.Label"));
+    wlLookupBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "InsertUpdateDialog.LookupBatchSize.Tooltip"));
+    PropsUi.setLook(wlLookupBatchSize);
+    FormData fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment(0, 0);
+    fdlLookupBatchSize.top = new FormAttachment(wCommit, margin);
+    fdlLookupBatchSize.right = new FormAttachment(middle, -margin);
+    wlLookupBatchSize.setLayoutData(fdlLookupBatchSize);
+    wLookupBatchSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wLookupBatchSize);
+    wLookupBatchSize.addModifyListener(lsMod);
+    FormData fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.left = new FormAttachment(middle, 0);
+    fdLookupBatchSize.top = new FormAttachment(wCommit, margin);
+    fdLookupBatchSize.right = new FormAttachment(100, 0);
+    wLookupBatchSize.setLayoutData(fdLookupBatchSize);
+
     // UpdateBypassed line
     Label wlUpdateBypassed = new Label(shell, SWT.RIGHT);
     wlUpdateBypassed.setText(
@@ -236,7 +259,7 @@ public class InsertUpdateDialog extends BaseTransformDialog implements ITransfor
     PropsUi.setLook(wlUpdateBypassed);
     FormData fdlUpdateBypassed = new FormData();
     fdlUpdateBypassed.left = new FormAttachment(0, 0);
-    fdlUpdateBypassed.top = new FormAttachment(wCommit, margin);
+    fdlUpdateBypassed.top = new FormAttachment(wLookupBatchSize, margin);
     fdlUpdateBypassed.right = new FormAttachment(middle, -margin);
     wlUpdateBypassed.setLayoutData(fdlUpdateBypassed);
     wUpdateBypassed = new Button(shell, SWT.CHECK);
@@ -608,6 +631,7 @@ public class InsertUpdateDialog extends BaseTransformDialog implements ITransfor
     }
 
     wCommit.setText(input.getCommitSize());
+    wLookupBatchSize.setText(Const.NVL(input.getLookupBatchSize(), ""));
     wUpdateBypassed.setSelection(input.isUpdateBypassed());
 
     if (input.getInsertUpdateLookupField().getLookupKeys() != null) {
@@ -675,6 +699,7 @@ public class InsertUpdateDialog extends BaseTransformDialog implements ITransfor
     int nrFields = wReturn.nrNonEmpty();
 
     inf.setCommitSize(wCommit.getText());
+    inf.setLookupBatchSize(wLookupBatchSize.getText());
     inf.setUpdateBypassed(wUpdateBypassed.getSelection());
 
     if (log.isDebug()) {
@@ -75,6 +75,13 @@ public class InsertUpdateMeta extends BaseTransformMeta<InsertUpdate, InsertUpda
       injectionKey = "COMMIT_SIZE")
   private String commitSize;
 
+  /** Number of rows to look up in the table with a single query */
+  @HopMetadataProperty(
+      key = "lookup_batch_size",
+      injectionKeyDescription = "InsertUpdateMeta.Injection.LOOKUP_BATCH_SIZE",
+      injectionKey = "LOOKUP_BATCH_SIZE")
+  private String lookupBatchSize;
+
   /** Bypass any updates */
   @HopMetadataProperty(
       key = "update_bypassed",
@@ -126,6 +133,21 @@ public class InsertUpdateMeta extends BaseTransformMeta<InsertUpdate, InsertUpda
     this.commitSize = commitSize;
   }
 
+  /**
+   * @return The number of rows to look up in the table with a single query, 0 or 1 to look up every
+   *     row separately.
+   */
+  public String getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /**
+   * @param lookupBatchSize The lookup batch size to set.
+   */
+  public void setLookupBatchSize(String lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
   @Override
   public Object clone() {
     InsertUpdateMeta retval = (InsertUpdateMeta) super.clone();
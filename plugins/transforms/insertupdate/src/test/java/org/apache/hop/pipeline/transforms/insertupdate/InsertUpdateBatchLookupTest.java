@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.insertupdate;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseBatchLookup;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @see InsertUpdate
+ */
+public class InsertUpdateBatchLookupTest {
+  TransformMockHelper<InsertUpdateMeta, InsertUpdateData> smh;
+
+  @Before
+  public void setUp() {
+    smh = new TransformMockHelper<>("insertUpdate", InsertUpdateMeta.class, InsertUpdateData.class);
+    when(smh.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @After
+  public void cleanUp() {
+    smh.cleanUp();
+  }
+
+  @Test
+  public void testBatchLookupSeesEarlierRowsOfTheSameBatch() throws Exception {
+    DatabaseMeta databaseMeta = mock(DatabaseMeta.class);
+    when(databaseMeta.quoteField(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(databaseMeta.stripCR(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    Connection connection = mock(Connection.class);
+    when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+    ResultSet resultSet = mock(ResultSet.class);
+
+    IRowMeta resultRowMeta = new RowMeta();
+    resultRowMeta.addValueMeta(new ValueMetaInteger("N"));
+    resultRowMeta.addValueMeta(new ValueMetaString("NAME"));
+
+    Database db = mock(Database.class);
+    doReturn(databaseMeta).when(db).getDatabaseMeta();
+    doReturn(connection).when(db).getConnection();
+    doReturn(resultSet)
+        .when(db)
+        .openQuery(any(PreparedStatement.class), any(IRowMeta.class), any(Object[].class));
+    doReturn(resultRowMeta).when(db).getReturnRowMeta();
+    // Key 2, the second key of the batch, exists
+    when(db.getRow(eq(resultSet), isNull(), eq(resultRowMeta)))
+        .thenReturn(new Object[] {1L, "old"}, (Object[]) null);
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+
+    InsertUpdateLookupField lookupField = new InsertUpdateLookupField();
+    lookupField.setLookupKeys(Arrays.asList(new InsertUpdateKeyField("id", "ID", "=")));
+    lookupField.setValueFields(Arrays.asList(new InsertUpdateValue("NAME", "name", true)));
+    when(smh.iTransformMeta.getInsertUpdateLookupField()).thenReturn(lookupField);
+
+    IRowMeta keyRowMeta = new RowMeta();
+    keyRowMeta.addValueMeta(inputRowMeta.getValueMeta(0));
+    IRowMeta returnRowMeta = new RowMeta();
+    returnRowMeta.addValueMeta(inputRowMeta.getValueMeta(1));
+    IRowMeta updateParameterRowMeta = new RowMeta();
+    updateParameterRowMeta.addValueMeta(inputRowMeta.getValueMeta(1));
+    updateParameterRowMeta.addValueMeta(inputRowMeta.getValueMeta(0));
+
+    InsertUpdateData data = smh.iTransformData;
+    data.db = db;
+    data.keynrs = new int[] {0};
+    data.keynrs2 = new int[] {-1};
+    data.valuenrs = new int[] {1};
+    data.lookupParameterRowMeta = keyRowMeta;
+    data.updateParameterRowMeta = updateParameterRowMeta;
+    data.prepStatementUpdate = mock(PreparedStatement.class);
+    data.outputRowMeta = inputRowMeta;
+    data.lookupBatchSize = 10;
+    data.batchBuffer = new ArrayList<>();
+    data.batchLookup =
+        new DatabaseBatchLookup(
+            db, "tab", new String[] {"ID"}, keyRowMeta, new String[] {"NAME"}, returnRowMeta);
+
+    InsertUpdate transform =
+        new InsertUpdate(
+            smh.transformMeta, smh.iTransformMeta, data, 0, smh.pipelineMeta, smh.pipeline);
+    transform.setInputRowMeta(inputRowMeta);
+    transform.addRowSetToInputRowSets(
+        smh.getMockInputRowSet(
+            new Object[] {1L, "one"}, new Object[] {2L, "two"}, new Object[] {1L, "uno"}));
+    transform.init();
+    data.db = db;
+    transform.first = false;
+
+    while (transform.processRow()) {
+      // keep going
+    }
+
+    // A single query resolved the whole batch
+    verify(db, times(1))
+        .openQuery(any(PreparedStatement.class), any(IRowMeta.class), any(Object[].class));
+    // Key 1 is new, key 2 changed and key 1 changed again after it was inserted
+    verify(db, times(1)).insertRow();
+    verify(db, times(2)).insertRow(any(PreparedStatement.class));
+    assertEquals(3, transform.getLinesInput());
+    assertEquals(1, transform.getLinesOutput());
+    assertEquals(2, transform.getLinesUpdated());
+  }
+}
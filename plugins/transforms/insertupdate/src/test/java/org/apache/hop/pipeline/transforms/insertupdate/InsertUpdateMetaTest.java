@@ -162,7 +162,8 @@ public class InsertUpdateMetaTest {
   @Before
   public void setUpLoadSave() throws Exception {
 
-    List<String> attributes = Arrays.asList("connection", "lookup", "commit", "update_bypassed");
+    List<String> attributes =
+        Arrays.asList("connection", "lookup", "commit", "lookup_batch_size", "update_bypassed");
 
     Map<String, String> getterMap =
         new HashMap<String, String>() {
@@ -170,6 +171,7 @@ public class InsertUpdateMetaTest {
             put("connection", "getConnection");
             put("lookup", "getInsertUpdateLookupField");
             put("commit", "getCommitSize");
+            put("lookup_batch_size", "getLookupBatchSize");
             put("update_bypassed", "isUpdateBypassed");
           }
         };
@@ -179,6 +181,7 @@ public class InsertUpdateMetaTest {
             put("connection", "setConnection");
             put("lookup", "setInsertUpdateLookupField");
             put("commit", "setCommitSize");
+            put("lookup_batch_size", "setLookupBatchSize");
             put("update_bypassed", "setUpdateBypassed");
           }
         };
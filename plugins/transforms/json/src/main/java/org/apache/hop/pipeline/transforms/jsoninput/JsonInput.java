@@ -42,8 +42,10 @@ import org.apache.hop.pipeline.transforms.file.BaseFileInputTransform;
 import org.apache.hop.pipeline.transforms.file.IBaseFileInputReader;
 import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.IStreamingJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 
 /**
  * Read Json files, parse them and convert them to rows and writes these to one or more output
@@ -264,7 +266,21 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       logInputError(e);
       throw new JsonInputException(e);
     } finally {
-      closeQuietly(input);
+      if (!(data.reader instanceof IStreamingJsonReader)) {
+        closeQuietly(input);
+      }
+    }
+  }
+
+  private void parseMoreToRowSet() throws HopException {
+    try {
+      data.readerRowSet = ((IStreamingJsonReader) data.reader).parseMore();
+    } catch (HopException ke) {
+      logInputError(ke);
+      throw new JsonInputException(ke);
+    } catch (Exception e) {
+      logInputError(e);
+      throw new JsonInputException(e);
     }
   }
 
@@ -329,7 +345,15 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     }
     Object[] rawReaderRow = null;
     while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
-      if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
+      boolean streaming = data.reader instanceof IStreamingJsonReader;
+      if (streaming && !data.readerRowSet.isDone()) {
+        // A streaming reader continues with the input it is parsing
+        parseMoreToRowSet();
+      } else if (data.inputs.hasNext() && streaming) {
+        // The reader closes the input once it is parsed completely
+        InputStream nextIn = data.inputs.next();
+        parseNextInputToRowSet(nextIn != null ? nextIn : new ByteArrayInputStream(EMPTY_JSON));
+      } else if (data.inputs.hasNext()) {
         try (InputStream nextIn = data.inputs.next()) {
 
           if (nextIn != null) {
@@ -454,7 +478,11 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    if (meta.isStreaming()) {
+      data.reader = new StreamingJsonReader(inputFields, log);
+    } else {
+      data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    }
     data.reader.setIgnoreMissingPath(meta.isIgnoreMissingPath());
   }
 
@@ -464,6 +492,9 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       closeQuietly(data.file);
     }
     data.inputs = null;
+    if (data.reader instanceof IStreamingJsonReader) {
+      ((IStreamingJsonReader) data.reader).close();
+    }
     data.reader = null;
     data.readerRowSet = null;
     data.repeatedFields = null;
@@ -251,6 +251,10 @@ public class JsonInputMeta
 
   private boolean defaultPathLeafToNull;
 
+  /** Flag : parse the input with a pull parser instead of reading it in memory completely */
+  @Injection(name = "STREAMING")
+  private boolean streaming;
+
   public JsonInputMeta() {
     additionalOutputFields = new AdditionalFileOutputFields();
     inputFiles = new InputFiles();
@@ -275,6 +279,20 @@ public class JsonInputMeta
     this.defaultPathLeafToNull = defaultPathLeafToNull;
   }
 
+  /**
+   * @return true if the input is parsed with a pull parser, using constant memory
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * @param streaming true to parse the input with a pull parser, using constant memory
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
   /**
    * @return Returns the shortFileFieldName.
    */
@@ -614,6 +632,7 @@ public class JsonInputMeta
     retval.append("    " + XmlHandler.addTagValue("doNotFailIfNoFile", doNotFailIfNoFile));
     retval.append("    " + XmlHandler.addTagValue("ignoreMissingPath", ignoreMissingPath));
     retval.append("    " + XmlHandler.addTagValue("defaultPathLeafToNull", defaultPathLeafToNull));
+    retval.append("    " + XmlHandler.addTagValue("streaming", streaming));
     retval.append("    ").append(XmlHandler.addTagValue("rownum_field", rowNumberField));
 
     retval.append("    <file>").append(Const.CR);
@@ -685,6 +704,7 @@ public class JsonInputMeta
       ignoreMissingPath =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "ignoreMissingPath"));
       defaultPathLeafToNull = getDefaultPathLeafToNull(transformNode);
+      streaming = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "streaming"));
       doNotFailIfNoFile =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "doNotFailIfNoFile"));
       includeRowNumber = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "rownum"));
@@ -772,6 +792,7 @@ public class JsonInputMeta
     isIgnoreEmptyFile = false;
     ignoreMissingPath = true;
     defaultPathLeafToNull = true;
+    streaming = false;
     doNotFailIfNoFile = true;
     includeFilename = false;
     filenameField = "";
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import java.io.InputStream;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * A reader which keeps the input passed to {@link #parse(InputStream)} open and returns its rows in
+ * parts. The returned row set is not done as long as there are more rows to read, the input is
+ * closed by the reader.
+ */
+public interface IStreamingJsonReader extends IJsonReader {
+
+  /** Parse the next part of the input into a rowset */
+  IRowSet parseMore() throws HopException;
+
+  /** Release the input the reader is still parsing */
+  void close();
+}
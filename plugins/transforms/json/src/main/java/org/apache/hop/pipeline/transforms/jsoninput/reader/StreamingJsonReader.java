@@ -0,0 +1,516 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import net.minidev.json.JSONArray;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+/**
+ * Reads JSON with a pull parser instead of building the whole document in memory. The paths of the
+ * fields are compiled into the path of the elements that make up the rows, for example <code>
+ * $.data[*]</code>, and a tree of the paths relative to such an element. Rows are produced as soon
+ * as an element is read, everything outside the paths is skipped.
+ *
+ * <p>Only simple paths are supported: member names, array indexes and the <code>[*]</code>
+ * wildcard. All the fields need to share the same path up to their last wildcard. Paths without a
+ * wildcard produce one row for every top level value, which allows reading JSON lines files.
+ */
+public class StreamingJsonReader implements IStreamingJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class; // For Translator
+
+  /** The number of rows read from the input in one go */
+  private static final int BATCH_SIZE = 1000;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final ILogChannel log;
+  private final boolean includeNulls =
+      "Y"
+          .equalsIgnoreCase(
+              System.getProperty(
+                  Const.HOP_JSON_INPUT_INCLUDE_NULLS, Const.JSON_INPUT_INCLUDE_NULLS));
+
+  private boolean ignoreMissingPath;
+  private JsonInputField[] fields;
+
+  /** The path of the elements making up the rows */
+  private List<Segment> rowPath;
+
+  /** The paths of the fields relative to a row element */
+  private PathNode fieldPaths;
+
+  private JsonParser parser;
+  private InputStream input;
+  private final Deque<Frame> frames = new ArrayDeque<>();
+  private long rowsInInput;
+  private BitSet foundFields;
+
+  public StreamingJsonReader(JsonInputField[] fields, ILogChannel log) throws HopException {
+    this.log = log;
+    setFields(fields);
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    this.fields = fields;
+
+    List<List<Segment>> paths = new ArrayList<>(fields.length);
+    int rowPathLength = -1;
+    for (JsonInputField field : fields) {
+      List<Segment> path = compilePath(field.getPath());
+      int lastWildcard = -1;
+      for (int i = 0; i < path.size(); i++) {
+        if (path.get(i).isWildcard()) {
+          lastWildcard = i;
+        }
+      }
+      if (rowPathLength < 0) {
+        rowPathLength = lastWildcard + 1;
+        rowPath = path.subList(0, rowPathLength);
+      } else if (lastWildcard + 1 != rowPathLength
+          || !path.subList(0, rowPathLength).equals(rowPath)) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG, "JsonReader.Error.Streaming.DifferentRowPath", field.getPath()));
+      }
+      paths.add(path);
+    }
+    if (rowPath == null) {
+      rowPath = new ArrayList<>();
+    }
+
+    fieldPaths = new PathNode();
+    for (int i = 0; i < paths.size(); i++) {
+      PathNode node = fieldPaths;
+      for (Segment segment : paths.get(i).subList(rowPath.size(), paths.get(i).size())) {
+        node = node.children.computeIfAbsent(segment, s -> new PathNode());
+      }
+      node.fieldIndexes.add(i);
+    }
+  }
+
+  /**
+   * Compiles a simple JsonPath expression into its segments.
+   *
+   * @throws HopException if the expression uses anything else than member names, array indexes or
+   *     the [*] wildcard.
+   */
+  static List<Segment> compilePath(String path) throws HopException {
+    List<Segment> segments = new ArrayList<>();
+    String expression = Const.NVL(path, "").trim();
+    if (!expression.startsWith("$")) {
+      throw unsupportedPath(path);
+    }
+    int pos = 1;
+    while (pos < expression.length()) {
+      char c = expression.charAt(pos);
+      if (c == '.' && pos + 1 < expression.length() && expression.charAt(pos + 1) == '[') {
+        // $.['name'] is the same as $['name']
+        pos++;
+      } else if (c == '.') {
+        int end = pos + 1;
+        while (end < expression.length()
+            && expression.charAt(end) != '.'
+            && expression.charAt(end) != '[') {
+          end++;
+        }
+        String name = expression.substring(pos + 1, end);
+        if (name.isEmpty() || name.equals("*")) {
+          throw unsupportedPath(path);
+        }
+        segments.add(Segment.member(name));
+        pos = end;
+      } else if (c == '[') {
+        int end = expression.indexOf(']', pos);
+        if (end < 0) {
+          throw unsupportedPath(path);
+        }
+        String selector = expression.substring(pos + 1, end).trim();
+        if (selector.equals("*")) {
+          segments.add(Segment.WILDCARD);
+        } else if (selector.length() > 1
+            && (selector.startsWith("'") && selector.endsWith("'")
+                || selector.startsWith("\"") && selector.endsWith("\""))) {
+          segments.add(Segment.member(selector.substring(1, selector.length() - 1)));
+        } else {
+          try {
+            int index = Integer.parseInt(selector);
+            if (index < 0) {
+              throw unsupportedPath(path);
+            }
+            segments.add(Segment.index(index));
+          } catch (NumberFormatException e) {
+            throw unsupportedPath(path);
+          }
+        }
+        pos = end + 1;
+      } else {
+        throw unsupportedPath(path);
+      }
+    }
+    return segments;
+  }
+
+  private static HopException unsupportedPath(String path) {
+    return new HopException(
+        BaseMessages.getString(PKG, "JsonReader.Error.Streaming.UnsupportedPath", path));
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath(boolean value) {
+    this.ignoreMissingPath = value;
+  }
+
+  @Override
+  public IRowSet parse(InputStream in) throws HopException {
+    close();
+    input = in;
+    rowsInInput = 0;
+    foundFields = new BitSet(fields.length);
+    try {
+      parser = JSON_FACTORY.createParser(in);
+    } catch (IOException e) {
+      close();
+      throw new JsonInputException(e);
+    }
+    return parseMore();
+  }
+
+  @Override
+  public IRowSet parseMore() throws HopException {
+    QueueRowSet rowSet = new QueueRowSet();
+    if (parser == null) {
+      rowSet.setDone();
+      return rowSet;
+    }
+    try {
+      Object[] row;
+      int count = 0;
+      while (count < BATCH_SIZE && (row = nextRow()) != null) {
+        if (includeNulls || !isAllNull(row)) {
+          rowSet.putRow(null, row);
+          count++;
+        }
+      }
+      if (count < BATCH_SIZE) {
+        // End of the input
+        //
+        finishInput(rowSet);
+        rowSet.setDone();
+      }
+    } catch (IOException e) {
+      close();
+      throw new JsonInputException(e);
+    } catch (HopException e) {
+      close();
+      throw e;
+    }
+    return rowSet;
+  }
+
+  private void finishInput(IRowSet rowSet) throws HopException {
+    close();
+    if (!ignoreMissingPath) {
+      int missing = foundFields.nextClearBit(0);
+      if (missing < fields.length) {
+        throw new JsonInputException(
+            BaseMessages.getString(
+                PKG, "JsonReader.Error.CanNotFindPath", fields[missing].getPath()));
+      }
+    }
+    if (log.isDetailed()) {
+      log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", rowsInInput));
+    }
+    if (rowsInInput == 0) {
+      rowSet.putRow(null, new Object[fields.length]);
+    }
+  }
+
+  @Override
+  public void close() {
+    frames.clear();
+    if (parser != null) {
+      try {
+        parser.close();
+      } catch (IOException e) {
+        // Ignore, the input is closed below
+      }
+      parser = null;
+    }
+    if (input != null) {
+      try {
+        input.close();
+      } catch (IOException e) {
+        if (log.isDebug()) {
+          log.logDebug(e.getLocalizedMessage(), e);
+        }
+      }
+      input = null;
+    }
+  }
+
+  /**
+   * Advances the parser to the next element on the row path.
+   *
+   * @return the row read from the element or null at the end of the input
+   */
+  private Object[] nextRow() throws IOException, HopException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != null) {
+      Frame frame = frames.peek();
+      if (frame == null) {
+        // A top level value
+        //
+        Object[] row = matched(token, 0);
+        if (row != null) {
+          return row;
+        }
+        continue;
+      }
+      if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+        frames.pop();
+        continue;
+      }
+      Segment segment = rowPath.get(frame.level);
+      boolean matches;
+      if (token == JsonToken.FIELD_NAME) {
+        matches = segment.name.equals(parser.getCurrentName());
+        token = parser.nextToken();
+      } else {
+        int index = frame.index++;
+        matches = segment.isWildcard() || segment.index == index;
+      }
+      if (matches) {
+        Object[] row = matched(token, frame.level + 1);
+        if (row != null) {
+          return row;
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Handles the value at the current token which matched the given number of row path segments.
+   *
+   * @return the row if the value is a row element, null otherwise
+   */
+  private Object[] matched(JsonToken token, int level) throws IOException, HopException {
+    if (level == rowPath.size()) {
+      Object[] row = new Object[fields.length];
+      readFields(fieldPaths, row);
+      rowsInInput++;
+      return row;
+    }
+    Segment segment = rowPath.get(level);
+    if (segment.name != null ? token == JsonToken.START_OBJECT : token == JsonToken.START_ARRAY) {
+      frames.push(new Frame(level));
+    } else {
+      parser.skipChildren();
+    }
+    return null;
+  }
+
+  /** Reads the fields below the given node from the value at the current token. */
+  private void readFields(PathNode node, Object[] row) throws IOException, HopException {
+    JsonToken token = parser.currentToken();
+    if (!node.fieldIndexes.isEmpty()) {
+      // The value itself is needed
+      //
+      extractFields(node, readValue(token), row);
+      return;
+    }
+    if (token == JsonToken.START_OBJECT) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        PathNode child = node.children.get(Segment.member(parser.getCurrentName()));
+        parser.nextToken();
+        if (child != null) {
+          readFields(child, row);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    } else if (token == JsonToken.START_ARRAY) {
+      int index = 0;
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        PathNode child = node.children.get(Segment.index(index++));
+        if (child != null) {
+          readFields(child, row);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  /** Fills in the fields below the given node from a value that was already read. */
+  private void extractFields(PathNode node, Object value, Object[] row) {
+    for (int fieldIndex : node.fieldIndexes) {
+      row[fieldIndex] = value;
+      if (value != null) {
+        foundFields.set(fieldIndex);
+      }
+    }
+    for (Map.Entry<Segment, PathNode> entry : node.children.entrySet()) {
+      Segment segment = entry.getKey();
+      Object child = null;
+      if (segment.name != null && value instanceof Map) {
+        child = ((Map<?, ?>) value).get(segment.name);
+      } else if (segment.name == null
+          && value instanceof List
+          && segment.index < ((List<?>) value).size()) {
+        child = ((List<?>) value).get(segment.index);
+      }
+      extractFields(entry.getValue(), child, row);
+    }
+  }
+
+  /**
+   * Reads the value at the current token. Objects keep the order of their members and arrays are
+   * read as {@link JSONArray} so both render as JSON, like the values of the JsonPath based reader.
+   */
+  private Object readValue(JsonToken token) throws IOException, HopException {
+    switch (token) {
+      case START_OBJECT:
+        Map<String, Object> object = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.getCurrentName();
+          object.put(name, readValue(parser.nextToken()));
+        }
+        return object;
+      case START_ARRAY:
+        JSONArray array = new JSONArray();
+        JsonToken next;
+        while ((next = parser.nextToken()) != JsonToken.END_ARRAY) {
+          array.add(readValue(next));
+        }
+        return array;
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+        return parser.getNumberValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case VALUE_NULL:
+        return null;
+      default:
+        throw new JsonInputException(
+            BaseMessages.getString(PKG, "JsonReader.Error.Streaming.UnexpectedToken", token));
+    }
+  }
+
+  private static boolean isAllNull(Object[] row) {
+    for (Object value : row) {
+      if (value != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** A container on the row path the parser is in */
+  private static final class Frame {
+    /** The row path segment the children of the container are matched against */
+    private final int level;
+
+    /** The index of the next array element */
+    private int index;
+
+    private Frame(int level) {
+      this.level = level;
+    }
+  }
+
+  /** A member name, array index or wildcard of a path */
+  static final class Segment {
+    static final Segment WILDCARD = new Segment(null, -1);
+
+    private final String name;
+    private final int index;
+
+    private Segment(String name, int index) {
+      this.name = name;
+      this.index = index;
+    }
+
+    static Segment member(String name) {
+      return new Segment(name, -1);
+    }
+
+    static Segment index(int index) {
+      return new Segment(null, index);
+    }
+
+    boolean isWildcard() {
+      return name == null && index < 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Segment)) {
+        return false;
+      }
+      Segment other = (Segment) o;
+      return index == other.index && Objects.equals(name, other.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return name != null ? name.hashCode() : index;
+    }
+  }
+
+  /** The paths of the fields relative to a row element, merged into a tree */
+  private static final class PathNode {
+    private final Map<Segment, PathNode> children = new HashMap<>();
+    private final List<Integer> fieldIndexes = new ArrayList<>();
+  }
+}
@@ -417,7 +417,8 @@ public abstract class BaseFileOutputMeta<Main extends JsonOutput, Data extends J
       if (realExtension != null && realExtension.length() != 0) {
         retval += "." + realExtension;
       }
-      if ("GZip".equals(meta.getFileCompression())) {
+      if ("GZip".equals(meta.getFileCompression())
+          || "Parallel GZip".equals(meta.getFileCompression())) {
         retval += ".gz";
       }
     }
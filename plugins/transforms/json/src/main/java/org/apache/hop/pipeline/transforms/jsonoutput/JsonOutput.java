@@ -24,6 +24,9 @@ import java.util.Objects;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.IValueMeta;
@@ -390,9 +393,23 @@ public class JsonOutput extends BaseTransform<JsonOutputMeta, JsonOutputData> {
         addResultFile(resultFile);
       }
 
-      OutputStream outputStream;
-      OutputStream fos = HopVfs.getOutputStream(filename, meta.isFileAppended());
-      outputStream = fos;
+      OutputStream outputStream = HopVfs.getOutputStream(filename, meta.isFileAppended());
+
+      // Compress the file with the selected compression provider
+      //
+      String compression = meta.getFileCompression();
+      if (!Utils.isEmpty(compression) && !"None".equals(compression)) {
+        ICompressionProvider compressionProvider =
+            CompressionProviderFactory.getInstance().getCompressionProviderByName(compression);
+        if (compressionProvider == null || !compressionProvider.supportsOutput()) {
+          throw new HopException(
+              BaseMessages.getString(PKG, "JsonOutput.Error.CompressionProvider", compression));
+        }
+        CompressionOutputStream compressionOutputStream =
+            compressionProvider.createOutputStream(outputStream);
+        compressionOutputStream.addEntry(filename, resolve(meta.getExtension()));
+        outputStream = compressionOutputStream;
+      }
 
       if (!Utils.isEmpty(meta.getEncoding())) {
         data.writer =
@@ -426,7 +443,7 @@ public class JsonOutput extends BaseTransform<JsonOutputMeta, JsonOutputData> {
         data.isBeamContext(),
         log.getLogChannelId(),
         data.getBeamBundleNr(),
-        false);
+        true);
   }
 
   protected boolean closeFile() {
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Objects;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Props;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
@@ -99,6 +100,9 @@ public class JsonOutputDialog extends BaseTransformDialog implements ITransformD
   private Label wlExtension;
   private TextVar wExtension;
 
+  private Label wlCompression;
+  private CCombo wCompression;
+
   private Label wlCreateParentFolder;
   private Button wCreateParentFolder;
 
@@ -486,12 +490,30 @@ public class JsonOutputDialog extends BaseTransformDialog implements ITransformD
     fdExtension.right = new FormAttachment(100, -margin);
     wExtension.setLayoutData(fdExtension);
 
+    wlCompression = new Label(wFileName, SWT.RIGHT);
+    wlCompression.setText(BaseMessages.getString(PKG, "JsonOutputDialog.Compression.Label"));
+    PropsUi.setLook(wlCompression);
+    FormData fdlCompression = new FormData();
+    fdlCompression.left = new FormAttachment(0, 0);
+    fdlCompression.top = new FormAttachment(wExtension, margin);
+    fdlCompression.right = new FormAttachment(middle, -margin);
+    wlCompression.setLayoutData(fdlCompression);
+    wCompression = new CCombo(wFileName, SWT.BORDER | SWT.READ_ONLY);
+    PropsUi.setLook(wCompression);
+    wCompression.setItems(CompressionProviderFactory.getInstance().getCompressionProviderNames());
+    wCompression.addModifyListener(lsMod);
+    FormData fdCompression = new FormData();
+    fdCompression.left = new FormAttachment(middle, 0);
+    fdCompression.top = new FormAttachment(wExtension, margin);
+    fdCompression.right = new FormAttachment(100, 0);
+    wCompression.setLayoutData(fdCompression);
+
     wlEncoding = new Label(wFileName, SWT.RIGHT);
     wlEncoding.setText(BaseMessages.getString(PKG, "JsonOutputDialog.Encoding.Label"));
     PropsUi.setLook(wlEncoding);
     FormData fdlEncoding = new FormData();
     fdlEncoding.left = new FormAttachment(0, 0);
-    fdlEncoding.top = new FormAttachment(wExtension, margin);
+    fdlEncoding.top = new FormAttachment(wCompression, margin);
     fdlEncoding.right = new FormAttachment(middle, -margin);
     wlEncoding.setLayoutData(fdlEncoding);
     wEncoding = new ComboVar(variables, wFileName, SWT.BORDER | SWT.READ_ONLY);
@@ -500,7 +522,7 @@ public class JsonOutputDialog extends BaseTransformDialog implements ITransformD
     wEncoding.addModifyListener(lsMod);
     FormData fdEncoding = new FormData();
     fdEncoding.left = new FormAttachment(middle, 0);
-    fdEncoding.top = new FormAttachment(wExtension, margin);
+    fdEncoding.top = new FormAttachment(wCompression, margin);
     fdEncoding.right = new FormAttachment(100, 0);
     wEncoding.setLayoutData(fdEncoding);
     wEncoding.addFocusListener(
@@ -803,6 +825,7 @@ public class JsonOutputDialog extends BaseTransformDialog implements ITransformD
     wFilename.setText(Const.NVL(input.getFileName(), ""));
     wCreateParentFolder.setSelection(input.isCreateParentFolder());
     wExtension.setText(Const.NVL(input.getExtension(), "js"));
+    wCompression.setText(Const.NVL(input.getFileCompression(), "None"));
 
     wAddDate.setSelection(input.isDateInFilename());
     wAddTime.setSelection(input.isTimeInFilename());
@@ -847,6 +870,7 @@ public class JsonOutputDialog extends BaseTransformDialog implements ITransformD
     jsometa.setCreateParentFolder(wCreateParentFolder.getSelection());
     jsometa.setFileName(wFilename.getText());
     jsometa.setExtension(wExtension.getText());
+    jsometa.setFileCompression(wCompression.getText());
     jsometa.setFileAppended(wAppend.getSelection());
 
     jsometa.setDateInFilename(wAddDate.getSelection());
@@ -935,6 +959,8 @@ public class JsonOutputDialog extends BaseTransformDialog implements ITransformD
     wbFilename.setEnabled(activeFile);
     wlExtension.setEnabled(activeFile);
     wExtension.setEnabled(activeFile);
+    wlCompression.setEnabled(activeFile);
+    wCompression.setEnabled(activeFile);
     wlEncoding.setEnabled(activeFile);
     wEncoding.setEnabled(activeFile);
     wlAppend.setEnabled(activeFile);
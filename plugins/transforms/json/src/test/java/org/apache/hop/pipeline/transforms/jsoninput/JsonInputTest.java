@@ -1157,6 +1157,64 @@ public class JsonInputTest {
         jsonInput.getErrors());
   }
 
+  @Test
+  public void testStreaming() throws Exception {
+    JsonInputField isbn = new JsonInputField("isbn");
+    isbn.setPath("$.store.book[*].isbn");
+    isbn.setType(IValueMeta.TYPE_STRING);
+    JsonInputField price = new JsonInputField("price");
+    price.setPath("$.store.book[*].price");
+    price.setType(IValueMeta.TYPE_NUMBER);
+
+    JsonInputMeta meta = createSimpleMeta("json", isbn, price);
+    meta.setRemoveSourceField(true);
+    meta.setStreaming(true);
+    JsonInput jsonInput = createJsonInput("json", meta, new Object[] {getBasicTestJson()});
+    RowComparatorListener rowComparator =
+        new RowComparatorListener(
+            new Object[] {null, 8.95},
+            new Object[] {null, 12.99},
+            new Object[] {"0-553-21311-3", 8.99},
+            new Object[] {"0-395-19395-8", 22.99});
+    jsonInput.addRowListener(rowComparator);
+    processRows(jsonInput, 5);
+    Assert.assertEquals("error", 0, jsonInput.getErrors());
+    Assert.assertEquals("lines written", 4, jsonInput.getLinesWritten());
+  }
+
+  @Test
+  public void testStreamingJsonLinesFile() throws Exception {
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    helper.redirectLog(err, LogLevel.ERROR);
+
+    try (FileObject fileObj = HopVfs.getFileObject(BASE_RAM_DIR + "test.jsonl")) {
+      try (OutputStream out = fileObj.getContent().getOutputStream()) {
+        out.write("{\"id\":1,\"name\":\"a\"}\n{\"id\":2,\"name\":\"b\"}\n".getBytes());
+      }
+      JsonInputField id = new JsonInputField("id");
+      id.setPath("$.id");
+      id.setType(IValueMeta.TYPE_INTEGER);
+      JsonInputField name = new JsonInputField("name");
+      name.setPath("$.name");
+      name.setType(IValueMeta.TYPE_STRING);
+      JsonInputMeta meta = createFileListMeta(Arrays.asList(fileObj));
+      meta.setInputFields(new JsonInputField[] {id, name});
+      meta.setStreaming(true);
+
+      JsonInput jsonInput = createJsonInput(meta);
+      RowComparatorListener rowComparator =
+          new RowComparatorListener(new Object[] {1L, "a"}, new Object[] {2L, "b"});
+      jsonInput.addRowListener(rowComparator);
+
+      processRows(jsonInput, 3);
+      disposeJsonInput(jsonInput);
+      assertEquals(err.toString(), 0, jsonInput.getErrors());
+      assertEquals("lines written", 2, jsonInput.getLinesWritten());
+    } finally {
+      deleteFiles();
+    }
+  }
+
   protected JsonInputMeta createSimpleMeta(String inputColumn, JsonInputField... jsonPathFields) {
     JsonInputMeta jsonInputMeta = new JsonInputMeta();
     jsonInputMeta.setDefault();
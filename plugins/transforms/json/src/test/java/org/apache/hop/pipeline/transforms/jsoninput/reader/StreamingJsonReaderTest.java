@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.junit.Test;
+
+public class StreamingJsonReaderTest {
+  private final ILogChannel log = mock(ILogChannel.class);
+
+  private static JsonInputField[] fields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("f" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
+  private static List<Object[]> readAll(StreamingJsonReader reader, String json)
+      throws HopException {
+    List<Object[]> rows = new ArrayList<>();
+    IRowSet rowSet = reader.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    while (true) {
+      Object[] row;
+      while ((row = rowSet.getRow()) != null) {
+        rows.add(row);
+      }
+      if (rowSet.isDone()) {
+        return rows;
+      }
+      rowSet = reader.parseMore();
+    }
+  }
+
+  @Test
+  public void testCompilePath() throws HopException {
+    assertEquals(
+        Arrays.asList(
+            StreamingJsonReader.Segment.member("store"),
+            StreamingJsonReader.Segment.member("book"),
+            StreamingJsonReader.Segment.WILDCARD,
+            StreamingJsonReader.Segment.index(2),
+            StreamingJsonReader.Segment.member("a b")),
+        StreamingJsonReader.compilePath("$.store['book'][*][2].['a b']"));
+  }
+
+  @Test(expected = HopException.class)
+  public void testDeepScanNotSupported() throws HopException {
+    new StreamingJsonReader(fields("$..book[*].title"), log);
+  }
+
+  @Test(expected = HopException.class)
+  public void testFilterNotSupported() throws HopException {
+    new StreamingJsonReader(fields("$.book[?(@.isbn)].title"), log);
+  }
+
+  @Test(expected = HopException.class)
+  public void testDifferentRowPaths() throws HopException {
+    new StreamingJsonReader(fields("$.book[*].title", "$.bicycle.color"), log);
+  }
+
+  @Test
+  public void testArrayElements() throws HopException {
+    StreamingJsonReader reader =
+        new StreamingJsonReader(
+            fields("$.data[*].name", "$.data[*].address.city", "$.data[*].tags[1]"), log);
+    reader.setIgnoreMissingPath(true);
+    String json =
+        "{\"meta\":{\"skip\":[1,2,{\"name\":\"x\"}]},\"data\":["
+            + "{\"name\":\"a\",\"address\":{\"city\":\"Ghent\",\"zip\":9000},\"tags\":[\"t1\",\"t2\"]},"
+            + "{\"name\":\"b\",\"other\":{\"name\":\"nested\"}},"
+            + "{\"address\":null,\"name\":\"c\",\"tags\":[1,2.5]}"
+            + "],\"name\":\"ignored\"}";
+
+    List<Object[]> rows = readAll(reader, json);
+
+    assertEquals(3, rows.size());
+    assertArrayEquals(new Object[] {"a", "Ghent", "t2"}, rows.get(0));
+    assertArrayEquals(new Object[] {"b", null, null}, rows.get(1));
+    assertArrayEquals(new Object[] {"c", null, 2.5d}, rows.get(2));
+  }
+
+  @Test
+  public void testObjectAndArrayValues() throws HopException {
+    StreamingJsonReader reader =
+        new StreamingJsonReader(fields("$[*].obj", "$[*].list", "$[*].obj.b"), log);
+    List<Object[]> rows =
+        readAll(reader, "[{\"obj\":{\"b\":1,\"a\":[true,null]},\"list\":[1,\"x\"]}]");
+
+    assertEquals(1, rows.size());
+    Map<String, Object> object = new LinkedHashMap<>();
+    object.put("b", 1);
+    object.put("a", Arrays.asList(true, null));
+    assertEquals(object, rows.get(0)[0]);
+    assertEquals(Arrays.asList("b", "a"), new ArrayList<>(((Map<?, ?>) rows.get(0)[0]).keySet()));
+    assertEquals("[1,\"x\"]", rows.get(0)[1].toString());
+    assertEquals(1, rows.get(0)[2]);
+  }
+
+  @Test
+  public void testJsonLines() throws HopException {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.id", "$.value"), log);
+    List<Object[]> rows =
+        readAll(reader, "{\"id\":1,\"value\":\"a\"}\n{\"id\":2}\n{\"value\":\"c\",\"id\":3}\n");
+
+    assertEquals(3, rows.size());
+    assertArrayEquals(new Object[] {1, "a"}, rows.get(0));
+    assertArrayEquals(new Object[] {2, null}, rows.get(1));
+    assertArrayEquals(new Object[] {3, "c"}, rows.get(2));
+  }
+
+  @Test
+  public void testRowsAreReadInParts() throws HopException {
+    StringBuilder json = new StringBuilder("{\"rows\":[");
+    for (int i = 0; i < 2500; i++) {
+      json.append(i > 0 ? "," : "").append("{\"n\":").append(i).append('}');
+    }
+    json.append("]}");
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.rows[*].n"), log);
+
+    IRowSet first =
+        reader.parse(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)));
+    assertFalse(first.isDone());
+    assertTrue(first.size() < 2500);
+
+    List<Object[]> rows = readAll(reader, json.toString());
+    assertEquals(2500, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals(i, rows.get(i)[0]);
+    }
+  }
+
+  @Test
+  public void testEmptyResult() throws HopException {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.rows[*].n"), log);
+    reader.setIgnoreMissingPath(true);
+    List<Object[]> rows = readAll(reader, "{\"rows\":[]}");
+
+    assertEquals(1, rows.size());
+    assertNull(rows.get(0)[0]);
+  }
+
+  @Test(expected = HopException.class)
+  public void testMissingPath() throws HopException {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.rows[*].n"), log);
+    reader.setIgnoreMissingPath(false);
+    readAll(reader, "{\"rows\":[{\"m\":1}]}");
+  }
+}
@@ -26,12 +26,15 @@ package org.apache.hop.pipeline.transforms.pgbulkloader;
 //
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.DataOutputStream;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.Database;
@@ -46,8 +49,6 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
-import org.postgresql.PGConnection;
-import org.postgresql.copy.PGCopyOutputStream;
 
 /** Performs a bulk load to a postgres table. */
 public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderData> {
@@ -55,7 +56,6 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
   private static final Class<?> PKG = PGBulkLoaderMeta.class; // For Translator
 
   private Charset clientEncoding = Charset.defaultCharset();
-  private PGCopyOutputStream pgCopyOut;
 
   public PGBulkLoader(
       TransformMeta transformMeta,
@@ -109,12 +109,16 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     contents.append(" FROM STDIN"); // FIFO file
 
     // The "FORMAT" clause
-    contents
-        .append(" WITH CSV DELIMITER AS '")
-        .append(resolve(meta.getDelimiter()))
-        .append("' QUOTE AS '")
-        .append(resolve(meta.getEnclosure()))
-        .append("'");
+    if (meta.isBinaryFormat()) {
+      contents.append(" WITH BINARY");
+    } else {
+      contents
+          .append(" WITH CSV DELIMITER AS '")
+          .append(resolve(meta.getDelimiter()))
+          .append("' QUOTE AS '")
+          .append(resolve(meta.getEnclosure()))
+          .append("'");
+    }
     contents.append(";").append(Const.CR);
 
     return contents.toString();
@@ -153,14 +157,73 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
 
       processTruncate();
 
-      logBasic("Launching command: " + copyCmd);
-      pgCopyOut = new PGCopyOutputStream((PGConnection) data.db.getConnection(), copyCmd);
+      if (meta.isBinaryFormat()) {
+        data.binaryEncoder = new PGCopyBinaryEncoder(getTargetColumnTypes(), clientEncoding);
+      }
 
+      // Every stream runs its own COPY command on its own connection.
+      // The first one uses the connection which did the truncate.
+      // The streams commit independently: when one fails the others can leave their rows loaded.
+      //
+      int nrStreams = Math.max(1, Const.toInt(resolve(meta.getParallelStreams()), 1));
+      data.copyStreams = new ArrayList<>();
+      data.currentStream = 0;
+      for (int i = 0; i < nrStreams; i++) {
+        Database database;
+        if (i == 0) {
+          database = data.db;
+        } else {
+          database = getDatabase(this, meta);
+          database.connect();
+        }
+        logBasic("Launching command: " + copyCmd);
+        PGCopyStream stream =
+            new PGCopyStream(
+                database,
+                copyCmd,
+                nrStreams > 1 ? getTransformName() + " - COPY stream " + (i + 1) : null);
+        data.copyStreams.add(stream);
+
+        if (data.binaryEncoder != null) {
+          PGCopyBinaryEncoder.writeHeader(stream.getOutputStream());
+        }
+      }
     } catch (Exception ex) {
       throw new HopException("Error while preparing the COPY " + copyCmd, ex);
     }
   }
 
+  /**
+   * Look up the PostgreSQL types of the target columns, in the order of the mappings.
+   *
+   * @return the type names of the target columns
+   */
+  String[] getTargetColumnTypes() throws Exception {
+    DatabaseMeta dm = meta.getDatabaseMeta();
+    List<PGBulkLoaderMappingMeta> mapping = meta.getMappings();
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < mapping.size(); i++) {
+      if (i != 0) {
+        sql.append(", ");
+      }
+      sql.append(dm.quoteField(mapping.get(i).getFieldTable()));
+    }
+    sql.append(" FROM ")
+        .append(dm.getQuotedSchemaTableCombination(this, meta.getSchemaName(), meta.getTableName()))
+        .append(" WHERE 1=0");
+
+    try (Statement statement = data.db.getConnection().createStatement();
+        ResultSet rs = statement.executeQuery(sql.toString())) {
+      ResultSetMetaData metaData = rs.getMetaData();
+      String[] typeNames = new String[metaData.getColumnCount()];
+      for (int i = 0; i < typeNames.length; i++) {
+        typeNames[i] = metaData.getColumnTypeName(i + 1);
+      }
+      return typeNames;
+    }
+  }
+
   @VisibleForTesting
   Database getDatabase(ILoggingObject parentObject, PGBulkLoaderMeta pgBulkLoaderMeta) {
     DatabaseMeta dbMeta = pgBulkLoaderMeta.getDatabaseMeta();
@@ -211,13 +274,20 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
 
         setOutputDone();
 
-        // Close the output stream...
+        // End the COPY commands...
         // will be null if no records (empty stream)
-        if (data != null && pgCopyOut != null) {
-          pgCopyOut.flush();
-          pgCopyOut.endCopy();
-          pgCopyOut.close();
-          data.db.getConnection().close();
+        if (data != null && data.copyStreams != null) {
+          for (PGCopyStream stream : data.copyStreams) {
+            if (data.binaryEncoder != null) {
+              PGCopyBinaryEncoder.writeTrailer(stream.getOutputStream());
+            }
+            long rows = stream.endCopy();
+            if (log.isDetailed()) {
+              logDetailed("COPY command loaded " + rows + " rows");
+            }
+            stream.getDatabase().getConnection().close();
+          }
+          data.copyStreams = null;
         }
 
         return false;
@@ -234,7 +304,7 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
               getInputRowMeta().indexOfValue(meta.getMappings().get(i).getFieldStream());
         }
 
-        // execute the copy statement... pgCopyOut is setup there
+        // execute the copy statement... the COPY streams are set up there
         //
         doCopy(meta, true);
 
@@ -242,7 +312,17 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         //
       }
 
-      writeRowToPostgres(getInputRowMeta(), r);
+      // Distribute the rows over the COPY streams, a block at a time
+      //
+      PGCopyStream stream = data.copyStreams.get(data.currentStream);
+      if (data.binaryEncoder != null) {
+        data.binaryEncoder.writeRow(stream.getOutputStream(), getInputRowMeta(), r, data.keynrs);
+      } else {
+        writeRowToPostgres(stream.getOutputStream(), getInputRowMeta(), r);
+      }
+      if (stream.endRow()) {
+        data.currentStream = (data.currentStream + 1) % data.copyStreams.size();
+      }
 
       putRow(getInputRowMeta(), r);
       incrementLinesOutput();
@@ -257,7 +337,8 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     }
   }
 
-  private void writeRowToPostgres(IRowMeta rowMeta, Object[] r) throws HopException {
+  private void writeRowToPostgres(DataOutputStream pgCopyOut, IRowMeta rowMeta, Object[] r)
+      throws HopException {
 
     try {
       // So, we have this output stream to which we can write CSV data to.
@@ -430,6 +511,24 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     }
   }
 
+  @Override
+  public void dispose() {
+    // Cancel the COPY commands which didn't end because of an error
+    //
+    if (data.copyStreams != null) {
+      for (PGCopyStream stream : data.copyStreams) {
+        try {
+          stream.cancel();
+        } catch (SQLException e) {
+          logError("Error cancelling the COPY command", e);
+        }
+        stream.getDatabase().disconnect();
+      }
+      data.copyStreams = null;
+    }
+    super.dispose();
+  }
+
   @Override
   public boolean init() {
 
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.pgbulkloader;
 
 import java.io.OutputStream;
+import java.util.List;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.value.ValueMetaDate;
@@ -46,6 +47,15 @@ public class PGBulkLoaderData extends BaseTransformData implements ITransformDat
 
   public PGConnection pgdb;
 
+  /** The running COPY commands, the first one uses the db connection */
+  public List<PGCopyStream> copyStreams;
+
+  /** The index of the COPY stream the rows are written to */
+  public int currentStream;
+
+  /** Encodes the rows when the binary COPY format is used, null for CSV */
+  public PGCopyBinaryEncoder binaryEncoder;
+
   public int[] dateFormatChoices;
 
   public IValueMeta dateMeta;
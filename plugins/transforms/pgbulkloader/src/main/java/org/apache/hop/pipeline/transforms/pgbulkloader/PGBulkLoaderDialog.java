@@ -89,6 +89,10 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
 
   private Button wStopOnError;
 
+  private Button wBinaryFormat;
+
+  private TextVar wParallelStreams;
+
   private final PGBulkLoaderMeta input;
 
   private ColumnInfo[] ciReturn;
@@ -316,6 +320,55 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
           }
         });
 
+    // Binary format line
+    Label wlBinaryFormat = new Label(shell, SWT.RIGHT);
+    wlBinaryFormat.setText(BaseMessages.getString(PKG, "PGBulkLoaderDialog.BinaryFormat.Label"));
+    wlBinaryFormat.setToolTipText(
+        BaseMessages.getString(PKG, "PGBulkLoaderDialog.BinaryFormat.Tooltip"));
+    PropsUi.setLook(wlBinaryFormat);
+    FormData fdlBinaryFormat = new FormData();
+    fdlBinaryFormat.left = new FormAttachment(0, 0);
+    fdlBinaryFormat.top = new FormAttachment(wStopOnError, margin);
+    fdlBinaryFormat.right = new FormAttachment(middle, -margin);
+    wlBinaryFormat.setLayoutData(fdlBinaryFormat);
+    wBinaryFormat = new Button(shell, SWT.CHECK);
+    PropsUi.setLook(wBinaryFormat);
+    FormData fdBinaryFormat = new FormData();
+    fdBinaryFormat.left = new FormAttachment(middle, 0);
+    fdBinaryFormat.top = new FormAttachment(wlBinaryFormat, 0, SWT.CENTER);
+    fdBinaryFormat.right = new FormAttachment(100, 0);
+    wBinaryFormat.setLayoutData(fdBinaryFormat);
+
+    wBinaryFormat.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+            setFlags();
+          }
+        });
+
+    // Parallel streams line
+    Label wlParallelStreams = new Label(shell, SWT.RIGHT);
+    wlParallelStreams.setText(
+        BaseMessages.getString(PKG, "PGBulkLoaderDialog.ParallelStreams.Label"));
+    wlParallelStreams.setToolTipText(
+        BaseMessages.getString(PKG, "PGBulkLoaderDialog.ParallelStreams.Tooltip"));
+    PropsUi.setLook(wlParallelStreams);
+    FormData fdlParallelStreams = new FormData();
+    fdlParallelStreams.left = new FormAttachment(0, 0);
+    fdlParallelStreams.top = new FormAttachment(wBinaryFormat, margin);
+    fdlParallelStreams.right = new FormAttachment(middle, -margin);
+    wlParallelStreams.setLayoutData(fdlParallelStreams);
+    wParallelStreams = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wParallelStreams);
+    wParallelStreams.addModifyListener(lsMod);
+    FormData fdParallelStreams = new FormData();
+    fdParallelStreams.left = new FormAttachment(middle, 0);
+    fdParallelStreams.top = new FormAttachment(wBinaryFormat, margin);
+    fdParallelStreams.right = new FormAttachment(100, 0);
+    wParallelStreams.setLayoutData(fdParallelStreams);
+
     // THE BUTTONS
     wOk = new Button(shell, SWT.PUSH);
     wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
@@ -331,7 +384,7 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     PropsUi.setLook(wlReturn);
     FormData fdlReturn = new FormData();
     fdlReturn.left = new FormAttachment(0, 0);
-    fdlReturn.top = new FormAttachment(wStopOnError, margin);
+    fdlReturn.top = new FormAttachment(wParallelStreams, margin);
     wlReturn.setLayoutData(fdlReturn);
 
     int upInsCols = 3;
@@ -442,6 +495,13 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     return transformName;
   }
 
+  /** The enclosure and delimiter are only used by the CSV format */
+  private void setFlags() {
+    boolean csv = !wBinaryFormat.getSelection();
+    wEnclosure.setEnabled(csv);
+    wDelimiter.setEnabled(csv);
+  }
+
   /** Copy information from the meta-data input to the dialog fields. */
   public void getData() {
     logDebug(BaseMessages.getString(PKG, "PGBulkLoaderDialog.Log.GettingKeyInfo"));
@@ -489,6 +549,11 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
       wEnclosure.setText(input.getEnclosure());
     }
     wStopOnError.setSelection(input.isStopOnError());
+    wBinaryFormat.setSelection(input.isBinaryFormat());
+    if (input.getParallelStreams() != null) {
+      wParallelStreams.setText(input.getParallelStreams());
+    }
+    setFlags();
     if (input.getDbNameOverride() != null) {
       wDbNameOverride.setText(input.getDbNameOverride());
     }
@@ -704,6 +769,8 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     inf.setDelimiter(wDelimiter.getText());
     inf.setEnclosure(wEnclosure.getText());
     inf.setStopOnError(wStopOnError.getSelection());
+    inf.setBinaryFormat(wBinaryFormat.getSelection());
+    inf.setParallelStreams(wParallelStreams.getText());
 
     /*
      * /* Set the loadaction
@@ -113,6 +113,18 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
       injectionKeyDescription = "PGBulkLoader.Injection.StopOnError.Label")
   private boolean stopOnError;
 
+  /** Use the binary COPY format instead of CSV */
+  @HopMetadataProperty(
+      key = "binary_format",
+      injectionKeyDescription = "PGBulkLoader.Injection.BinaryFormat.Label")
+  private boolean binaryFormat;
+
+  /** The number of COPY commands to run in parallel, each on its own connection */
+  @HopMetadataProperty(
+      key = "parallel_streams",
+      injectionKeyDescription = "PGBulkLoader.Injection.ParallelStreams.Label")
+  private String parallelStreams;
+
   /*
    * Do not translate following values!!! They are will end up in the workflow export.
    */
@@ -143,6 +155,8 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
     delimiter = ";";
     enclosure = "\"";
     stopOnError = false;
+    binaryFormat = false;
+    parallelStreams = "1";
     mappings = new ArrayList<>();
   }
 
@@ -525,6 +539,22 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
     this.stopOnError = value;
   }
 
+  public boolean isBinaryFormat() {
+    return binaryFormat;
+  }
+
+  public void setBinaryFormat(boolean binaryFormat) {
+    this.binaryFormat = binaryFormat;
+  }
+
+  public String getParallelStreams() {
+    return parallelStreams;
+  }
+
+  public void setParallelStreams(String parallelStreams) {
+    this.parallelStreams = parallelStreams;
+  }
+
   /**
    * @return Returns the database.
    */
@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Encodes rows in the binary format of the PostgreSQL COPY command. The values are converted to the
+ * type of the target column and written in the network representation of that type, so no
+ * formatting, escaping or parsing of text is needed on either side.
+ */
+public class PGCopyBinaryEncoder {
+
+  /** The signature which starts the binary COPY data */
+  public static final byte[] SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+  };
+
+  private static final int TYPE_INT2 = 1;
+  private static final int TYPE_INT4 = 2;
+  private static final int TYPE_INT8 = 3;
+  private static final int TYPE_FLOAT4 = 4;
+  private static final int TYPE_FLOAT8 = 5;
+  private static final int TYPE_NUMERIC = 6;
+  private static final int TYPE_BOOL = 7;
+  private static final int TYPE_TEXT = 8;
+  private static final int TYPE_JSONB = 9;
+  private static final int TYPE_BYTEA = 10;
+  private static final int TYPE_UUID = 11;
+  private static final int TYPE_DATE = 12;
+  private static final int TYPE_TIME = 13;
+  private static final int TYPE_TIMESTAMP = 14;
+  private static final int TYPE_TIMESTAMPTZ = 15;
+
+  private static final LocalDate PG_EPOCH_DATE = LocalDate.of(2000, 1, 1);
+  private static final LocalDateTime PG_EPOCH_DATETIME = PG_EPOCH_DATE.atStartOfDay();
+  private static final Instant PG_EPOCH_INSTANT = Instant.parse("2000-01-01T00:00:00Z");
+
+  private static final short NUMERIC_POSITIVE = 0x0000;
+  private static final short NUMERIC_NEGATIVE = 0x4000;
+
+  private final int[] columnTypes;
+  private final Charset charset;
+  private final ZoneId zoneId;
+
+  /**
+   * @param columnTypeNames the PostgreSQL type names of the target columns, in the order of the
+   *     loaded fields
+   * @param charset the client encoding to use for textual values
+   * @throws HopException in case one of the column types can't be written in binary format
+   */
+  public PGCopyBinaryEncoder(String[] columnTypeNames, Charset charset) throws HopException {
+    this.columnTypes = new int[columnTypeNames.length];
+    for (int i = 0; i < columnTypeNames.length; i++) {
+      columnTypes[i] = getColumnType(columnTypeNames[i]);
+    }
+    this.charset = charset;
+    this.zoneId = ZoneId.systemDefault();
+  }
+
+  private static int getColumnType(String typeName) throws HopException {
+    switch (typeName == null ? "" : typeName.toLowerCase()) {
+      case "int2":
+      case "smallserial":
+        return TYPE_INT2;
+      case "int4":
+      case "serial":
+        return TYPE_INT4;
+      case "int8":
+      case "bigserial":
+        return TYPE_INT8;
+      case "float4":
+        return TYPE_FLOAT4;
+      case "float8":
+        return TYPE_FLOAT8;
+      case "numeric":
+        return TYPE_NUMERIC;
+      case "bool":
+        return TYPE_BOOL;
+      case "text":
+      case "varchar":
+      case "bpchar":
+      case "name":
+      case "json":
+      case "xml":
+        return TYPE_TEXT;
+      case "jsonb":
+        return TYPE_JSONB;
+      case "bytea":
+        return TYPE_BYTEA;
+      case "uuid":
+        return TYPE_UUID;
+      case "date":
+        return TYPE_DATE;
+      case "time":
+        return TYPE_TIME;
+      case "timestamp":
+        return TYPE_TIMESTAMP;
+      case "timestamptz":
+        return TYPE_TIMESTAMPTZ;
+      default:
+        throw new HopException(
+            "Columns of type '"
+                + typeName
+                + "' can't be loaded with the binary COPY format, please use the text format");
+    }
+  }
+
+  /** Write the header of the binary COPY data: the signature, the flags and the extension area */
+  public static void writeHeader(DataOutputStream out) throws IOException {
+    out.write(SIGNATURE);
+    out.writeInt(0); // flags: no OIDs
+    out.writeInt(0); // no header extension
+  }
+
+  /** Write the trailer which ends the binary COPY data */
+  public static void writeTrailer(DataOutputStream out) throws IOException {
+    out.writeShort(-1);
+  }
+
+  /**
+   * Write a row (tuple) of binary COPY data.
+   *
+   * @param out the stream to write to
+   * @param rowMeta the metadata of the row
+   * @param row the row data
+   * @param fieldIndexes the indexes of the loaded fields in the row, in the order of the columns
+   */
+  public void writeRow(DataOutputStream out, IRowMeta rowMeta, Object[] row, int[] fieldIndexes)
+      throws IOException, HopValueException {
+    out.writeShort(fieldIndexes.length);
+    for (int i = 0; i < fieldIndexes.length; i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(fieldIndexes[i]);
+      Object valueData = row[fieldIndexes[i]];
+      if (valueMeta.isNull(valueData)) {
+        out.writeInt(-1);
+      } else {
+        writeValue(out, columnTypes[i], valueMeta, valueData);
+      }
+    }
+  }
+
+  private void writeValue(DataOutputStream out, int columnType, IValueMeta valueMeta, Object data)
+      throws IOException, HopValueException {
+    switch (columnType) {
+      case TYPE_INT2:
+        out.writeInt(2);
+        out.writeShort(toShort(valueMeta, data));
+        break;
+      case TYPE_INT4:
+        out.writeInt(4);
+        out.writeInt(toInt(valueMeta, data));
+        break;
+      case TYPE_INT8:
+        out.writeInt(8);
+        out.writeLong(valueMeta.getInteger(data));
+        break;
+      case TYPE_FLOAT4:
+        out.writeInt(4);
+        out.writeFloat(valueMeta.getNumber(data).floatValue());
+        break;
+      case TYPE_FLOAT8:
+        out.writeInt(8);
+        out.writeDouble(valueMeta.getNumber(data));
+        break;
+      case TYPE_NUMERIC:
+        writeNumeric(out, valueMeta.getBigNumber(data));
+        break;
+      case TYPE_BOOL:
+        out.writeInt(1);
+        out.writeByte(Boolean.TRUE.equals(valueMeta.getBoolean(data)) ? 1 : 0);
+        break;
+      case TYPE_TEXT:
+        writeBytes(out, valueMeta.getString(data).getBytes(charset));
+        break;
+      case TYPE_JSONB:
+        byte[] json = valueMeta.getString(data).getBytes(charset);
+        out.writeInt(json.length + 1);
+        out.writeByte(1); // jsonb version
+        out.write(json);
+        break;
+      case TYPE_BYTEA:
+        writeBytes(out, valueMeta.getBinary(data));
+        break;
+      case TYPE_UUID:
+        UUID uuid = UUID.fromString(valueMeta.getString(data));
+        out.writeInt(16);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        break;
+      case TYPE_DATE:
+        out.writeInt(4);
+        out.writeInt(
+            (int)
+                ChronoUnit.DAYS.between(
+                    PG_EPOCH_DATE, toLocalDateTime(valueMeta.getDate(data)).toLocalDate()));
+        break;
+      case TYPE_TIME:
+        out.writeInt(8);
+        out.writeLong(
+            ChronoUnit.MICROS.between(
+                LocalTime.MIDNIGHT, toLocalDateTime(valueMeta.getDate(data)).toLocalTime()));
+        break;
+      case TYPE_TIMESTAMP:
+        out.writeInt(8);
+        out.writeLong(
+            ChronoUnit.MICROS.between(PG_EPOCH_DATETIME, toLocalDateTime(valueMeta.getDate(data))));
+        break;
+      case TYPE_TIMESTAMPTZ:
+        out.writeInt(8);
+        out.writeLong(
+            ChronoUnit.MICROS.between(PG_EPOCH_INSTANT, toInstant(valueMeta.getDate(data))));
+        break;
+      default:
+        throw new HopValueException("Unknown binary COPY column type: " + columnType);
+    }
+  }
+
+  /** Convert an integer to a smallint, refusing values which don't fit instead of wrapping. */
+  private static short toShort(IValueMeta valueMeta, Object data) throws HopValueException {
+    long value = valueMeta.getInteger(data);
+    if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+      throw new HopValueException(
+          "Value " + value + " of field " + valueMeta.getName() + " is out of range for smallint");
+    }
+    return (short) value;
+  }
+
+  /** Convert an integer to an int, refusing values which don't fit instead of wrapping. */
+  private static int toInt(IValueMeta valueMeta, Object data) throws HopValueException {
+    long value = valueMeta.getInteger(data);
+    try {
+      return Math.toIntExact(value);
+    } catch (ArithmeticException e) {
+      throw new HopValueException(
+          "Value " + value + " of field " + valueMeta.getName() + " is out of range for integer",
+          e);
+    }
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static Instant toInstant(Date date) {
+    // A timestamp keeps the nanoseconds
+    if (date instanceof Timestamp) {
+      return ((Timestamp) date).toInstant();
+    }
+    return Instant.ofEpochMilli(date.getTime());
+  }
+
+  private LocalDateTime toLocalDateTime(Date date) {
+    return LocalDateTime.ofInstant(toInstant(date), zoneId);
+  }
+
+  /**
+   * Write a numeric value: the number of base 10000 digits, the weight of the first digit, the
+   * sign, the display scale and the digits themselves.
+   */
+  static void writeNumeric(DataOutputStream out, BigDecimal value) throws IOException {
+    short sign = value.signum() < 0 ? NUMERIC_NEGATIVE : NUMERIC_POSITIVE;
+    BigDecimal abs = value.abs();
+    if (abs.scale() < 0) {
+      abs = abs.setScale(0);
+    }
+    int scale = abs.scale();
+    String unscaled = abs.unscaledValue().toString();
+
+    // Split the decimal digits before and after the decimal point
+    //
+    String integerDigits;
+    String fractionDigits;
+    if (unscaled.length() > scale) {
+      integerDigits = unscaled.substring(0, unscaled.length() - scale);
+      fractionDigits = unscaled.substring(unscaled.length() - scale);
+    } else {
+      integerDigits = "";
+      fractionDigits = "0".repeat(scale - unscaled.length()) + unscaled;
+    }
+
+    // Group them by 4 (base 10000) starting from the decimal point
+    //
+    String digits =
+        "0".repeat((4 - integerDigits.length() % 4) % 4)
+            + integerDigits
+            + fractionDigits
+            + "0".repeat((4 - fractionDigits.length() % 4) % 4);
+    short[] groups = new short[digits.length() / 4];
+    for (int i = 0; i < groups.length; i++) {
+      groups[i] = Short.parseShort(digits.substring(i * 4, i * 4 + 4));
+    }
+    int weight = (integerDigits.length() + 3) / 4 - 1;
+
+    // Leading and trailing zero groups are not stored
+    //
+    int first = 0;
+    while (first < groups.length && groups[first] == 0) {
+      first++;
+      weight--;
+    }
+    int last = groups.length;
+    while (last > first && groups[last - 1] == 0) {
+      last--;
+    }
+    if (first == last) {
+      weight = 0;
+      sign = NUMERIC_POSITIVE;
+    }
+
+    out.writeInt(8 + 2 * (last - first));
+    out.writeShort(last - first);
+    out.writeShort(weight);
+    out.writeShort(sign);
+    out.writeShort(scale);
+    for (int i = first; i < last; i++) {
+      out.writeShort(groups[i]);
+    }
+  }
+}
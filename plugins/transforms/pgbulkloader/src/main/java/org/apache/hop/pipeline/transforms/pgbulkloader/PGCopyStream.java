@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * A COPY FROM STDIN command running on its own database connection.
+ *
+ * <p>When the stream has a writer thread, rows are collected in blocks which are sent to the
+ * database by that thread. This way several streams can load the same table in parallel while the
+ * transform keeps encoding rows.
+ */
+public class PGCopyStream {
+
+  /** The size of a block of rows handed to the writer thread */
+  public static final int BLOCK_SIZE = 64 * 1024;
+
+  /** The maximum number of blocks waiting to be written, per stream */
+  private static final int MAX_PENDING_BLOCKS = 4;
+
+  private final Database database;
+  private final PGCopyOutputStream copyOut;
+  private final ExecutorService writer;
+  private final Deque<Future<?>> pendingBlocks;
+  private final ByteArrayOutputStream block;
+  private final DataOutputStream out;
+
+  /**
+   * @param database the connected database to run the COPY command on
+   * @param copyCommand the COPY command
+   * @param writerThreadName the name of the writer thread or null to write from the calling thread
+   * @throws SQLException in case the COPY command can't be started
+   */
+  public PGCopyStream(Database database, String copyCommand, String writerThreadName)
+      throws SQLException {
+    this.database = database;
+    this.copyOut = new PGCopyOutputStream((PGConnection) database.getConnection(), copyCommand);
+
+    if (writerThreadName == null) {
+      writer = null;
+      pendingBlocks = null;
+      block = null;
+      out = new DataOutputStream(copyOut);
+    } else {
+      writer =
+          Executors.newSingleThreadExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, writerThreadName);
+                thread.setDaemon(true);
+                return thread;
+              });
+      pendingBlocks = new ArrayDeque<>();
+      block = new ByteArrayOutputStream(BLOCK_SIZE + BLOCK_SIZE / 4);
+      out = new DataOutputStream(block);
+    }
+  }
+
+  /**
+   * @return the stream to write the COPY data of a row to
+   */
+  public DataOutputStream getOutputStream() {
+    return out;
+  }
+
+  /**
+   * Signal the end of a row. When the current block is full it's handed to the writer thread.
+   *
+   * @return true if a block was handed to the writer thread
+   * @throws HopException in case writing an earlier block failed
+   */
+  public boolean endRow() throws HopException {
+    if (writer == null || block.size() < BLOCK_SIZE) {
+      return false;
+    }
+    sendBlock();
+    return true;
+  }
+
+  private void sendBlock() throws HopException {
+    byte[] bytes = block.toByteArray();
+    block.reset();
+
+    // Don't let the writer fall behind too much
+    //
+    while (pendingBlocks.size() >= MAX_PENDING_BLOCKS) {
+      waitForBlock(pendingBlocks.removeFirst());
+    }
+    pendingBlocks.addLast(
+        writer.submit(
+            () -> {
+              copyOut.write(bytes);
+              return null;
+            }));
+  }
+
+  private static void waitForBlock(Future<?> future) throws HopException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while writing COPY data", e);
+    } catch (ExecutionException e) {
+      throw new HopException("Error writing COPY data", e.getCause());
+    }
+  }
+
+  /**
+   * Send the remaining data and end the COPY command.
+   *
+   * @return the number of rows loaded
+   * @throws HopException in case the data can't be written or the COPY command fails
+   */
+  public long endCopy() throws HopException {
+    try {
+      if (writer != null) {
+        if (block.size() > 0) {
+          sendBlock();
+        }
+        while (!pendingBlocks.isEmpty()) {
+          waitForBlock(pendingBlocks.removeFirst());
+        }
+        writer.shutdown();
+      }
+      copyOut.flush();
+      long rows = copyOut.endCopy();
+      copyOut.close();
+      return rows;
+    } catch (IOException | SQLException e) {
+      throw new HopException("Error ending the COPY command", e);
+    }
+  }
+
+  /**
+   * Stop the writer thread and cancel the COPY command if it's still running.
+   *
+   * @throws SQLException in case the COPY command can't be cancelled
+   */
+  public void cancel() throws SQLException {
+    if (writer != null) {
+      writer.shutdownNow();
+      try {
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (copyOut.isActive()) {
+      copyOut.cancelCopy();
+    }
+  }
+
+  /**
+   * Gets database
+   *
+   * @return value of database
+   */
+  public Database getDatabase() {
+    return database;
+  }
+}
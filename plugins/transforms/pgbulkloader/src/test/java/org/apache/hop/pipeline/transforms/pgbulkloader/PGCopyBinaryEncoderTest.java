@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class PGCopyBinaryEncoderTest {
+
+  @Test
+  public void testHeaderAndTrailer() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    PGCopyBinaryEncoder.writeHeader(out);
+    PGCopyBinaryEncoder.writeTrailer(out);
+
+    DataInputStream in = read(bytes);
+    byte[] signature = new byte[PGCopyBinaryEncoder.SIGNATURE.length];
+    in.readFully(signature);
+    assertArrayEquals(PGCopyBinaryEncoder.SIGNATURE, signature);
+    assertEquals(0, in.readInt());
+    assertEquals(0, in.readInt());
+    assertEquals(-1, in.readShort());
+  }
+
+  @Test
+  public void testWriteRow() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaInteger("count"));
+    rowMeta.addValueMeta(new ValueMetaString("comment"));
+
+    PGCopyBinaryEncoder encoder =
+        new PGCopyBinaryEncoder(new String[] {"int8", "int4", "varchar"}, StandardCharsets.UTF_8);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    encoder.writeRow(
+        new DataOutputStream(bytes),
+        rowMeta,
+        new Object[] {"ignored", 42L, 7L, null},
+        new int[] {1, 2, 3});
+
+    DataInputStream in = read(bytes);
+    assertEquals(3, in.readShort());
+    assertEquals(8, in.readInt());
+    assertEquals(42L, in.readLong());
+    assertEquals(4, in.readInt());
+    assertEquals(7, in.readInt());
+    assertEquals(-1, in.readInt());
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testWriteNumeric() throws Exception {
+    assertNumeric("123.45", 0, 0x0000, 2, 123, 4500);
+    assertNumeric("-0.001", -1, 0x4000, 3, 10);
+    assertNumeric("10000", 1, 0x0000, 0, 1);
+    assertNumeric("0.00001", -2, 0x0000, 5, 1000);
+    assertNumeric("0", 0, 0x0000, 0);
+  }
+
+  @Test
+  public void testBigNumberColumn() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+    PGCopyBinaryEncoder encoder =
+        new PGCopyBinaryEncoder(new String[] {"numeric"}, StandardCharsets.UTF_8);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    encoder.writeRow(
+        new DataOutputStream(bytes), rowMeta, new Object[] {new BigDecimal("1.5")}, new int[] {0});
+
+    DataInputStream in = read(bytes);
+    assertEquals(1, in.readShort());
+    assertEquals(12, in.readInt());
+    assertEquals(2, in.readShort()); // 1 and 5000
+    assertEquals(0, in.readShort());
+    assertEquals(0x0000, in.readShort());
+    assertEquals(1, in.readShort());
+    assertEquals(1, in.readShort());
+    assertEquals(5000, in.readShort());
+  }
+
+  @Test(expected = HopValueException.class)
+  public void testSmallintOutOfRange() throws Exception {
+    writeInteger("int2", 40000L);
+  }
+
+  @Test(expected = HopValueException.class)
+  public void testIntegerOutOfRange() throws Exception {
+    writeInteger("int4", 1L + Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void testIntegerLimits() throws Exception {
+    DataInputStream in = read(writeInteger("int2", (long) Short.MIN_VALUE));
+    assertEquals(1, in.readShort());
+    assertEquals(2, in.readInt());
+    assertEquals(Short.MIN_VALUE, in.readShort());
+
+    in = read(writeInteger("int4", (long) Integer.MAX_VALUE));
+    assertEquals(1, in.readShort());
+    assertEquals(4, in.readInt());
+    assertEquals(Integer.MAX_VALUE, in.readInt());
+  }
+
+  @Test(expected = HopException.class)
+  public void testUnsupportedColumnType() throws Exception {
+    new PGCopyBinaryEncoder(new String[] {"tsvector"}, StandardCharsets.UTF_8);
+  }
+
+  private static void assertNumeric(String value, int weight, int sign, int scale, int... digits)
+      throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PGCopyBinaryEncoder.writeNumeric(new DataOutputStream(bytes), new BigDecimal(value));
+
+    DataInputStream in = read(bytes);
+    assertEquals(8 + 2 * digits.length, in.readInt());
+    assertEquals(digits.length, in.readShort());
+    assertEquals(weight, in.readShort());
+    assertEquals(sign, in.readShort());
+    assertEquals(scale, in.readShort());
+    for (int digit : digits) {
+      assertEquals(digit, in.readShort());
+    }
+  }
+
+  private static ByteArrayOutputStream writeInteger(String columnType, Long value)
+      throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("value"));
+    PGCopyBinaryEncoder encoder =
+        new PGCopyBinaryEncoder(new String[] {columnType}, StandardCharsets.UTF_8);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    encoder.writeRow(new DataOutputStream(bytes), rowMeta, new Object[] {value}, new int[] {0});
+    return bytes;
+  }
+
+  private static DataInputStream read(ByteArrayOutputStream bytes) {
+    return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+}
@@ -502,4 +502,9 @@ public class ReplaceStringMeta extends BaseTransformMeta<ReplaceString, ReplaceS
   public void setFields(List<RSField> fields) {
     this.fields = fields;
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
@@ -89,7 +89,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       }
     }
     WebTarget webResource = null;
-    Client client = null;
+    Client client;
     Object[] newRow = null;
     if (rowData != null) {
       newRow = rowData.clone();
@@ -98,18 +98,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       if (isDetailed()) {
         logDetailed(BaseMessages.getString(PKG, "Rest.Log.ConnectingToURL", data.realUrl));
       }
-      ClientBuilder clientBuilder = ClientBuilder.newBuilder();
-      clientBuilder
-          .withConfig(data.config)
-          .property(HttpUrlConnectorProvider.SET_METHOD_WORKAROUND, true);
-      if (meta.isIgnoreSsl() || !Utils.isEmpty(data.trustStoreFile)) {
-        clientBuilder.sslContext(data.sslContext);
-        clientBuilder.hostnameVerifier((s1, s2) -> true);
-      }
-      client = clientBuilder.build();
-      if (data.basicAuthentication != null) {
-        client.register(data.basicAuthentication);
-      }
+      client = getClient();
       // create a WebResource object, which encapsulates a web resource for the client
       webResource = client.target(data.realUrl);
 
@@ -281,13 +270,32 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       if (webResource != null) {
         webResource = null;
       }
-      if (client != null) {
-        client.close();
-      }
     }
     return newRow;
   }
 
+  /**
+   * Builds the client once per transform copy so the connections of its pool are kept alive and
+   * re-used across rows.
+   */
+  private Client getClient() {
+    if (data.client == null) {
+      ClientBuilder clientBuilder = ClientBuilder.newBuilder();
+      clientBuilder
+          .withConfig(data.config)
+          .property(HttpUrlConnectorProvider.SET_METHOD_WORKAROUND, true);
+      if (meta.isIgnoreSsl() || !Utils.isEmpty(data.trustStoreFile)) {
+        clientBuilder.sslContext(data.sslContext);
+        clientBuilder.hostnameVerifier((s1, s2) -> true);
+      }
+      data.client = clientBuilder.build();
+      if (data.basicAuthentication != null) {
+        data.client.register(data.basicAuthentication);
+      }
+    }
+    return data.client;
+  }
+
   private void setConfig() throws HopException {
     if (data.config == null) {
       // Use ApacheHttpClient for supporting proxy authentication.
@@ -578,6 +586,10 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
   @Override
   public void dispose() {
 
+    if (data.client != null) {
+      data.client.close();
+      data.client = null;
+    }
     data.config = null;
     data.headerNames = null;
     data.indexOfHeaderFields = null;
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.rest;
 
 import javax.net.ssl.SSLContext;
+import javax.ws.rs.client.Client;
 import javax.ws.rs.core.MediaType;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
@@ -95,6 +96,9 @@ public class RestData extends BaseTransformData implements ITransformData {
 
   public ClientConfig config;
 
+  /** The client used for all the calls of this copy */
+  public Client client;
+
   public HttpAuthenticationFeature basicAuthentication;
 
   public MediaType mediaType;
@@ -874,4 +874,9 @@ public class SelectValuesMeta extends BaseTransformMeta<SelectValues, SelectValu
       }
     }
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
@@ -279,4 +279,9 @@ public class SetValueConstantMeta
           && setEmptyString == ((Field) obj).isEmptyString();
     }
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
@@ -969,4 +969,9 @@ public class StringOperationsMeta
     // If this fails, try to match using the code.
     return getPaddingByCode(tt);
   }
+
+  @Override
+  public boolean supportsFusedExecution() {
+    return true;
+  }
 }
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads an input stream ahead in a separate thread. This is used for compressed files so that the
+ * decompression of the next chunks happens while the previous ones are parsed.
+ */
+public class ReadAheadInputStream extends InputStream {
+  private static final byte[] END_OF_STREAM = new byte[0];
+
+  private final InputStream in;
+  private final int chunkSize;
+  private final BlockingQueue<byte[]> chunks;
+  private final Thread readAheadThread;
+
+  /** The error which stopped the read-ahead thread, rethrown by the reader at the end */
+  private volatile Throwable exception;
+
+  private volatile boolean closed;
+
+  private byte[] chunk;
+  private int offset;
+
+  /**
+   * @param in the input stream to read ahead
+   * @param chunkSize the number of bytes read at once
+   * @param nrChunks the maximum number of chunks read ahead
+   * @param threadName the name of the read-ahead thread
+   */
+  public ReadAheadInputStream(InputStream in, int chunkSize, int nrChunks, String threadName) {
+    this.in = in;
+    this.chunkSize = chunkSize;
+    this.chunks = new ArrayBlockingQueue<>(nrChunks);
+    this.readAheadThread = new Thread(this::readAhead, threadName);
+    this.readAheadThread.setDaemon(true);
+    this.readAheadThread.start();
+  }
+
+  private void readAhead() {
+    try {
+      while (!closed) {
+        byte[] buffer = new byte[chunkSize];
+        int n = in.readNBytes(buffer, 0, chunkSize);
+        if (n <= 0) {
+          break;
+        }
+        chunks.put(n == chunkSize ? buffer : Arrays.copyOf(buffer, n));
+      }
+    } catch (InterruptedException e) {
+      // Closed while waiting for the reader
+      Thread.currentThread().interrupt();
+    } catch (Throwable e) {
+      if (!closed) {
+        exception = e;
+      }
+    } finally {
+      // Always signal the end so that the reader never waits forever, whatever stopped this thread
+      //
+      if (!closed) {
+        try {
+          chunks.put(END_OF_STREAM);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextChunk()) {
+      return -1;
+    }
+    return chunk[offset++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!nextChunk()) {
+      return -1;
+    }
+    int n = Math.min(len, chunk.length - offset);
+    System.arraycopy(chunk, offset, b, off, n);
+    offset += n;
+    return n;
+  }
+
+  /**
+   * @return false at the end of the stream
+   */
+  private boolean nextChunk() throws IOException {
+    if (chunk == END_OF_STREAM) {
+      return false;
+    }
+    if (chunk != null && offset < chunk.length) {
+      return true;
+    }
+    try {
+      chunk = chunks.take();
+      offset = 0;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading ahead");
+    }
+    if (chunk == END_OF_STREAM) {
+      Throwable e = exception;
+      if (e instanceof IOException) {
+        throw (IOException) e;
+      }
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      }
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+      if (e != null) {
+        throw new IOException("Error reading ahead", e);
+      }
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    readAheadThread.interrupt();
+    in.close();
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the lines of a block of bytes of a text file. A block owns the lines which start inside it:
+ * the line which runs into the block from the previous one is skipped and the last line is read
+ * past the end of the block up to and including its line feed.
+ *
+ * <p>This only works for encodings where a line feed is always the single byte 0x0A, like UTF-8 or
+ * the single byte encodings.
+ */
+public class TextFileBlockInputStream extends InputStream {
+  private static final int BUFFER_SIZE = 65536;
+
+  private final InputStream in;
+  private final long end;
+  private long position;
+  private boolean finished;
+
+  /**
+   * @param in the input stream of the complete file, positioned at the start of the file
+   * @param start the position of the first byte of the block
+   * @param end the position after the last byte of the block
+   * @throws IOException in case of an error skipping to the start of the block
+   */
+  public TextFileBlockInputStream(InputStream in, long start, long end) throws IOException {
+    this.in = new BufferedInputStream(in, BUFFER_SIZE);
+    this.end = end;
+    if (start > 0) {
+      // Skip the line which ends in this block: it belongs to the previous block.
+      // The previous block ends after the first line feed at or after position start-1.
+      //
+      skipTo(start - 1);
+      int c;
+      do {
+        c = this.in.read();
+        if (c >= 0) {
+          position++;
+        }
+      } while (c >= 0 && c != '\n');
+      // A line starting after this block belongs to the next block
+      //
+      finished = c < 0 || position >= end;
+    }
+  }
+
+  private void skipTo(long target) throws IOException {
+    while (position < target) {
+      long skipped = in.skip(target - position);
+      if (skipped <= 0) {
+        if (in.read() < 0) {
+          finished = true;
+          return;
+        }
+        skipped = 1;
+      }
+      position += skipped;
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    int n = read(b, 0, 1);
+    return n < 0 ? -1 : b[0] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (finished) {
+      return -1;
+    }
+    if (len == 0) {
+      return 0;
+    }
+    if (position < end - 1) {
+      // Before the last byte of the block: no need to look for line feeds
+      //
+      int n = in.read(b, off, (int) Math.min(len, end - 1 - position));
+      if (n < 0) {
+        finished = true;
+        return -1;
+      }
+      position += n;
+      return n;
+    }
+
+    // From the last byte of the block on, read up to and including the next line feed
+    //
+    int n = 0;
+    while (n < len) {
+      int c = in.read();
+      if (c < 0) {
+        finished = true;
+        break;
+      }
+      b[off + n++] = (byte) c;
+      position++;
+      if (c == '\n') {
+        finished = true;
+        break;
+      }
+    }
+    return n == 0 ? -1 : n;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -17,6 +17,10 @@
 
 package org.apache.hop.pipeline.transforms.fileinput.text;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.playlist.FilePlayListAll;
 import org.apache.hop.i18n.BaseMessages;
@@ -25,6 +29,7 @@ import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.file.BaseFileInputTransform;
 import org.apache.hop.pipeline.transforms.file.IBaseFileInputReader;
+import org.apache.hop.ui.pipeline.transform.common.TextFileLineUtil;
 
 /**
  * Read all sorts of text files, convert them to rows and writes these to one or more output
@@ -34,6 +39,9 @@ public class TextFileInput extends BaseFileInputTransform<TextFileInputMeta, Tex
 
   private static final Class<?> PKG = TextFileInputMeta.class; // For Translator
 
+  /** Uncompressed files larger than twice this size are split in blocks when reading in parallel */
+  public static final long PARALLEL_BLOCK_SIZE = 64L * 1024 * 1024;
+
   public TextFileInput(
       TransformMeta transformMeta,
       TextFileInputMeta meta,
@@ -47,7 +55,16 @@ public class TextFileInput extends BaseFileInputTransform<TextFileInputMeta, Tex
   @Override
   protected IBaseFileInputReader createReader(
       TextFileInputMeta meta, TextFileInputData data, FileObject file) throws Exception {
-    return new TextFileInputReader(this, meta, data, file, log);
+    return new TextFileInputReader(this, meta, data, file, data.workUnit, log);
+  }
+
+  @Override
+  protected int claimNextFileIndex() {
+    if (data.workQueue == null) {
+      return super.claimNextFileIndex();
+    }
+    data.workUnit = data.workQueue.claim();
+    return data.workUnit == null ? -1 : data.workUnit.getFileIndex();
   }
 
   @Override
@@ -76,6 +93,71 @@ public class TextFileInput extends BaseFileInputTransform<TextFileInputMeta, Tex
       return false;
     }
 
+    if (meta.content.runningInParallel && getTransformMeta().getCopies(this) > 1) {
+      if (meta.inputFiles.acceptingFilenames || meta.content.rowLimit > 0) {
+        logBasic(BaseMessages.getString(PKG, "TextFileInput.Log.NotReadingInParallel"));
+      } else {
+        data.workQueue = getSharedWorkQueue();
+        data.files = data.workQueue.getFiles();
+      }
+    }
+
     return true;
   }
+
+  /**
+   * All the copies of this transform share the same work queue. The first copy to get here lists
+   * the work for all.
+   */
+  private TextFileInputWorkQueue getSharedWorkQueue() {
+    Map<String, Object> extensionDataMap = getPipeline().getExtensionDataMap();
+    String key = TextFileInputWorkQueue.class.getName() + "/" + getTransformName();
+    synchronized (extensionDataMap) {
+      TextFileInputWorkQueue workQueue = (TextFileInputWorkQueue) extensionDataMap.get(key);
+      if (workQueue == null) {
+        boolean splitting = isSplittingFiles();
+        if (!splitting) {
+          logBasic(BaseMessages.getString(PKG, "TextFileInput.Log.NotSplittingFiles"));
+        }
+        workQueue = TextFileInputWorkQueue.create(data.files, splitting, PARALLEL_BLOCK_SIZE);
+        extensionDataMap.put(key, workQueue);
+        logBasic(
+            BaseMessages.getString(
+                PKG,
+                "TextFileInput.Log.ReadingInParallel",
+                Integer.toString(data.files.nrOfFiles()),
+                Integer.toString(workQueue.getWorkUnits().size())));
+      }
+      return workQueue;
+    }
+  }
+
+  /**
+   * Blocks of a file can only be read on their own if every line feed ends a record: plain files in
+   * an encoding where a line feed is a single byte, without multi-line records, paging or footers,
+   * and no row numbers per file.
+   */
+  private boolean isSplittingFiles() {
+    if (StringUtils.isNotEmpty(meta.content.fileCompression)
+        && !"None".equalsIgnoreCase(meta.content.fileCompression)) {
+      return false;
+    }
+    if (meta.content.breakInEnclosureAllowed
+        || meta.content.lineWrapped
+        || meta.content.layoutPaged
+        || meta.content.footer
+        || (meta.content.includeRowNumber && meta.content.rowNumberByFile)
+        || data.fileFormatType == TextFileLineUtil.FILE_FORMAT_MIXED) {
+      return false;
+    }
+    try {
+      String encoding = resolve(meta.getEncoding());
+      Charset charset =
+          StringUtils.isEmpty(encoding) ? Charset.defaultCharset() : Charset.forName(encoding);
+      return StandardCharsets.UTF_8.equals(charset)
+          || charset.newEncoder().maxBytesPerChar() == 1.0f;
+    } catch (Exception e) {
+      return false;
+    }
+  }
 }
@@ -60,6 +60,12 @@ public class TextFileInputData extends BaseFileInputTransformData {
 
   public EncodingType encodingType;
 
+  /** The work shared by the transform copies when reading in parallel, null otherwise */
+  public TextFileInputWorkQueue workQueue;
+
+  /** The file or block being read when reading in parallel */
+  public TextFileInputWorkQueue.WorkUnit workUnit;
+
   public TextFileInputData() {
     // linked list is better, as usually .remove(0) is applied to this list
     lineBuffer = new LinkedList<>();
@@ -202,6 +202,13 @@ public class TextFileInputMeta
     /** Length based on bytes or characters */
     @Injection(name = "LENGTH")
     public String length;
+
+    /**
+     * Flag indicating that the transform copies share the files to read and split large files in
+     * blocks
+     */
+    @Injection(name = "RUNNING_IN_PARALLEL")
+    public boolean runningInParallel;
   }
 
   /** The filters to use... */
@@ -420,6 +427,8 @@ public class TextFileInputMeta
 
       // Is there a limit on the number of rows we process?
       content.rowLimit = Const.toLong(XmlHandler.getTagValue(transformNode, "limit"), 0L);
+      content.runningInParallel =
+          YES.equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "parallel"));
 
       errorHandling.errorIgnored =
           YES.equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "error_ignored"));
@@ -572,6 +581,7 @@ public class TextFileInputMeta
     content.dateFormatLocale = Locale.getDefault();
 
     content.rowLimit = 0L;
+    content.runningInParallel = false;
   }
 
   @Override
@@ -841,6 +851,7 @@ public class TextFileInputMeta
     }
     retval.append("    </fields>").append(Const.CR);
     retval.append("    ").append(XmlHandler.addTagValue("limit", content.rowLimit));
+    retval.append("    ").append(XmlHandler.addTagValue("parallel", content.runningInParallel));
 
     // ERROR HANDLING
     retval
@@ -18,11 +18,13 @@
 package org.apache.hop.pipeline.transforms.fileinput.text;
 
 import java.io.BufferedInputStream;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.compress.CompressionInputStream;
 import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.compress.NoneCompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.file.EncodingType;
@@ -37,6 +39,8 @@ import org.apache.hop.ui.pipeline.transform.common.TextFileLineUtil;
 /** Reader for one text file. */
 public class TextFileInputReader implements IBaseFileInputReader {
   private static final int BUFFER_SIZE_INPUT_STREAM = 8192;
+  private static final int READ_AHEAD_CHUNK_SIZE = 65536;
+  private static final int READ_AHEAD_NR_CHUNKS = 8;
 
   private final IBaseFileInputTransformControl transform;
   private final TextFileInputMeta meta;
@@ -47,6 +51,11 @@ public class TextFileInputReader implements IBaseFileInputReader {
 
   private final InputStreamReader isr;
 
+  private final ReadAheadInputStream readAhead;
+
+  /** False when reading a block of a file which doesn't start at the beginning of the file */
+  private final boolean startOfFile;
+
   protected long lineInFile;
 
   private boolean first;
@@ -60,6 +69,26 @@ public class TextFileInputReader implements IBaseFileInputReader {
       FileObject file,
       ILogChannel log)
       throws Exception {
+    this(transform, meta, data, file, null, log);
+  }
+
+  /**
+   * @param transform the transform reading the file
+   * @param meta the transform metadata
+   * @param data the transform data
+   * @param file the file to read
+   * @param workUnit the block of the file to read or null to read the complete file
+   * @param log the log channel
+   * @throws Exception in case the file can't be opened
+   */
+  public TextFileInputReader(
+      IBaseFileInputTransformControl transform,
+      TextFileInputMeta meta,
+      TextFileInputData data,
+      FileObject file,
+      TextFileInputWorkQueue.WorkUnit workUnit,
+      ILogChannel log)
+      throws Exception {
     this.transform = transform;
     this.meta = meta;
     this.data = data;
@@ -74,11 +103,36 @@ public class TextFileInputReader implements IBaseFileInputReader {
           "This is a compressed file being handled by the " + provider.getName() + " provider");
     }
 
-    in = provider.createInputStream(HopVfs.getInputStream(file));
+    InputStream fileStream = HopVfs.getInputStream(file);
+    if (workUnit != null && workUnit.isBlock()) {
+      // Only read the lines of this block, uncompressed files only
+      //
+      fileStream = new TextFileBlockInputStream(fileStream, workUnit.getStart(), workUnit.getEnd());
+      startOfFile = workUnit.getStart() == 0;
+    } else {
+      startOfFile = true;
+    }
+
+    in = provider.createInputStream(fileStream);
 
     in.nextEntry();
 
-    BufferedInputStream inStream = new BufferedInputStream(in, BUFFER_SIZE_INPUT_STREAM);
+    // Decompress in a separate thread while parsing
+    //
+    InputStream decompressed = in;
+    if (!(provider instanceof NoneCompressionProvider)) {
+      readAhead =
+          new ReadAheadInputStream(
+              in,
+              READ_AHEAD_CHUNK_SIZE,
+              READ_AHEAD_NR_CHUNKS,
+              "Read-ahead " + HopVfs.getFilename(file));
+      decompressed = readAhead;
+    } else {
+      readAhead = null;
+    }
+
+    BufferedInputStream inStream = new BufferedInputStream(decompressed, BUFFER_SIZE_INPUT_STREAM);
     BOMDetector bom = new BOMDetector(inStream);
 
     if (bom.bomExist()) {
@@ -97,7 +151,10 @@ public class TextFileInputReader implements IBaseFileInputReader {
   }
 
   protected void readInitial() throws Exception {
-    data.doneWithHeader = !meta.content.header;
+    // The header lines are only found at the start of the file
+    //
+    boolean header = meta.content.header && startOfFile;
+    data.doneWithHeader = !header;
     // /////////////////////////////////////////////////////////////////////////////
     // Read the first lines...
 
@@ -110,7 +167,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
      * OK, read a number of lines in the buffer: The header rows The nr rows in the page : optional The footer rows
      */
     int bufferSize = 1;
-    bufferSize += meta.content.header ? meta.content.nrHeaderLines : 0;
+    bufferSize += header ? meta.content.nrHeaderLines : 0;
     bufferSize +=
         meta.content.layoutPaged
             ? meta.content.nrLinesPerPage * (Math.max(0, meta.content.nrWraps) + 1)
@@ -132,8 +189,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
     }
 
     for (int i = 0; i < bufferSize && !data.doneReading; i++) {
-      boolean wasNotFiltered =
-          tryToReadLine(!meta.content.header || i >= meta.content.nrHeaderLines);
+      boolean wasNotFiltered = tryToReadLine(!header || i >= meta.content.nrHeaderLines);
       if (!wasNotFiltered) {
         // grab another line, this one got filtered
         bufferSize++;
@@ -420,6 +476,9 @@ public class TextFileInputReader implements IBaseFileInputReader {
         // Increment the lines updated to reflect another file has been finished.
         // This allows us to give a state of progress in the run time metrics
         transform.incrementLinesUpdated();
+        if (readAhead != null) {
+          BaseTransform.closeQuietly(readAhead);
+        }
         if (in != null) {
           BaseTransform.closeQuietly(in);
         }
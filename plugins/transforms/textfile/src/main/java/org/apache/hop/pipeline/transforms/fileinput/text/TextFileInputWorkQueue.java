@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.fileinput.FileInputList;
+
+/**
+ * The files to read, shared by all the copies of a Text File Input transform reading in parallel.
+ * Every copy claims the next piece of work when it's done with the previous one so that a copy
+ * reading small files doesn't wait for a copy reading a large one. Large files can be split into
+ * blocks of bytes, each block is read by the copy which claims it.
+ */
+public class TextFileInputWorkQueue {
+
+  /** A file or a block of bytes of a file to read */
+  public static class WorkUnit {
+    private final int fileIndex;
+    private final long start;
+    private final long end;
+
+    /**
+     * @param fileIndex the index of the file in the list of files
+     * @param start the position of the first byte of the block
+     * @param end the position after the last byte of the block or -1 to read the whole file
+     */
+    public WorkUnit(int fileIndex, long start, long end) {
+      this.fileIndex = fileIndex;
+      this.start = start;
+      this.end = end;
+    }
+
+    public int getFileIndex() {
+      return fileIndex;
+    }
+
+    public long getStart() {
+      return start;
+    }
+
+    public long getEnd() {
+      return end;
+    }
+
+    /**
+     * @return true if this is a block of a file, false for a complete file
+     */
+    public boolean isBlock() {
+      return end >= 0;
+    }
+
+    private long getSize() {
+      return end - start;
+    }
+  }
+
+  private final FileInputList files;
+  private final List<WorkUnit> workUnits;
+  private final AtomicInteger nextWorkUnit = new AtomicInteger();
+
+  public TextFileInputWorkQueue(FileInputList files, List<WorkUnit> workUnits) {
+    this.files = files;
+    this.workUnits = workUnits;
+  }
+
+  /**
+   * Create the work for the given files. When splitting is allowed, files larger than twice the
+   * block size are split in blocks. The largest pieces of work are handed out first.
+   *
+   * @param files the files to read
+   * @param splitting true if large files can be split in blocks
+   * @param blockSize the size of the blocks in bytes
+   * @return the work queue
+   */
+  public static TextFileInputWorkQueue create(
+      FileInputList files, boolean splitting, long blockSize) {
+    long[] fileSizes = new long[files.nrOfFiles()];
+    List<WorkUnit> workUnits = new ArrayList<>();
+    for (int i = 0; i < fileSizes.length; i++) {
+      fileSizes[i] = getSize(files.getFile(i));
+      if (splitting && blockSize > 0 && fileSizes[i] > 2 * blockSize) {
+        for (long start = 0; start < fileSizes[i]; start += blockSize) {
+          workUnits.add(new WorkUnit(i, start, Math.min(start + blockSize, fileSizes[i])));
+        }
+      } else {
+        workUnits.add(new WorkUnit(i, 0L, -1L));
+      }
+    }
+
+    // Largest first: the small files fill up the gaps at the end
+    //
+    workUnits.sort(
+        Comparator.comparingLong(
+                (WorkUnit unit) -> unit.isBlock() ? unit.getSize() : fileSizes[unit.getFileIndex()])
+            .reversed());
+    return new TextFileInputWorkQueue(files, workUnits);
+  }
+
+  /**
+   * @return the next piece of work or null if all the work was claimed
+   */
+  public WorkUnit claim() {
+    int index = nextWorkUnit.getAndIncrement();
+    return index < workUnits.size() ? workUnits.get(index) : null;
+  }
+
+  /**
+   * @return the files to read
+   */
+  public FileInputList getFiles() {
+    return files;
+  }
+
+  /**
+   * @return all the pieces of work
+   */
+  public List<WorkUnit> getWorkUnits() {
+    return workUnits;
+  }
+
+  private static long getSize(FileObject file) {
+    try {
+      return file.exists() ? file.getContent().getSize() : 0L;
+    } catch (Exception e) {
+      // Missing or unreadable files are handled when they're opened
+      return 0L;
+    }
+  }
+}
@@ -21,9 +21,8 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
+import java.nio.charset.Charset;
 import java.util.Date;
-import java.util.List;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ResultFile;
@@ -445,13 +444,18 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
 
   public void writeRow(IRowMeta rowMeta, Object[] r) throws HopTransformException {
     try {
+      // The line is assembled in a reusable buffer and handed to the writer in one go
+      //
+      TextFileRowEncoder line = getRowEncoder();
+      line.reset();
+
       if (meta.getOutputFields() == null || meta.getOutputFields().length == 0) {
         /*
          * Write all values in stream to text file.
          */
         for (int i = 0; i < rowMeta.size(); i++) {
           if (i > 0 && data.binarySeparator.length > 0) {
-            data.writer.write(data.binarySeparator);
+            line.write(data.binarySeparator);
           }
           IValueMeta v = rowMeta.getValueMeta(i);
           Object valueData = r[i];
@@ -459,24 +463,25 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
           // no special null value default was specified since no fields are specified at all
           // As such, we pass null
           //
-          writeField(v, valueData, null);
+          writeField(line, v, valueData, null);
         }
-        data.writer.write(data.binaryNewline);
+        line.write(data.binaryNewline);
       } else {
         /*
          * Only write the fields specified!
          */
         for (int i = 0; i < meta.getOutputFields().length; i++) {
           if (i > 0 && data.binarySeparator.length > 0) {
-            data.writer.write(data.binarySeparator);
+            line.write(data.binarySeparator);
           }
 
           IValueMeta v = rowMeta.getValueMeta(data.fieldnrs[i]);
           Object valueData = r[data.fieldnrs[i]];
-          writeField(v, valueData, data.binaryNullValue[i]);
+          writeField(line, v, valueData, data.binaryNullValue[i]);
         }
-        data.writer.write(data.binaryNewline);
+        line.write(data.binaryNewline);
       }
+      line.writeTo(data.writer);
 
       incrementLinesOutput();
 
@@ -588,64 +593,51 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
     }
   }
 
-  private void writeField(IValueMeta v, Object valueData, byte[] nullString)
+  private TextFileRowEncoder getRowEncoder() {
+    if (data.rowEncoder == null) {
+      Charset charset =
+          Utils.isEmpty(meta.getEncoding())
+              ? Charset.defaultCharset()
+              : Charset.forName(meta.getEncoding());
+      data.rowEncoder = new TextFileRowEncoder(charset, data.binarySeparator, data.binaryEnclosure);
+    }
+    return data.rowEncoder;
+  }
+
+  private void writeField(
+      TextFileRowEncoder line, IValueMeta v, Object valueData, byte[] nullString)
       throws HopTransformException {
     try {
-      byte[] str;
+      int start = line.size();
 
       // First check whether or not we have a null string set
       // These values should be set when a null value passes
       //
       if (nullString != null && v.isNull(valueData)) {
-        str = nullString;
+        line.write(nullString);
       } else {
         if (meta.isFastDump()) {
           if (valueData instanceof byte[]) {
-            str = (byte[]) valueData;
+            line.write((byte[]) valueData);
           } else {
-            str = getBinaryString((valueData == null) ? "" : valueData.toString());
+            line.writeString((valueData == null) ? "" : valueData.toString());
           }
         } else {
-          str = formatField(v, valueData);
+          encodeField(line, v, valueData);
         }
       }
 
-      if (str != null && str.length > 0) {
-        List<Integer> enclosures = null;
+      if (v.isString() && line.size() > start) {
         boolean writeEnclosures = false;
-
-        if (v.isString()) {
-          if (meta.isEnclosureForced() && !meta.isPadded()) {
-            writeEnclosures = true;
-          } else if (!meta.isEnclosureFixDisabled()
-              && containsSeparatorOrEnclosure(str, data.binarySeparator, data.binaryEnclosure)) {
-            writeEnclosures = true;
-          }
-        }
-
-        if (writeEnclosures) {
-          data.writer.write(data.binaryEnclosure);
-          enclosures = getEnclosurePositions(str);
-        }
-
-        if (enclosures == null) {
-          data.writer.write(str);
-        } else {
-          // Skip the enclosures, double them instead...
-          int from = 0;
-          for (int i = 0; i < enclosures.size(); i++) {
-            int position = enclosures.get(i);
-            data.writer.write(str, from, position + data.binaryEnclosure.length - from);
-            data.writer.write(data.binaryEnclosure); // write enclosure a second time
-            from = position + data.binaryEnclosure.length;
-          }
-          if (from < str.length) {
-            data.writer.write(str, from, str.length - from);
-          }
+        if (meta.isEnclosureForced() && !meta.isPadded()) {
+          writeEnclosures = true;
+        } else if (!meta.isEnclosureFixDisabled() && line.containsSeparatorOrEnclosure(start)) {
+          writeEnclosures = true;
         }
 
         if (writeEnclosures) {
-          data.writer.write(data.binaryEnclosure);
+          // Add the enclosures, doubling the ones in the field content
+          line.enclose(start);
         }
       }
     } catch (Exception e) {
@@ -653,28 +645,52 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
     }
   }
 
-  private List<Integer> getEnclosurePositions(byte[] str) {
-    List<Integer> positions = null;
-    if (data.binaryEnclosure != null && data.binaryEnclosure.length > 0) {
-      // +1 because otherwise we will not find it at the end
-      for (int i = 0, len = str.length - data.binaryEnclosure.length + 1; i < len; i++) {
-        // verify if on position i there is an enclosure
-        //
-        boolean found = true;
-        for (int x = 0; found && x < data.binaryEnclosure.length; x++) {
-          if (str[i + x] != data.binaryEnclosure[x]) {
-            found = false;
+  /**
+   * Writes the formatted value straight into the line buffer. The common cases (normal storage, no
+   * padding or truncation) skip the intermediate byte[] of {@link #formatField(IValueMeta,
+   * Object)}; the formatting itself uses the number and date formats cached by the value metadata.
+   */
+  private void encodeField(TextFileRowEncoder line, IValueMeta v, Object valueData)
+      throws HopValueException {
+    if (v.isString()) {
+      if (valueData instanceof String && v.isStorageNormal()) {
+        String string = Const.trimToType((String) valueData, v.getTrimType());
+        int length = v.getLength();
+        if (length < 0 || length >= string.length()) {
+          line.writeString(string);
+          if (length > string.length()) {
+            line.writeSpaces(length - string.length());
           }
+          return;
         }
-        if (found) {
-          if (positions == null) {
-            positions = new ArrayList<>();
+      }
+    } else if (v.isStorageNormal() && !v.isOutputPaddingEnabled()) {
+      switch (v.getType()) {
+        case IValueMeta.TYPE_INTEGER:
+        case IValueMeta.TYPE_NUMBER:
+        case IValueMeta.TYPE_BIGNUMBER:
+        case IValueMeta.TYPE_DATE:
+          if (valueData != null) {
+            line.writeString(v.getString(valueData), getValueCharset(line, v));
           }
-          positions.add(i);
-        }
+          return;
+        default:
+          break;
       }
     }
-    return positions;
+    line.write(formatField(v, valueData));
+  }
+
+  /** The charset used by {@link IValueMeta#getBinaryString(Object)} for the given value */
+  private Charset getValueCharset(TextFileRowEncoder line, IValueMeta v) {
+    String encoding = v.getStringEncoding();
+    if (Utils.isEmpty(encoding)) {
+      return Charset.defaultCharset();
+    }
+    if (encoding.equals(meta.getEncoding())) {
+      return line.getCharset();
+    }
+    return Charset.forName(encoding);
   }
 
   protected boolean writeEndedLine() {
@@ -903,6 +919,7 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
         }
       }
       data.splitEvery = meta.getSplitEvery(variables);
+      data.rowEncoder = null;
     } catch (Exception e) {
       throw new HopException("Unexpected error while encoding binary fields", e);
     }
@@ -426,6 +426,9 @@ public class TextFileOutputData extends BaseTransformData implements ITransformD
 
   public byte[][] binaryNullValue;
 
+  /** Reusable buffer in which each output line is assembled */
+  public TextFileRowEncoder rowEncoder;
+
   public boolean oneFileOpened;
 
   public int fileNameFieldIndex;
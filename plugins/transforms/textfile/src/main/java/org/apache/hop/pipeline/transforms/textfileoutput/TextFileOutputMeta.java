@@ -1355,7 +1355,8 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
       if (realExtension != null && realExtension.length() != 0) {
         retval += "." + realExtension;
       }
-      if ("GZip".equals(meta.getFileCompression())) {
+      if ("GZip".equals(meta.getFileCompression())
+          || "Parallel GZip".equals(meta.getFileCompression())) {
         retval += ".gz";
       }
     }
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.textfileoutput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Assembles the bytes of one output line in a reusable buffer. Strings are encoded straight into
+ * the buffer (without an intermediate byte[]) for UTF-8, US-ASCII and ISO-8859-1, and the
+ * separator/enclosure detection uses a lookup table of their first bytes. The result is the same as
+ * what String.getBytes(charset) followed by the classic enclosure handling would produce.
+ */
+public class TextFileRowEncoder {
+
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  private final Charset charset;
+  private final byte[] separator;
+  private final byte[] enclosure;
+  private final byte[] space;
+
+  /** Tells whether a byte value is the first byte of the separator or the enclosure */
+  private final boolean[] specialBytes = new boolean[256];
+
+  private byte[] buffer;
+  private int size;
+
+  /** Holds the content of a field while its enclosures are doubled */
+  private byte[] scratch;
+
+  public TextFileRowEncoder(Charset charset, byte[] separator, byte[] enclosure) {
+    this.charset = charset;
+    this.separator = separator == null ? new byte[] {} : separator;
+    this.enclosure = enclosure == null ? new byte[] {} : enclosure;
+    this.space = " ".getBytes(charset);
+    if (this.separator.length > 0) {
+      specialBytes[this.separator[0] & 0xFF] = true;
+    }
+    if (this.enclosure.length > 0) {
+      specialBytes[this.enclosure[0] & 0xFF] = true;
+    }
+    buffer = new byte[DEFAULT_CAPACITY];
+    scratch = new byte[DEFAULT_CAPACITY];
+  }
+
+  /** Clears the buffer to start a new line, keeping the allocated capacity. */
+  public void reset() {
+    size = 0;
+  }
+
+  /**
+   * @return the number of bytes in the buffer
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the charset used to encode strings
+   */
+  public Charset getCharset() {
+    return charset;
+  }
+
+  public void write(byte[] bytes) {
+    if (bytes != null) {
+      write(bytes, 0, bytes.length);
+    }
+  }
+
+  public void write(byte[] bytes, int offset, int length) {
+    ensureCapacity(size + length);
+    System.arraycopy(bytes, offset, buffer, size, length);
+    size += length;
+  }
+
+  /**
+   * Encodes a string with the charset of this encoder.
+   *
+   * @param string the string to encode, null is ignored
+   */
+  public void writeString(String string) {
+    writeString(string, charset);
+  }
+
+  /**
+   * Encodes a string with the given charset.
+   *
+   * @param string the string to encode, null is ignored
+   * @param cs the charset to use
+   */
+  public void writeString(String string, Charset cs) {
+    if (string == null || string.isEmpty()) {
+      return;
+    }
+    if (StandardCharsets.UTF_8.equals(cs)) {
+      writeUtf8(string);
+    } else if (StandardCharsets.US_ASCII.equals(cs)) {
+      writeSingleByte(string, 0x80);
+    } else if (StandardCharsets.ISO_8859_1.equals(cs)) {
+      writeSingleByte(string, 0x100);
+    } else {
+      write(string.getBytes(cs));
+    }
+  }
+
+  /**
+   * Writes the encoded space character a number of times, used to pad fields.
+   *
+   * @param count the number of spaces to write
+   */
+  public void writeSpaces(int count) {
+    if (space.length == 1) {
+      ensureCapacity(size + count);
+      Arrays.fill(buffer, size, size + count, space[0]);
+      size += count;
+    } else {
+      for (int i = 0; i < count; i++) {
+        write(space);
+      }
+    }
+  }
+
+  private void writeUtf8(String string) {
+    int length = string.length();
+    ensureCapacity(size + length * 3);
+    byte[] b = buffer;
+    int n = size;
+    for (int i = 0; i < length; i++) {
+      char c = string.charAt(i);
+      if (c < 0x80) {
+        b[n++] = (byte) c;
+      } else if (c < 0x800) {
+        b[n++] = (byte) (0xC0 | (c >> 6));
+        b[n++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(string.charAt(i + 1))) {
+          int cp = Character.toCodePoint(c, string.charAt(++i));
+          b[n++] = (byte) (0xF0 | (cp >> 18));
+          b[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+          b[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+          b[n++] = (byte) (0x80 | (cp & 0x3F));
+        } else {
+          // Malformed surrogate: replaced just like String.getBytes() does
+          b[n++] = '?';
+        }
+      } else {
+        b[n++] = (byte) (0xE0 | (c >> 12));
+        b[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        b[n++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    size = n;
+  }
+
+  private void writeSingleByte(String string, int limit) {
+    int length = string.length();
+    ensureCapacity(size + length);
+    byte[] b = buffer;
+    int n = size;
+    for (int i = 0; i < length; i++) {
+      char c = string.charAt(i);
+      if (c < limit) {
+        b[n++] = (byte) c;
+      } else {
+        // A surrogate pair is a single unmappable character
+        if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(string.charAt(i + 1))) {
+          i++;
+        }
+        b[n++] = '?';
+      }
+    }
+    size = n;
+  }
+
+  /**
+   * Checks whether the bytes written since the given position contain the separator or the
+   * enclosure.
+   *
+   * @param from the start position of the field in the buffer
+   * @return true if the separator or the enclosure was found
+   */
+  public boolean containsSeparatorOrEnclosure(int from) {
+    boolean enclosureExists = enclosure.length > 0;
+    boolean separatorExists = separator.length > 0;
+    byte[] b = buffer;
+    for (int index = from; index < size; index++) {
+      byte current = b[index];
+      if (!specialBytes[current & 0xFF]) {
+        continue;
+      }
+      if (enclosureExists && current == enclosure[0]) {
+        if (matches(index, enclosure)) {
+          return true;
+        }
+      } else if (separatorExists && current == separator[0] && matches(index, separator)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean matches(int index, byte[] pattern) {
+    if (index + pattern.length > size) {
+      return false;
+    }
+    for (int i = 1; i < pattern.length; i++) {
+      if (buffer[index + i] != pattern[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Surrounds the bytes written since the given position with the enclosure, doubling every
+   * enclosure found inside.
+   *
+   * @param from the start position of the field in the buffer
+   */
+  public void enclose(int from) {
+    int enclosureLength = enclosure.length;
+    if (enclosureLength == 0) {
+      return;
+    }
+    int fieldLength = size - from;
+    if (scratch.length < fieldLength) {
+      scratch = new byte[Math.max(fieldLength, scratch.length * 2)];
+    }
+    System.arraycopy(buffer, from, scratch, 0, fieldLength);
+    size = from;
+
+    write(enclosure);
+    int start = 0;
+    for (int i = 0, last = fieldLength - enclosureLength; i <= last; i++) {
+      boolean found = true;
+      for (int x = 0; found && x < enclosureLength; x++) {
+        found = scratch[i + x] == enclosure[x];
+      }
+      if (found) {
+        write(scratch, start, i + enclosureLength - start);
+        write(enclosure); // write enclosure a second time
+        start = i + enclosureLength;
+      }
+    }
+    if (start < fieldLength) {
+      write(scratch, start, fieldLength - start);
+    }
+    write(enclosure);
+  }
+
+  /**
+   * Writes the content of the buffer to the given stream in a single call.
+   *
+   * @param outputStream the stream to write to
+   * @throws IOException in case of a write error
+   */
+  public void writeTo(OutputStream outputStream) throws IOException {
+    outputStream.write(buffer, 0, size);
+  }
+
+  /**
+   * @return a copy of the bytes in the buffer
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, size);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+
+public class TextFileBlockInputStreamTest {
+
+  @Test
+  public void testBlocksCoverAllLinesOnce() throws Exception {
+    Random random = new Random(42);
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      int length = random.nextInt(30);
+      for (int j = 0; j < length; j++) {
+        content.append((char) ('a' + random.nextInt(26)));
+      }
+      content.append(i % 3 == 0 ? "\r\n" : "\n");
+    }
+    content.append("last line without line feed");
+    byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+
+    for (int blockSize = 1; blockSize < 100; blockSize++) {
+      ByteArrayOutputStream all = new ByteArrayOutputStream();
+      for (long start = 0; start < bytes.length; start += blockSize) {
+        byte[] block = readBlock(bytes, start, Math.min(start + blockSize, bytes.length));
+        if (block.length > 0) {
+          // Every block starts at the beginning of a line
+          //
+          int position = all.size();
+          assertTrue(position == 0 || bytes[position - 1] == '\n');
+        }
+        all.write(block);
+      }
+      assertArrayEquals("Block size " + blockSize, bytes, all.toByteArray());
+    }
+  }
+
+  @Test
+  public void testLongLineSpanningBlocks() throws Exception {
+    byte[] bytes = "a\nbbbbbbbbbbbbbbbbbbbb\nc\n".getBytes(StandardCharsets.UTF_8);
+    assertEquals("a\nbbbbbbbbbbbbbbbbbbbb\n", new String(readBlock(bytes, 0, 5)));
+    assertEquals("", new String(readBlock(bytes, 5, 10)));
+    assertEquals("", new String(readBlock(bytes, 10, 20)));
+    assertEquals("c\n", new String(readBlock(bytes, 20, bytes.length)));
+  }
+
+  @Test
+  public void testReadAhead() throws Exception {
+    byte[] bytes = new byte[100000];
+    new Random(1).nextBytes(bytes);
+    try (InputStream in =
+        new ReadAheadInputStream(new ByteArrayInputStream(bytes), 1000, 3, "test read-ahead")) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      out.write(in.read());
+      byte[] buffer = new byte[777];
+      int n;
+      while ((n = in.read(buffer)) >= 0) {
+        out.write(buffer, 0, n);
+      }
+      assertArrayEquals(bytes, out.toByteArray());
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadAheadError() throws Exception {
+    InputStream failing =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("Corrupt input");
+          }
+        };
+    try (InputStream in = new ReadAheadInputStream(failing, 10, 2, "test read-ahead")) {
+      in.read();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class, timeout = 10000)
+  public void testReadAheadRuntimeError() throws Exception {
+    InputStream failing =
+        new InputStream() {
+          @Override
+          public int read() {
+            throw new IllegalStateException("Decompression bug");
+          }
+        };
+    try (InputStream in = new ReadAheadInputStream(failing, 10, 2, "test read-ahead")) {
+      in.read();
+    }
+  }
+
+  private static byte[] readBlock(byte[] bytes, long start, long end) throws IOException {
+    try (InputStream in =
+        new TextFileBlockInputStream(new ByteArrayInputStream(bytes), start, end)) {
+      return in.readAllBytes();
+    }
+  }
+}
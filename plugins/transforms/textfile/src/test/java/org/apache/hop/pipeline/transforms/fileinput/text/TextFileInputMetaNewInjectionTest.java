@@ -87,6 +87,7 @@ public class TextFileInputMetaNewInjectionTest
     check("LENGTH", () -> meta.content.length);
 
     check("ROW_LIMIT", () -> meta.content.rowLimit);
+    check("RUNNING_IN_PARALLEL", () -> meta.content.runningInParallel);
 
     check("DATE_FORMAT_LENIENT", () -> meta.content.dateFormatLenient);
 
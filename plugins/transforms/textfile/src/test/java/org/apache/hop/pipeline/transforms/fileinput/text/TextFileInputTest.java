@@ -28,10 +28,12 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.BlockingRowSet;
 import org.apache.hop.core.HopEnvironment;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopFileException;
@@ -424,6 +426,85 @@ public class TextFileInputTest {
     assertEquals(0, mockTFID.lineBuffer.size());
   }
 
+  @Test
+  public void readFileInBlocks() throws Exception {
+    final String virtualFile =
+        createVirtualFile("blocks.txt", "h1;h2\n", "a;1\n", "bb;22\n", "ccc;333\n", "d;4\n");
+
+    TextFileInputMeta meta = createMetaObject(field("col1"), field("col2"));
+    meta.content.header = true;
+    meta.content.nrHeaderLines = 1;
+    TextFileInputData data = createDataObject(virtualFile, ";", "col1", "col2");
+
+    // Blocks cutting lines in the middle, one without a line start
+    //
+    List<TextFileInputWorkQueue.WorkUnit> workUnits = new ArrayList<>();
+    long size = HopVfs.getFileObject(virtualFile).getContent().getSize();
+    for (long start = 0; start < size; start += 4) {
+      workUnits.add(new TextFileInputWorkQueue.WorkUnit(0, start, Math.min(start + 4, size)));
+    }
+    data.workQueue = new TextFileInputWorkQueue(data.files, workUnits);
+
+    TextFileInput input =
+        TransformMockUtil.getTransform(
+            TextFileInput.class,
+            meta,
+            data,
+            TextFileInputMeta.class,
+            TextFileInputData.class,
+            "test");
+    // Header lines and empty blocks don't produce rows
+    //
+    IRowSet rowSet = new BlockingRowSet(10);
+    input.setOutputRowSets(Collections.singletonList(rowSet));
+    while (input.processRow()) {
+      // Keep reading
+    }
+    List<Object[]> output = new ArrayList<>();
+    for (Object[] row = rowSet.getRowImmediate(); row != null; row = rowSet.getRowImmediate()) {
+      output.add(row);
+    }
+    assertEquals(4, output.size());
+    PipelineTestingUtil.assertResult(new Object[] {"a", "1"}, output.get(0));
+    PipelineTestingUtil.assertResult(new Object[] {"bb", "22"}, output.get(1));
+    PipelineTestingUtil.assertResult(new Object[] {"ccc", "333"}, output.get(2));
+    PipelineTestingUtil.assertResult(new Object[] {"d", "4"}, output.get(3));
+
+    deleteVfsFile(virtualFile);
+  }
+
+  @Test
+  public void readGzipFileAhead() throws Exception {
+    String virtualFile = TestUtils.createRamFile("compressed.txt.gz");
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      content.append("row").append(i).append(';').append(i).append('\n');
+    }
+    try (OutputStream os =
+        new java.util.zip.GZIPOutputStream(
+            HopVfs.getFileObject(virtualFile).getContent().getOutputStream())) {
+      os.write(content.toString().getBytes());
+    }
+
+    TextFileInputMeta meta = createMetaObject(field("col1"), field("col2"));
+    meta.content.fileCompression = "GZip";
+    TextFileInputData data = createDataObject(virtualFile, ";", "col1", "col2");
+
+    TextFileInput input =
+        TransformMockUtil.getTransform(
+            TextFileInput.class,
+            meta,
+            data,
+            TextFileInputMeta.class,
+            TextFileInputData.class,
+            "test");
+    List<Object[]> output = PipelineTestingUtil.execute(input, 20000, false);
+    PipelineTestingUtil.assertResult(new Object[] {"row0", "0"}, output.get(0));
+    PipelineTestingUtil.assertResult(new Object[] {"row19999", "19999"}, output.get(19999));
+
+    deleteVfsFile(virtualFile);
+  }
+
   private TextFileInputMeta createMetaObject(BaseFileField... fields) {
     TextFileInputMeta meta = new TextFileInputMeta();
     meta.content.fileCompression = "None";
@@ -17,14 +17,15 @@
 
 package org.apache.hop.pipeline.transforms.textfileoutput;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -43,6 +44,9 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaBase;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
@@ -777,9 +781,63 @@ public class TextFileOutputTest {
             transformMockHelper.pipeline);
 
     Mockito.doReturn(outputEncode).when(transformMockHelper.iTransformMeta).getEncoding();
-    textFileOutput.getData().writer = Mockito.mock(BufferedOutputStream.class);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    textFileOutput.getData().writer = baos;
 
     textFileOutput.writeRow(rowMeta, rows);
-    Mockito.verify(textFileOutput.getData().writer).write(testString.getBytes(outputEncode));
+    assertArrayEquals((testString + "\n").getBytes(outputEncode), baos.toByteArray());
+  }
+
+  @Test
+  public void testWriteRowFormatsValues() throws Exception {
+    ValueMetaInteger integerMeta = new ValueMetaInteger("int");
+    integerMeta.setConversionMask("#,##0");
+    ValueMetaNumber numberMeta = new ValueMetaNumber("num");
+    numberMeta.setConversionMask("0.00");
+    numberMeta.setDecimalSymbol(".");
+    ValueMetaDate dateMeta = new ValueMetaDate("date");
+    dateMeta.setConversionMask("yyyy/MM/dd");
+    ValueMetaString paddedMeta = new ValueMetaString("padded");
+    paddedMeta.setLength(6);
+    ValueMetaString quotedMeta = new ValueMetaString("quoted");
+
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(integerMeta);
+    rowMeta.addValueMeta(numberMeta);
+    rowMeta.addValueMeta(dateMeta);
+    rowMeta.addValueMeta(paddedMeta);
+    rowMeta.addValueMeta(quotedMeta);
+    Object[] row = {
+      1234567L, 3.14159, new SimpleDateFormat("yyyy-MM-dd").parse("2024-02-29"), "äb", "a;\"b\""
+    };
+
+    TextFileOutputMeta meta = new TextFileOutputMeta();
+    meta.setDefault();
+    meta.setEncoding("UTF-8");
+    TextFileOutputData data = new TextFileOutputData();
+    data.binarySeparator = ";".getBytes();
+    data.binaryEnclosure = "\"".getBytes();
+    data.binaryNewline = "\n".getBytes();
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    data.writer = baos;
+
+    TextFileOutput textFileOutput =
+        new TextFileOutput(
+            transformMockHelper.transformMeta,
+            meta,
+            data,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline);
+    textFileOutput.writeRow(rowMeta, row);
+    textFileOutput.writeRow(rowMeta, new Object[] {null, null, null, null, null});
+
+    String expected =
+        new String(integerMeta.getBinaryString(row[0]))
+            + ";"
+            + new String(numberMeta.getBinaryString(row[1]))
+            + ";2024/02/29;äb    ;\"a;\"\"b\"\"\"\n"
+            + ";;;;\n";
+    assertEquals(expected, baos.toString("UTF-8"));
   }
 }
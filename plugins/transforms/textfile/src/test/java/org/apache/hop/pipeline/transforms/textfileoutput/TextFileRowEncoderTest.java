@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.textfileoutput;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+
+public class TextFileRowEncoderTest {
+
+  private static final String[] SAMPLES = {
+    "plain ascii",
+    "Öäü ß é",
+    "€ 100",
+    "日本語テキスト",
+    "emoji 😀 pair",
+    "lonely \uD800 high",
+    "lonely \uDC00 low",
+    "trailing high \uD83D",
+    ""
+  };
+
+  @Test
+  public void testEncodingMatchesGetBytes() {
+    Charset[] charsets = {
+      StandardCharsets.UTF_8,
+      StandardCharsets.US_ASCII,
+      StandardCharsets.ISO_8859_1,
+      Charset.forName("windows-1252"),
+      StandardCharsets.UTF_16
+    };
+    for (Charset charset : charsets) {
+      TextFileRowEncoder encoder = new TextFileRowEncoder(charset, null, null);
+      for (String sample : SAMPLES) {
+        encoder.reset();
+        encoder.writeString(sample);
+        assertArrayEquals(
+            charset + " : " + sample, sample.getBytes(charset), encoder.toByteArray());
+      }
+    }
+  }
+
+  @Test
+  public void testRandomStringsUtf8() {
+    Random random = new Random(42);
+    TextFileRowEncoder encoder = new TextFileRowEncoder(StandardCharsets.UTF_8, null, null);
+    for (int i = 0; i < 1000; i++) {
+      char[] chars = new char[random.nextInt(50)];
+      for (int c = 0; c < chars.length; c++) {
+        chars[c] = (char) random.nextInt(Character.MAX_VALUE + 1);
+      }
+      String string = new String(chars);
+      encoder.reset();
+      encoder.writeString(string);
+      assertArrayEquals(string.getBytes(StandardCharsets.UTF_8), encoder.toByteArray());
+    }
+  }
+
+  @Test
+  public void testBufferGrows() {
+    TextFileRowEncoder encoder = new TextFileRowEncoder(StandardCharsets.UTF_8, null, null);
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      encoder.writeString("field" + i);
+      encoder.write(new byte[] {';'});
+      expected.append("field").append(i).append(';');
+    }
+    assertEquals(expected.toString(), new String(encoder.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testContainsSeparatorOrEnclosure() {
+    TextFileRowEncoder encoder =
+        new TextFileRowEncoder(StandardCharsets.UTF_8, "||".getBytes(), "\"".getBytes());
+    encoder.writeString("a|b|c");
+    int start = encoder.size();
+    encoder.writeString("no separator|");
+    assertFalse(encoder.containsSeparatorOrEnclosure(start));
+    encoder.writeString("|");
+    assertTrue(encoder.containsSeparatorOrEnclosure(start));
+
+    encoder.reset();
+    encoder.writeString("say \"hi\"");
+    assertTrue(encoder.containsSeparatorOrEnclosure(0));
+    assertFalse(encoder.containsSeparatorOrEnclosure(8));
+  }
+
+  @Test
+  public void testEncloseDoublesEnclosures() throws Exception {
+    TextFileRowEncoder encoder =
+        new TextFileRowEncoder(StandardCharsets.UTF_8, ";".getBytes(), "\"".getBytes());
+    encoder.writeString("a;");
+    int start = encoder.size();
+    encoder.writeString("say \"hi\";");
+    encoder.enclose(start);
+    encoder.writeString("\n");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    encoder.writeTo(out);
+    assertEquals("a;\"say \"\"hi\"\";\"\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testEncloseMultiByteEnclosure() {
+    TextFileRowEncoder encoder =
+        new TextFileRowEncoder(StandardCharsets.UTF_8, ",".getBytes(), "''".getBytes());
+    encoder.writeString("x'''y");
+    encoder.enclose(0);
+    assertEquals("''x'''''''y''", new String(encoder.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testWriteSpaces() {
+    TextFileRowEncoder encoder = new TextFileRowEncoder(StandardCharsets.UTF_16BE, null, null);
+    encoder.writeString("ab");
+    encoder.writeSpaces(3);
+    assertArrayEquals("ab   ".getBytes(StandardCharsets.UTF_16BE), encoder.toByteArray());
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+/**
+ * Bloom filter over the row key fingerprints. It never lets a duplicate through, but a new key is
+ * reported as a duplicate with the configured false positive rate once the expected number of keys
+ * is reached. The bit positions are derived from the two fingerprint halves (double hashing).
+ */
+class BloomFilterFingerprintSet implements IFingerprintSet {
+  private static final long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+  private long[] bits;
+  private final long nrBits;
+  private final int nrHashFunctions;
+  private long size;
+
+  /**
+   * @param expectedSize the expected number of distinct keys
+   * @param falsePositiveRate the accepted rate of new keys reported as duplicates, between 0 and 1
+   */
+  BloomFilterFingerprintSet(long expectedSize, double falsePositiveRate) {
+    long n = Math.max(1, expectedSize);
+    double log2 = Math.log(2);
+    long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (log2 * log2));
+    nrBits = Math.min(MAX_BITS, Math.max(Long.SIZE, optimalBits));
+    nrHashFunctions = Math.max(1, (int) Math.round((double) nrBits / n * log2));
+    bits = new long[(int) ((nrBits + Long.SIZE - 1) / Long.SIZE)];
+  }
+
+  @Override
+  public boolean add(long high, long low) {
+    boolean changed = false;
+    long combined = high;
+    for (int i = 0; i < nrHashFunctions; i++) {
+      long bit = (combined & Long.MAX_VALUE) % nrBits;
+      int index = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      if ((bits[index] & mask) == 0) {
+        bits[index] |= mask;
+        changed = true;
+      }
+      combined += low;
+    }
+    if (changed) {
+      size++;
+    }
+    return changed;
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public long getMemoryBytes() {
+    return bits == null ? 0 : (long) bits.length * Long.BYTES;
+  }
+
+  @Override
+  public void clear() {
+    bits = null;
+    size = 0;
+  }
+}
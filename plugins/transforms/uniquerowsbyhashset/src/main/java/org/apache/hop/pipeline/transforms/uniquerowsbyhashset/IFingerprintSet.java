@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+/** A set of 128-bit row key fingerprints, used instead of the HashSet of row keys. */
+interface IFingerprintSet {
+
+  /**
+   * Add a fingerprint to the set.
+   *
+   * @param high the upper 64 bits of the fingerprint
+   * @param low the lower 64 bits of the fingerprint
+   * @return true if the fingerprint was not seen before
+   */
+  boolean add(long high, long low);
+
+  /**
+   * @return the number of fingerprints added
+   */
+  long size();
+
+  /**
+   * @return the number of bytes allocated to hold the fingerprints
+   */
+  long getMemoryBytes();
+
+  /** Release the memory held by this set. */
+  void clear();
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Open addressing hash table of 128-bit fingerprints stored outside of the Java heap. Every slot
+ * takes 16 bytes, a slot with both halves set to zero is empty. The table is split in direct
+ * buffers of at most 1 GiB and doubles in size when it is three quarters full.
+ */
+class OffHeapFingerprintSet implements IFingerprintSet {
+  private static final int SLOT_BYTES = 16;
+  private static final int MAX_SEGMENT_SHIFT = 26; // 64M slots or 1 GiB per buffer
+  private static final int MIN_CAPACITY = 1024;
+  private static final double MAX_LOAD_FACTOR = 0.75;
+
+  private LongBuffer[] segments;
+  private long capacity;
+  private int segmentShift;
+  private long size;
+
+  /**
+   * @param expectedSize the expected number of distinct keys, used for the initial capacity
+   */
+  OffHeapFingerprintSet(long expectedSize) {
+    long wanted = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / MAX_LOAD_FACTOR));
+    allocate(Long.highestOneBit(wanted - 1) << 1);
+  }
+
+  private void allocate(long newCapacity) {
+    capacity = newCapacity;
+    segmentShift = Math.min(MAX_SEGMENT_SHIFT, Long.numberOfTrailingZeros(newCapacity));
+    int slotsPerSegment = 1 << segmentShift;
+    segments = new LongBuffer[(int) (newCapacity >>> segmentShift)];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] =
+          ByteBuffer.allocateDirect(slotsPerSegment * SLOT_BYTES)
+              .order(ByteOrder.nativeOrder())
+              .asLongBuffer();
+    }
+  }
+
+  @Override
+  public boolean add(long high, long low) {
+    if (high == 0 && low == 0) {
+      low = 1; // zero marks an empty slot
+    }
+    if (size >= (long) (capacity * MAX_LOAD_FACTOR)) {
+      grow();
+    }
+    if (insert(high, low)) {
+      size++;
+      return true;
+    }
+    return false;
+  }
+
+  private boolean insert(long high, long low) {
+    long mask = capacity - 1;
+    int segmentMask = (1 << segmentShift) - 1;
+    // the fingerprint is already uniformly distributed
+    long slot = (low ^ (low >>> 32)) & mask;
+    while (true) {
+      LongBuffer segment = segments[(int) (slot >>> segmentShift)];
+      int index = ((int) slot & segmentMask) << 1;
+      long slotHigh = segment.get(index);
+      long slotLow = segment.get(index + 1);
+      if (slotHigh == 0 && slotLow == 0) {
+        segment.put(index, high);
+        segment.put(index + 1, low);
+        return true;
+      }
+      if (slotHigh == high && slotLow == low) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void grow() {
+    LongBuffer[] oldSegments = segments;
+    allocate(capacity << 1);
+    for (LongBuffer segment : oldSegments) {
+      for (int index = 0; index < segment.capacity(); index += 2) {
+        long high = segment.get(index);
+        long low = segment.get(index + 1);
+        if (high != 0 || low != 0) {
+          insert(high, low);
+        }
+      }
+    }
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public long getMemoryBytes() {
+    return segments == null ? 0 : capacity * SLOT_BYTES;
+  }
+
+  @Override
+  public void clear() {
+    // the direct buffers are released once they are garbage collected
+    segments = null;
+    size = 0;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Calculates a 128-bit MurmurHash3 fingerprint of the key fields of a row. Every value is prefixed
+ * with a type tag so that values of different types with the same bytes do not collide.
+ */
+final class RowFingerprint {
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte LONG = 2;
+  private static final byte DOUBLE = 3;
+  private static final byte BOOLEAN = 4;
+  private static final byte BINARY = 5;
+  private static final byte BIG_NUMBER = 6;
+  private static final byte DATE = 7;
+  private static final byte TIMESTAMP = 8;
+  private static final byte OTHER = 9;
+
+  private RowFingerprint() {}
+
+  /**
+   * Calculate the fingerprint of a row.
+   *
+   * @param row the row data
+   * @param nrValues the number of values in the row
+   * @param fieldnrs the indexes of the key fields, empty to use the complete row
+   * @param fingerprint receives the upper and lower 64 bits of the fingerprint
+   */
+  static void calculate(Object[] row, int nrValues, int[] fieldnrs, long[] fingerprint) {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    if (fieldnrs.length == 0) {
+      for (int i = 0; i < nrValues; i++) {
+        putValue(hasher, row[i]);
+      }
+    } else {
+      for (int fieldnr : fieldnrs) {
+        putValue(hasher, row[fieldnr]);
+      }
+    }
+    byte[] bytes = hasher.hash().asBytes();
+    fingerprint[0] = toLong(bytes, 0);
+    fingerprint[1] = toLong(bytes, 8);
+  }
+
+  private static void putValue(Hasher hasher, Object value) {
+    if (value == null) {
+      hasher.putByte(NULL);
+    } else if (value instanceof String) {
+      String string = (String) value;
+      hasher.putByte(STRING).putInt(string.length()).putUnencodedChars(string);
+    } else if (value instanceof Long) {
+      hasher.putByte(LONG).putLong((Long) value);
+    } else if (value instanceof Double) {
+      hasher.putByte(DOUBLE).putDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      hasher.putByte(BOOLEAN).putBoolean((Boolean) value);
+    } else if (value instanceof byte[]) {
+      byte[] binary = (byte[]) value;
+      hasher.putByte(BINARY).putInt(binary.length).putBytes(binary);
+    } else if (value instanceof BigDecimal) {
+      // the string form keeps the scale, like BigDecimal.equals()
+      String string = value.toString();
+      hasher.putByte(BIG_NUMBER).putInt(string.length()).putUnencodedChars(string);
+    } else if (value instanceof Timestamp) {
+      Timestamp timestamp = (Timestamp) value;
+      hasher.putByte(TIMESTAMP).putLong(timestamp.getTime()).putInt(timestamp.getNanos());
+    } else if (value instanceof Date) {
+      hasher.putByte(DATE).putLong(((Date) value).getTime());
+    } else {
+      String string = value.toString();
+      hasher.putByte(OTHER).putInt(string.length()).putUnencodedChars(string);
+    }
+  }
+
+  private static long toLong(byte[] bytes, int offset) {
+    long result = 0;
+    for (int i = offset + 7; i >= offset; i--) {
+      result = (result << 8) | (bytes[i] & 0xFF);
+    }
+    return result;
+  }
+}
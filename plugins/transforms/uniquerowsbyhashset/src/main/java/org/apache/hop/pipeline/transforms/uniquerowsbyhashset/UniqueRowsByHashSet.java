@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
 
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
@@ -40,15 +41,52 @@ public class UniqueRowsByHashSet
   }
 
   private boolean isUniqueRow(Object[] row) {
+    if (data.fingerprints != null) {
+      RowFingerprint.calculate(row, data.inputRowMeta.size(), data.fieldnrs, data.fingerprint);
+      return data.fingerprints.add(data.fingerprint[0], data.fingerprint[1]);
+    }
     return data.seen.add(new RowKey(row, data));
   }
 
+  private IFingerprintSet createFingerprintSet() throws HopException {
+    String keyStorage = meta.getKeyStorage();
+    if (!UniqueRowsByHashSetMeta.KEY_STORAGE_FINGERPRINT.equals(keyStorage)
+        && !UniqueRowsByHashSetMeta.KEY_STORAGE_BLOOM_FILTER.equals(keyStorage)) {
+      return null;
+    }
+    long expectedRows =
+        Const.toLong(
+            resolve(meta.getExpectedRows()),
+            Long.parseLong(UniqueRowsByHashSetMeta.DEFAULT_EXPECTED_ROWS));
+    if (UniqueRowsByHashSetMeta.KEY_STORAGE_FINGERPRINT.equals(keyStorage)) {
+      return new OffHeapFingerprintSet(expectedRows);
+    }
+    double falsePositiveRate =
+        Const.toDouble(
+            resolve(meta.getFalsePositiveRate()),
+            Double.parseDouble(UniqueRowsByHashSetMeta.DEFAULT_FALSE_POSITIVE_RATE));
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new HopException(
+          BaseMessages.getString(
+              PKG, "UniqueRowsByHashSet.Exception.InvalidFalsePositiveRate", falsePositiveRate));
+    }
+    return new BloomFilterFingerprintSet(expectedRows, falsePositiveRate);
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
     Object[] r = getRow(); // get row!
     if (r == null) { // no more input to be expected...
 
+      if (data.fingerprints != null && log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "UniqueRowsByHashSet.Log.FingerprintMemory",
+                data.fingerprints.size(),
+                data.fingerprints.getMemoryBytes()));
+      }
       data.clearHashSet();
       setOutputDone();
       return false;
@@ -62,6 +100,7 @@ public class UniqueRowsByHashSet
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
 
       data.storeValues = meta.getStoreValues();
+      data.fingerprints = createFingerprintSet();
 
       // ICache lookup of fields
       data.fieldnrs = new int[meta.getCompareFields().length];
@@ -127,4 +166,10 @@ public class UniqueRowsByHashSet
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    data.clearHashSet();
+    super.dispose();
+  }
 }
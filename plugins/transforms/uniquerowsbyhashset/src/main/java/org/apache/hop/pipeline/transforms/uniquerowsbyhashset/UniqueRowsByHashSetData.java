@@ -33,6 +33,11 @@ public class UniqueRowsByHashSetData extends BaseTransformData implements ITrans
 
   public HashSet<RowKey> seen = new HashSet<>();
 
+  /** Fingerprints of the row keys, null when the keys are kept in the HashSet */
+  IFingerprintSet fingerprints;
+
+  long[] fingerprint = new long[2];
+
   public UniqueRowsByHashSetData() {
     super();
   }
@@ -41,5 +46,9 @@ public class UniqueRowsByHashSetData extends BaseTransformData implements ITrans
     sendDuplicateRows = false;
     compareFields = null;
     realErrorDescription = null;
+    if (fingerprints != null) {
+      fingerprints.clear();
+      fingerprints = null;
+    }
   }
 }
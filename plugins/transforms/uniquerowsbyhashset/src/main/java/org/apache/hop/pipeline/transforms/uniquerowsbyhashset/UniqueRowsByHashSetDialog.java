@@ -38,6 +38,7 @@ import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
 import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
@@ -59,6 +60,14 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
   private TableView wFields;
 
   private Button wStoreValues;
+  private Label wlStoreValues;
+
+  private CCombo wKeyStorage;
+
+  private TextVar wExpectedRows;
+
+  private Label wlFalsePositiveRate;
+  private TextVar wFalsePositiveRate;
 
   private final List<String> inputFields = new ArrayList<>();
 
@@ -129,7 +138,7 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     settingsgroupLayout.marginHeight = 10;
     wSettings.setLayout(settingsgroupLayout);
 
-    Label wlStoreValues = new Label(wSettings, SWT.RIGHT);
+    wlStoreValues = new Label(wSettings, SWT.RIGHT);
     wlStoreValues.setText(
         BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.StoreValues.Label"));
     PropsUi.setLook(wlStoreValues);
@@ -154,13 +163,82 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
           }
         });
 
+    Label wlKeyStorage = new Label(wSettings, SWT.RIGHT);
+    wlKeyStorage.setText(BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.KeyStorage.Label"));
+    PropsUi.setLook(wlKeyStorage);
+    FormData fdlKeyStorage = new FormData();
+    fdlKeyStorage.left = new FormAttachment(0, 0);
+    fdlKeyStorage.top = new FormAttachment(wStoreValues, margin);
+    fdlKeyStorage.right = new FormAttachment(middle, -margin);
+    wlKeyStorage.setLayoutData(fdlKeyStorage);
+    wKeyStorage = new CCombo(wSettings, SWT.BORDER | SWT.READ_ONLY);
+    PropsUi.setLook(wKeyStorage);
+    wKeyStorage.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.KeyStorage.ToolTip"));
+    for (String code : UniqueRowsByHashSetMeta.KEY_STORAGE_CODES) {
+      wKeyStorage.add(BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.KeyStorage." + code));
+    }
+    FormData fdKeyStorage = new FormData();
+    fdKeyStorage.left = new FormAttachment(middle, 0);
+    fdKeyStorage.top = new FormAttachment(wlKeyStorage, 0, SWT.CENTER);
+    fdKeyStorage.right = new FormAttachment(100, 0);
+    wKeyStorage.setLayoutData(fdKeyStorage);
+    wKeyStorage.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+            setKeyStorage();
+          }
+        });
+
+    Label wlExpectedRows = new Label(wSettings, SWT.RIGHT);
+    wlExpectedRows.setText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.ExpectedRows.Label"));
+    PropsUi.setLook(wlExpectedRows);
+    FormData fdlExpectedRows = new FormData();
+    fdlExpectedRows.left = new FormAttachment(0, 0);
+    fdlExpectedRows.top = new FormAttachment(wKeyStorage, margin);
+    fdlExpectedRows.right = new FormAttachment(middle, -margin);
+    wlExpectedRows.setLayoutData(fdlExpectedRows);
+    wExpectedRows = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wExpectedRows);
+    wExpectedRows.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.ExpectedRows.ToolTip"));
+    wExpectedRows.addModifyListener(lsMod);
+    FormData fdExpectedRows = new FormData();
+    fdExpectedRows.left = new FormAttachment(middle, 0);
+    fdExpectedRows.top = new FormAttachment(wKeyStorage, margin);
+    fdExpectedRows.right = new FormAttachment(100, 0);
+    wExpectedRows.setLayoutData(fdExpectedRows);
+
+    wlFalsePositiveRate = new Label(wSettings, SWT.RIGHT);
+    wlFalsePositiveRate.setText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.FalsePositiveRate.Label"));
+    PropsUi.setLook(wlFalsePositiveRate);
+    FormData fdlFalsePositiveRate = new FormData();
+    fdlFalsePositiveRate.left = new FormAttachment(0, 0);
+    fdlFalsePositiveRate.top = new FormAttachment(wExpectedRows, margin);
+    fdlFalsePositiveRate.right = new FormAttachment(middle, -margin);
+    wlFalsePositiveRate.setLayoutData(fdlFalsePositiveRate);
+    wFalsePositiveRate = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wFalsePositiveRate);
+    wFalsePositiveRate.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.FalsePositiveRate.ToolTip"));
+    wFalsePositiveRate.addModifyListener(lsMod);
+    FormData fdFalsePositiveRate = new FormData();
+    fdFalsePositiveRate.left = new FormAttachment(middle, 0);
+    fdFalsePositiveRate.top = new FormAttachment(wExpectedRows, margin);
+    fdFalsePositiveRate.right = new FormAttachment(100, 0);
+    wFalsePositiveRate.setLayoutData(fdFalsePositiveRate);
+
     Label wlRejectDuplicateRow = new Label(wSettings, SWT.RIGHT);
     wlRejectDuplicateRow.setText(
         BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.RejectDuplicateRow.Label"));
     PropsUi.setLook(wlRejectDuplicateRow);
     FormData fdlRejectDuplicateRow = new FormData();
     fdlRejectDuplicateRow.left = new FormAttachment(0, 0);
-    fdlRejectDuplicateRow.top = new FormAttachment(wStoreValues, margin);
+    fdlRejectDuplicateRow.top = new FormAttachment(wFalsePositiveRate, margin);
     fdlRejectDuplicateRow.right = new FormAttachment(middle, -margin);
     wlRejectDuplicateRow.setLayoutData(fdlRejectDuplicateRow);
     wRejectDuplicateRow = new Button(wSettings, SWT.CHECK);
@@ -187,14 +265,14 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     PropsUi.setLook(wlErrorDesc);
     FormData fdlErrorDesc = new FormData();
     fdlErrorDesc.left = new FormAttachment(wRejectDuplicateRow, margin);
-    fdlErrorDesc.top = new FormAttachment(wStoreValues, margin);
+    fdlErrorDesc.top = new FormAttachment(wFalsePositiveRate, margin);
     wlErrorDesc.setLayoutData(fdlErrorDesc);
     wErrorDesc = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
     PropsUi.setLook(wErrorDesc);
     wErrorDesc.addModifyListener(lsMod);
     FormData fdErrorDesc = new FormData();
     fdErrorDesc.left = new FormAttachment(wlErrorDesc, margin);
-    fdErrorDesc.top = new FormAttachment(wStoreValues, margin);
+    fdErrorDesc.top = new FormAttachment(wFalsePositiveRate, margin);
     fdErrorDesc.right = new FormAttachment(100, 0);
     wErrorDesc.setLayoutData(fdErrorDesc);
 
@@ -282,6 +360,7 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
 
     getData();
     setErrorDesc();
+    setKeyStorage();
     input.setChanged(changed);
 
     BaseDialog.defaultShellHandling(shell, c -> ok(), c -> cancel());
@@ -294,6 +373,17 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     wErrorDesc.setEnabled(wRejectDuplicateRow.getSelection());
   }
 
+  private void setKeyStorage() {
+    String code =
+        UniqueRowsByHashSetMeta.KEY_STORAGE_CODES[Math.max(0, wKeyStorage.getSelectionIndex())];
+    boolean heap = UniqueRowsByHashSetMeta.KEY_STORAGE_HEAP.equals(code);
+    wlStoreValues.setEnabled(heap);
+    wStoreValues.setEnabled(heap);
+    boolean bloomFilter = UniqueRowsByHashSetMeta.KEY_STORAGE_BLOOM_FILTER.equals(code);
+    wlFalsePositiveRate.setEnabled(bloomFilter);
+    wFalsePositiveRate.setEnabled(bloomFilter);
+  }
+
   protected void setComboBoxes() {
     // Something was changed in the row.
     //
@@ -304,6 +394,9 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
   /** Copy information from the meta-data input to the dialog fields. */
   public void getData() {
     wStoreValues.setSelection(input.getStoreValues());
+    wKeyStorage.select(UniqueRowsByHashSetMeta.getKeyStorageIndex(input.getKeyStorage()));
+    wExpectedRows.setText(Const.NVL(input.getExpectedRows(), ""));
+    wFalsePositiveRate.setText(Const.NVL(input.getFalsePositiveRate(), ""));
     wRejectDuplicateRow.setSelection(input.isRejectDuplicateRow());
     if (input.getErrorDescription() != null) {
       wErrorDesc.setText(input.getErrorDescription());
@@ -343,6 +436,10 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
 
     transformName = wTransformName.getText(); // return value
     input.setStoreValues(wStoreValues.getSelection());
+    input.setKeyStorage(
+        UniqueRowsByHashSetMeta.KEY_STORAGE_CODES[Math.max(0, wKeyStorage.getSelectionIndex())]);
+    input.setExpectedRows(wExpectedRows.getText());
+    input.setFalsePositiveRate(wFalsePositiveRate.getText());
     input.setRejectDuplicateRow(wRejectDuplicateRow.getSelection());
     input.setErrorDescription(wErrorDesc.getText());
     dispose();
@@ -45,6 +45,22 @@ public class UniqueRowsByHashSetMeta
     extends BaseTransformMeta<UniqueRowsByHashSet, UniqueRowsByHashSetData> {
   private static final Class<?> PKG = UniqueRowsByHashSetMeta.class; // For Translator
 
+  /** Keep the row keys in a HashSet on the Java heap */
+  public static final String KEY_STORAGE_HEAP = "HEAP";
+
+  /** Keep 128-bit fingerprints of the row keys in a table outside of the Java heap */
+  public static final String KEY_STORAGE_FINGERPRINT = "FINGERPRINT";
+
+  /** Keep the row keys in a Bloom filter, new rows can be rejected as duplicates by mistake */
+  public static final String KEY_STORAGE_BLOOM_FILTER = "BLOOM_FILTER";
+
+  public static final String[] KEY_STORAGE_CODES = {
+    KEY_STORAGE_HEAP, KEY_STORAGE_FINGERPRINT, KEY_STORAGE_BLOOM_FILTER
+  };
+
+  public static final String DEFAULT_EXPECTED_ROWS = "1000000";
+  public static final String DEFAULT_FALSE_POSITIVE_RATE = "0.001";
+
   /**
    * Whether to compare strictly by hash value or to store the row values for strict equality
    * checking
@@ -57,6 +73,15 @@ public class UniqueRowsByHashSetMeta
   private boolean rejectDuplicateRow;
   private String errorDescription;
 
+  /** How the row keys are kept, one of the KEY_STORAGE_ codes */
+  private String keyStorage;
+
+  /** The expected number of distinct rows, used to size the fingerprint table or Bloom filter */
+  private String expectedRows;
+
+  /** The accepted rate of unique rows rejected by the Bloom filter */
+  private String falsePositiveRate;
+
   public UniqueRowsByHashSetMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -115,6 +140,61 @@ public class UniqueRowsByHashSetMeta
     return errorDescription;
   }
 
+  /**
+   * @return the key storage code, one of the KEY_STORAGE_ codes
+   */
+  public String getKeyStorage() {
+    return keyStorage;
+  }
+
+  /**
+   * @param keyStorage the key storage code to set
+   */
+  public void setKeyStorage(String keyStorage) {
+    this.keyStorage = keyStorage;
+  }
+
+  /**
+   * @return the expected number of distinct rows
+   */
+  public String getExpectedRows() {
+    return expectedRows;
+  }
+
+  /**
+   * @param expectedRows the expected number of distinct rows to set
+   */
+  public void setExpectedRows(String expectedRows) {
+    this.expectedRows = expectedRows;
+  }
+
+  /**
+   * @return the accepted false positive rate of the Bloom filter
+   */
+  public String getFalsePositiveRate() {
+    return falsePositiveRate;
+  }
+
+  /**
+   * @param falsePositiveRate the accepted false positive rate of the Bloom filter to set
+   */
+  public void setFalsePositiveRate(String falsePositiveRate) {
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  /**
+   * @param code a key storage code
+   * @return the index of the code in KEY_STORAGE_CODES, 0 (heap) when unknown
+   */
+  public static int getKeyStorageIndex(String code) {
+    for (int i = 0; i < KEY_STORAGE_CODES.length; i++) {
+      if (KEY_STORAGE_CODES[i].equalsIgnoreCase(code)) {
+        return i;
+      }
+    }
+    return 0;
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -139,6 +219,11 @@ public class UniqueRowsByHashSetMeta
       rejectDuplicateRow =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "reject_duplicate_row"));
       errorDescription = XmlHandler.getTagValue(transformNode, "error_description");
+      keyStorage =
+          KEY_STORAGE_CODES[
+              getKeyStorageIndex(XmlHandler.getTagValue(transformNode, "key_storage"))];
+      expectedRows = XmlHandler.getTagValue(transformNode, "expected_rows");
+      falsePositiveRate = XmlHandler.getTagValue(transformNode, "false_positive_rate");
 
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
       int nrFields = XmlHandler.countNodes(fields, "field");
@@ -163,6 +248,9 @@ public class UniqueRowsByHashSetMeta
   public void setDefault() {
     rejectDuplicateRow = false;
     errorDescription = null;
+    keyStorage = KEY_STORAGE_HEAP;
+    expectedRows = DEFAULT_EXPECTED_ROWS;
+    falsePositiveRate = DEFAULT_FALSE_POSITIVE_RATE;
     int nrFields = 0;
 
     allocate(nrFields);
@@ -189,6 +277,9 @@ public class UniqueRowsByHashSetMeta
     retval.append("      " + XmlHandler.addTagValue("store_values", storeValues));
     retval.append("      " + XmlHandler.addTagValue("reject_duplicate_row", rejectDuplicateRow));
     retval.append("      " + XmlHandler.addTagValue("error_description", errorDescription));
+    retval.append("      " + XmlHandler.addTagValue("key_storage", keyStorage));
+    retval.append("      " + XmlHandler.addTagValue("expected_rows", expectedRows));
+    retval.append("      " + XmlHandler.addTagValue("false_positive_rate", falsePositiveRate));
     retval.append("    <fields>");
     for (int i = 0; i < compareFields.length; i++) {
       retval.append("      <field>");
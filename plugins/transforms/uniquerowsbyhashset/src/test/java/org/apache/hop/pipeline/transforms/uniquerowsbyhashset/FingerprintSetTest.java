@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+import org.junit.Test;
+
+public class FingerprintSetTest {
+
+  private static long[] fingerprint(Object[] row, int... fieldnrs) {
+    long[] fingerprint = new long[2];
+    RowFingerprint.calculate(row, row.length, fieldnrs, fingerprint);
+    return fingerprint;
+  }
+
+  @Test
+  public void testRowFingerprint() {
+    Object[] row =
+        new Object[] {
+          "test",
+          123L,
+          5.1,
+          true,
+          new byte[] {1, 0},
+          new BigDecimal("123.10"),
+          new Date(1000L),
+          new Timestamp(1000L),
+          null
+        };
+    Object[] copy = row.clone();
+    copy[4] = new byte[] {1, 0};
+    assertArrayEquals(fingerprint(row), fingerprint(copy));
+
+    // only the key fields count
+    Object[] other = row.clone();
+    other[0] = "other";
+    assertArrayEquals(fingerprint(row, 1, 2), fingerprint(other, 1, 2));
+    assertFalse(fingerprint(row)[0] == fingerprint(other)[0]);
+
+    // same content, different types or boundaries
+    assertFalse(
+        fingerprint(new Object[] {"ab", "c"})[0] == fingerprint(new Object[] {"a", "bc"})[0]);
+    assertFalse(fingerprint(new Object[] {1L})[0] == fingerprint(new Object[] {1.0})[0]);
+    assertFalse(
+        fingerprint(new Object[] {new BigDecimal("1.0")})[0]
+            == fingerprint(new Object[] {new BigDecimal("1.00")})[0]);
+  }
+
+  @Test
+  public void testOffHeapFingerprintSet() {
+    OffHeapFingerprintSet set = new OffHeapFingerprintSet(10);
+    long initialMemory = set.getMemoryBytes();
+    assertEquals(1024 * 16, initialMemory);
+
+    for (long i = 1; i <= 10000; i++) {
+      assertTrue(set.add(i * 31, i));
+    }
+    for (long i = 1; i <= 10000; i++) {
+      assertFalse(set.add(i * 31, i));
+    }
+    assertTrue(set.add(0, 0));
+    assertFalse(set.add(0, 0));
+    assertEquals(10001, set.size());
+    assertTrue(set.getMemoryBytes() > initialMemory);
+    assertEquals(0, Long.bitCount(set.getMemoryBytes()) - 1);
+
+    set.clear();
+    assertEquals(0, set.size());
+    assertEquals(0, set.getMemoryBytes());
+  }
+
+  @Test
+  public void testBloomFilterFingerprintSet() {
+    int expected = 10000;
+    BloomFilterFingerprintSet set = new BloomFilterFingerprintSet(expected, 0.01);
+    // about 9.6 bits per key for a 1% false positive rate
+    assertTrue(set.getMemoryBytes() < expected * 10 / 8 + 8);
+
+    long[] fp = new long[2];
+    int falsePositives = 0;
+    for (long i = 0; i < expected; i++) {
+      RowFingerprint.calculate(new Object[] {i}, 1, new int[0], fp);
+      if (!set.add(fp[0], fp[1])) {
+        falsePositives++;
+      }
+    }
+    assertTrue("false positives: " + falsePositives, falsePositives < expected * 0.02);
+
+    // duplicates are never let through
+    for (long i = 0; i < expected; i++) {
+      RowFingerprint.calculate(new Object[] {i}, 1, new int[0], fp);
+      assertFalse(set.add(fp[0], fp[1]));
+    }
+  }
+}
@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.apache.hop.pipeline.transforms.loadsave.LoadSaveTester;
@@ -36,19 +37,32 @@ public class UniqueRowsByHashSetMetaTest {
   @Test
   public void testRoundTrip() throws HopException {
     List<String> attributes =
-        Arrays.asList("store_values", "reject_duplicate_row", "error_description", "name");
+        Arrays.asList(
+            "store_values",
+            "reject_duplicate_row",
+            "error_description",
+            "name",
+            "key_storage",
+            "expected_rows",
+            "false_positive_rate");
 
     Map<String, String> getterMap = new HashMap<>();
     getterMap.put("store_values", "getStoreValues");
     getterMap.put("reject_duplicate_row", "isRejectDuplicateRow");
     getterMap.put("error_description", "getErrorDescription");
     getterMap.put("name", "getCompareFields");
+    getterMap.put("key_storage", "getKeyStorage");
+    getterMap.put("expected_rows", "getExpectedRows");
+    getterMap.put("false_positive_rate", "getFalsePositiveRate");
 
     Map<String, String> setterMap = new HashMap<>();
     setterMap.put("store_values", "setStoreValues");
     setterMap.put("reject_duplicate_row", "setRejectDuplicateRow");
     setterMap.put("error_description", "setErrorDescription");
     setterMap.put("name", "setCompareFields");
+    setterMap.put("key_storage", "setKeyStorage");
+    setterMap.put("expected_rows", "setExpectedRows");
+    setterMap.put("false_positive_rate", "setFalsePositiveRate");
 
     Map<String, IFieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap = new HashMap<>();
 
@@ -57,6 +71,7 @@ public class UniqueRowsByHashSetMetaTest {
         new ArrayLoadSaveValidator<>(new StringLoadSaveValidator(), 25);
 
     fieldLoadSaveValidatorAttributeMap.put("name", stringArrayLoadSaveValidator);
+    fieldLoadSaveValidatorAttributeMap.put("key_storage", new KeyStorageLoadSaveValidator());
 
     LoadSaveTester loadSaveTester =
         new LoadSaveTester(
@@ -69,4 +84,17 @@ public class UniqueRowsByHashSetMetaTest {
 
     loadSaveTester.testSerialization();
   }
+
+  public static class KeyStorageLoadSaveValidator implements IFieldLoadSaveValidator<String> {
+    @Override
+    public String getTestObject() {
+      return UniqueRowsByHashSetMeta.KEY_STORAGE_CODES[
+          new Random().nextInt(UniqueRowsByHashSetMeta.KEY_STORAGE_CODES.length)];
+    }
+
+    @Override
+    public boolean validateTestObject(String testObject, Object actual) {
+      return testObject.equals(actual);
+    }
+  }
 }
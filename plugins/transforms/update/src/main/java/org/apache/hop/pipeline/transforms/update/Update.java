@@ -19,9 +19,11 @@ package org.apache.hop.pipeline.transforms.update;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseBatchLookup;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
@@ -79,7 +81,13 @@ public class Update extends BaseTransform<UpdateMeta, UpdateData> {
       }
     }
     IRowMeta returnRowMeta = null;
-    if (!meta.isSkipLookup()) {
+    Object[] batchKey = null;
+    if (data.batchResults != null) {
+      // The whole batch was already looked up with a single query
+      batchKey = data.batchLookup.getKey(rowMeta, row, data.keynrs);
+      add = data.batchResults.get(batchKey);
+      returnRowMeta = data.batchLookup.getReturnRowMeta();
+    } else if (!meta.isSkipLookup()) {
       data.db.setValues(data.lookupParameterRowMeta, lookupRow, data.prepStatementLookup);
       if (log.isDebug()) {
         logDebug(
@@ -184,6 +192,18 @@ public class Update extends BaseTransform<UpdateMeta, UpdateData> {
         data.db.setValues(data.updateParameterRowMeta, updateRow, data.prepStatementUpdate);
         data.db.insertRow(data.prepStatementUpdate, meta.isUseBatchUpdate(), true);
         incrementLinesUpdated();
+
+        if (batchKey != null && !DatabaseBatchLookup.hasNullValue(batchKey)) {
+          // Later rows of the same batch with this key need to see the updated values
+          Object[] values = new Object[data.valuenrs.length];
+          for (int i = 0; i < data.valuenrs.length; i++) {
+            values[i] =
+                rowMeta
+                    .getValueMeta(data.valuenrs[i])
+                    .convertToNormalStorageType(row[data.valuenrs[i]]);
+          }
+          data.batchResults.put(batchKey, values);
+        }
       } else {
         incrementLinesSkipped();
       }
@@ -200,11 +220,11 @@ public class Update extends BaseTransform<UpdateMeta, UpdateData> {
   @Override
   public boolean processRow() throws HopException {
 
-    boolean sendToErrorRow = false;
-    String errorMessage = null;
-
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (!flushBatch()) {
+        return false;
+      }
 
       setOutputDone();
       return false;
@@ -322,8 +342,29 @@ public class Update extends BaseTransform<UpdateMeta, UpdateData> {
         setLookup(getInputRowMeta());
       }
       prepareUpdate(getInputRowMeta());
+      prepareBatchLookup(getInputRowMeta());
+    }
+
+    if (data.batchBuffer != null) {
+      data.batchBuffer.add(r);
+      if (data.batchBuffer.size() >= data.lookupBatchSize) {
+        return flushBatch();
+      }
+      return true;
     }
 
+    return writeRow(r);
+  }
+
+  /**
+   * Look up and update a single row.
+   *
+   * @return false if the transform had to stop because of an error
+   */
+  private boolean writeRow(Object[] r) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
     try {
       Object[] outputRow =
           lookupValues(getInputRowMeta(), r); // add new values to the row in rowset[0].
@@ -356,6 +397,84 @@ public class Update extends BaseTransform<UpdateMeta, UpdateData> {
     return true;
   }
 
+  /**
+   * Look up all buffered rows with a single query and update them.
+   *
+   * @return false if the transform had to stop because of an error
+   */
+  private boolean flushBatch() throws HopException {
+    if (data.batchBuffer == null || data.batchBuffer.isEmpty()) {
+      return true;
+    }
+    List<Object[]> rows = new ArrayList<>(data.batchBuffer);
+    data.batchBuffer.clear();
+
+    try {
+      List<Object[]> keys = new ArrayList<>(rows.size());
+      for (Object[] row : rows) {
+        keys.add(data.batchLookup.getKey(getInputRowMeta(), row, data.keynrs));
+      }
+      data.batchResults = data.batchLookup.lookup(keys);
+    } catch (HopException e) {
+      logError(BaseMessages.getString(PKG, "Update.Log.ErrorInTransform"), e);
+      setErrors(1);
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+
+    for (Object[] row : rows) {
+      if (!writeRow(row)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Set up the batched lookup if a lookup batch size is configured, the lookup isn't skipped and
+   * all keys are compared on equality. Other conditions can't be resolved with a single keyed
+   * query, so these keep looking up row by row.
+   */
+  private void prepareBatchLookup(IRowMeta rowMeta) {
+    data.lookupBatchSize = Const.toInt(resolve(meta.getLookupBatchSize()), 0);
+    if (data.lookupBatchSize <= 1 || meta.isSkipLookup()) {
+      return;
+    }
+    List<UpdateKeyField> keyFields = meta.getLookupField().getLookupKeys();
+    for (UpdateKeyField keyField : keyFields) {
+      if (!"=".equals(Const.trim(keyField.getKeyCondition()))) {
+        logBasic(
+            BaseMessages.getString(
+                PKG, "Update.Log.BatchLookupDisabled", keyField.getKeyCondition()));
+        return;
+      }
+    }
+
+    String[] keyColumns = new String[keyFields.size()];
+    IRowMeta keyRowMeta = new RowMeta();
+    for (int i = 0; i < keyFields.size(); i++) {
+      keyColumns[i] = keyFields.get(i).getKeyLookup();
+      keyRowMeta.addValueMeta(rowMeta.getValueMeta(data.keynrs[i]).clone());
+    }
+    List<UpdateField> updateFields = meta.getLookupField().getUpdateFields();
+    String[] returnColumns = new String[updateFields.size()];
+    IRowMeta returnRowMeta = new RowMeta();
+    for (int i = 0; i < updateFields.size(); i++) {
+      returnColumns[i] = updateFields.get(i).getUpdateLookup();
+      returnRowMeta.addValueMeta(rowMeta.getValueMeta(data.valuenrs[i]).clone());
+    }
+
+    data.batchLookup =
+        new DatabaseBatchLookup(
+            data.db, data.schemaTable, keyColumns, keyRowMeta, returnColumns, returnRowMeta);
+    data.batchBuffer = new ArrayList<>(data.lookupBatchSize);
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "Update.Log.BatchLookupEnabled", data.lookupBatchSize));
+    }
+  }
+
   public void setLookup(IRowMeta rowMeta) throws HopDatabaseException {
     data.lookupParameterRowMeta = new RowMeta();
     data.lookupReturnRowMeta = new RowMeta();
@@ -539,6 +658,7 @@ public class Update extends BaseTransform<UpdateMeta, UpdateData> {
   @Override
   public void batchComplete() throws HopException {
     // This is needed to properly handle transactions when we are using SingleThreadedExecutor
+    flushBatch();
     commitBatch(false);
   }
 
@@ -570,6 +690,9 @@ public class Update extends BaseTransform<UpdateMeta, UpdateData> {
             data.db.closePreparedStatement(data.prepStatementLookup);
           }
           data.prepStatementLookup = null;
+          if (data.batchLookup != null) {
+            data.batchLookup.close();
+          }
         }
       } catch (HopDatabaseException e) {
         logError(
@@ -18,7 +18,10 @@
 package org.apache.hop.pipeline.transforms.update;
 
 import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseBatchLookup;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -45,6 +48,13 @@ public class UpdateData extends BaseTransformData implements ITransformData {
   public IRowMeta lookupReturnRowMeta;
   public IRowMeta updateParameterRowMeta;
 
+  /** The number of rows to look up at once, batched lookups are disabled if 1 or less */
+  public int lookupBatchSize;
+
+  public DatabaseBatchLookup batchLookup;
+  public List<Object[]> batchBuffer;
+  public Map<Object[], Object[]> batchResults;
+
   public UpdateData() {
     super();
 
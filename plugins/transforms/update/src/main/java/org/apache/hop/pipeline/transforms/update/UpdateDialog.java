@@ -77,6 +77,10 @@ public class UpdateDialog extends BaseTransformDialog implements ITransformDialo
 
   private TextVar wCommit;
 
+  private Label wlLookupBatchSize;
+
+  private TextVar wLookupBatchSize;
+
   private Button wBatch;
 
   private Label wlErrorIgnored;
@@ -283,12 +287,32 @@ public class UpdateDialog extends BaseTransformDialog implements ITransformDialo
           }
         });
 
+    // Lookup batch size line
+    wlLookupBatchSize = new Label(shell, SWT.RIGHT);
+    wlLookupBatchSize.setText(BaseMessages.getString(PKG, "UpdateDialog.LookupBatchSize.Label"));
+    wlLookupBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "UpdateDialog.LookupBatchSize.Tooltip"));
+    PropsUi.setLook(wlLookupBatchSize);
+    FormData fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment(0, 0);
+    fdlLookupBatchSize.top = new FormAttachment(wSkipLookup, margin);
+    fdlLookupBatchSize.right = new FormAttachment(middle, -margin);
+    wlLookupBatchSize.setLayoutData(fdlLookupBatchSize);
+    wLookupBatchSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wLookupBatchSize);
+    wLookupBatchSize.addModifyListener(lsMod);
+    FormData fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.left = new FormAttachment(middle, 0);
+    fdLookupBatchSize.top = new FormAttachment(wSkipLookup, margin);
+    fdLookupBatchSize.right = new FormAttachment(100, 0);
+    wLookupBatchSize.setLayoutData(fdLookupBatchSize);
+
     wlErrorIgnored = new Label(shell, SWT.RIGHT);
     wlErrorIgnored.setText(BaseMessages.getString(PKG, "UpdateDialog.ErrorIgnored.Label"));
     PropsUi.setLook(wlErrorIgnored);
     FormData fdlErrorIgnored = new FormData();
     fdlErrorIgnored.left = new FormAttachment(0, 0);
-    fdlErrorIgnored.top = new FormAttachment(wSkipLookup, margin);
+    fdlErrorIgnored.top = new FormAttachment(wLookupBatchSize, margin);
     fdlErrorIgnored.right = new FormAttachment(middle, -margin);
     wlErrorIgnored.setLayoutData(fdlErrorIgnored);
     wErrorIgnored = new Button(shell, SWT.CHECK);
@@ -312,14 +336,14 @@ public class UpdateDialog extends BaseTransformDialog implements ITransformDialo
     PropsUi.setLook(wlIgnoreFlagField);
     FormData fdlIgnoreFlagField = new FormData();
     fdlIgnoreFlagField.left = new FormAttachment(wErrorIgnored, margin);
-    fdlIgnoreFlagField.top = new FormAttachment(wSkipLookup, margin);
+    fdlIgnoreFlagField.top = new FormAttachment(wLookupBatchSize, margin);
     wlIgnoreFlagField.setLayoutData(fdlIgnoreFlagField);
     wIgnoreFlagField = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
     PropsUi.setLook(wIgnoreFlagField);
     wIgnoreFlagField.addModifyListener(lsMod);
     FormData fdIgnoreFlagField = new FormData();
     fdIgnoreFlagField.left = new FormAttachment(wlIgnoreFlagField, margin);
-    fdIgnoreFlagField.top = new FormAttachment(wSkipLookup, margin);
+    fdIgnoreFlagField.top = new FormAttachment(wLookupBatchSize, margin);
     fdIgnoreFlagField.right = new FormAttachment(100, 0);
     wIgnoreFlagField.setLayoutData(fdIgnoreFlagField);
 
@@ -522,6 +546,8 @@ public class UpdateDialog extends BaseTransformDialog implements ITransformDialo
       wErrorIgnored.setSelection(false);
       wIgnoreFlagField.setText("");
     }
+    wLookupBatchSize.setEnabled(!wSkipLookup.getSelection());
+    wlLookupBatchSize.setEnabled(!wSkipLookup.getSelection());
     wErrorIgnored.setEnabled(!wSkipLookup.getSelection());
     wlErrorIgnored.setEnabled(!wSkipLookup.getSelection());
     wlIgnoreFlagField.setEnabled(!wSkipLookup.getSelection() && wErrorIgnored.getSelection());
@@ -618,6 +644,7 @@ public class UpdateDialog extends BaseTransformDialog implements ITransformDialo
     }
 
     wCommit.setText(input.getCommitSizeVar());
+    wLookupBatchSize.setText(Const.NVL(input.getLookupBatchSize(), ""));
     wBatch.setSelection(input.isUseBatchUpdate());
     wSkipLookup.setSelection(input.isSkipLookup());
     wErrorIgnored.setSelection(input.isErrorIgnored());
@@ -695,6 +722,7 @@ public class UpdateDialog extends BaseTransformDialog implements ITransformDialo
 
     inf.setConnection(wConnection.getText());
     inf.setCommitSize(wCommit.getText());
+    inf.setLookupBatchSize(wLookupBatchSize.getText());
     inf.setUseBatchUpdate(wBatch.getSelection());
     inf.setSkipLookup(wSkipLookup.getSelection());
 
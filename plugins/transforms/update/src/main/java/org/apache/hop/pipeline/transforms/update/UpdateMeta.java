@@ -62,6 +62,13 @@ public class UpdateMeta extends BaseTransformMeta<Update, UpdateData> {
       injectionKey = "COMMIT_SIZE")
   private String commitSize;
 
+  /** Number of rows to look up in the table with a single query */
+  @HopMetadataProperty(
+      key = "lookup_batch_size",
+      injectionKeyDescription = "UpdateMeta.Injection.LookupBatchSize",
+      injectionKey = "LOOKUP_BATCH_SIZE")
+  private String lookupBatchSize;
+
   /** Lookup key fields * */
   @HopMetadataProperty(key = "lookup")
   private UpdateLookupField lookupField;
@@ -163,6 +170,21 @@ public class UpdateMeta extends BaseTransformMeta<Update, UpdateData> {
     this.commitSize = commitSize;
   }
 
+  /**
+   * @return The number of rows to look up in the table with a single query, 0 or 1 to look up every
+   *     row separately.
+   */
+  public String getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /**
+   * @param lookupBatchSize The lookup batch size to set.
+   */
+  public void setLookupBatchSize(String lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
   /**
    * @return Returns the skipLookup.
    */
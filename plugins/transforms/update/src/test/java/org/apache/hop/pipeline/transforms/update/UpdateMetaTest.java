@@ -95,6 +95,7 @@ public class UpdateMetaTest implements IInitializer<ITransformMeta> {
             "connection",
             "lookup",
             "commit",
+            "lookup_batch_size",
             "error_ignored",
             "ignore_flag_field",
             "skip_lookup",
@@ -106,6 +107,7 @@ public class UpdateMetaTest implements IInitializer<ITransformMeta> {
             put("connection", "getConnection");
             put("lookup", "getLookupField");
             put("commit", "getCommitSize");
+            put("lookup_batch_size", "getLookupBatchSize");
             put("error_ignored", "isErrorIgnored");
             put("ignore_flag_field", "getIgnoreFlagField");
             put("skip_lookup", "isSkipLookup");
@@ -118,6 +120,7 @@ public class UpdateMetaTest implements IInitializer<ITransformMeta> {
             put("connection", "setConnection");
             put("lookup", "setLookupField");
             put("commit", "setCommitSize");
+            put("lookup_batch_size", "setLookupBatchSize");
             put("error_ignored", "setErrorIgnored");
             put("ignore_flag_field", "setIgnoreFlagField");
             put("skip_lookup", "setSkipLookup");
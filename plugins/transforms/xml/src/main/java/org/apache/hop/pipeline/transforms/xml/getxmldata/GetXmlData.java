@@ -48,6 +48,7 @@ import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
+import org.dom4j.DocumentHelper;
 import org.dom4j.Element;
 import org.dom4j.ElementHandler;
 import org.dom4j.ElementPath;
@@ -635,6 +636,17 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
               BaseMessages.getString(PKG, "GetXMLData.Log.OpeningFile", data.file.toString()));
         }
 
+        if (data.streaming) {
+          // Read the file with the pull parser, one loop element at a time
+          openStreamingReader(data.file);
+          addFileToResultFilesname(data.file);
+          if (log.isDetailed()) {
+            logDetailed(
+                BaseMessages.getString(PKG, "GetXMLData.Log.FileOpened", data.file.toString()));
+          }
+          return true;
+        }
+
         // Open the XML document
         if (!setDocument(null, data.file, false, false)) {
           if (data.stopPruning) {
@@ -679,6 +691,32 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return true;
   }
 
+  private void openStreamingReader(FileObject file) throws HopException, FileSystemException {
+    closeStreamingReader();
+    this.prevRow = buildEmptyRow(); // pre-allocate previous row
+
+    // get encoding. By default UTF-8
+    String encoding = "UTF-8";
+    if (!Utils.isEmpty(meta.getEncoding())) {
+      encoding = meta.getEncoding();
+    }
+    InputStream is = HopVfs.getInputStream(file);
+    try {
+      data.streamingReader =
+          new StreamingXmlReader(is, encoding, data.PathValue, meta.isIgnoreComments());
+    } catch (HopException e) {
+      BaseTransform.closeQuietly(is);
+      throw e;
+    }
+  }
+
+  private void closeStreamingReader() {
+    if (data.streamingReader != null) {
+      data.streamingReader.close();
+      data.streamingReader = null;
+    }
+  }
+
   @Override
   public boolean processRow() throws HopException {
     if (first && !meta.isInFields()) {
@@ -735,6 +773,9 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
 
   private Object[] getXmlRow() throws HopException {
 
+    if (data.streaming) {
+      return getStreamingXmlRow();
+    }
     if (!meta.isInFields()) {
       while ((data.nodenr >= data.nodesize || data.file == null)) {
         if (!openNextFile()) {
@@ -746,6 +787,23 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return getXmlRowPutRowWithErrorhandling();
   }
 
+  private Object[] getStreamingXmlRow() throws HopException {
+    Element element = null;
+    while (data.streamingReader == null || (element = data.streamingReader.next()) == null) {
+      closeStreamingReader();
+      if (!openNextFile()) {
+        data.errorInRowButContinue = false; // stop in all cases
+        return null;
+      }
+    }
+    // only the current loop element is kept in memory
+    data.an.clear();
+    data.an.add(element);
+    data.nodesize = 1;
+    data.nodenr = 0;
+    return getXmlRowPutRowWithErrorhandling();
+  }
+
   private Object[] getXmlRowPutRowWithErrorhandling() throws HopException {
     // Build an empty row based on the meta-data
     Object[] r;
@@ -816,6 +874,18 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
               nodevalue = "";
             }
           }
+        } else if (!meta.isuseToken() && data.fieldXPaths[i] != null) {
+          XPath xpathField = data.fieldXPaths[i];
+          if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
+            nodevalue = xpathField.valueOf(node);
+          } else {
+            Node n = xpathField.selectSingleNode(node);
+            if (n != null) {
+              nodevalue = n.asXML();
+            } else {
+              nodevalue = "";
+            }
+          }
         } else {
           if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
             nodevalue = node.valueOf(xPathValue);
@@ -1000,6 +1070,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
         xmlDataField.setResolvedXPath(xPathValue);
       }
+      data.fieldXPaths = compileFieldXPaths();
 
       data.PathValue = resolve(meta.getLoopXPath());
       if (Utils.isEmpty(data.PathValue)) {
@@ -1029,13 +1100,69 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
       }
 
+      data.streaming = meta.isStreaming() && isStreamable();
+      if (data.streaming) {
+        data.an = new ArrayList<>(1);
+        if (log.isDetailed()) {
+          logDetailed(BaseMessages.getString(PKG, "GetXMLData.Log.PullStreaming.Activated"));
+        }
+      }
+
       return true;
     }
     return false;
   }
 
+  /**
+   * Compile the field paths once so they are not parsed again for every row. Paths using tokens or
+   * namespaces change per row or document and are left to be evaluated per row.
+   */
+  private XPath[] compileFieldXPaths() {
+    XPath[] xpaths = new XPath[data.nrInputFields];
+    if (meta.isNamespaceAware() || meta.isuseToken()) {
+      return xpaths;
+    }
+    for (int i = 0; i < data.nrInputFields; i++) {
+      try {
+        xpaths[i] = DocumentHelper.createXPath(meta.getInputFields()[i].getResolvedXPath());
+      } catch (Exception e) {
+        // leave invalid paths to the per row evaluation which reports the error
+        xpaths[i] = null;
+      }
+    }
+    return xpaths;
+  }
+
+  /**
+   * The pull parser only handles files, loop paths in the streamable subset and field paths that
+   * stay inside the loop element. Anything else is read into a document as before.
+   */
+  private boolean isStreamable() {
+    String reason = null;
+    if (meta.isInFields()) {
+      reason = "input from a field";
+    } else if (meta.isNamespaceAware() || meta.isValidating()) {
+      reason = "namespace aware or validating parser";
+    } else if (!StreamingXmlReader.isStreamableLoopPath(data.PathValue)) {
+      reason = data.PathValue;
+    } else {
+      for (GetXmlDataField field : meta.getInputFields()) {
+        if (!StreamingXmlReader.isStreamableFieldPath(field.getResolvedXPath())) {
+          reason = field.getResolvedXPath();
+          break;
+        }
+      }
+    }
+    if (reason != null) {
+      logBasic(BaseMessages.getString(PKG, "GetXMLData.Log.PullStreaming.NotStreamable", reason));
+      return false;
+    }
+    return true;
+  }
+
   @Override
   public void dispose() {
+    closeStreamingReader();
     if (data.file != null) {
       try {
         data.file.close();
@@ -36,6 +36,7 @@ import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.dom4j.Document;
 import org.dom4j.Node;
+import org.dom4j.XPath;
 
 public class GetXmlDataData extends BaseTransformData implements ITransformData {
   public String thisline;
@@ -59,6 +60,9 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
       prunePath; // identical to meta.getPrunePath() with some conditions set at init(), null when
   // no pruning
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
+  public boolean streaming; // true when files are read with the pull parser
+  public StreamingXmlReader streamingReader;
+  public XPath[] fieldXPaths; // compiled field paths, null entries are evaluated per row
   public boolean
       errorInRowButContinue; // true when actual row has an error and error handling is active:
   // means
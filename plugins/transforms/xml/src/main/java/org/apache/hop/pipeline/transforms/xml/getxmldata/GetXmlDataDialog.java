@@ -132,6 +132,8 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
 
   private Label wlPrunePath;
   private TextVar wPrunePath;
+  private Label wlStreaming;
+  private Button wStreaming;
 
   private Label wlEncoding;
   private CCombo wEncoding;
@@ -811,6 +813,31 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     fdPrunePath.right = new FormAttachment(100, 0);
     wPrunePath.setLayoutData(fdPrunePath);
 
+    // Pull parser, one loop element at a time
+    wlStreaming = new Label(wXmlConf, SWT.RIGHT);
+    wlStreaming.setText(BaseMessages.getString(PKG, "GetXMLDataDialog.PullStreaming.Label"));
+    PropsUi.setLook(wlStreaming);
+    FormData fdlStreaming = new FormData();
+    fdlStreaming.left = new FormAttachment(0, 0);
+    fdlStreaming.top = new FormAttachment(wPrunePath, margin);
+    fdlStreaming.right = new FormAttachment(middle, -margin);
+    wlStreaming.setLayoutData(fdlStreaming);
+    wStreaming = new Button(wXmlConf, SWT.CHECK);
+    PropsUi.setLook(wStreaming);
+    wStreaming.setToolTipText(
+        BaseMessages.getString(PKG, "GetXMLDataDialog.PullStreaming.Tooltip"));
+    FormData fdStreaming = new FormData();
+    fdStreaming.left = new FormAttachment(middle, 0);
+    fdStreaming.top = new FormAttachment(wlStreaming, 0, SWT.CENTER);
+    wStreaming.setLayoutData(fdStreaming);
+    wStreaming.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+
     FormData fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment(0, margin);
     fdXmlConf.top = new FormAttachment(0, margin);
@@ -1410,6 +1437,8 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     wPreview.setEnabled(!wXMLStreamField.getSelection());
     wPrunePath.setEnabled(!wXMLStreamField.getSelection());
     wlPrunePath.setEnabled(!wXMLStreamField.getSelection());
+    wStreaming.setEnabled(!wXMLStreamField.getSelection());
+    wlStreaming.setEnabled(!wXMLStreamField.getSelection());
     wlShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wlPathFieldName.setEnabled(!wXMLStreamField.getSelection());
@@ -1740,6 +1769,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     if (in.getPrunePath() != null) {
       wPrunePath.setText(in.getPrunePath());
     }
+    wStreaming.setSelection(in.isStreaming());
     if (in.getLoopXPath() != null) {
       wLoopXPath.setText(in.getLoopXPath());
     }
@@ -1878,6 +1908,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     // copy info to TextFileInputMeta class (input)
     in.setRowLimit(Const.toLong(wLimit.getText(), 0L));
     in.setPrunePath(wPrunePath.getText());
+    in.setStreaming(wStreaming.getSelection());
     in.setLoopXPath(wLoopXPath.getText());
     in.setEncoding(wEncoding.getText());
     in.setFilenameField(wInclFilenameField.getText());
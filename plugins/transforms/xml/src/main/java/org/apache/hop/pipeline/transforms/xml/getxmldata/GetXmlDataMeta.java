@@ -147,6 +147,9 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
   // Given this path activates the streaming algorithm to process large files
   private String prunePath;
 
+  /** Flag : read files with a pull parser, one loop element at a time */
+  private boolean streaming;
+
   /** Additional fields * */
   private String shortFileFieldName;
 
@@ -601,6 +604,20 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     this.prunePath = prunePath;
   }
 
+  /**
+   * @return true if files are read with a pull parser, one loop element at a time
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * @param streaming the streaming flag to set
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -678,6 +695,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     retval.append("    ").append(XmlHandler.addTagValue("IsAFile", isAFile));
     retval.append("    ").append(XmlHandler.addTagValue("XmlField", xmlField));
     retval.append("    ").append(XmlHandler.addTagValue("prunePath", prunePath));
+    retval.append("    ").append(XmlHandler.addTagValue("streaming", streaming));
     retval.append("    ").append(XmlHandler.addTagValue("shortFileFieldName", shortFileFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("pathFieldName", pathFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("hiddenFieldName", hiddenFieldName));
@@ -775,6 +793,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
 
       xmlField = XmlHandler.getTagValue(transformNode, "XmlField");
       prunePath = XmlHandler.getTagValue(transformNode, "prunePath");
+      streaming = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "streaming"));
 
       shortFileFieldName = XmlHandler.getTagValue(transformNode, "shortFileFieldName");
       pathFieldName = XmlHandler.getTagValue(transformNode, "pathFieldName");
@@ -852,6 +871,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     inFields = false;
     xmlField = "";
     prunePath = "";
+    streaming = false;
   }
 
   @Override
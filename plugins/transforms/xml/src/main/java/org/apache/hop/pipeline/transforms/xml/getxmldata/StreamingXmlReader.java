@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.Utils;
+import org.dom4j.DocumentFactory;
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.QName;
+
+/**
+ * Pull based reader for the streaming mode of the Get XML Data transform. The loop XPath is
+ * compiled into a list of location steps and matched against the stack of open elements while the
+ * file is read with StAX. Only the element matched by the loop path is materialized as a small
+ * dom4j subtree, so memory use is bounded by the size of one loop element instead of the document.
+ *
+ * <p>The streamable subset of XPath for the loop path is an absolute path of child (<code>/</code>)
+ * or descendant (<code>//</code>) steps, each of which is an element name without prefix or <code>
+ * *</code>. Field paths are evaluated on the materialized element and therefore must not leave it
+ * (no absolute paths and no parent, ancestor or sibling axes). Nested matches of the loop path
+ * inside an already matched element are not reported.
+ */
+public class StreamingXmlReader implements Closeable {
+
+  private static final Pattern NAME_STEP = Pattern.compile("[A-Za-z_][A-Za-z0-9_.\\-]*|\\*");
+
+  private static final String[] NON_STREAMABLE_FIELD_TOKENS = {
+    "..", "ancestor", "parent::", "preceding", "following", "//", "$"
+  };
+
+  private final InputStream inputStream;
+  private final XMLStreamReader reader;
+  private final List<Step> steps;
+  private final boolean ignoreComments;
+  private final DocumentFactory factory = DocumentFactory.getInstance();
+
+  /** Local names of the currently open elements, null for elements in a namespace. */
+  private final List<String> openElements = new ArrayList<>();
+
+  public StreamingXmlReader(
+      InputStream inputStream, String encoding, String loopPath, boolean ignoreComments)
+      throws HopException {
+    this.steps = compileLoopPath(loopPath);
+    if (steps == null) {
+      throw new HopException("Loop path '" + loopPath + "' can not be used in streaming mode");
+    }
+    this.inputStream = inputStream;
+    this.ignoreComments = ignoreComments;
+    try {
+      XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+      xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+      xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+      this.reader =
+          Utils.isEmpty(encoding)
+              ? xmlInputFactory.createXMLStreamReader(inputStream)
+              : xmlInputFactory.createXMLStreamReader(inputStream, encoding);
+    } catch (XMLStreamException e) {
+      throw new HopException(e);
+    }
+  }
+
+  /**
+   * Compile a loop path into location steps.
+   *
+   * @param loopPath the absolute loop XPath
+   * @return the steps or null if the path is outside the streamable subset
+   */
+  static List<Step> compileLoopPath(String loopPath) {
+    if (Utils.isEmpty(loopPath) || !loopPath.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)) {
+      return null;
+    }
+    List<Step> result = new ArrayList<>();
+    int position = 0;
+    while (position < loopPath.length()) {
+      if (loopPath.charAt(position) != '/') {
+        return null;
+      }
+      boolean descendant = loopPath.startsWith("//", position);
+      position += descendant ? 2 : 1;
+      int end = loopPath.indexOf('/', position);
+      if (end < 0) {
+        end = loopPath.length();
+      }
+      String name = loopPath.substring(position, end).trim();
+      if (!NAME_STEP.matcher(name).matches()) {
+        return null;
+      }
+      result.add(new Step("*".equals(name) ? null : name, descendant));
+      position = end;
+    }
+    return result.isEmpty() ? null : result;
+  }
+
+  /**
+   * @param loopPath the absolute loop XPath
+   * @return true if the loop path can be matched while streaming
+   */
+  public static boolean isStreamableLoopPath(String loopPath) {
+    return compileLoopPath(loopPath) != null;
+  }
+
+  /**
+   * @param fieldPath the resolved XPath of a field, relative to the loop element
+   * @return true if the path only looks at the loop element and its content
+   */
+  public static boolean isStreamableFieldPath(String fieldPath) {
+    if (Utils.isEmpty(fieldPath)) {
+      return true;
+    }
+    String path = fieldPath.trim();
+    if (path.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)) {
+      return false;
+    }
+    for (String token : NON_STREAMABLE_FIELD_TOKENS) {
+      if (path.contains(token)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Read up to the next element matching the loop path.
+   *
+   * @return the matched element as a detached dom4j element or null at the end of the input
+   * @throws HopException in case the XML can not be parsed
+   */
+  public Element next() throws HopException {
+    try {
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          String namespaceUri = reader.getNamespaceURI();
+          openElements.add(Utils.isEmpty(namespaceUri) ? reader.getLocalName() : null);
+          if (matches(steps.size() - 1, openElements.size() - 1)) {
+            Element element = readElement();
+            openElements.remove(openElements.size() - 1);
+            return element;
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          openElements.remove(openElements.size() - 1);
+        }
+      }
+      return null;
+    } catch (XMLStreamException e) {
+      throw new HopException(e);
+    }
+  }
+
+  /** Match the steps up to stepIndex against the open elements up to elementIndex. */
+  private boolean matches(int stepIndex, int elementIndex) {
+    if (elementIndex < 0) {
+      return false;
+    }
+    Step step = steps.get(stepIndex);
+    String name = openElements.get(elementIndex);
+    // a wildcard step matches any element, including elements in a namespace
+    if (step.name != null && !step.name.equals(name)) {
+      return false;
+    }
+    if (stepIndex == 0) {
+      return step.descendant || elementIndex == 0;
+    }
+    if (!step.descendant) {
+      return matches(stepIndex - 1, elementIndex - 1);
+    }
+    for (int i = elementIndex - 1; i >= 0; i--) {
+      if (matches(stepIndex - 1, i)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Build the subtree of the element at the current START_ELEMENT event. */
+  private Element readElement() throws XMLStreamException {
+    Element root = createElement();
+    Element current = root;
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          Element child = createElement();
+          current.add(child);
+          current = child;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          if (current == root) {
+            return root;
+          }
+          current = current.getParent();
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+          current.addText(reader.getText());
+          break;
+        case XMLStreamConstants.CDATA:
+          current.addCDATA(reader.getText());
+          break;
+        case XMLStreamConstants.COMMENT:
+          if (!ignoreComments) {
+            current.addComment(reader.getText());
+          }
+          break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          current.addProcessingInstruction(reader.getPITarget(), reader.getPIData());
+          break;
+        default:
+          break;
+      }
+    }
+    return root;
+  }
+
+  private Element createElement() {
+    Element element =
+        factory.createElement(
+            factory.createQName(
+                reader.getLocalName(),
+                Namespace.get(
+                    nullToEmpty(reader.getPrefix()), nullToEmpty(reader.getNamespaceURI()))));
+    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+      element.add(
+          Namespace.get(
+              nullToEmpty(reader.getNamespacePrefix(i)), nullToEmpty(reader.getNamespaceURI(i))));
+    }
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      element.addAttribute(
+          QName.get(
+              reader.getAttributeLocalName(i),
+              nullToEmpty(reader.getAttributePrefix(i)),
+              nullToEmpty(reader.getAttributeNamespace(i))),
+          reader.getAttributeValue(i));
+    }
+    return element;
+  }
+
+  private static String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  @Override
+  public void close() {
+    try {
+      reader.close();
+    } catch (XMLStreamException e) {
+      // Ignore close errors
+    }
+    try {
+      inputStream.close();
+    } catch (Exception e) {
+      // Ignore close errors
+    }
+  }
+
+  /** A location step of the loop path: an element name (null for any) and its axis. */
+  static final class Step {
+    final String name;
+    final boolean descendant;
+
+    Step(String name, boolean descendant) {
+      this.name = name;
+      this.descendant = descendant;
+    }
+  }
+}
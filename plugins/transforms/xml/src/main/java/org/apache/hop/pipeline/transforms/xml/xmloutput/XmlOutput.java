@@ -26,6 +26,9 @@ import javax.xml.stream.XMLStreamException;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
@@ -33,6 +36,7 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
@@ -41,6 +45,8 @@ import org.apache.hop.pipeline.transforms.xml.xmloutput.XmlField.ContentType;
 
 /** Converts input rows to one or more XML files. */
 public class XmlOutput extends BaseTransform<XmlOutputMeta, XmlOutputData> {
+  private static final Class<?> PKG = XmlOutputMeta.class; // For Translator
+
   private static final String EOL =
       "\n"; // force EOL char because woodstox library encodes CRLF incorrectly
 
@@ -288,6 +294,22 @@ public class XmlOutput extends BaseTransform<XmlOutputMeta, XmlOutputData> {
         outputStream = data.zip;
       } else {
         outputStream = HopVfs.getOutputStream(file, false);
+
+        // Compress the file with the selected compression provider
+        //
+        String compression = meta.getCompression();
+        if (!Utils.isEmpty(compression) && !"None".equals(compression)) {
+          ICompressionProvider compressionProvider =
+              CompressionProviderFactory.getInstance().getCompressionProviderByName(compression);
+          if (compressionProvider == null || !compressionProvider.supportsOutput()) {
+            throw new HopException(
+                BaseMessages.getString(PKG, "XMLOutput.Error.CompressionProvider", compression));
+          }
+          CompressionOutputStream compressionOutputStream =
+              compressionProvider.createOutputStream(outputStream);
+          compressionOutputStream.addEntry(file.getName().getBaseName(), null);
+          outputStream = compressionOutputStream;
+        }
       }
       if (meta.getEncoding() != null && meta.getEncoding().length() > 0) {
         logBasic("Opening output stream in encoding: " + meta.getEncoding());
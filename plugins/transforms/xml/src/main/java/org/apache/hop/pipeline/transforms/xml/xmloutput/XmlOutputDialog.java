@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Props;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
@@ -83,6 +84,9 @@ public class XmlOutputDialog extends BaseTransformDialog implements ITransformDi
 
   private Button wZipped;
 
+  private Label wlCompression;
+  private CCombo wCompression;
+
   private Button wOmitNullValues;
 
   private CCombo wEncoding;
@@ -492,15 +496,34 @@ public class XmlOutputDialog extends BaseTransformDialog implements ITransformDi
           @Override
           public void widgetSelected(SelectionEvent e) {
             input.setChanged();
+            setCompression();
           }
         });
 
+    wlCompression = new Label(wContentComp, SWT.RIGHT);
+    wlCompression.setText(BaseMessages.getString(PKG, "XMLOutputDialog.Compression.Label"));
+    PropsUi.setLook(wlCompression);
+    FormData fdlCompression = new FormData();
+    fdlCompression.left = new FormAttachment(0, 0);
+    fdlCompression.top = new FormAttachment(wZipped, margin);
+    fdlCompression.right = new FormAttachment(middle, -margin);
+    wlCompression.setLayoutData(fdlCompression);
+    wCompression = new CCombo(wContentComp, SWT.BORDER | SWT.READ_ONLY);
+    PropsUi.setLook(wCompression);
+    wCompression.setItems(CompressionProviderFactory.getInstance().getCompressionProviderNames());
+    wCompression.addModifyListener(lsMod);
+    FormData fdCompression = new FormData();
+    fdCompression.left = new FormAttachment(middle, 0);
+    fdCompression.top = new FormAttachment(wZipped, margin);
+    fdCompression.right = new FormAttachment(100, 0);
+    wCompression.setLayoutData(fdCompression);
+
     Label wlEncoding = new Label(wContentComp, SWT.RIGHT);
     wlEncoding.setText(BaseMessages.getString(PKG, "XMLOutputDialog.Encoding.Label"));
     PropsUi.setLook(wlEncoding);
     FormData fdlEncoding = new FormData();
     fdlEncoding.left = new FormAttachment(0, 0);
-    fdlEncoding.top = new FormAttachment(wZipped, margin);
+    fdlEncoding.top = new FormAttachment(wCompression, margin);
     fdlEncoding.right = new FormAttachment(middle, -margin);
     wlEncoding.setLayoutData(fdlEncoding);
     wEncoding = new CCombo(wContentComp, SWT.BORDER | SWT.READ_ONLY);
@@ -509,7 +532,7 @@ public class XmlOutputDialog extends BaseTransformDialog implements ITransformDi
     wEncoding.addModifyListener(lsMod);
     FormData fdEncoding = new FormData();
     fdEncoding.left = new FormAttachment(middle, 0);
-    fdEncoding.top = new FormAttachment(wZipped, margin);
+    fdEncoding.top = new FormAttachment(wCompression, margin);
     fdEncoding.right = new FormAttachment(100, 0);
     wEncoding.setLayoutData(fdEncoding);
     wEncoding.addFocusListener(
@@ -847,6 +870,12 @@ public class XmlOutputDialog extends BaseTransformDialog implements ITransformDi
     }
   }
 
+  /** A compression provider is only used when the file is not put in a zip archive. */
+  private void setCompression() {
+    wlCompression.setEnabled(!wZipped.getSelection());
+    wCompression.setEnabled(!wZipped.getSelection());
+  }
+
   /** Copy information from the meta-data input to the dialog fields. */
   public void getData() {
     if (input.getFileName() != null) {
@@ -873,6 +902,8 @@ public class XmlOutputDialog extends BaseTransformDialog implements ITransformDi
     wSplitEvery.setText("" + input.getSplitEvery());
 
     wZipped.setSelection(input.isZipped());
+    wCompression.setText(Const.NVL(input.getCompression(), "None"));
+    setCompression();
     wOmitNullValues.setSelection(input.isOmitNullValues());
     wAddDate.setSelection(input.isDateInFilename());
     wAddTime.setSelection(input.isTimeInFilename());
@@ -980,6 +1011,7 @@ public class XmlOutputDialog extends BaseTransformDialog implements ITransformDi
     xmlOutputMeta.setTimeInFilename(wAddTime.getSelection());
     xmlOutputMeta.setAddToResultFiles(wAddToResult.getSelection());
     xmlOutputMeta.setZipped(wZipped.getSelection());
+    xmlOutputMeta.setCompression(wCompression.getText());
     xmlOutputMeta.setOmitNullValues(wOmitNullValues.getSelection());
 
     int nrFields = wFields.nrNonEmpty();
@@ -92,6 +92,10 @@ public class XmlOutputMeta extends BaseTransformMeta<XmlOutput, XmlOutputData> {
   @Injection(name = "ZIPPED")
   private boolean zipped;
 
+  /** The name of the compression provider used when the file isn't put in a zip archive */
+  @Injection(name = "COMPRESSION")
+  private String compression;
+
   /** The encoding to use for reading: null or empty string means system default encoding */
   @Injection(name = "ENCODING")
   private String encoding;
@@ -277,6 +281,20 @@ public class XmlOutputMeta extends BaseTransformMeta<XmlOutput, XmlOutputData> {
     this.zipped = zipped;
   }
 
+  /**
+   * @return Returns the name of the compression provider.
+   */
+  public String getCompression() {
+    return compression;
+  }
+
+  /**
+   * @param compression The name of the compression provider to set.
+   */
+  public void setCompression(String compression) {
+    this.compression = compression;
+  }
+
   /**
    * @return Returns the outputFields.
    */
@@ -343,6 +361,8 @@ public class XmlOutputMeta extends BaseTransformMeta<XmlOutput, XmlOutputData> {
                   XmlHandler.getTagValue(transformNode, "file", "add_to_result_filenames")));
 
       setZipped("Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "file", "zipped")));
+      setCompression(
+          Const.NVL(XmlHandler.getTagValue(transformNode, "file", "compression"), "None"));
       setSplitEvery(Const.toInt(XmlHandler.getTagValue(transformNode, "file", "splitevery"), 0));
 
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
@@ -399,6 +419,7 @@ public class XmlOutputMeta extends BaseTransformMeta<XmlOutput, XmlOutputData> {
     timeInFilename = false;
     addToResultFilenames = false;
     zipped = false;
+    compression = "None";
     splitEvery = 0;
     encoding = Const.XML_ENCODING;
     nameSpace = "";
@@ -493,6 +514,9 @@ public class XmlOutputMeta extends BaseTransformMeta<XmlOutput, XmlOutputData> {
       if (realextension != null && realextension.length() != 0) {
         retval += "." + realextension;
       }
+      if ("GZip".equals(compression) || "Parallel GZip".equals(compression)) {
+        retval += ".gz";
+      }
     }
     return retval;
   }
@@ -557,6 +581,7 @@ public class XmlOutputMeta extends BaseTransformMeta<XmlOutput, XmlOutputData> {
         .append("      ")
         .append(XmlHandler.addTagValue("add_to_result_filenames", addToResultFilenames));
     retval.append("      ").append(XmlHandler.addTagValue("zipped", zipped));
+    retval.append("      ").append(XmlHandler.addTagValue("compression", compression));
     retval.append("      ").append(XmlHandler.addTagValue("splitevery", splitEvery));
     retval.append("    </file>").append(Const.CR);
     retval.append("    <fields>").append(Const.CR);
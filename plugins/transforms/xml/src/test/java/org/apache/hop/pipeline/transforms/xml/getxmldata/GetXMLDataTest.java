@@ -17,6 +17,9 @@
 
 package org.apache.hop.pipeline.transforms.xml.getxmldata;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -451,4 +454,71 @@ public class GetXMLDataTest extends TestCase {
     assertEquals("${xml_path}", gxdm.getInputFields()[0].getXPath());
     assertEquals("data/owner", gxdm.getInputFields()[0].getResolvedXPath());
   }
+
+  /**
+   * Test case for Get XML Data transform reading a file one loop element at a time.
+   *
+   * @throws Exception Upon any exception
+   */
+  public void testGetXMLDataStreamingFile() throws Exception {
+    HopEnvironment.init();
+
+    File xmlFile = File.createTempFile("getxmldata", ".xml");
+    xmlFile.deleteOnExit();
+    Files.write(xmlFile.toPath(), getXML1().getBytes(StandardCharsets.UTF_8));
+
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("getxmldatastreaming");
+
+    PluginRegistry registry = PluginRegistry.getInstance();
+
+    String getXMLDataName = "get xml data transform";
+    GetXmlDataMeta gxdm = new GetXmlDataMeta();
+    gxdm.setDefault();
+
+    String getXMLDataPid = registry.getPluginId(TransformPluginType.class, gxdm);
+    TransformMeta getXMLDataTransform = new TransformMeta(getXMLDataPid, getXMLDataName, gxdm);
+    pipelineMeta.addTransform(getXMLDataTransform);
+
+    String[] xPaths = {"ObjectID", "SAPIDENT", "Quantity", "Merkmalname", "Merkmalswert"};
+    GetXmlDataField[] fields = new GetXmlDataField[xPaths.length];
+    for (int idx = 0; idx < fields.length; idx++) {
+      fields[idx] = new GetXmlDataField(xPaths[idx].toLowerCase());
+      fields[idx].setXPath(xPaths[idx]);
+      fields[idx].setElementType(GetXmlDataField.ELEMENT_TYPE_NODE);
+      fields[idx].setType(IValueMeta.TYPE_STRING);
+      fields[idx].setTrimType(GetXmlDataField.TYPE_TRIM_NONE);
+    }
+
+    gxdm.allocateFiles(1);
+    gxdm.setFileName(new String[] {xmlFile.getAbsolutePath()});
+    gxdm.setEncoding("UTF-8");
+    gxdm.setLoopXPath("/Level1/Level2/Props");
+    gxdm.setStreaming(true);
+    gxdm.setInputFields(fields);
+
+    String dummyTransformName1 = "dummy transform 1";
+    DummyMeta dm1 = new DummyMeta();
+    String dummyPid1 = registry.getPluginId(TransformPluginType.class, dm1);
+    TransformMeta dummyTransform1 = new TransformMeta(dummyPid1, dummyTransformName1, dm1);
+    pipelineMeta.addTransform(dummyTransform1);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(getXMLDataTransform, dummyTransform1));
+
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.prepareExecution();
+
+    RowTransformCollector dummyRc1 = new RowTransformCollector();
+    pipeline.getTransform(dummyTransformName1, 0).addRowListener(dummyRc1);
+    pipeline.startThreads();
+    pipeline.waitUntilFinished();
+    assertEquals(0, pipeline.getErrors());
+
+    GetXmlData getXmlData = (GetXmlData) pipeline.getTransform(getXMLDataName, 0);
+    assertTrue(((GetXmlDataData) getXmlData.getData()).streaming);
+
+    List<RowMetaAndData> resultRows = dummyRc1.getRowsWritten();
+    assertEquals(2, resultRows.size());
+    assertEquals("AAAAA", resultRows.get(0).getString("objectid", null));
+    assertEquals(" 900", resultRows.get(1).getString("merkmalswert", null));
+  }
 }
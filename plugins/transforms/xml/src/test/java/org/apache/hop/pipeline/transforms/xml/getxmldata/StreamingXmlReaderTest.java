@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.junit.Test;
+
+public class StreamingXmlReaderTest {
+
+  private static final String XML =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+          + "<!DOCTYPE Level1 SYSTEM \"does-not-exist.dtd\">"
+          + "<Level1>"
+          + " <Level2 id=\"a\">"
+          + "  <Props code=\"1\"><ObjectID>AAAAA</ObjectID><Quantity>1</Quantity></Props>"
+          + "  <Props code=\"2\"><ObjectID>BBBBB</ObjectID><!-- note --><Quantity>3</Quantity></Props>"
+          + " </Level2>"
+          + " <Other><Props code=\"3\"><ObjectID>CCCCC</ObjectID></Props></Other>"
+          + "</Level1>";
+
+  private static List<Element> readAll(String loopPath, boolean ignoreComments) throws Exception {
+    List<Element> elements = new ArrayList<>();
+    try (StreamingXmlReader reader =
+        new StreamingXmlReader(
+            new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)),
+            "UTF-8",
+            loopPath,
+            ignoreComments)) {
+      Element element;
+      while ((element = reader.next()) != null) {
+        elements.add(element);
+      }
+      assertNull(reader.next());
+    }
+    return elements;
+  }
+
+  @Test
+  public void testChildPath() throws Exception {
+    List<Element> elements = readAll("/Level1/Level2/Props", false);
+    assertEquals(2, elements.size());
+    assertEquals("AAAAA", DocumentHelper.createXPath("ObjectID").valueOf(elements.get(0)));
+    assertEquals("3", DocumentHelper.createXPath("Quantity").valueOf(elements.get(1)));
+    assertEquals("2", DocumentHelper.createXPath("@code").valueOf(elements.get(1)));
+    assertEquals(1, elements.get(1).selectNodes("comment()").size());
+  }
+
+  @Test
+  public void testDescendantAndWildcardPaths() throws Exception {
+    assertEquals(3, readAll("//Props", false).size());
+    assertEquals(3, readAll("/Level1/*/Props", false).size());
+    assertEquals(1, readAll("/Level1/Other//ObjectID", false).size());
+    assertEquals(2, readAll("/Level1/*", false).size());
+    assertEquals(0, readAll("/Props", false).size());
+  }
+
+  @Test
+  public void testNestedMatchesAreNotReported() throws Exception {
+    List<Element> elements = readAll("//*", false);
+    assertEquals(1, elements.size());
+    assertEquals("Level1", elements.get(0).getName());
+    assertEquals(3, elements.get(0).selectNodes(".//Props").size());
+  }
+
+  @Test
+  public void testIgnoreComments() throws Exception {
+    List<Element> elements = readAll("/Level1/Level2/Props", true);
+    assertEquals(0, elements.get(1).selectNodes("comment()").size());
+  }
+
+  @Test
+  public void testStreamablePaths() {
+    assertTrue(StreamingXmlReader.isStreamableLoopPath("/a/b/c"));
+    assertTrue(StreamingXmlReader.isStreamableLoopPath("//c"));
+    assertTrue(StreamingXmlReader.isStreamableLoopPath("/a/*/c"));
+    assertFalse(StreamingXmlReader.isStreamableLoopPath("a/b"));
+    assertFalse(StreamingXmlReader.isStreamableLoopPath("/a/b[1]"));
+    assertFalse(StreamingXmlReader.isStreamableLoopPath("/a/ns:b"));
+    assertFalse(StreamingXmlReader.isStreamableLoopPath("/a/@b"));
+    assertFalse(StreamingXmlReader.isStreamableLoopPath("/a/b/"));
+
+    assertTrue(StreamingXmlReader.isStreamableFieldPath("ObjectID"));
+    assertTrue(StreamingXmlReader.isStreamableFieldPath("Props/@code"));
+    assertTrue(StreamingXmlReader.isStreamableFieldPath("."));
+    assertFalse(StreamingXmlReader.isStreamableFieldPath("../@id"));
+    assertFalse(StreamingXmlReader.isStreamableFieldPath("/Level1/@id"));
+    assertFalse(StreamingXmlReader.isStreamableFieldPath("ancestor::Level2/@id"));
+  }
+}
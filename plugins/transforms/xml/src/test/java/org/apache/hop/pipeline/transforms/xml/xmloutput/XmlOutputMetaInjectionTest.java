@@ -44,6 +44,7 @@ public class XmlOutputMetaInjectionTest extends BaseMetadataInjectionTest<XmlOut
     check("INC_DATE_IN_FILENAME", () -> meta.isDateInFilename());
     check("INC_TIME_IN_FILENAME", () -> meta.isTimeInFilename());
     check("ZIPPED", () -> meta.isZipped());
+    check("COMPRESSION", () -> meta.getCompression());
     check("ENCODING", () -> meta.getEncoding());
     check("NAMESPACE", () -> meta.getNameSpace());
     check("MAIN_ELEMENT", () -> meta.getMainElement());
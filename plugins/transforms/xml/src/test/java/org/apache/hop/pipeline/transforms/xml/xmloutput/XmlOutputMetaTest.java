@@ -130,6 +130,8 @@ public class XmlOutputMetaTest {
             + Const.CR
             + "      <zipped>N</zipped>"
             + Const.CR
+            + "      <compression>None</compression>"
+            + Const.CR
             + "      <splitevery>0</splitevery>"
             + Const.CR
             + "    </file>"
@@ -267,6 +267,8 @@ public class HopGuiPipelineGraph extends HopGuiAbstractGraph
       "pipeline-graph-transform-10600-rows-distribute";
   public static final String ACTION_ID_PIPELINE_GRAPH_TRANSFORM_SPECIFY_COPIES =
       "pipeline-graph-transform-10100-copies";
+  public static final String ACTION_ID_PIPELINE_GRAPH_TRANSFORM_PRESERVE_ROW_ORDER =
+      "pipeline-graph-transform-10110-preserve-row-order";
   public static final String ACTION_ID_PIPELINE_GRAPH_TRANSFORM_ERROR_HANDLING =
       "pipeline-graph-transform-10800-error-handling";
   public static final String ACTION_ID_PIPELINE_GRAPH_TRANSFORM_VIEW_EXECUTION_INFO =
@@ -2365,6 +2367,21 @@ public class HopGuiPipelineGraph extends HopGuiAbstractGraph
     }
   }
 
+  @GuiContextAction(
+      id = ACTION_ID_PIPELINE_GRAPH_TRANSFORM_PRESERVE_ROW_ORDER,
+      parentId = HopGuiPipelineTransformContext.CONTEXT_ID,
+      type = GuiActionType.Modify,
+      name = "i18n::HopGuiPipelineGraph.TransformAction.PreserveRowOrder.Name",
+      tooltip = "i18n::HopGuiPipelineGraph.TransformAction.PreserveRowOrder.Tooltip",
+      image = "ui/images/parallel.svg",
+      category = "Data routing",
+      categoryOrder = "2")
+  public void preserveRowOrder(HopGuiPipelineTransformContext context) {
+    TransformMeta transformMeta = context.getTransformMeta();
+    transformMeta.setPreservingRowOrder(!transformMeta.isPreservingRowOrder());
+    redraw();
+  }
+
   @GuiContextAction(
       id = "pipeline-graph-transform-10900-delete",
       parentId = HopGuiPipelineTransformContext.CONTEXT_ID,
@@ -2538,6 +2555,28 @@ public class HopGuiPipelineGraph extends HopGuiAbstractGraph
     updateErrorMetaForHop(hopMeta);
   }
 
+  @GuiContextAction(
+      id = "pipeline-graph-hop-10030-hop-spill",
+      parentId = HopGuiPipelineHopContext.CONTEXT_ID,
+      type = GuiActionType.Modify,
+      name = "i18n::HopGuiPipelineGraph.HopAction.SpillHop.Name",
+      tooltip = "i18n::HopGuiPipelineGraph.HopAction.SpillHop.Tooltip",
+      image = "ui/images/save.svg",
+      category = "Basic",
+      categoryOrder = "1")
+  public void spillHop(HopGuiPipelineHopContext context) {
+    PipelineHopMeta hopMeta = context.getHopMeta();
+    PipelineHopMeta before = hopMeta.clone();
+    hopMeta.setSpilling(!hopMeta.isSpilling());
+    PipelineHopMeta after = hopMeta.clone();
+    hopGui.undoDelegate.addUndoChange(
+        pipelineMeta,
+        new PipelineHopMeta[] {before},
+        new PipelineHopMeta[] {after},
+        new int[] {pipelineMeta.indexOfPipelineHop(hopMeta)});
+    updateGui();
+  }
+
   @GuiContextAction(
       id = "pipeline-graph-hop-10020-hop-delete",
       parentId = HopGuiPipelineHopContext.CONTEXT_ID,